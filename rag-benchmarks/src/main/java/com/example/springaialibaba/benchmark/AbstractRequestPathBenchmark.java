@@ -0,0 +1,32 @@
+package com.example.springaialibaba.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * rag 模块请求路径上各进程内步骤的吞吐量基准，统一为每毫秒操作数。
+ * 分配速率需配合 GC profiler 查看，{@link RequestPathBenchmarks} 默认开启：
+ *
+ * <pre>
+ * java -cp rag-benchmarks/target/benchmarks.jar com.example.springaialibaba.benchmark.RequestPathBenchmarks
+ * java -jar rag-benchmarks/target/benchmarks.jar RequestPath -prof gc
+ * </pre>
+ *
+ * <p>关注 {@code gc.alloc.rate.norm}（每次操作分配的字节数），它不受机器负载影响，适合在 CI 中比较。</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractRequestPathBenchmark {
+}
@@ -0,0 +1,95 @@
+package com.example.springaialibaba.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.example.springaialibaba.core.math.VectorMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link VectorMath} 各内核的基准。SIMD 与标量实现由子类通过不同的 JVM 启动参数区分，
+ * 同一次运行即可对比加速比：
+ *
+ * <pre>
+ * java -jar rag-benchmarks/target/benchmarks.jar VectorMath
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class AbstractVectorMathBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    @Param({"1536", "4096"})
+    private int dimensions;
+
+    private float[] left;
+
+    private float[] right;
+
+    private float[] matrix;
+
+    private float[] scratch;
+
+    @Setup
+    public void setUp() {
+        if (VectorMath.isSimdEnabled() != expectSimd()) {
+            throw new IllegalStateException("VectorMath 实现与预期不符，simd=" + VectorMath.isSimdEnabled());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        left = randomVector(random, dimensions);
+        right = randomVector(random, dimensions);
+        scratch = left.clone();
+        // 矩阵总大小固定为 10000 × 1536 个 float（约 60MB），4096 维时行数相应减少
+        matrix = randomVector(random, ROWS * 1536);
+    }
+
+    protected abstract boolean expectSimd();
+
+    @Benchmark
+    public float dot() {
+        return VectorMath.dot(left, right);
+    }
+
+    @Benchmark
+    public float cosine() {
+        return VectorMath.cosine(left, right);
+    }
+
+    @Benchmark
+    public float l2Squared() {
+        return VectorMath.l2Squared(left, right);
+    }
+
+    @Benchmark
+    public float normalizeInPlace() {
+        System.arraycopy(left, 0, scratch, 0, dimensions);
+        return VectorMath.normalizeInPlace(scratch);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public VectorMath.TopK topK() {
+        return VectorMath.topK(left, matrix, ROWS * 1536 / dimensions, 10);
+    }
+
+    private static float[] randomVector(SplittableRandom random, int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springaialibaba.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import com.example.springaialibaba.core.rag.modules.HybridDocumentRetriever;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+
+/**
+ * 请求路径基准共用的测试数据：带真实元数据结构的中文分块与查询。
+ */
+final class BenchmarkFixtures {
+
+    static final String PERSONA = "客服人员";
+
+    static final String CHANNEL = "售后服务";
+
+    static final String RAW_QUESTION = "  我的 EV 充电桩@@在家里安装后 一直显示【离线】，APP 上也搜不到设备？？怎么办!!  ";
+
+    private static final String[] SENTENCES = {
+            "家用充电桩安装前需确认电表容量不低于 32A，并由物业出具同意安装证明。",
+            "充电桩指示灯红色常亮表示漏电保护已触发，请先断开总闸再复位。",
+            "设备离线时请检查 Wi-Fi 是否为 2.4GHz 频段，5GHz 网络无法完成配网。",
+            "APP 中长按设备卡片可进入高级设置，支持预约充电与功率限制。",
+            "若充电过程中频繁跳闸，可能是线缆截面积不足，建议使用 6 平方毫米铜芯线。",
+            "保修期内的非人为故障可免费上门维修，需提供购车发票与安装验收单。"
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    static Query query(String text) {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("persona", PERSONA);
+        context.put("channel", CHANNEL);
+        context.put("originalQuestion", text);
+        return Query.builder().text(text).context(context).build();
+    }
+
+    /**
+     * 生成 {@code count} 篇文档，id 取自 {@code [0, idSpace)}，以模拟多路召回之间的重叠。
+     */
+    static List<Document> documents(int count, int idSpace, String source, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = random.nextInt(Math.max(idSpace, 1));
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("title", "充电桩使用手册-" + (id % 37));
+            metadata.put("section", "第" + (id % 12 + 1) + "章");
+            metadata.put("document_id", "doc-" + (id % 37));
+            metadata.put("chunk_id", "chunk-" + id);
+            metadata.put("score", 1.0d - i / (double) (count + 1));
+            metadata.put(HybridDocumentRetriever.SOURCE_METADATA_KEY, source);
+            metadata.put(HybridDocumentRetriever.RANK_METADATA_KEY, i + 1);
+            documents.add(Document.builder()
+                    .id("chunk-" + id)
+                    .text(text(random))
+                    .metadata(metadata)
+                    .score(1.0d - i / (double) (count + 1))
+                    .build());
+        }
+        return documents;
+    }
+
+    private static String text(SplittableRandom random) {
+        StringBuilder builder = new StringBuilder();
+        int sentences = 3 + random.nextInt(4);
+        for (int i = 0; i < sentences; i++) {
+            builder.append(SENTENCES[random.nextInt(SENTENCES.length)]);
+        }
+        return builder.toString();
+    }
+}
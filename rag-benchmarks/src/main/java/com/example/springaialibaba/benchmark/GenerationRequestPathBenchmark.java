@@ -0,0 +1,68 @@
+package com.example.springaialibaba.benchmark;
+
+import java.util.List;
+
+import com.example.springaialibaba.config.properties.PromptProperties;
+import com.example.springaialibaba.core.formatter.DefaultResponseFormatter;
+import com.example.springaialibaba.core.prompt.DynamicPromptBuilder;
+import com.example.springaialibaba.core.rag.modules.CustomQueryAugmenter;
+import com.example.springaialibaba.model.dto.RagQueryResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.core.io.DefaultResourceLoader;
+
+/**
+ * 生成阶段：Prompt 增强与组装，以及接口响应格式化。
+ */
+public class GenerationRequestPathBenchmark extends AbstractRequestPathBenchmark {
+
+    private static final String ANSWER = "请先确认路由器为 2.4GHz 频段，再在 APP 中长按设备卡片重新配网。";
+
+    /**
+     * 进入 Prompt 的上下文文档数，对应 {@code app.retrieval.final-top-n}。
+     */
+    @Param({"5", "20"})
+    private int contextSize;
+
+    private CustomQueryAugmenter augmenter;
+
+    private DynamicPromptBuilder promptBuilder;
+
+    private DefaultResponseFormatter formatter;
+
+    private Query query;
+
+    private List<Document> context;
+
+    @Setup
+    public void setUp() {
+        augmenter = new CustomQueryAugmenter();
+        PromptProperties properties = new PromptProperties();
+        properties.setTemplate("classpath:prompts/dynamic_prompt_template.txt");
+        properties.getDefaults().setPersona(BenchmarkFixtures.PERSONA);
+        properties.getDefaults().setChannel(BenchmarkFixtures.CHANNEL);
+        promptBuilder = new DynamicPromptBuilder(properties, new DefaultResourceLoader());
+        formatter = new DefaultResponseFormatter();
+        query = BenchmarkFixtures.query("充电桩离线怎么办");
+        context = BenchmarkFixtures.documents(contextSize, contextSize, "dense", 7);
+    }
+
+    @Benchmark
+    public Query augment() {
+        return augmenter.augment(query, context);
+    }
+
+    @Benchmark
+    public Prompt buildPrompt() {
+        return promptBuilder.build(query.text(), context, BenchmarkFixtures.PERSONA, BenchmarkFixtures.CHANNEL);
+    }
+
+    @Benchmark
+    public RagQueryResponse format() {
+        return formatter.format(ANSWER, context, 0.87d);
+    }
+}
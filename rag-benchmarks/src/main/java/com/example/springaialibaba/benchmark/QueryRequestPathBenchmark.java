@@ -0,0 +1,36 @@
+package com.example.springaialibaba.benchmark;
+
+import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
+import com.example.springaialibaba.core.rag.modules.CustomQueryTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.ai.rag.Query;
+
+/**
+ * 预检索阶段：查询清洗与 {@link CustomQueryTransformer}。
+ */
+public class QueryRequestPathBenchmark extends AbstractRequestPathBenchmark {
+
+    private QueryPreprocessor queryPreprocessor;
+
+    private CustomQueryTransformer transformer;
+
+    private Query query;
+
+    @Setup
+    public void setUp() {
+        queryPreprocessor = new QueryPreprocessor();
+        transformer = new CustomQueryTransformer(queryPreprocessor);
+        query = BenchmarkFixtures.query(BenchmarkFixtures.RAW_QUESTION);
+    }
+
+    @Benchmark
+    public String preprocess() {
+        return queryPreprocessor.process(BenchmarkFixtures.RAW_QUESTION);
+    }
+
+    @Benchmark
+    public Query transform() {
+        return transformer.transform(query);
+    }
+}
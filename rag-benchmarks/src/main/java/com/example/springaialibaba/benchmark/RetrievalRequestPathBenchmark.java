@@ -0,0 +1,90 @@
+package com.example.springaialibaba.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.springaialibaba.config.properties.SiliconFlowRerankProperties;
+import com.example.springaialibaba.core.client.RerankClient;
+import com.example.springaialibaba.core.rag.modules.CustomDocumentJoiner;
+import com.example.springaialibaba.core.rag.modules.CustomDocumentPostProcessor;
+import com.example.springaialibaba.model.entity.RerankedDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 检索后阶段：多路召回的 RRF 融合与 Rerank 后处理（Rerank 接口以固定结果替身代替，只测进程内开销）。
+ */
+public class RetrievalRequestPathBenchmark extends AbstractRequestPathBenchmark {
+
+    private static final int SUB_QUERIES = 2;
+
+    /**
+     * 每个子查询每一路（稠密 / 稀疏）召回的候选数。
+     */
+    @Param({"20", "200", "2000"})
+    private int candidates;
+
+    private CustomDocumentJoiner joiner;
+
+    private CustomDocumentPostProcessor postProcessor;
+
+    private Map<Query, List<List<Document>>> documentsForQuery;
+
+    private List<Document> joined;
+
+    private Query query;
+
+    @Setup
+    public void setUp() {
+        joiner = new CustomDocumentJoiner();
+        documentsForQuery = new LinkedHashMap<>();
+        for (int i = 0; i < SUB_QUERIES; i++) {
+            List<Document> batch = new ArrayList<>(BenchmarkFixtures.documents(candidates, candidates * 2, "dense", i));
+            batch.addAll(BenchmarkFixtures.documents(candidates, candidates * 2, "sparse", 100 + i));
+            documentsForQuery.put(BenchmarkFixtures.query("充电桩离线 " + i), List.of(batch));
+        }
+        joined = joiner.join(documentsForQuery);
+        query = BenchmarkFixtures.query("充电桩离线");
+
+        List<RerankedDocument> reranked = new ArrayList<>(joined.size());
+        for (int i = joined.size() - 1; i >= 0; i--) {
+            reranked.add(new RerankedDocument(i, joined.get(i).getText(), 1.0d - i / (double) joined.size()));
+        }
+        postProcessor = new CustomDocumentPostProcessor(new FixedRerankClient(reranked), 5);
+    }
+
+    @Benchmark
+    public List<Document> join() {
+        return joiner.join(documentsForQuery);
+    }
+
+    @Benchmark
+    public List<Document> postProcess() {
+        return postProcessor.process(query, joined);
+    }
+
+    /**
+     * 立即返回预先计算好的排序结果，不发起 HTTP 调用。
+     */
+    private static final class FixedRerankClient extends RerankClient {
+
+        private final CompletableFuture<List<RerankedDocument>> result;
+
+        private FixedRerankClient(List<RerankedDocument> reranked) {
+            super(new RestTemplate(), new SiliconFlowRerankProperties());
+            this.result = CompletableFuture.completedFuture(List.copyOf(reranked));
+        }
+
+        @Override
+        public CompletableFuture<List<RerankedDocument>> rerankAsync(String query, List<String> documents) {
+            return result;
+        }
+    }
+}
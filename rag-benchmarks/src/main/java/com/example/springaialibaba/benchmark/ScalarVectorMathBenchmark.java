@@ -0,0 +1,15 @@
+package com.example.springaialibaba.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * 强制标量实现的 {@link com.example.springaialibaba.core.math.VectorMath} 基准，作为 SIMD 加速比的基线。
+ */
+@Fork(value = 1, jvmArgsAppend = "-Drag.vector-math.simd=false")
+public class ScalarVectorMathBenchmark extends AbstractVectorMathBenchmark {
+
+    @Override
+    protected boolean expectSimd() {
+        return false;
+    }
+}
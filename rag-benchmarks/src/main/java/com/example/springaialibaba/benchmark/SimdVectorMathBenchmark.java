@@ -0,0 +1,15 @@
+package com.example.springaialibaba.benchmark;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * 开启 {@code jdk.incubator.vector} 时的 {@link com.example.springaialibaba.core.math.VectorMath} 基准。
+ */
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SimdVectorMathBenchmark extends AbstractVectorMathBenchmark {
+
+    @Override
+    protected boolean expectSimd() {
+        return true;
+    }
+}
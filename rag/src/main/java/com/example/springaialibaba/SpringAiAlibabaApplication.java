@@ -5,12 +5,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.example.springaialibaba.config.properties.IngestionProperties;
 import com.example.springaialibaba.config.properties.SiliconFlowRerankProperties;
 import com.example.springaialibaba.config.properties.PromptProperties;
+import com.example.springaialibaba.config.properties.ScopeProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties({SiliconFlowRerankProperties.class, PromptProperties.class})
+@EnableConfigurationProperties({SiliconFlowRerankProperties.class, PromptProperties.class, IngestionProperties.class,
+        ScopeProperties.class})
+@EnableScheduling
 public class SpringAiAlibabaApplication {
 
     private static final Logger log = LoggerFactory.getLogger(SpringAiAlibabaApplication.class);
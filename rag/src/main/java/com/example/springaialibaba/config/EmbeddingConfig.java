@@ -0,0 +1,72 @@
+package com.example.springaialibaba.config;
+
+import com.example.springaialibaba.core.model.CachingEmbeddingModel;
+import com.example.springaialibaba.core.model.DeterministicEmbeddingModel;
+import com.example.springaialibaba.core.model.MicroBatchingEmbeddingModel;
+import java.time.Duration;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.openai.OpenAiEmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 嵌入模型装配：在自动配置的远程嵌入模型前依次增加微批合并与查询向量缓存
+ * （缓存 → 微批 → 远程），VectorStore 等注入 {@code EmbeddingModel} 的组件默认使用带缓存的实例，
+ * 缓存未命中的并发请求在发往 SiliconFlow 前合并。
+ *
+ * <p>激活 {@value #LOCAL_EMBEDDING_PROFILE} profile 时改为包装本地的 {@link DeterministicEmbeddingModel}，
+ * 用于在不调用 SiliconFlow 的情况下压测检索与入库链路。</p>
+ */
+@Configuration
+public class EmbeddingConfig {
+
+    public static final String LOCAL_EMBEDDING_PROFILE = "local-embedding";
+
+    @Bean
+    @Profile("!" + LOCAL_EMBEDDING_PROFILE)
+    @ConditionalOnProperty(name = "app.embedding.batching.enabled", havingValue = "true", matchIfMissing = true)
+    public MicroBatchingEmbeddingModel microBatchingEmbeddingModel(
+            OpenAiEmbeddingModel openAiEmbeddingModel,
+            @Value("${app.embedding.batching.max-batch-size:32}") int maxBatchSize,
+            @Value("${app.embedding.batching.max-linger:5ms}") Duration maxLinger,
+            @Value("${app.embedding.batching.queue-capacity:1024}") int queueCapacity,
+            @Value("${app.embedding.batching.max-concurrent-batches:4}") int maxConcurrentBatches,
+            @Value("${app.embedding.batching.call-timeout:30s}") Duration callTimeout) {
+        return new MicroBatchingEmbeddingModel(openAiEmbeddingModel, maxBatchSize, maxLinger, queueCapacity,
+                maxConcurrentBatches, callTimeout);
+    }
+
+    @Bean
+    @Primary
+    @Profile("!" + LOCAL_EMBEDDING_PROFILE)
+    public CachingEmbeddingModel cachingEmbeddingModel(
+            OpenAiEmbeddingModel openAiEmbeddingModel,
+            ObjectProvider<MicroBatchingEmbeddingModel> microBatchingEmbeddingModel,
+            @Value("${spring.ai.openai.embedding.options.model:}") String modelName,
+            @Value("${app.embedding.cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.embedding.cache.ttl:30m}") Duration ttl) {
+        MicroBatchingEmbeddingModel batching = microBatchingEmbeddingModel.getIfAvailable();
+        EmbeddingModel delegate = batching != null ? batching : openAiEmbeddingModel;
+        return new CachingEmbeddingModel(delegate, modelName, maximumSize, ttl);
+    }
+
+    @Bean
+    @Primary
+    @Profile(LOCAL_EMBEDDING_PROFILE)
+    public CachingEmbeddingModel localCachingEmbeddingModel(
+            @Value("${app.embedding.local.dimensions:${spring.ai.vectorstore.pgvector.dimensions:1536}}") int dimensions,
+            @Value("${app.embedding.local.min-gram:1}") int minGram,
+            @Value("${app.embedding.local.max-gram:3}") int maxGram,
+            @Value("${app.embedding.local.parallel-threshold:64}") int parallelThreshold,
+            @Value("${app.embedding.cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.embedding.cache.ttl:30m}") Duration ttl) {
+        DeterministicEmbeddingModel localModel =
+                new DeterministicEmbeddingModel(dimensions, minGram, maxGram, parallelThreshold);
+        return new CachingEmbeddingModel(localModel, DeterministicEmbeddingModel.MODEL_NAME, maximumSize, ttl);
+    }
+}
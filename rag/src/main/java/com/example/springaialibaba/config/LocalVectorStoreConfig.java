@@ -0,0 +1,38 @@
+package com.example.springaialibaba.config;
+
+import com.example.springaialibaba.core.vectorstore.HnswVectorStore;
+import com.example.springaialibaba.core.vectorstore.HnswVectorStoreSynchronizer;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 进程内 HNSW 向量库装配：开启 {@code app.vectorstore.local.enabled} 后作为 {@code @Primary} 的
+ * {@link org.springframework.ai.vectorstore.VectorStore}，检索不再经过网络；PgVectorStore 仍是数据源，
+ * 由 {@link HnswVectorStoreSynchronizer} 定期从 {@code rag_chunks} 同步。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.vectorstore.local", name = "enabled", havingValue = "true")
+public class LocalVectorStoreConfig {
+
+    @Bean
+    @Primary
+    public HnswVectorStore hnswVectorStore(EmbeddingModel embeddingModel,
+            @Value("${spring.ai.vectorstore.pgvector.dimensions:1536}") int dimensions,
+            @Value("${app.vectorstore.local.max-connections:16}") int maxConnections,
+            @Value("${app.vectorstore.local.ef-construction:100}") int efConstruction,
+            @Value("${app.vectorstore.local.ef-search:128}") int efSearch) {
+        return new HnswVectorStore(embeddingModel, dimensions, maxConnections, efConstruction, efSearch);
+    }
+
+    @Bean
+    public HnswVectorStoreSynchronizer hnswVectorStoreSynchronizer(HnswVectorStore hnswVectorStore,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.vectorstore.local.table-name:rag_chunks}") String tableName) {
+        return new HnswVectorStoreSynchronizer(hnswVectorStore, jdbcTemplate, tableName);
+    }
+}
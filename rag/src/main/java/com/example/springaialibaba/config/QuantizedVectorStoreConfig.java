@@ -0,0 +1,38 @@
+package com.example.springaialibaba.config;
+
+import com.example.springaialibaba.core.vectorstore.QuantizedPgVectorStore;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 量化两阶段检索装配：开启 {@code app.vectorstore.quantization.enabled} 后，以 {@code @Primary} 的
+ * {@link QuantizedPgVectorStore} 包装自动配置的 {@link PgVectorStore}，检索先走量化索引召回再全精度重排。
+ * 不要与 {@code app.vectorstore.local.enabled} 同时开启。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.vectorstore.quantization", name = "enabled", havingValue = "true")
+public class QuantizedVectorStoreConfig {
+
+    @Bean
+    @Primary
+    public QuantizedPgVectorStore quantizedPgVectorStore(PgVectorStore pgVectorStore, EmbeddingModel embeddingModel,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.vectorstore.quantization.table-name:rag_chunks}") String tableName,
+            @Value("${spring.ai.vectorstore.pgvector.dimensions:1536}") int dimensions,
+            @Value("${app.vectorstore.quantization.mode:BINARY}") QuantizedPgVectorStore.Mode mode,
+            @Value("${app.vectorstore.quantization.oversample:8}") int oversample,
+            @Value("${app.vectorstore.quantization.create-index:false}") boolean createIndex) {
+        QuantizedPgVectorStore store = new QuantizedPgVectorStore(pgVectorStore, embeddingModel, jdbcTemplate,
+                tableName, dimensions, mode, oversample);
+        if (createIndex) {
+            store.createIndexIfNecessary();
+        }
+        return store;
+    }
+}
@@ -1,14 +1,31 @@
 package com.example.springaialibaba.config;
 
+import com.example.springaialibaba.core.advisor.LlmCallMetricsAdvisor;
+import com.example.springaialibaba.core.advisor.RetrievedDocumentsAdvisor;
 import com.example.springaialibaba.core.client.RerankClient;
 import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
+import com.example.springaialibaba.core.rag.context.ContextPacker;
+import com.example.springaialibaba.core.rag.context.TokenEstimator;
+import com.example.springaialibaba.core.rag.metrics.RagPipelineMetrics;
+import com.example.springaialibaba.core.rag.modules.Bm25DocumentRetriever;
 import com.example.springaialibaba.core.rag.modules.CustomDocumentJoiner;
 import com.example.springaialibaba.core.rag.modules.CustomDocumentPostProcessor;
 import com.example.springaialibaba.core.rag.modules.CustomDocumentRetriever;
 import com.example.springaialibaba.core.rag.modules.CustomQueryAugmenter;
 import com.example.springaialibaba.core.rag.modules.CustomQueryExpander;
 import com.example.springaialibaba.core.rag.modules.CustomQueryTransformer;
+import com.example.springaialibaba.core.rag.modules.DeadlineDocumentRetriever;
+import com.example.springaialibaba.core.rag.modules.HybridDocumentRetriever;
+import com.example.springaialibaba.core.rag.modules.NearDuplicateDocumentPostProcessor;
+import com.example.springaialibaba.core.rag.sparse.Bm25IndexService;
+import com.example.springaialibaba.core.vectorstore.PgVectorQuerySearch;
+import com.example.springaialibaba.core.vectorstore.QueryVectorSearch;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.openai.OpenAiChatModel;
 import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
 import org.springframework.ai.rag.generation.augmentation.QueryAugmenter;
@@ -18,9 +35,15 @@ import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransfo
 import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
 import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.pgvector.PgVectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @Configuration
 public class RAGAdvisorConfig {
@@ -30,34 +53,88 @@ public class RAGAdvisorConfig {
         return new CustomQueryTransformer(queryPreprocessor);
     }
 
+    /**
+     * 扩展出的子查询在这里一次性批量嵌入，检索阶段按向量查询；嵌入在检索线程池上执行，受同一截止时间约束。
+     */
     @Bean
-    public QueryExpander customQueryExpander() {
-        return new CustomQueryExpander();
+    public QueryExpander customQueryExpander(EmbeddingModel embeddingModel,
+            @Qualifier("retrievalWorkerExecutor") ThreadPoolTaskExecutor retrievalWorkerExecutor,
+            @Value("${app.retrieval.deadline-millis:1500}") long deadlineMillis) {
+        return new CustomQueryExpander(embeddingModel, retrievalWorkerExecutor, deadlineMillis);
     }
 
+    /**
+     * Advisor 扇出子查询使用的线程池：线程只负责等待检索结果，满载时退化为在请求线程上串行执行。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor retrievalFanOutExecutor(
+            @Value("${app.retrieval.fanout-executor.core-size:8}") int coreSize,
+            @Value("${app.retrieval.fanout-executor.max-size:32}") int maxSize,
+            @Value("${app.retrieval.fanout-executor.queue-capacity:200}") int queueCapacity) {
+        return buildExecutor("rag-fanout-", coreSize, maxSize, queueCapacity,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 执行向量检索（嵌入 + pgvector 查询）的有界线程池：满载时直接拒绝，对应子查询按超时处理。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor retrievalWorkerExecutor(
+            @Value("${app.retrieval.worker-executor.core-size:8}") int coreSize,
+            @Value("${app.retrieval.worker-executor.max-size:32}") int maxSize,
+            @Value("${app.retrieval.worker-executor.queue-capacity:200}") int queueCapacity) {
+        return buildExecutor("rag-retrieval-", coreSize, maxSize, queueCapacity,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 稠密检索（带截止时间）与 BM25 稀疏检索组合的混合检索器。
+     */
     @Bean
     public DocumentRetriever customDocumentRetriever(
             VectorStore vectorStore,
+            JdbcTemplate jdbcTemplate,
+            Bm25IndexService bm25IndexService,
+            @Qualifier("retrievalWorkerExecutor") ThreadPoolTaskExecutor retrievalWorkerExecutor,
             @Value("${app.retrieval.initial-top-k:20}") int topK,
-            @Value("${app.retrieval.similarity-threshold:0.0}") double similarityThreshold) {
-        return new CustomDocumentRetriever(vectorStore, topK, similarityThreshold);
+            @Value("${app.retrieval.similarity-threshold:0.0}") double similarityThreshold,
+            @Value("${app.retrieval.deadline-millis:1500}") long deadlineMillis,
+            @Value("${app.retrieval.sparse.top-k:20}") int sparseTopK,
+            @Value("${spring.ai.vectorstore.pgvector.schema-name:public}") String schemaName,
+            @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}") String tableName,
+            @Value("${spring.ai.vectorstore.pgvector.dimensions:1536}") int dimensions) {
+        QueryVectorSearch vectorSearch = resolveVectorSearch(vectorStore, jdbcTemplate,
+                schemaName + "." + tableName, dimensions);
+        DocumentRetriever dense = new DeadlineDocumentRetriever(
+                new CustomDocumentRetriever(vectorStore, vectorSearch, topK, similarityThreshold),
+                retrievalWorkerExecutor, deadlineMillis);
+        return new HybridDocumentRetriever(dense, new Bm25DocumentRetriever(bm25IndexService, sparseTopK));
     }
 
     @Bean
-    public DocumentJoiner customDocumentJoiner() {
-        return new CustomDocumentJoiner();
+    public DocumentJoiner customDocumentJoiner(@Value("${app.retrieval.fusion.rrf-k:60}") int rrfK) {
+        return new CustomDocumentJoiner(rrfK);
     }
 
     @Bean
     public DocumentPostProcessor customDocumentPostProcessor(
             RerankClient rerankClient,
+            RagPipelineMetrics ragPipelineMetrics,
             @Value("${app.retrieval.final-top-n:5}") int topN) {
-        return new CustomDocumentPostProcessor(rerankClient, topN);
+        return new CustomDocumentPostProcessor(rerankClient, topN, ragPipelineMetrics);
     }
 
+    /**
+     * 参考资料按 token 预算拼装，token 数按所配置聊天模型的分词器近似估算。
+     */
     @Bean
-    public QueryAugmenter customQueryAugmenter() {
-        return new CustomQueryAugmenter();
+    public QueryAugmenter customQueryAugmenter(
+            @Value("${spring.ai.openai.chat.options.model:}") String chatModel,
+            @Value("${app.rag.context.max-tokens:2000}") int maxTokens,
+            @Value("${app.rag.context.min-tail-tokens:64}") int minTailTokens,
+            @Value("${app.rag.context.metadata-keys:title,section}") List<String> metadataKeys) {
+        return new CustomQueryAugmenter(
+                new ContextPacker(TokenEstimator.forModel(chatModel), maxTokens, minTailTokens, metadataKeys));
     }
 
     @Bean
@@ -67,23 +144,70 @@ public class RAGAdvisorConfig {
             DocumentRetriever documentRetriever, 
             DocumentJoiner documentJoiner,
             DocumentPostProcessor documentPostProcessor, 
-            QueryAugmenter queryAugmenter) {
-        
+            QueryAugmenter queryAugmenter,
+            RagPipelineMetrics ragPipelineMetrics,
+            @Qualifier("retrievalFanOutExecutor") TaskExecutor retrievalFanOutExecutor,
+            @Value("${app.retrieval.dedup.enabled:true}") boolean dedupEnabled,
+            @Value("${app.retrieval.dedup.max-hamming-distance:6}") int dedupMaxDistance) {
+
+        // 近似重复折叠排在 Rerank 之前，减少 Rerank 请求体与 Prompt 中的重复内容
+        List<DocumentPostProcessor> postProcessors = new ArrayList<>();
+        if (dedupEnabled) {
+            postProcessors.add(ragPipelineMetrics.postProcessor("dedup",
+                    new NearDuplicateDocumentPostProcessor(dedupMaxDistance)));
+        }
+        postProcessors.add(ragPipelineMetrics.postProcessor(documentPostProcessor));
+
+        // 各阶段包装一层计时，指标见 RagPipelineMetrics
         return RetrievalAugmentationAdvisor.builder()
-            .queryTransformers(queryTransformer)
-            .queryExpander(queryExpander)
-            .documentRetriever(documentRetriever)
-            .documentJoiner(documentJoiner)
-            .documentPostProcessors(documentPostProcessor)
-            .queryAugmenter(queryAugmenter)
+            .queryTransformers(ragPipelineMetrics.transformer(queryTransformer))
+            .queryExpander(ragPipelineMetrics.expander(queryExpander))
+            .documentRetriever(ragPipelineMetrics.retriever(documentRetriever))
+            .documentJoiner(ragPipelineMetrics.joiner(documentJoiner))
+            .documentPostProcessors(postProcessors)
+            .queryAugmenter(ragPipelineMetrics.augmenter(queryAugmenter))
+            .taskExecutor(retrievalFanOutExecutor)
             .build();
     }
 
+    /**
+     * RetrievedDocumentsAdvisor 紧跟 RAG Advisor 之后执行，流式接口借此在模型输出前先推送引用；
+     * LlmCallMetricsAdvisor 位于最内层，只统计模型调用本身。
+     */
     @Bean("ragChatClient")
     public ChatClient ragChatClient(OpenAiChatModel chatModel,
-            RetrievalAugmentationAdvisor retrievalAugmentationAdvisor) {
+            RetrievalAugmentationAdvisor retrievalAugmentationAdvisor,
+            RagPipelineMetrics ragPipelineMetrics) {
         return ChatClient.builder(chatModel)
-                .defaultAdvisors(retrievalAugmentationAdvisor)
+                .defaultAdvisors(retrievalAugmentationAdvisor,
+                        new RetrievedDocumentsAdvisor(retrievalAugmentationAdvisor.getOrder() + 1),
+                        new LlmCallMetricsAdvisor(ragPipelineMetrics, Ordered.LOWEST_PRECEDENCE - 1))
                 .build();
     }
+
+    /**
+     * 本地 HNSW 与量化检索自身支持按向量查询；自动配置的 PgVectorStore 由 {@link PgVectorQuerySearch} 直接查同一张表。
+     */
+    private static QueryVectorSearch resolveVectorSearch(VectorStore vectorStore, JdbcTemplate jdbcTemplate,
+            String tableName, int dimensions) {
+        if (vectorStore instanceof QueryVectorSearch vectorSearch) {
+            return vectorSearch;
+        }
+        if (vectorStore instanceof PgVectorStore) {
+            return new PgVectorQuerySearch(jdbcTemplate, tableName, dimensions);
+        }
+        return null;
+    }
+
+    private static ThreadPoolTaskExecutor buildExecutor(String threadNamePrefix, int coreSize, int maxSize,
+            int queueCapacity, RejectedExecutionHandler rejectedExecutionHandler) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(Math.max(coreSize, 1));
+        executor.setMaxPoolSize(Math.max(maxSize, Math.max(coreSize, 1)));
+        executor.setQueueCapacity(Math.max(queueCapacity, 0));
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
 }
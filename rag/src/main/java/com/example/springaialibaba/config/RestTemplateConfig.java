@@ -1,18 +1,60 @@
 package com.example.springaialibaba.config;
 
+import java.net.http.HttpClient;
+import java.util.concurrent.ThreadPoolExecutor;
+
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
+import com.example.springaialibaba.config.properties.SiliconFlowRerankProperties;
+
 /**
- * 提供应用中共享的 {@link RestTemplate} 实例。
+ * 提供应用中共享的 {@link RestTemplate} 实例，以及 Rerank 专用的 HTTP 传输与执行器。
  */
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
+    @Primary
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
         return builder.build();
     }
+
+    /**
+     * Rerank 专用 {@link RestTemplate}：底层为 JDK {@link HttpClient}，优先协商 HTTP/2，
+     * 多个请求复用同一条长连接，并设置独立的连接/读取超时。
+     */
+    @Bean
+    public RestTemplate rerankRestTemplate(RestTemplateBuilder builder, SiliconFlowRerankProperties properties) {
+        SiliconFlowRerankProperties.Http http = properties.getHttp();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(http.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(http.getReadTimeout());
+        return builder.requestFactory(() -> requestFactory).build();
+    }
+
+    /**
+     * 执行异步 Rerank 调用的有界线程池，超出并发与队列上限时直接拒绝，由调用方降级。
+     */
+    @Bean
+    public ThreadPoolTaskExecutor rerankExecutor(SiliconFlowRerankProperties properties) {
+        SiliconFlowRerankProperties.Http http = properties.getHttp();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(http.getMaxConcurrentRequests(), 1));
+        executor.setMaxPoolSize(Math.max(http.getMaxConcurrentRequests(), 1));
+        executor.setQueueCapacity(Math.max(http.getQueueCapacity(), 0));
+        executor.setThreadNamePrefix("rag-rerank-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.springaialibaba.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 分块 JSONL 批量入库配置属性。
+ */
+@ConfigurationProperties(prefix = "app.ingestion")
+public class IngestionProperties {
+
+    /**
+     * 入库请求中的相对路径均基于该目录解析，不允许越界访问。
+     */
+    private String baseDir = "data/chunks";
+
+    /**
+     * 断点文件，记录每个 JSONL 文件已提交的行号。
+     */
+    private String checkpointFile = "data/chunks/.ingestion-checkpoint.json";
+
+    private String tableName = "rag_chunks";
+
+    /**
+     * 单次嵌入请求携带的分块数。
+     */
+    private int embedBatchSize = 32;
+
+    /**
+     * 并发的嵌入请求数。
+     */
+    private int embedConcurrency = 4;
+
+    /**
+     * 单次 COPY 写入并提交的分块数。
+     */
+    private int writeBatchSize = 512;
+
+    /**
+     * 各阶段之间有界队列的容量（以嵌入批次计），队列满时上游阻塞，形成背压。
+     */
+    private int queueCapacity = 16;
+
+    /**
+     * 单个嵌入批次的最大尝试次数。
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 增量索引删除孤儿分块时每条 DELETE 语句包含的分块数。
+     */
+    private int deleteBatchSize = 500;
+
+    public String getBaseDir() {
+        return baseDir;
+    }
+
+    public void setBaseDir(String baseDir) {
+        this.baseDir = baseDir;
+    }
+
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public int getEmbedBatchSize() {
+        return embedBatchSize;
+    }
+
+    public void setEmbedBatchSize(int embedBatchSize) {
+        this.embedBatchSize = embedBatchSize;
+    }
+
+    public int getEmbedConcurrency() {
+        return embedConcurrency;
+    }
+
+    public void setEmbedConcurrency(int embedConcurrency) {
+        this.embedConcurrency = embedConcurrency;
+    }
+
+    public int getWriteBatchSize() {
+        return writeBatchSize;
+    }
+
+    public void setWriteBatchSize(int writeBatchSize) {
+        this.writeBatchSize = writeBatchSize;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public int getDeleteBatchSize() {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(int deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+}
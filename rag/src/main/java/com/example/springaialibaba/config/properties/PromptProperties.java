@@ -1,5 +1,8 @@
 package com.example.springaialibaba.config.properties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -8,11 +11,27 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "prompt")
 public class PromptProperties {
 
+    /**
+     * {@link #getTones()} 中兜底语气的键。
+     */
+    public static final String DEFAULT_TONE_KEY = "default";
+
     /**
      * Prompt 模板配置，可以是包含占位符的字符串或资源位置（如 classpath:prompts/...）。
      */
     private String template = "";
 
+    /**
+     * 按 persona / channel 区分的模板文件位置，支持通配符（如 classpath*:prompts/templates/*.txt）。
+     * 文件开头用 {@code persona:}、{@code channel:} 声明适用范围，以单独一行 {@code ---} 与模板正文分隔。
+     */
+    private String templatesLocation = "";
+
+    /**
+     * 各渠道的语气要求，用于填充 {@code {tone}} 占位符；未配置的渠道使用 {@value #DEFAULT_TONE_KEY} 对应的语气。
+     */
+    private final Map<String, String> tones = createDefaultTones();
+
     private final Defaults defaults = new Defaults();
 
     public String getTemplate() {
@@ -23,10 +42,31 @@ public class PromptProperties {
         this.template = template;
     }
 
+    public String getTemplatesLocation() {
+        return templatesLocation;
+    }
+
+    public void setTemplatesLocation(String templatesLocation) {
+        this.templatesLocation = templatesLocation;
+    }
+
+    public Map<String, String> getTones() {
+        return tones;
+    }
+
     public Defaults getDefaults() {
         return defaults;
     }
 
+    private static Map<String, String> createDefaultTones() {
+        Map<String, String> tones = new LinkedHashMap<>();
+        tones.put(DEFAULT_TONE_KEY, "保持礼貌但不过度热情，确保信息的传递效率是第一优先级的");
+        tones.put("生活闲聊", "轻松活泼，可以使用适量的表情符号和口语化的语气助词");
+        tones.put("售后服务", "普通咨询类问题，语气要干脆利落、热心引导。不需要道歉，只需要清晰地告知步骤。"
+                + "投诉/故障/报修类问题，使用温和且高度专业的语言，优先承认用户遇到的困难（共情），严禁推卸责任");
+        return tones;
+    }
+
     public static class Defaults {
 
         private String persona = "";
@@ -0,0 +1,76 @@
+package com.example.springaialibaba.config.properties;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+/**
+ * 已知的 persona 与 channel 取值。
+ *
+ * <p>persona、channel 由客户端传入，取值不受控。按作用域划分的缓存与指标标签只接受这里列出的取值，
+ * 其余取值不建缓存作用域，在指标中记为 {@value #OTHER}，避免客户端输入撑大内存与标签基数。</p>
+ */
+@ConfigurationProperties(prefix = "app.scope")
+public class ScopeProperties {
+
+    /**
+     * 缺少 persona / channel 时使用的标签值。
+     */
+    public static final String UNKNOWN = "unknown";
+
+    /**
+     * 不在白名单中的 persona / channel 使用的标签值。
+     */
+    public static final String OTHER = "other";
+
+    private Set<String> personas = new LinkedHashSet<>(List.of("客服人员", "通用知识助手"));
+
+    private Set<String> channels = new LinkedHashSet<>(List.of("售后服务", "生活闲聊", "默认渠道"));
+
+    public Set<String> getPersonas() {
+        return personas;
+    }
+
+    public void setPersonas(Set<String> personas) {
+        this.personas = personas;
+    }
+
+    public Set<String> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(Set<String> channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * persona 与 channel 是否都在白名单中。
+     */
+    public boolean isKnown(String persona, String channel) {
+        return persona != null && personas.contains(persona) && channel != null && channels.contains(channel);
+    }
+
+    /**
+     * 指标标签使用的 persona 取值。
+     */
+    public String personaTag(Object persona) {
+        return tagValue(persona, personas);
+    }
+
+    /**
+     * 指标标签使用的 channel 取值。
+     */
+    public String channelTag(Object channel) {
+        return tagValue(channel, channels);
+    }
+
+    private static String tagValue(Object value, Set<String> known) {
+        if (!(value instanceof String text) || !StringUtils.hasText(text)) {
+            return UNKNOWN;
+        }
+        return known.contains(text) ? text : OTHER;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.springaialibaba.config.properties;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -24,6 +26,10 @@ public class SiliconFlowRerankProperties {
 
     private Integer overlapTokens;
 
+    private final Cache cache = new Cache();
+
+    private final Http http = new Http();
+
     public String getApiUrl() {
         return apiUrl;
     }
@@ -87,4 +93,104 @@ public class SiliconFlowRerankProperties {
     public void setOverlapTokens(Integer overlapTokens) {
         this.overlapTokens = overlapTokens;
     }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Http getHttp() {
+        return http;
+    }
+
+    /**
+     * Rerank 结果缓存配置。
+     */
+    public static class Cache {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 5000;
+
+        private Duration ttl = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Rerank HTTP 传输层配置：连接、读取与整体超时，以及并发请求上限。
+     */
+    public static class Http {
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        private Duration readTimeout = Duration.ofSeconds(5);
+
+        private Duration totalTimeout = Duration.ofSeconds(6);
+
+        private int maxConcurrentRequests = 32;
+
+        private int queueCapacity = 64;
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getTotalTimeout() {
+            return totalTimeout;
+        }
+
+        public void setTotalTimeout(Duration totalTimeout) {
+            this.totalTimeout = totalTimeout;
+        }
+
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
 }
@@ -3,7 +3,12 @@ package com.example.springaialibaba.controller;
 import com.example.springaialibaba.service.ChatHistoryService;
 import com.example.springaialibaba.model.entity.ChatMessage;
 import com.example.springaialibaba.model.entity.ChatSession;
+import com.example.springaialibaba.model.dto.ChatMessagePage;
+import com.example.springaialibaba.model.dto.ChatSessionPage;
 import com.example.springaialibaba.model.dto.UpdateChatSessionRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -16,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller exposing CRUD-style endpoints for chat session history.
@@ -26,8 +32,11 @@ public class ChatHistoryController {
 
     private final ChatHistoryService chatHistoryService;
 
-    public ChatHistoryController(ChatHistoryService chatHistoryService) {
+    private final ObjectMapper objectMapper;
+
+    public ChatHistoryController(ChatHistoryService chatHistoryService, ObjectMapper objectMapper) {
         this.chatHistoryService = chatHistoryService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping(path = "/sessions")
@@ -36,6 +45,21 @@ public class ChatHistoryController {
         return ResponseEntity.ok(sessions);
     }
 
+    /**
+     * Keyset-paginated session listing, newest first; pass {@code nextCursor} back as {@code cursor}
+     * to fetch the next page.
+     */
+    @GetMapping(path = "/sessions/page")
+    public ResponseEntity<ChatSessionPage> getSessionPage(@RequestParam("userId") String userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(chatHistoryService.findSessionPage(userId, cursor, limit));
+    }
+
+    /**
+     * Returns the full history including retrieval context; prefer {@code /sessions/{sessionId}/messages}
+     * for long sessions.
+     */
     @GetMapping(path = "/messages/{sessionId}")
     public ResponseEntity<List<ChatMessage>> getMessages(@PathVariable("sessionId") Long sessionId) {
         try {
@@ -50,6 +74,56 @@ public class ChatHistoryController {
         }
     }
 
+    /**
+     * Keyset-paginated message listing, newest first; pass {@code nextCursor} back as {@code cursor}
+     * to fetch the next page.
+     */
+    @GetMapping(path = "/sessions/{sessionId}/messages")
+    public ResponseEntity<ChatMessagePage> getMessagePage(@PathVariable("sessionId") Long sessionId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "includeRetrievalContext", defaultValue = "false") boolean includeRetrievalContext) {
+        try {
+            return ResponseEntity.ok(
+                    chatHistoryService.findMessagePage(sessionId, cursor, limit, includeRetrievalContext));
+        }
+        catch (IllegalArgumentException ex) {
+            if (isSessionMissing(ex)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Exports the whole session as newline-delimited JSON, oldest first, streaming rows as they are read.
+     */
+    @GetMapping(path = "/sessions/{sessionId}/messages/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMessages(@PathVariable("sessionId") Long sessionId,
+            @RequestParam(name = "includeRetrievalContext", defaultValue = "false") boolean includeRetrievalContext) {
+        ChatSession session;
+        try {
+            session = chatHistoryService.findSession(sessionId);
+        }
+        catch (IllegalArgumentException ex) {
+            if (isSessionMissing(ex)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            throw ex;
+        }
+        StreamingResponseBody body = outputStream -> chatHistoryService.exportMessages(session.id(),
+                includeRetrievalContext, message -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(message));
+                        outputStream.write('\n');
+                    }
+                    catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PutMapping(path = "/sessions/{sessionId}", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ChatSession> updateSession(@PathVariable("sessionId") Long sessionId,
             @RequestBody UpdateChatSessionRequest request) {
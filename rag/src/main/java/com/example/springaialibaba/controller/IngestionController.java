@@ -0,0 +1,58 @@
+package com.example.springaialibaba.controller;
+
+import com.example.springaialibaba.core.ingestion.ChunkIngestionService;
+import com.example.springaialibaba.core.ingestion.IncrementalIndexer;
+import com.example.springaialibaba.core.ingestion.IngestionJob;
+import com.example.springaialibaba.core.ingestion.ReindexReport;
+import com.example.springaialibaba.model.dto.IngestionJobRequest;
+import com.example.springaialibaba.model.dto.ReindexRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 触发与查询分块 JSONL 批量入库任务，以及按内容摘要的增量索引。
+ */
+@RestController
+@RequestMapping(path = "/api/v1/ingestion", produces = MediaType.APPLICATION_JSON_VALUE)
+public class IngestionController {
+
+    private final ChunkIngestionService ingestionService;
+
+    private final IncrementalIndexer incrementalIndexer;
+
+    public IngestionController(ChunkIngestionService ingestionService, IncrementalIndexer incrementalIndexer) {
+        this.ingestionService = ingestionService;
+        this.incrementalIndexer = incrementalIndexer;
+    }
+
+    @PostMapping(path = "/jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<IngestionJob> submit(@RequestBody(required = false) IngestionJobRequest request) {
+        String path = request != null ? request.path() : null;
+        boolean resume = request == null || request.resume() == null || request.resume();
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ingestionService.submit(path, resume));
+        }
+        catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping(path = "/jobs/{jobId}")
+    public ResponseEntity<IngestionJob> getJob(@PathVariable("jobId") String jobId) {
+        return ingestionService.findJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    @PostMapping(path = "/reindex", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReindexReport> reindex(@RequestBody(required = false) ReindexRequest request) {
+        return ResponseEntity.ok(incrementalIndexer.reindex(request != null ? request.path() : null));
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.springaialibaba.controller;
 
+import com.example.springaialibaba.core.advisor.RetrievedDocumentsAdvisor;
+import com.example.springaialibaba.core.cache.SemanticAnswerCache;
 import com.example.springaialibaba.core.formatter.ResponseFormatter;
 import com.example.springaialibaba.model.dto.RagQueryRequest;
 import com.example.springaialibaba.model.dto.RagQueryResponse;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
@@ -14,6 +23,7 @@ import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.CollectionUtils;
@@ -22,6 +32,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * REST controller orchestrating the modular Advisor-based RAG pipeline.
@@ -36,11 +50,16 @@ public class ModularRagController {
 
     private final ChatClient chatClient;
     private final ResponseFormatter responseFormatter;
+    private final SemanticAnswerCache semanticAnswerCache;
+    private final long streamTimeoutMillis;
 
     public ModularRagController(@Qualifier("ragChatClient") ChatClient chatClient,
-            ResponseFormatter responseFormatter) {
+            ResponseFormatter responseFormatter, SemanticAnswerCache semanticAnswerCache,
+            @Value("${app.rag.stream.timeout:2m}") Duration streamTimeout) {
         this.chatClient = chatClient;
         this.responseFormatter = responseFormatter;
+        this.semanticAnswerCache = semanticAnswerCache;
+        this.streamTimeoutMillis = streamTimeout.toMillis();
     }
 
     @PostMapping(path = "/query", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -53,6 +72,12 @@ public class ModularRagController {
         String persona = normaliseOptionalInput(request.getPersona(), DEFAULT_PERSONA);
         String channel = normaliseOptionalInput(request.getChannel(), DEFAULT_CHANNEL);
 
+        Optional<RagQueryResponse> cached = semanticAnswerCache.lookup(rawQuestion, persona, channel);
+        if (cached.isPresent()) {
+            log.info("语义缓存命中，跳过 Modular Advisor 链路");
+            return ResponseEntity.ok(cached.get());
+        }
+
         ChatClientResponse advisorResponse = chatClient.prompt()
                 .advisors(spec -> spec
                         .param("originalQuestion", rawQuestion)
@@ -69,9 +94,148 @@ public class ModularRagController {
 
         Double topScore = extractTopScore(documents);
         RagQueryResponse response = responseFormatter.format(answer, documents, topScore);
+        semanticAnswerCache.put(rawQuestion, persona, channel, response);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * SSE 流式版本：检索完成即推送 {@code references} 事件，随后逐段推送 {@code token} 事件，
+     * 结束时推送带 confidence 与各阶段耗时的 {@code done} 事件；生成失败时推送 {@code error} 事件。
+     */
+    @PostMapping(path = "/query/stream", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter queryStream(@RequestBody RagQueryRequest request) {
+        String rawQuestion = request != null ? request.getQuestion() : null;
+        if (!StringUtils.hasText(rawQuestion)) {
+            throw new IllegalArgumentException("question must not be blank");
+        }
+
+        String persona = normaliseOptionalInput(request.getPersona(), DEFAULT_PERSONA);
+        String channel = normaliseOptionalInput(request.getChannel(), DEFAULT_CHANNEL);
+        long startedAt = System.nanoTime();
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+
+        Optional<RagQueryResponse> cached = semanticAnswerCache.lookup(rawQuestion, persona, channel);
+        if (cached.isPresent()) {
+            log.info("语义缓存命中，跳过 Modular Advisor 流式链路");
+            RagQueryResponse response = cached.get();
+            if (send(emitter, "references", response.getReferences())
+                    && send(emitter, "token", Map.of("text", response.getAnswer() != null ? response.getAnswer() : ""))) {
+                send(emitter, "done", doneEvent(response.getConfidence(), true, elapsedMillis(startedAt),
+                        null, elapsedMillis(startedAt)));
+            }
+            emitter.complete();
+            return emitter;
+        }
+
+        AtomicReference<List<Document>> retrieved = new AtomicReference<>();
+        AtomicReference<Long> retrievalMillis = new AtomicReference<>();
+        AtomicReference<Long> firstTokenMillis = new AtomicReference<>();
+        AtomicBoolean open = new AtomicBoolean(true);
+        StringBuilder answer = new StringBuilder();
+        Consumer<List<Document>> onRetrieved = documents -> {
+            if (retrieved.compareAndSet(null, documents)) {
+                retrievalMillis.set(elapsedMillis(startedAt));
+                RagQueryResponse references = responseFormatter.format("", documents, extractTopScore(documents));
+                open.compareAndSet(true, send(emitter, "references", references.getReferences()));
+            }
+        };
+
+        Disposable subscription = chatClient.prompt()
+                .advisors(spec -> spec
+                        .param("originalQuestion", rawQuestion)
+                        .param("persona", persona)
+                        .param("channel", channel)
+                        .param(RetrievedDocumentsAdvisor.LISTENER_PARAM, onRetrieved))
+                .user(rawQuestion)
+                .stream()
+                .chatClientResponse()
+                .takeWhile(chunk -> open.get())
+                .subscribe(chunk -> {
+                    // 链路中没有 RetrievedDocumentsAdvisor 时，退化为随首个分片推送引用
+                    onRetrieved.accept(extractDocuments(chunk.context()));
+                    String token = extractAnswer(chunk.chatResponse());
+                    if (token.isEmpty()) {
+                        return;
+                    }
+                    firstTokenMillis.compareAndSet(null, elapsedMillis(startedAt));
+                    answer.append(token);
+                    open.compareAndSet(true, send(emitter, "token", Map.of("text", token)));
+                }, error -> {
+                    log.error("Modular Advisor 流式链路失败: {}", error.getMessage(), error);
+                    if (send(emitter, "error", Map.of("message", String.valueOf(error.getMessage())))) {
+                        emitter.complete();
+                    }
+                    else {
+                        emitter.completeWithError(error);
+                    }
+                }, () -> {
+                    // 推送失败时 takeWhile 提前结束上游，同样需要结束异步请求
+                    if (!open.get()) {
+                        emitter.complete();
+                        return;
+                    }
+                    onRetrieved.accept(List.of());
+                    List<Document> documents = retrieved.get();
+                    Double topScore = extractTopScore(documents);
+                    RagQueryResponse response = responseFormatter.format(answer.toString(), documents, topScore);
+                    log.info("Modular Advisor 流式链路完成，检索文档数={}，回答长度={}，首 token 耗时={}ms",
+                            documents.size(), answer.length(), firstTokenMillis.get());
+                    send(emitter, "done", doneEvent(response.getConfidence(), false, retrievalMillis.get(),
+                            firstTokenMillis.get(), elapsedMillis(startedAt)));
+                    emitter.complete();
+                    cacheAnswer(rawQuestion, persona, channel, response);
+                });
+
+        // 客户端断开或超时后取消上游生成，避免继续消耗模型 token
+        emitter.onTimeout(() -> {
+            open.set(false);
+            subscription.dispose();
+        });
+        emitter.onError(error -> {
+            open.set(false);
+            subscription.dispose();
+        });
+        return emitter;
+    }
+
+    /**
+     * 写入语义缓存需要嵌入问题，是阻塞调用，不能占用推送 token 的 Reactor 线程，改在 boundedElastic 上执行。
+     */
+    private void cacheAnswer(String question, String persona, String channel, RagQueryResponse response) {
+        Mono.fromRunnable(() -> semanticAnswerCache.put(question, persona, channel, response))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, ex -> log.warn("写入语义缓存失败: {}", ex.getMessage(), ex));
+    }
+
+    private boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        }
+        catch (IOException | IllegalStateException ex) {
+            log.debug("SSE 推送 {} 事件失败，客户端可能已断开: {}", event, ex.getMessage());
+            return false;
+        }
+    }
+
+    private Map<String, Object> doneEvent(Double confidence, boolean cached, Long retrievalMillis,
+            Long firstTokenMillis, long totalMillis) {
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("retrievalMillis", retrievalMillis);
+        timings.put("firstTokenMillis", firstTokenMillis);
+        timings.put("totalMillis", totalMillis);
+        Map<String, Object> done = new LinkedHashMap<>();
+        done.put("confidence", confidence);
+        done.put("cached", cached);
+        done.put("timings", timings);
+        return done;
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
     private String normaliseOptionalInput(String value, String defaultValue) {
         if (!StringUtils.hasText(value)) {
             return defaultValue;
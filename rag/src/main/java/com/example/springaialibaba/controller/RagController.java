@@ -23,6 +23,7 @@ import com.example.springaialibaba.model.entity.ChatSession;
 import com.example.springaialibaba.model.dto.RagQueryRequest;
 import com.example.springaialibaba.model.dto.RagQueryResponse;
 import com.example.springaialibaba.model.dto.ReferenceDto;
+import com.example.springaialibaba.core.cache.SemanticAnswerCache;
 import com.example.springaialibaba.core.formatter.ResponseFormatter;
 import com.example.springaialibaba.core.rag.GenerationService;
 import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
@@ -48,12 +49,14 @@ public class RagController {
     private final ChatHistoryService chatHistoryService;
     private final ObjectMapper objectMapper;
     private final RetrievalAugmentationAdvisor retrievalAugmentationAdvisor;
+    private final SemanticAnswerCache semanticAnswerCache;
     private ChatClient chatClient;
     private OpenAiChatModel chatModel;
 
     public RagController(QueryPreprocessor queryPreprocessor, RetrievalService retrievalService, GenerationService generationService,
                          ResponseFormatter responseFormatter, ChatHistoryService chatHistoryService, ObjectMapper objectMapper,
-                         RetrievalAugmentationAdvisor retrievalAugmentationAdvisor, OpenAiChatModel chatModel) {
+                         RetrievalAugmentationAdvisor retrievalAugmentationAdvisor, OpenAiChatModel chatModel,
+                         SemanticAnswerCache semanticAnswerCache) {
         this.queryPreprocessor = queryPreprocessor;
         this.retrievalService = retrievalService;
         this.generationService = generationService;
@@ -62,6 +65,7 @@ public class RagController {
         this.objectMapper = objectMapper;
         this.retrievalAugmentationAdvisor = retrievalAugmentationAdvisor;
         this.chatModel = chatModel;
+        this.semanticAnswerCache = semanticAnswerCache;
         this.chatClient = ChatClient.builder(chatModel)
                 .defaultAdvisors(retrievalAugmentationAdvisor)
                 .build();
@@ -79,7 +83,7 @@ public class RagController {
         //         Optional.ofNullable(requestedSessionId),
         //         request.getQuestion(),
         //         resolveUserId(request));
-        // chatHistoryService.saveNewMessage(session.id(), "USER", rawQuestion, null);
+        // chatHistoryService.appendMessage(session.id(), "USER", rawQuestion, null);
 
         // 查询预处理
         // 清洗，去除首尾空格、转换为小写、移除不符合正则（字母/数字/汉字/标点）的噪音字符。
@@ -87,21 +91,29 @@ public class RagController {
         String cleanedQuestion = queryPreprocessor.process(rawQuestion);
         log.info("预处理后的查询：{}", cleanedQuestion);
 
-        // 筛选候选文档
-        List<Document> documents = retrievalService.retrieveAndRerank(cleanedQuestion);
-        log.info("检索到 {} 条候选文档", documents.size());
-
         // 扮演的角色
         String persona = normaliseOptionalInput(request.getPersona(), DEFAULT_PERSONA);
         // 用户提问的渠道
         String channel = normaliseOptionalInput(request.getChannel(), DEFAULT_CHANNEL);
 
+        // 语义缓存命中时跳过检索、重排与生成
+        Optional<RagQueryResponse> cached = semanticAnswerCache.lookup(rawQuestion, persona, channel);
+        if (cached.isPresent()) {
+            log.info("语义缓存命中，直接返回缓存答案");
+            return ResponseEntity.ok(cached.get());
+        }
+
+        // 筛选候选文档
+        List<Document> documents = retrievalService.retrieveAndRerank(cleanedQuestion);
+        log.info("检索到 {} 条候选文档", documents.size());
+
         String answer = generationService.generate(rawQuestion, documents, persona, channel);
         log.info("生成的回答长度={}, 回答={}", answer != null ? answer.length() : 0, answer);
 
         Double topScore = extractTopScore(documents);
         RagQueryResponse response = responseFormatter.format(answer, documents, topScore);
-        // chatHistoryService.saveNewMessage(session.id(), "ASSISTANT", answer,
+        semanticAnswerCache.put(rawQuestion, persona, channel, response);
+        // chatHistoryService.appendMessage(session.id(), "ASSISTANT", answer,
         //         serialiseRetrievalContext(response.getReferences()));
         // response.setSessionId(session.id());
         return ResponseEntity.ok(response);
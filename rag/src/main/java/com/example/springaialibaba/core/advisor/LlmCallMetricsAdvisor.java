@@ -0,0 +1,93 @@
+package com.example.springaialibaba.core.advisor;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import com.example.springaialibaba.core.rag.metrics.RagPipelineMetrics;
+
+/**
+ * 记录 LLM 调用耗时与 token 用量的 Advisor，放在 Advisor 链<b>最内层</b>，紧挨 ChatModel 调用，
+ * 因此测得的只是模型本身的耗时，不包含外层 RAG 检索。
+ * <p>
+ * 流式调用额外记录首个分片的到达时间；用量取最后一个带 {@link Usage} 的分片。
+ * </p>
+ */
+public class LlmCallMetricsAdvisor implements CallAdvisor, StreamAdvisor {
+
+    private final RagPipelineMetrics metrics;
+
+    private final int order;
+
+    public LlmCallMetricsAdvisor(RagPipelineMetrics metrics, int order) {
+        this.metrics = metrics;
+        this.order = order;
+    }
+
+    @Override
+    public String getName() {
+        return this.getClass().getSimpleName();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        long startedAt = System.nanoTime();
+        boolean success = false;
+        ChatClientResponse response = null;
+        try {
+            response = callAdvisorChain.nextCall(chatClientRequest);
+            success = true;
+            return response;
+        }
+        finally {
+            metrics.recordLlmCall(chatClientRequest.context(), System.nanoTime() - startedAt,
+                    response != null ? usageOf(response.chatResponse()) : null, success);
+        }
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest chatClientRequest,
+            StreamAdvisorChain streamAdvisorChain) {
+        long startedAt = System.nanoTime();
+        AtomicBoolean firstChunk = new AtomicBoolean(true);
+        AtomicReference<Usage> usage = new AtomicReference<>();
+        return streamAdvisorChain.nextStream(chatClientRequest)
+                .doOnNext(response -> {
+                    if (firstChunk.compareAndSet(true, false)) {
+                        metrics.recordLlmFirstToken(chatClientRequest.context(), System.nanoTime() - startedAt);
+                    }
+                    Usage chunkUsage = usageOf(response.chatResponse());
+                    if (chunkUsage != null) {
+                        usage.set(chunkUsage);
+                    }
+                })
+                .doFinally(signal -> metrics.recordLlmCall(chatClientRequest.context(),
+                        System.nanoTime() - startedAt, usage.get(), signal != SignalType.ON_ERROR));
+    }
+
+    private static Usage usageOf(ChatResponse chatResponse) {
+        if (chatResponse == null || chatResponse.getMetadata() == null) {
+            return null;
+        }
+        Usage usage = chatResponse.getMetadata().getUsage();
+        if (usage == null || usage.getTotalTokens() == null || usage.getTotalTokens() <= 0) {
+            return null;
+        }
+        return usage;
+    }
+}
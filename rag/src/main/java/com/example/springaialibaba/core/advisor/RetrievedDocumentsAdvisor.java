@@ -0,0 +1,77 @@
+package com.example.springaialibaba.core.advisor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.advisor.RetrievalAugmentationAdvisor;
+
+/**
+ * 检索完成后立即回调调用方的 Advisor，放在 {@link RetrievalAugmentationAdvisor} <b>内层</b>（order 更大）。
+ * <p>
+ * 流式调用时，RAG Advisor 的 {@code before()} 完成检索后才会请求 ChatModel，首个 token 往往还要再等数秒。
+ * 调用方通过 {@link #LISTENER_PARAM} 传入 {@code Consumer<List<Document>>}，本 Advisor 在模型调用之前
+ * 把检索到的文档交给它，例如先向 SSE 客户端推送引用列表。未传入回调时不做任何事。
+ * </p>
+ */
+public class RetrievedDocumentsAdvisor implements BaseAdvisor {
+
+    /**
+     * Advisor 参数名，值为 {@code Consumer<List<Document>>}。
+     */
+    public static final String LISTENER_PARAM = "retrievedDocumentsListener";
+
+    private static final Logger log = LoggerFactory.getLogger(RetrievedDocumentsAdvisor.class);
+
+    private final int order;
+
+    public RetrievedDocumentsAdvisor(int order) {
+        this.order = order;
+    }
+
+    @Override
+    public String getName() {
+        return this.getClass().getSimpleName();
+    }
+
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ChatClientRequest before(ChatClientRequest chatClientRequest, AdvisorChain advisorChain) {
+        Object listener = chatClientRequest.context().get(LISTENER_PARAM);
+        if (!(listener instanceof Consumer<?> consumer)) {
+            return chatClientRequest;
+        }
+        List<Document> documents = new ArrayList<>();
+        if (chatClientRequest.context().get(RetrievalAugmentationAdvisor.DOCUMENT_CONTEXT) instanceof List<?> raw) {
+            for (Object item : raw) {
+                if (item instanceof Document document) {
+                    documents.add(document);
+                }
+            }
+        }
+        try {
+            ((Consumer<List<Document>>) consumer).accept(documents);
+        }
+        catch (RuntimeException ex) {
+            log.warn("RetrievedDocumentsAdvisor: 检索结果回调失败: {}", ex.getMessage());
+        }
+        return chatClientRequest;
+    }
+
+    @Override
+    public ChatClientResponse after(ChatClientResponse chatClientResponse, AdvisorChain advisorChain) {
+        return chatClientResponse;
+    }
+}
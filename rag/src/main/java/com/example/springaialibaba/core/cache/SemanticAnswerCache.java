@@ -0,0 +1,283 @@
+package com.example.springaialibaba.core.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import com.example.springaialibaba.config.properties.ScopeProperties;
+import com.example.springaialibaba.core.ingestion.CorpusChangedEvent;
+import com.example.springaialibaba.core.math.VectorMath;
+import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
+import com.example.springaialibaba.model.dto.RagQueryResponse;
+import com.example.springaialibaba.model.dto.ReferenceDto;
+
+/**
+ * 位于 RAG 管线之前的语义答案缓存。
+ *
+ * <p>按 (persona, channel) 划分作用域，每个作用域内保存近期问题的归一化向量与对应的
+ * {@link RagQueryResponse}（answer、references、confidence）。新问题先经
+ * {@link QueryPreprocessor} 规范化，精确命中直接返回；否则在作用域内按余弦相似度查找，
+ * 相似度不低于阈值时复用已有答案，跳过检索 → 重排 → LLM 整条链路。</p>
+ *
+ * <p>只为 {@link ScopeProperties} 中列出的 persona 与 channel 建立作用域，其它客户端取值直接走完整链路；
+ * 作用域数量有上限，长时间无访问的作用域整体淘汰。缓存按作用域条目数与写入后存活时间淘汰。
+ * 增量索引发布 {@link CorpusChangedEvent} 时只淘汰引用了变更文档的答案；其它途径写入 {@code rag_chunks}
+ * 时整体失效，变更检测基于 {@code pg_stat_user_tables}
+ * 中的插入/更新/删除计数，不扫描业务表。</p>
+ */
+@Service
+public class SemanticAnswerCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticAnswerCache.class);
+
+    private static final String CORPUS_VERSION_SQL =
+            "SELECT COALESCE(SUM(n_tup_ins + n_tup_upd + n_tup_del), 0) FROM pg_stat_user_tables WHERE relname = ?";
+
+    private final EmbeddingModel embeddingModel;
+
+    private final QueryPreprocessor queryPreprocessor;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ScopeProperties scopeProperties;
+
+    private final boolean enabled;
+
+    private final double similarityThreshold;
+
+    private final long maxEntriesPerScope;
+
+    private final Duration ttl;
+
+    private final String chunkTableName;
+
+    private final Cache<Scope, Cache<String, Entry>> scopes;
+
+    private volatile Long corpusVersion;
+
+    private MeterRegistry meterRegistry;
+
+    public SemanticAnswerCache(EmbeddingModel embeddingModel, QueryPreprocessor queryPreprocessor,
+            JdbcTemplate jdbcTemplate, ScopeProperties scopeProperties,
+            @Value("${app.semantic-cache.enabled:true}") boolean enabled,
+            @Value("${app.semantic-cache.similarity-threshold:0.95}") double similarityThreshold,
+            @Value("${app.semantic-cache.max-entries-per-scope:2000}") long maxEntriesPerScope,
+            @Value("${app.semantic-cache.max-scopes:64}") long maxScopes,
+            @Value("${app.semantic-cache.ttl:6h}") Duration ttl,
+            @Value("${app.semantic-cache.chunk-table-name:rag_chunks}") String chunkTableName) {
+        this.embeddingModel = embeddingModel;
+        this.queryPreprocessor = queryPreprocessor;
+        this.jdbcTemplate = jdbcTemplate;
+        this.scopeProperties = scopeProperties;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxEntriesPerScope = Math.max(maxEntriesPerScope, 1);
+        this.ttl = ttl;
+        this.chunkTableName = chunkTableName;
+        this.scopes = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxScopes, 1))
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /**
+     * 查找与问题语义相近的已缓存答案。
+     *
+     * @param question 用户原始问题
+     * @param persona 已归一化的 Persona
+     * @param channel 已归一化的渠道
+     * @return 命中时返回答案副本（不含 sessionId），否则为空
+     */
+    public Optional<RagQueryResponse> lookup(String question, String persona, String channel) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (!scopeProperties.isKnown(persona, channel)) {
+            recordRequest("miss", persona, channel);
+            return Optional.empty();
+        }
+        String normalised = queryPreprocessor.process(question);
+        Cache<String, Entry> entries = scopes.getIfPresent(new Scope(persona, channel));
+        if (!StringUtils.hasText(normalised) || entries == null) {
+            recordRequest("miss", persona, channel);
+            return Optional.empty();
+        }
+
+        Entry exact = entries.getIfPresent(normalised);
+        if (exact != null) {
+            recordRequest("hit", persona, channel);
+            return Optional.of(exact.toResponse());
+        }
+
+        float[] queryVector = embedNormalised(normalised);
+        Entry best = null;
+        double bestScore = similarityThreshold;
+        for (Entry entry : entries.asMap().values()) {
+            double score = dot(queryVector, entry.vector());
+            if (score >= bestScore) {
+                bestScore = score;
+                best = entry;
+            }
+        }
+        if (best == null) {
+            recordRequest("miss", persona, channel);
+            return Optional.empty();
+        }
+        log.debug("SemanticAnswerCache: 命中相似问题 [{}]，相似度={}", best.question(), bestScore);
+        recordRequest("hit", persona, channel);
+        return Optional.of(best.toResponse());
+    }
+
+    /**
+     * 缓存管线生成的答案。没有引用文档的兜底回答以及白名单之外的作用域不会被缓存。
+     */
+    public void put(String question, String persona, String channel, RagQueryResponse response) {
+        if (!enabled || response == null || CollectionUtils.isEmpty(response.getReferences())
+                || !scopeProperties.isKnown(persona, channel)) {
+            return;
+        }
+        String normalised = queryPreprocessor.process(question);
+        if (!StringUtils.hasText(normalised)) {
+            return;
+        }
+        Entry entry = new Entry(normalised, embedNormalised(normalised),
+                response.getAnswer(), response.getReferences(), response.getConfidence());
+        scopes.get(new Scope(persona, channel), scope -> newScopeCache())
+                .put(normalised, entry);
+    }
+
+    /**
+     * 清空所有作用域，知识库内容变化时调用。
+     */
+    public void invalidateAll() {
+        scopes.invalidateAll();
+        log.info("SemanticAnswerCache: 已清空语义答案缓存");
+    }
+
+    /**
+     * 淘汰引用了变更文档或分块的答案，并将当前写入计数记为基线，避免定时比对再次整体失效。
+     *
+     * <p>先读取写入计数再淘汰：读取之后其它途径的写入都会使计数与基线不一致，由下一次定时比对整体失效，
+     * 不会被本次基线吸收。与 {@link #checkCorpusVersion()} 互斥，二者不会交错更新基线。</p>
+     */
+    @EventListener
+    public synchronized void onCorpusChanged(CorpusChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long current = null;
+        try {
+            current = jdbcTemplate.queryForObject(CORPUS_VERSION_SQL, Long.class, chunkTableName);
+        }
+        catch (DataAccessException ex) {
+            log.warn("SemanticAnswerCache: 读取知识库变更计数失败：{}", ex.getMessage());
+        }
+        int[] evicted = {0};
+        for (Cache<String, Entry> entries : scopes.asMap().values()) {
+            entries.asMap().values().removeIf(entry -> {
+                boolean stale = entry.references().stream().anyMatch(reference ->
+                        event.documentIds().contains(reference.getDocumentId())
+                                || event.upsertedChunkIds().contains(reference.getChunkId())
+                                || event.deletedChunkIds().contains(reference.getChunkId()));
+                if (stale) {
+                    evicted[0]++;
+                }
+                return stale;
+            });
+        }
+        if (current != null) {
+            corpusVersion = current;
+        }
+        log.info("SemanticAnswerCache: 知识库变更涉及 {} 个文档，淘汰 {} 条缓存答案", event.documentIds().size(),
+                evicted[0]);
+    }
+
+    /**
+     * 定期比对知识库表的写入计数，发生变化时清空缓存。
+     */
+    @Scheduled(fixedDelayString = "${app.semantic-cache.corpus-check-interval:30s}")
+    public synchronized void checkCorpusVersion() {
+        if (!enabled) {
+            return;
+        }
+        Long current;
+        try {
+            current = jdbcTemplate.queryForObject(CORPUS_VERSION_SQL, Long.class, chunkTableName);
+        }
+        catch (DataAccessException ex) {
+            log.warn("SemanticAnswerCache: 读取知识库变更计数失败：{}", ex.getMessage());
+            return;
+        }
+        Long previous = corpusVersion;
+        corpusVersion = current;
+        if (previous != null && !Objects.equals(previous, current)) {
+            log.info("SemanticAnswerCache: 检测到 {} 发生变更，缓存失效", chunkTableName);
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        registry.gauge("rag.semantic.cache.size", scopes,
+                cache -> cache.asMap().values().stream().mapToLong(Cache::estimatedSize).sum());
+    }
+
+    private Cache<String, Entry> newScopeCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntriesPerScope)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private float[] embedNormalised(String normalised) {
+        return VectorMath.normalize(embeddingModel.embed(normalised));
+    }
+
+    private double dot(float[] left, float[] right) {
+        if (left.length != right.length) {
+            return 0.0d;
+        }
+        return VectorMath.dot(left, right);
+    }
+
+    private void recordRequest(String result, String persona, String channel) {
+        if (meterRegistry != null) {
+            // 白名单之外的 persona / channel 记为 other，避免客户端输入撑大标签基数
+            Counter.builder("rag.semantic.cache.requests")
+                    .tags("result", result, "persona", scopeProperties.personaTag(persona),
+                            "channel", scopeProperties.channelTag(channel))
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private record Scope(String persona, String channel) {
+    }
+
+    private record Entry(String question, float[] vector, String answer,
+            List<ReferenceDto> references, Double confidence) {
+
+        RagQueryResponse toResponse() {
+            return new RagQueryResponse(answer, references, confidence);
+        }
+    }
+}
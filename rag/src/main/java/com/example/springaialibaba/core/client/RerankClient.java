@@ -5,9 +5,23 @@ import com.example.springaialibaba.config.properties.SiliconFlowRerankProperties
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -27,9 +41,18 @@ import com.example.springaialibaba.model.dto.SiliconFlowRerankResponse.Result;
 
 /**
  * 调用 SiliconFlow Rerank API 的客户端。
+ *
+ * <p>结果按 (模型, 指令, topN, 查询, 有序候选文档) 缓存。并发到达的相同请求共享同一个
+ * 进行中的 {@link CompletableFuture}，只发送一次 HTTP 请求；失败的调用不会被缓存。</p>
+ *
+ * <p>{@link #rerankAsync(String, List)} 在有界的 Rerank 执行器上发起调用，并以
+ * {@code spring.ai.siliconflow.rerank.http.total-timeout} 限制调用方的等待时间，
+ * 慢速或饱和的 Rerank 服务不会长期占用请求线程。</p>
  */
 @Service
-public class RerankClient {
+public class RerankClient implements MeterBinder {
+
+    public static final String CACHE_NAME = "rag.rerank";
 
     private static final Logger log = LoggerFactory.getLogger(RerankClient.class);
 
@@ -37,22 +60,114 @@ public class RerankClient {
 
     private final SiliconFlowRerankProperties properties;
 
+    private final AsyncCache<CacheKey, List<RerankedDocument>> cache;
+
+    private final Executor executor;
+
     public RerankClient(RestTemplate restTemplate, SiliconFlowRerankProperties properties) {
+        this(restTemplate, properties, ForkJoinPool.commonPool());
+    }
+
+    @Autowired
+    public RerankClient(@Qualifier("rerankRestTemplate") RestTemplate restTemplate,
+            SiliconFlowRerankProperties properties, @Qualifier("rerankExecutor") Executor executor) {
         this.restTemplate = restTemplate;
         this.properties = properties;
+        this.executor = executor;
+        SiliconFlowRerankProperties.Cache cacheProperties = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(cacheProperties.getMaximumSize(), 0))
+                .expireAfterWrite(cacheProperties.getTtl())
+                .recordStats()
+                .buildAsync();
     }
 
     /**
-     * 根据查询和候选文档调用 Rerank API 并返回排序结果。
+     * 根据查询和候选文档调用 Rerank API 并返回排序结果，阻塞等待 {@link #rerankAsync(String, List)} 完成。
      * @param query 用户查询
      * @param documents 候选文档列表
      * @return 排序后的文档结果
      */
     public List<RerankedDocument> rerank(String query, List<String> documents) {
+        return await(rerankAsync(query, documents));
+    }
+
+    /**
+     * 异步调用 Rerank API，返回的 future 在整体超时后以 {@link java.util.concurrent.TimeoutException} 结束。
+     * 执行器饱和时 future 立即以 {@link SiliconFlowRerankException} 结束，调用方应降级处理。
+     * @param query 用户查询
+     * @param documents 候选文档列表
+     * @return 排序后的文档结果
+     */
+    public CompletableFuture<List<RerankedDocument>> rerankAsync(String query, List<String> documents) {
         Assert.hasText(query, "query 不能为空");
         if (CollectionUtils.isEmpty(documents)) {
-            return Collections.emptyList();
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        List<String> candidates = List.copyOf(documents);
+        CompletableFuture<List<RerankedDocument>> shared;
+        if (!properties.getCache().isEnabled()) {
+            shared = submit(query, candidates, null, new CompletableFuture<>());
         }
+        else {
+            CacheKey key = new CacheKey(properties.getModel(), properties.getInstruction(),
+                    resolveTopN(candidates.size()), query, candidates);
+            shared = cache.getIfPresent(key);
+            if (shared == null) {
+                CompletableFuture<List<RerankedDocument>> created = new CompletableFuture<>();
+                shared = cache.asMap().putIfAbsent(key, created);
+                if (shared == null) {
+                    shared = submit(query, candidates, key, created);
+                }
+            }
+        }
+        // 每个调用方单独计时，超时不影响共享 future 继续完成并写入缓存
+        return shared.copy().orTimeout(properties.getHttp().getTotalTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 清空 Rerank 结果缓存，知识库内容变化时调用。
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private CompletableFuture<List<RerankedDocument>> submit(String query, List<String> documents, CacheKey key,
+            CompletableFuture<List<RerankedDocument>> target) {
+        try {
+            executor.execute(() -> {
+                try {
+                    target.complete(List.copyOf(doRerank(query, documents)));
+                }
+                catch (RuntimeException ex) {
+                    fail(key, target, ex);
+                }
+            });
+        }
+        catch (RejectedExecutionException ex) {
+            log.warn("Rerank 执行器已饱和，拒绝本次调用");
+            fail(key, target, new SiliconFlowRerankException("Rerank 并发请求已达上限", ex));
+        }
+        return target;
+    }
+
+    /**
+     * 先移除缓存中失败的 future 再完成它：调用方的回调在完成时同步执行，
+     * 若依赖缓存自身的异步淘汰，立即重试的调用方仍可能拿到这次失败的结果。
+     */
+    private void fail(CacheKey key, CompletableFuture<List<RerankedDocument>> target, RuntimeException ex) {
+        if (key != null) {
+            cache.asMap().remove(key, target);
+        }
+        target.completeExceptionally(ex);
+    }
+
+    private List<RerankedDocument> doRerank(String query, List<String> documents) {
         SiliconFlowRerankRequest request = buildRequest(query, documents);
         ResponseEntity<SiliconFlowRerankResponse> response = invokeApi(request);
         SiliconFlowRerankResponse body = response.getBody();
@@ -124,6 +239,23 @@ public class RerankClient {
         return rerankedDocuments;
     }
 
+    private List<RerankedDocument> await(CompletableFuture<List<RerankedDocument>> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SiliconFlowRerankException("等待 Rerank 结果时被中断", ex);
+        }
+        catch (ExecutionException | CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SiliconFlowRerankException("调用 SiliconFlow Rerank API 出现异常", cause);
+        }
+    }
+
     private Integer resolveTopN(int documentCount) {
         Integer topN = properties.getTopN();
         if (topN == null) {
@@ -131,4 +263,7 @@ public class RerankClient {
         }
         return Math.min(Math.max(topN, 1), documentCount);
     }
+
+    private record CacheKey(String model, String instruction, Integer topN, String query, List<String> documents) {
+    }
 }
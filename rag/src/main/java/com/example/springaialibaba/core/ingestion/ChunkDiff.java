@@ -0,0 +1,84 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import com.alibaba.fastjson2.JSON;
+import com.example.springaialibaba.core.math.SimHash;
+
+/**
+ * 一组文档的新分块与库中已有分块的差异。
+ *
+ * <p>内容摘要不同的分块需要重新嵌入；摘要相同但 {@code document_id} 或 metadata 变化的分块只更新字段；
+ * 库中存在而新分块中不存在的为孤儿分块，需要删除。</p>
+ *
+ * @param added 库中不存在的分块
+ * @param changed 内容摘要变化的分块
+ * @param metadataChanged 内容不变、仅 {@code document_id} 或 metadata 变化的分块
+ * @param orphaned 需要删除的分块 ID
+ * @param unchanged 完全未变化的分块数
+ */
+public record ChunkDiff(List<ChunkRecord> added, List<ChunkRecord> changed, List<ChunkRecord> metadataChanged,
+        List<String> orphaned, int unchanged) {
+
+    /**
+     * 库中已有分块的摘要信息。
+     */
+    public record StoredChunk(String chunkId, String documentId, String contentHash, Map<String, Object> metadata) {
+    }
+
+    /**
+     * @param incoming 新分块，{@code chunk_id} 不应重复
+     * @param stored 库中属于同一批文档的分块，按 {@code chunk_id} 索引
+     */
+    public static ChunkDiff compute(Collection<ChunkRecord> incoming, Map<String, StoredChunk> stored) {
+        List<ChunkRecord> added = new ArrayList<>();
+        List<ChunkRecord> changed = new ArrayList<>();
+        List<ChunkRecord> metadataChanged = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int unchanged = 0;
+        for (ChunkRecord chunk : incoming) {
+            seen.add(chunk.chunkId());
+            StoredChunk existing = stored.get(chunk.chunkId());
+            if (existing == null) {
+                added.add(chunk);
+            }
+            else if (!ContentHash.of(chunk.content()).equals(existing.contentHash())) {
+                changed.add(chunk);
+            }
+            else if (!Objects.equals(chunk.documentId(), existing.documentId())
+                    || !normalise(chunk.metadata()).equals(normalise(existing.metadata()))) {
+                metadataChanged.add(chunk);
+            }
+            else {
+                unchanged++;
+            }
+        }
+        List<String> orphaned = stored.keySet().stream().filter(id -> !seen.contains(id)).sorted().toList();
+        return new ChunkDiff(added, changed, metadataChanged, orphaned, unchanged);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && metadataChanged.isEmpty() && orphaned.isEmpty();
+    }
+
+    /**
+     * 经 JSON 往返消除数值类型与键顺序差异，使 jsonb 读回的 metadata 与文件中的 metadata 可以直接比较。
+     *
+     * <p>{@value SimHash#METADATA_KEY} 由内容计算，已被内容摘要覆盖，不参与比较；
+     * 否则早于指纹写入的分块在每次重建时都会被判为 metadata 变化。</p>
+     */
+    private static Map<String, Object> normalise(Map<String, Object> metadata) {
+        if (metadata == null || metadata.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Object> normalised = JSON.parseObject(JSON.toJSONString(metadata));
+        normalised.remove(SimHash.METADATA_KEY);
+        return normalised;
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.springaialibaba.config.properties.IngestionProperties;
+import com.example.springaialibaba.core.model.CachingEmbeddingModel;
+
+/**
+ * 将分块 JSONL 流式写入 {@code rag_chunks} 的批量入库服务。
+ *
+ * <p>流水线分三段，段与段之间以有界队列连接，下游变慢时上游自动阻塞（背压），内存占用与语料规模无关：</p>
+ * <pre>
+ * 读取（1 线程，逐行解析并按 embed-batch-size 组批）
+ *     ↓ 有界队列
+ * 嵌入（embed-concurrency 个线程，每批一次 EmbeddingRequest，失败按指数退避重试）
+ *     ↓ 有界队列
+ * 写入（1 线程，累积到 write-batch-size 后二进制 COPY 并提交，随后推进断点）
+ * </pre>
+ *
+ * <p>嵌入批次可能乱序完成，断点只推进到每个文件中连续已提交的最大行号；写入为按 {@code chunk_id} 的
+ * upsert，因此断点之后少量已写入的分块在续传时被重复写入也不会产生脏数据。</p>
+ */
+@Service
+public class ChunkIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkIngestionService.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final EmbeddingModel embeddingModel;
+
+    private final RagChunkCopyWriter writer;
+
+    private final IngestionProperties properties;
+
+    private final Path baseDir;
+
+    private final ExecutorService jobExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("rag-ingestion-job-"));
+
+    private final Map<String, IngestionJob> jobs = new ConcurrentHashMap<>();
+
+    private final AtomicReference<String> runningJobId = new AtomicReference<>();
+
+    public ChunkIngestionService(EmbeddingModel embeddingModel, RagChunkCopyWriter writer,
+            IngestionProperties properties) {
+        // 文档向量不会被再次查询，绕过查询向量缓存，避免把热点查询挤出缓存
+        this.embeddingModel = embeddingModel instanceof CachingEmbeddingModel caching
+                ? caching.getDelegate() : embeddingModel;
+        this.writer = writer;
+        this.properties = properties;
+        this.baseDir = Paths.get(properties.getBaseDir()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * 在后台提交一次入库，同一时刻只允许一个任务运行。
+     *
+     * @param relativePath 相对 {@code app.ingestion.base-dir} 的文件或目录，为空时处理整个目录
+     * @param resume 是否从断点续传；为 {@code false} 时清空断点从头入库
+     * @throws IllegalStateException 已有任务在运行
+     */
+    public IngestionJob submit(String relativePath, boolean resume) {
+        Path target = IngestionPaths.resolve(baseDir, relativePath);
+        String id = UUID.randomUUID().toString();
+        if (!runningJobId.compareAndSet(null, id)) {
+            throw new IllegalStateException("已有入库任务在运行：" + runningJobId.get());
+        }
+        IngestionJob job = IngestionJob.running(id, baseDir.relativize(target).toString());
+        jobs.put(id, job);
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    jobs.put(id, job.succeeded(ingest(target, resume)));
+                }
+                catch (RuntimeException ex) {
+                    log.error("ChunkIngestionService: 入库任务 {} 失败：{}", id, ex.getMessage(), ex);
+                    jobs.put(id, job.failed(ex.getMessage()));
+                }
+                finally {
+                    runningJobId.set(null);
+                }
+            });
+        }
+        catch (RuntimeException ex) {
+            runningJobId.set(null);
+            jobs.remove(id);
+            throw ex;
+        }
+        return job;
+    }
+
+    public Optional<IngestionJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * 同步入库一个文件或目录下的全部 {@code *.jsonl} 文件。
+     */
+    public IngestionReport ingest(Path target, boolean resume) {
+        List<Path> files = IngestionPaths.listJsonlFiles(target);
+        IngestionCheckpoint checkpoint = IngestionCheckpoint.load(Paths.get(properties.getCheckpointFile()));
+        if (!resume) {
+            checkpoint.clear();
+        }
+        IngestionReport report = new Pipeline(files, checkpoint).run();
+        log.info("ChunkIngestionService: 入库完成，文件={}，读取={}，写入={}，断点跳过行={}，耗时={}ms", report.files(),
+                report.chunksRead(), report.chunksWritten(), report.linesSkipped(), report.elapsedMillis());
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    /**
+     * 一次入库运行的流水线状态。
+     */
+    private final class Pipeline {
+
+        private final Batch endOfStream = new Batch(null, 0, 0, List.of());
+
+        private final List<Path> files;
+
+        private final IngestionCheckpoint checkpoint;
+
+        private final BlockingQueue<Batch> toEmbed;
+
+        private final BlockingQueue<Batch> toWrite;
+
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private final AtomicInteger activeEmbedders;
+
+        private final AtomicLong chunksRead = new AtomicLong();
+
+        private final AtomicLong chunksWritten = new AtomicLong();
+
+        private final AtomicLong linesSkipped = new AtomicLong();
+
+        private Pipeline(List<Path> files, IngestionCheckpoint checkpoint) {
+            this.files = files;
+            this.checkpoint = checkpoint;
+            this.toEmbed = new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1));
+            this.toWrite = new ArrayBlockingQueue<>(Math.max(properties.getQueueCapacity(), 1));
+            this.activeEmbedders = new AtomicInteger(Math.max(properties.getEmbedConcurrency(), 1));
+        }
+
+        private IngestionReport run() {
+            long startedAt = System.nanoTime();
+            int embedders = activeEmbedders.get();
+            ExecutorService workers = Executors.newFixedThreadPool(embedders + 1,
+                    new CustomizableThreadFactory("rag-ingestion-"));
+            try {
+                for (int i = 0; i < embedders; i++) {
+                    workers.execute(this::embedLoop);
+                }
+                Future<?> writerDone = workers.submit(this::writeLoop);
+                try {
+                    readAll();
+                }
+                catch (IOException | RuntimeException ex) {
+                    fail(ex);
+                }
+                for (int i = 0; i < embedders; i++) {
+                    put(toEmbed, endOfStream);
+                }
+                writerDone.get();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+            catch (ExecutionException ex) {
+                fail(ex.getCause());
+            }
+            finally {
+                workers.shutdownNow();
+            }
+            Throwable cause = failure.get();
+            if (cause != null) {
+                throw new IllegalStateException("入库中断，已提交的进度已写入断点：" + cause.getMessage(), cause);
+            }
+            return new IngestionReport(files.size(), chunksRead.get(), chunksWritten.get(), linesSkipped.get(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        }
+
+        private void readAll() throws IOException {
+            int batchSize = Math.max(properties.getEmbedBatchSize(), 1);
+            for (Path file : files) {
+                Path absolute = file.toAbsolutePath().normalize();
+                String key = absolute.startsWith(baseDir) ? baseDir.relativize(absolute).toString()
+                        : absolute.toString();
+                long size = Files.size(file);
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                FileProgress progress = new FileProgress(key, size, modified,
+                        checkpoint.committedLines(key, size, modified));
+                try (ChunkJsonlReader reader = new ChunkJsonlReader(file)) {
+                    reader.skipLines(progress.committed);
+                    linesSkipped.addAndGet(reader.lineNumber());
+                    long fromLine = reader.lineNumber();
+                    List<ChunkRecord> chunks = new ArrayList<>(batchSize);
+                    ChunkRecord chunk;
+                    while ((chunk = reader.next()) != null) {
+                        chunks.add(chunk);
+                        chunksRead.incrementAndGet();
+                        if (chunks.size() == batchSize) {
+                            if (!put(toEmbed, new Batch(progress, fromLine, reader.lineNumber(), chunks))) {
+                                return;
+                            }
+                            fromLine = reader.lineNumber();
+                            chunks = new ArrayList<>(batchSize);
+                        }
+                    }
+                    if (!chunks.isEmpty()
+                            && !put(toEmbed, new Batch(progress, fromLine, reader.lineNumber(), chunks))) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        private void embedLoop() {
+            try {
+                Batch batch;
+                while ((batch = take(toEmbed)) != null && batch != endOfStream) {
+                    batch.embeddings = embedWithRetry(batch.chunks);
+                    if (!put(toWrite, batch)) {
+                        return;
+                    }
+                }
+            }
+            catch (RuntimeException ex) {
+                fail(ex);
+            }
+            finally {
+                if (activeEmbedders.decrementAndGet() == 0) {
+                    put(toWrite, endOfStream);
+                }
+            }
+        }
+
+        private void writeLoop() {
+            int writeBatchSize = Math.max(properties.getWriteBatchSize(), 1);
+            List<Batch> buffered = new ArrayList<>();
+            int bufferedChunks = 0;
+            try {
+                Batch batch;
+                while ((batch = take(toWrite)) != null) {
+                    if (batch == endOfStream) {
+                        flush(buffered);
+                        return;
+                    }
+                    buffered.add(batch);
+                    bufferedChunks += batch.chunks.size();
+                    if (bufferedChunks >= writeBatchSize) {
+                        flush(buffered);
+                        buffered.clear();
+                        bufferedChunks = 0;
+                    }
+                }
+            }
+            catch (RuntimeException ex) {
+                // 立即标记失败，让阻塞在队列上的读取与嵌入线程尽快退出
+                fail(ex);
+            }
+        }
+
+        private void flush(List<Batch> batches) {
+            if (batches.isEmpty()) {
+                return;
+            }
+            List<EmbeddedChunk> rows = new ArrayList<>();
+            for (Batch batch : batches) {
+                for (int i = 0; i < batch.chunks.size(); i++) {
+                    rows.add(new EmbeddedChunk(batch.chunks.get(i), batch.embeddings.get(i)));
+                }
+            }
+            writer.write(rows);
+            chunksWritten.addAndGet(rows.size());
+            for (Batch batch : batches) {
+                FileProgress file = batch.file;
+                checkpoint.advance(file.key, file.size, file.modified, file.complete(batch.fromLine, batch.toLine));
+            }
+            checkpoint.save();
+        }
+
+        private List<float[]> embedWithRetry(List<ChunkRecord> chunks) {
+            List<String> texts = chunks.stream().map(ChunkRecord::content).toList();
+            int maxAttempts = Math.max(properties.getMaxAttempts(), 1);
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    List<float[]> vectors = embeddingModel.embed(texts);
+                    if (vectors.size() != texts.size()) {
+                        throw new IllegalStateException("嵌入结果数量不匹配，期望 " + texts.size() + "，实际 " + vectors.size());
+                    }
+                    return vectors;
+                }
+                catch (RuntimeException ex) {
+                    if (attempt >= maxAttempts || failure.get() != null) {
+                        throw ex;
+                    }
+                    log.warn("ChunkIngestionService: 第 {} 次嵌入失败，稍后重试：{}", attempt, ex.getMessage());
+                    sleep(RETRY_BACKOFF_MILLIS << (attempt - 1));
+                }
+            }
+        }
+
+        private boolean put(BlockingQueue<Batch> queue, Batch batch) {
+            try {
+                while (failure.get() == null) {
+                    if (queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+            return false;
+        }
+
+        private Batch take(BlockingQueue<Batch> queue) {
+            try {
+                while (failure.get() == null) {
+                    Batch batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (batch != null) {
+                        return batch;
+                    }
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                fail(ex);
+            }
+            return null;
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("入库线程被中断", ex);
+            }
+        }
+
+        private void fail(Throwable ex) {
+            failure.compareAndSet(null, ex);
+        }
+    }
+
+    /**
+     * 一个嵌入批次：来自同一文件的连续若干行，行号区间为 {@code (fromLine, toLine]}。
+     */
+    private static final class Batch {
+
+        private final FileProgress file;
+
+        private final long fromLine;
+
+        private final long toLine;
+
+        private final List<ChunkRecord> chunks;
+
+        private volatile List<float[]> embeddings;
+
+        private Batch(FileProgress file, long fromLine, long toLine, List<ChunkRecord> chunks) {
+            this.file = file;
+            this.fromLine = fromLine;
+            this.toLine = toLine;
+            this.chunks = chunks;
+        }
+    }
+
+    /**
+     * 单个文件的提交进度，乱序完成的批次先暂存，直到与已提交的行号连续。
+     */
+    private static final class FileProgress {
+
+        private final String key;
+
+        private final long size;
+
+        private final long modified;
+
+        private final TreeMap<Long, Long> pending = new TreeMap<>();
+
+        private long committed;
+
+        private FileProgress(String key, long size, long modified, long committed) {
+            this.key = key;
+            this.size = size;
+            this.modified = modified;
+            this.committed = committed;
+        }
+
+        private synchronized long complete(long fromLine, long toLine) {
+            pending.put(fromLine, toLine);
+            Long next;
+            while ((next = pending.remove(committed)) != null) {
+                committed = next;
+            }
+            return committed;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.StringUtils;
+
+import com.example.springaialibaba.core.math.SimHash;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONException;
+import com.alibaba.fastjson2.JSONObject;
+
+/**
+ * 逐行流式读取分块 JSONL 文件，任意时刻只在内存中保留当前行。
+ *
+ * <p>空行会被跳过但计入行号；缺少 {@code document_id} 时使用文件名（去掉扩展名）作为文档 ID。
+ * 内容的 {@link SimHash} 指纹写入 metadata 的 {@value SimHash#METADATA_KEY}，检索后折叠近似重复分块时直接使用。</p>
+ */
+public class ChunkJsonlReader implements Closeable {
+
+    private final Path file;
+
+    private final BufferedReader reader;
+
+    private final String defaultDocumentId;
+
+    private long lineNumber;
+
+    public ChunkJsonlReader(Path file) throws IOException {
+        this.file = file;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        String fileName = file.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        this.defaultDocumentId = dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * 当前已读到的行号（从 1 开始），尚未读取时为 0。
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * 跳过前 {@code lines} 行而不解析，用于断点续传。
+     */
+    public void skipLines(long lines) throws IOException {
+        while (lineNumber < lines && reader.readLine() != null) {
+            lineNumber++;
+        }
+    }
+
+    /**
+     * 读取下一个分块，文件结束时返回 {@code null}。
+     */
+    public ChunkRecord next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (StringUtils.hasText(line)) {
+                return parse(line);
+            }
+        }
+        return null;
+    }
+
+    private ChunkRecord parse(String line) {
+        JSONObject json;
+        try {
+            json = JSON.parseObject(line);
+        }
+        catch (JSONException ex) {
+            throw new IllegalArgumentException(position() + " 不是合法的 JSON：" + ex.getMessage(), ex);
+        }
+        String chunkId = json.getString("chunk_id");
+        String content = json.getString("content");
+        if (!StringUtils.hasText(chunkId) || !StringUtils.hasText(content)) {
+            throw new IllegalArgumentException(position() + " 缺少 chunk_id 或 content");
+        }
+        String documentId = json.getString("document_id");
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        JSONObject rawMetadata = json.getJSONObject("metadata");
+        if (rawMetadata != null) {
+            rawMetadata.forEach((key, value) -> {
+                if (key != null && value != null) {
+                    metadata.put(key, value);
+                }
+            });
+        }
+        metadata.put(SimHash.METADATA_KEY, SimHash.toHex(SimHash.of(content)));
+        return new ChunkRecord(StringUtils.hasText(documentId) ? documentId : defaultDocumentId, chunkId, content,
+                metadata);
+    }
+
+    private String position() {
+        return file.getFileName() + ":" + lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
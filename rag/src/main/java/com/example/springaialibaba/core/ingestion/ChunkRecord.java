@@ -0,0 +1,9 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.util.Map;
+
+/**
+ * 分块 JSONL 中的一行，字段与 {@code vectorization-guide.md} 约定的输出格式一致。
+ */
+public record ChunkRecord(String documentId, String chunkId, String content, Map<String, Object> metadata) {
+}
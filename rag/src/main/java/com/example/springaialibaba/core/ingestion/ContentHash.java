@@ -0,0 +1,25 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 分块内容的 SHA-256 摘要，写入 {@code rag_chunks.content_hash}，用于判断分块是否需要重新嵌入。
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    public static String of(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("当前 JVM 不支持 SHA-256", ex);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.util.Set;
+
+/**
+ * 知识库 {@code rag_chunks} 的变更集，由增量索引在写入提交后发布，供下游缓存与索引按需失效。
+ *
+ * @param documentIds 受影响的文档（包括分块被删除或迁出的文档）
+ * @param upsertedChunkIds 新增、内容变化或 metadata 变化的分块
+ * @param deletedChunkIds 已删除的分块
+ */
+public record CorpusChangedEvent(Set<String> documentIds, Set<String> upsertedChunkIds,
+        Set<String> deletedChunkIds) {
+
+    public CorpusChangedEvent {
+        documentIds = Set.copyOf(documentIds);
+        upsertedChunkIds = Set.copyOf(upsertedChunkIds);
+        deletedChunkIds = Set.copyOf(deletedChunkIds);
+    }
+
+    public boolean isEmpty() {
+        return upsertedChunkIds.isEmpty() && deletedChunkIds.isEmpty();
+    }
+}
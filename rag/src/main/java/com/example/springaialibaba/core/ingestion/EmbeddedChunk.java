@@ -0,0 +1,7 @@
+package com.example.springaialibaba.core.ingestion;
+
+/**
+ * 已生成向量、等待写入 {@code rag_chunks} 的分块。
+ */
+public record EmbeddedChunk(ChunkRecord chunk, float[] embedding) {
+}
@@ -0,0 +1,216 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.alibaba.fastjson2.JSON;
+import com.example.springaialibaba.config.properties.IngestionProperties;
+import com.example.springaialibaba.core.model.CachingEmbeddingModel;
+import com.example.springaialibaba.core.vectorstore.RagChunkMetadata;
+import com.example.springaialibaba.core.vectorstore.SqlIdentifiers;
+
+/**
+ * 基于内容摘要的增量索引：只为新增或内容变化的分块调用嵌入服务，嵌入开销与耗时随变更量而非语料规模增长。
+ *
+ * <p>以文件为单位处理：读取文件中的全部分块，按其中出现的 {@code document_id} 一次性查出库中已有分块的
+ * {@code content_hash}（走 {@code idx_rag_chunks_document}），计算 {@link ChunkDiff} 后依次：</p>
+ * <ol>
+ *     <li>批量嵌入新增与变化的分块，经 {@link RagChunkCopyWriter} upsert（同时刷新 {@code last_modified}）；</li>
+ *     <li>批量更新仅 metadata 变化的分块，不重新嵌入；</li>
+ *     <li>按 {@code delete-batch-size} 分批删除这些文档中已不存在的孤儿分块。</li>
+ * </ol>
+ *
+ * <p>先写后删，检索在任何时刻都不会看到文档分块缺失。每一步都是幂等的，中途失败后重新执行即可从实际库状态继续。
+ * 全部完成后发布 {@link CorpusChangedEvent}，下游缓存据此失效。</p>
+ */
+@Service
+public class IncrementalIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalIndexer.class);
+
+    private final EmbeddingModel embeddingModel;
+
+    private final RagChunkCopyWriter writer;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final IngestionProperties properties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Path baseDir;
+
+    private final String tableName;
+
+    public IncrementalIndexer(EmbeddingModel embeddingModel, RagChunkCopyWriter writer, JdbcTemplate jdbcTemplate,
+            IngestionProperties properties, ApplicationEventPublisher eventPublisher) {
+        SqlIdentifiers.requireTableName(properties.getTableName());
+        this.embeddingModel = embeddingModel instanceof CachingEmbeddingModel caching
+                ? caching.getDelegate() : embeddingModel;
+        this.writer = writer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.baseDir = Paths.get(properties.getBaseDir()).toAbsolutePath().normalize();
+        this.tableName = properties.getTableName();
+    }
+
+    /**
+     * 增量索引 {@code app.ingestion.base-dir} 下的一个文件或目录，同一时刻只允许一次运行。
+     *
+     * @param relativePath 相对 {@code base-dir} 的路径，为空时处理整个目录
+     */
+    public synchronized ReindexReport reindex(String relativePath) {
+        long startedAt = System.nanoTime();
+        List<Path> files = IngestionPaths.listJsonlFiles(IngestionPaths.resolve(baseDir, relativePath));
+        Set<String> documents = new LinkedHashSet<>();
+        Set<String> affectedDocuments = new LinkedHashSet<>();
+        Set<String> upserted = new LinkedHashSet<>();
+        Set<String> deleted = new LinkedHashSet<>();
+        int added = 0;
+        int changed = 0;
+        int metadataUpdated = 0;
+        int unchanged = 0;
+        for (Path file : files) {
+            Map<String, ChunkRecord> incoming = readChunks(file);
+            if (incoming.isEmpty()) {
+                continue;
+            }
+            Set<String> documentIds = new LinkedHashSet<>();
+            incoming.values().forEach(chunk -> documentIds.add(chunk.documentId()));
+            documents.addAll(documentIds);
+            Map<String, ChunkDiff.StoredChunk> stored = loadStoredChunks(documentIds);
+            ChunkDiff diff = ChunkDiff.compute(incoming.values(), stored);
+
+            List<ChunkRecord> toEmbed = new ArrayList<>(diff.added());
+            toEmbed.addAll(diff.changed());
+            embedAndWrite(toEmbed);
+            updateMetadata(diff.metadataChanged());
+            deleteChunks(diff.orphaned());
+
+            added += diff.added().size();
+            changed += diff.changed().size();
+            metadataUpdated += diff.metadataChanged().size();
+            unchanged += diff.unchanged();
+            for (ChunkRecord chunk : toEmbed) {
+                upserted.add(chunk.chunkId());
+                affectedDocuments.add(chunk.documentId());
+            }
+            for (ChunkRecord chunk : diff.metadataChanged()) {
+                upserted.add(chunk.chunkId());
+                affectedDocuments.add(chunk.documentId());
+                affectedDocuments.add(stored.get(chunk.chunkId()).documentId());
+            }
+            for (String chunkId : diff.orphaned()) {
+                deleted.add(chunkId);
+                affectedDocuments.add(stored.get(chunkId).documentId());
+            }
+        }
+
+        ReindexReport report = new ReindexReport(files.size(), documents.size(), added, changed, metadataUpdated,
+                unchanged, deleted.size(), (System.nanoTime() - startedAt) / 1_000_000);
+        log.info("IncrementalIndexer: 增量索引完成，文件={}，文档={}，新增={}，变化={}，仅元数据={}，未变化={}，删除={}，耗时={}ms",
+                report.files(), report.documents(), report.added(), report.changed(), report.metadataUpdated(),
+                report.unchanged(), report.deleted(), report.elapsedMillis());
+        CorpusChangedEvent event = new CorpusChangedEvent(affectedDocuments, upserted, deleted);
+        if (!event.isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+        return report;
+    }
+
+    private Map<String, ChunkRecord> readChunks(Path file) {
+        // 同一文件内重复的 chunk_id 以最后一次出现为准，与 COPY 写入时的去重规则一致
+        Map<String, ChunkRecord> chunks = new LinkedHashMap<>();
+        try (ChunkJsonlReader reader = new ChunkJsonlReader(file)) {
+            ChunkRecord chunk;
+            while ((chunk = reader.next()) != null) {
+                chunks.remove(chunk.chunkId());
+                chunks.put(chunk.chunkId(), chunk);
+            }
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("读取分块文件失败：" + file, ex);
+        }
+        return chunks;
+    }
+
+    private Map<String, ChunkDiff.StoredChunk> loadStoredChunks(Collection<String> documentIds) {
+        Map<String, ChunkDiff.StoredChunk> stored = new HashMap<>();
+        RowCallbackHandler rowHandler = rs -> stored.put(rs.getString(1), new ChunkDiff.StoredChunk(
+                rs.getString(1), rs.getString(2), rs.getString(3),
+                RagChunkMetadata.parse(rs.getString(4))));
+        jdbcTemplate.query("SELECT chunk_id, document_id, content_hash, metadata::text FROM " + tableName
+                + " WHERE document_id = ANY(?)", textArray(documentIds), rowHandler);
+        return stored;
+    }
+
+    private void embedAndWrite(List<ChunkRecord> chunks) {
+        int embedBatchSize = Math.max(properties.getEmbedBatchSize(), 1);
+        int writeBatchSize = Math.max(properties.getWriteBatchSize(), 1);
+        List<EmbeddedChunk> pending = new ArrayList<>();
+        for (int from = 0; from < chunks.size(); from += embedBatchSize) {
+            List<ChunkRecord> batch = chunks.subList(from, Math.min(from + embedBatchSize, chunks.size()));
+            List<float[]> vectors = embeddingModel.embed(batch.stream().map(ChunkRecord::content).toList());
+            if (vectors.size() != batch.size()) {
+                throw new IllegalStateException("嵌入结果数量不匹配，期望 " + batch.size() + "，实际 " + vectors.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                pending.add(new EmbeddedChunk(batch.get(i), vectors.get(i)));
+            }
+            if (pending.size() >= writeBatchSize) {
+                writer.write(pending);
+                pending = new ArrayList<>();
+            }
+        }
+        if (!pending.isEmpty()) {
+            writer.write(pending);
+        }
+    }
+
+    private void updateMetadata(List<ChunkRecord> chunks) {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = chunks.stream()
+                .map(chunk -> new Object[] {chunk.documentId(), JSON.toJSONString(chunk.metadata()), chunk.chunkId()})
+                .toList();
+        jdbcTemplate.batchUpdate("UPDATE " + tableName
+                + " SET document_id = ?, metadata = ?::jsonb, last_modified = now() WHERE chunk_id = ?", rows);
+    }
+
+    private void deleteChunks(List<String> chunkIds) {
+        int batchSize = Math.max(properties.getDeleteBatchSize(), 1);
+        for (int from = 0; from < chunkIds.size(); from += batchSize) {
+            List<String> batch = chunkIds.subList(from, Math.min(from + batchSize, chunkIds.size()));
+            jdbcTemplate.update("DELETE FROM " + tableName + " WHERE chunk_id = ANY(?)", textArray(batch));
+        }
+    }
+
+    private static PreparedStatementSetter textArray(Collection<String> values) {
+        return ps -> {
+            Array array = ps.getConnection().createArrayOf("text", values.toArray());
+            ps.setArray(1, array);
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+
+/**
+ * 入库断点：记录每个 JSONL 文件已写入并提交的行数。
+ *
+ * <p>每条记录同时保存文件大小与修改时间，文件内容变化后断点自动失效、从头重新入库。
+ * 保存时先写临时文件再原子替换，进程在任意时刻崩溃都不会留下半截的断点文件。</p>
+ */
+public class IngestionCheckpoint {
+
+    private final Path path;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private IngestionCheckpoint(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * 读取断点文件，文件不存在时返回空断点。
+     */
+    public static IngestionCheckpoint load(Path path) {
+        IngestionCheckpoint checkpoint = new IngestionCheckpoint(path);
+        if (!Files.exists(path)) {
+            return checkpoint;
+        }
+        try {
+            JSONObject json = JSON.parseObject(Files.readString(path, StandardCharsets.UTF_8));
+            if (json != null) {
+                json.forEach((key, value) -> {
+                    JSONObject entry = (JSONObject) value;
+                    checkpoint.entries.put(key, new Entry(entry.getLongValue("lines"), entry.getLongValue("size"),
+                            entry.getLongValue("modified")));
+                });
+            }
+            return checkpoint;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("读取入库断点失败：" + path, ex);
+        }
+    }
+
+    /**
+     * 返回文件已提交的行数；文件大小或修改时间与断点记录不一致时返回 0。
+     */
+    public synchronized long committedLines(String key, long size, long modified) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.size() != size || entry.modified() != modified) {
+            return 0;
+        }
+        return entry.lines();
+    }
+
+    public synchronized void advance(String key, long size, long modified, long lines) {
+        entries.put(key, new Entry(lines, size, modified));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized void save() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> json.put(key,
+                Map.of("lines", entry.lines(), "size", entry.size(), "modified", entry.modified())));
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.writeString(temp, JSON.toJSONString(json), StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("保存入库断点失败：" + path, ex);
+        }
+    }
+
+    private record Entry(long lines, long size, long modified) {
+    }
+}
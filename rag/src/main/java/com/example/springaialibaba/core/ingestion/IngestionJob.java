@@ -0,0 +1,26 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.time.OffsetDateTime;
+
+/**
+ * 异步入库任务的状态快照。
+ */
+public record IngestionJob(String id, String path, Status status, OffsetDateTime startedAt,
+        OffsetDateTime finishedAt, IngestionReport report, String error) {
+
+    public enum Status {
+        RUNNING, SUCCEEDED, FAILED
+    }
+
+    static IngestionJob running(String id, String path) {
+        return new IngestionJob(id, path, Status.RUNNING, OffsetDateTime.now(), null, null, null);
+    }
+
+    IngestionJob succeeded(IngestionReport report) {
+        return new IngestionJob(id, path, Status.SUCCEEDED, startedAt, OffsetDateTime.now(), report, null);
+    }
+
+    IngestionJob failed(String error) {
+        return new IngestionJob(id, path, Status.FAILED, startedAt, OffsetDateTime.now(), null, error);
+    }
+}
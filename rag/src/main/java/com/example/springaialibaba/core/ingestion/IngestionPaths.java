@@ -0,0 +1,53 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * 入库路径的解析与遍历，全量入库与增量索引共用。
+ */
+final class IngestionPaths {
+
+    private IngestionPaths() {
+    }
+
+    /**
+     * 将相对路径解析到 {@code baseDir} 之内，为空时返回 {@code baseDir} 本身。
+     *
+     * @throws IllegalArgumentException 路径越出 {@code baseDir} 或不存在
+     */
+    static Path resolve(Path baseDir, String relativePath) {
+        Path target = StringUtils.hasText(relativePath) ? baseDir.resolve(relativePath).normalize() : baseDir;
+        if (!target.startsWith(baseDir)) {
+            throw new IllegalArgumentException("入库路径必须位于 " + baseDir + " 之内：" + relativePath);
+        }
+        if (!Files.exists(target)) {
+            throw new IllegalArgumentException("入库路径不存在：" + target);
+        }
+        return target;
+    }
+
+    /**
+     * 文件本身，或目录下按路径排序的全部 {@code *.jsonl} 文件。
+     */
+    static List<Path> listJsonlFiles(Path target) {
+        if (Files.isRegularFile(target)) {
+            return List.of(target);
+        }
+        try (Stream<Path> paths = Files.walk(target)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".jsonl"))
+                    .sorted()
+                    .toList();
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException("遍历入库目录失败：" + target, ex);
+        }
+    }
+}
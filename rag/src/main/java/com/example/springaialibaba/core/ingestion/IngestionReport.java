@@ -0,0 +1,13 @@
+package com.example.springaialibaba.core.ingestion;
+
+/**
+ * 一次入库的统计结果。
+ *
+ * @param files 处理的 JSONL 文件数
+ * @param chunksRead 本次读取并解析的分块数（不含按断点跳过的部分）
+ * @param chunksWritten 写入 {@code rag_chunks} 的分块数
+ * @param linesSkipped 按断点跳过的行数
+ * @param elapsedMillis 总耗时
+ */
+public record IngestionReport(int files, long chunksRead, long chunksWritten, long linesSkipped, long elapsedMillis) {
+}
@@ -0,0 +1,145 @@
+package com.example.springaialibaba.core.ingestion;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+
+import com.alibaba.fastjson2.JSON;
+import com.example.springaialibaba.config.properties.IngestionProperties;
+import com.example.springaialibaba.core.vectorstore.SqlIdentifiers;
+
+/**
+ * 通过 PostgreSQL 二进制 {@code COPY} 批量写入 {@code rag_chunks}。
+ *
+ * <p>{@code COPY} 本身不支持冲突处理，因此先写入会话级临时表，再用一条
+ * {@code INSERT ... ON CONFLICT (chunk_id) DO UPDATE} 合并到目标表，整批在同一事务中提交。
+ * 每行同时写入内容的 SHA-256（{@link ContentHash}），供增量索引比对。
+ * 向量按 pgvector 的二进制接收格式编码（维度、保留位、大端 float4），metadata 按 jsonb 二进制格式编码。</p>
+ */
+@Component
+public class RagChunkCopyWriter {
+
+    private static final String STAGING_TABLE = "rag_chunks_ingest";
+
+    private static final byte[] COPY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private static final int JSONB_VERSION = 1;
+
+    private final DataSource dataSource;
+
+    private final String tableName;
+
+    public RagChunkCopyWriter(DataSource dataSource, IngestionProperties properties) {
+        SqlIdentifiers.requireTableName(properties.getTableName());
+        this.dataSource = dataSource;
+        this.tableName = properties.getTableName();
+    }
+
+    /**
+     * 在一个事务内写入整批分块，返回写入的行数。
+     */
+    public int write(List<EmbeddedChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return 0;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TEMP TABLE IF NOT EXISTS " + STAGING_TABLE
+                            + " (chunk_id TEXT, document_id TEXT, content TEXT, content_hash TEXT, embedding VECTOR,"
+                            + " metadata JSONB) ON COMMIT DELETE ROWS");
+                }
+                copyIntoStaging(connection.unwrap(PGConnection.class), chunks);
+                int merged;
+                try (Statement statement = connection.createStatement()) {
+                    merged = statement.executeUpdate(mergeSql());
+                }
+                connection.commit();
+                return merged;
+            }
+            catch (SQLException | IOException | RuntimeException ex) {
+                connection.rollback();
+                throw ex;
+            }
+            finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+        catch (SQLException | IOException ex) {
+            throw new DataAccessResourceFailureException("COPY 写入 " + tableName + " 失败：" + ex.getMessage(), ex);
+        }
+    }
+
+    private void copyIntoStaging(PGConnection connection, List<EmbeddedChunk> chunks) throws SQLException, IOException {
+        String copySql = "COPY " + STAGING_TABLE
+                + " (chunk_id, document_id, content, content_hash, embedding, metadata) FROM STDIN (FORMAT binary)";
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new PGCopyOutputStream(connection, copySql), 1 << 16))) {
+            out.write(COPY_SIGNATURE);
+            out.writeInt(0);
+            out.writeInt(0);
+            for (EmbeddedChunk embedded : chunks) {
+                ChunkRecord chunk = embedded.chunk();
+                out.writeShort(6);
+                writeText(out, chunk.chunkId());
+                writeText(out, chunk.documentId());
+                writeText(out, chunk.content());
+                writeText(out, ContentHash.of(chunk.content()));
+                writeVector(out, embedded.embedding());
+                writeJsonb(out, JSON.toJSONString(chunk.metadata()));
+            }
+            out.writeShort(-1);
+        }
+    }
+
+    private String mergeSql() {
+        // 同一批内重复的 chunk_id 只保留一行，否则 ON CONFLICT 会在同一语句中重复更新同一行而报错
+        return "INSERT INTO " + tableName
+                + " (id, chunk_id, document_id, content, content_hash, embedding, metadata, last_modified)"
+                + " SELECT DISTINCT ON (chunk_id) chunk_id, chunk_id, document_id, content, content_hash, embedding,"
+                + " metadata, now() FROM " + STAGING_TABLE
+                + " ON CONFLICT (chunk_id) DO UPDATE SET id = EXCLUDED.id, document_id = EXCLUDED.document_id,"
+                + " content = EXCLUDED.content, content_hash = EXCLUDED.content_hash, embedding = EXCLUDED.embedding,"
+                + " metadata = EXCLUDED.metadata, last_modified = EXCLUDED.last_modified";
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVector(DataOutputStream out, float[] vector) throws IOException {
+        out.writeInt(4 + vector.length * 4);
+        out.writeShort(vector.length);
+        out.writeShort(0);
+        for (float value : vector) {
+            out.writeFloat(value);
+        }
+    }
+
+    private static void writeJsonb(DataOutputStream out, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length + 1);
+        out.writeByte(JSONB_VERSION);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.springaialibaba.core.ingestion;
+
+/**
+ * 一次增量索引的统计；{@code added + changed} 即本次实际调用嵌入服务的分块数。
+ */
+public record ReindexReport(int files, int documents, int added, int changed, int metadataUpdated, int unchanged,
+        int deleted, long elapsedMillis) {
+}
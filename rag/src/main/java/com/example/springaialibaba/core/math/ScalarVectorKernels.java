@@ -0,0 +1,88 @@
+package com.example.springaialibaba.core.math;
+
+/**
+ * 标量实现：四路累加打破单一累加变量的依赖链，在没有 Vector API 时仍能利用指令级并行。
+ */
+final class ScalarVectorKernels implements VectorKernels {
+
+    @Override
+    public float dot(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        float sum0 = 0.0f;
+        float sum1 = 0.0f;
+        float sum2 = 0.0f;
+        float sum3 = 0.0f;
+        int i = 0;
+        for (int bound = length - 3; i < bound; i += 4) {
+            sum0 += left[leftOffset + i] * right[rightOffset + i];
+            sum1 += left[leftOffset + i + 1] * right[rightOffset + i + 1];
+            sum2 += left[leftOffset + i + 2] * right[rightOffset + i + 2];
+            sum3 += left[leftOffset + i + 3] * right[rightOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += left[leftOffset + i] * right[rightOffset + i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public float cosine(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        float dot0 = 0.0f;
+        float dot1 = 0.0f;
+        float leftNorm0 = 0.0f;
+        float leftNorm1 = 0.0f;
+        float rightNorm0 = 0.0f;
+        float rightNorm1 = 0.0f;
+        int i = 0;
+        for (int bound = length - 1; i < bound; i += 2) {
+            float l0 = left[leftOffset + i];
+            float r0 = right[rightOffset + i];
+            float l1 = left[leftOffset + i + 1];
+            float r1 = right[rightOffset + i + 1];
+            dot0 += l0 * r0;
+            dot1 += l1 * r1;
+            leftNorm0 += l0 * l0;
+            leftNorm1 += l1 * l1;
+            rightNorm0 += r0 * r0;
+            rightNorm1 += r1 * r1;
+        }
+        for (; i < length; i++) {
+            float l = left[leftOffset + i];
+            float r = right[rightOffset + i];
+            dot0 += l * r;
+            leftNorm0 += l * l;
+            rightNorm0 += r * r;
+        }
+        return VectorMath.cosineFromSums(dot0 + dot1, leftNorm0 + leftNorm1, rightNorm0 + rightNorm1);
+    }
+
+    @Override
+    public float l2Squared(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        float sum0 = 0.0f;
+        float sum1 = 0.0f;
+        float sum2 = 0.0f;
+        float sum3 = 0.0f;
+        int i = 0;
+        for (int bound = length - 3; i < bound; i += 4) {
+            float d0 = left[leftOffset + i] - right[rightOffset + i];
+            float d1 = left[leftOffset + i + 1] - right[rightOffset + i + 1];
+            float d2 = left[leftOffset + i + 2] - right[rightOffset + i + 2];
+            float d3 = left[leftOffset + i + 3] - right[rightOffset + i + 3];
+            sum0 += d0 * d0;
+            sum1 += d1 * d1;
+            sum2 += d2 * d2;
+            sum3 += d3 * d3;
+        }
+        for (; i < length; i++) {
+            float d = left[leftOffset + i] - right[rightOffset + i];
+            sum0 += d * d;
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public void scale(float[] vector, int offset, int length, float factor) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            vector[i] *= factor;
+        }
+    }
+}
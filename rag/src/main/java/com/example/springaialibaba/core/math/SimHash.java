@@ -0,0 +1,99 @@
+package com.example.springaialibaba.core.math;
+
+import java.util.HexFormat;
+
+/**
+ * 64 位 SimHash 文本指纹，用于识别近似重复的分块。
+ *
+ * <p>文本先转小写并只保留字母、数字（含汉字），再按 {@value #SHINGLE_SIZE} 字符滑动窗口切片，
+ * 每个切片的 64 位哈希按位投票得到指纹。重叠切分产生的相邻分块、套话相同的 FAQ 条目指纹的汉明距离很小，
+ * 因此两段文本是否近似重复只需比较一次 {@link Long#bitCount(long)}。</p>
+ */
+public final class SimHash {
+
+    /**
+     * 分块 metadata 中保存指纹（16 位十六进制）的键，入库时预先计算。
+     */
+    public static final String METADATA_KEY = "simhash";
+
+    private static final int SHINGLE_SIZE = 3;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SimHash() {
+    }
+
+    public static long of(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0L;
+        }
+        char[] normalized = new char[text.length()];
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized[length++] = Character.toLowerCase(c);
+            }
+        }
+        if (length == 0) {
+            return 0L;
+        }
+        int[] votes = new int[Long.SIZE];
+        int window = Math.min(SHINGLE_SIZE, length);
+        for (int start = 0; start + window <= length; start++) {
+            long hash = hash(normalized, start, window);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+        long fingerprint = 0L;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long left, long right) {
+        return Long.bitCount(left ^ right);
+    }
+
+    public static String toHex(long fingerprint) {
+        return HexFormat.of().toHexDigits(fingerprint);
+    }
+
+    /**
+     * 解析 {@link #toHex(long)} 的结果，格式不合法时返回 {@code null}。
+     */
+    public static Long parseHex(Object value) {
+        if (!(value instanceof String text) || text.length() != 16) {
+            return null;
+        }
+        try {
+            return HexFormat.fromHexDigitsToLong(text);
+        }
+        catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * FNV-1a 之后再做一次 64 位混合，使相邻切片的哈希位分布足够均匀。
+     */
+    private static long hash(char[] chars, int start, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = start; i < start + length; i++) {
+            hash ^= chars[i];
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springaialibaba.core.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 {@code jdk.incubator.vector} 的 SIMD 实现，使用当前 CPU 的首选向量宽度（AVX2 为 8 路，AVX-512 为 16 路）。
+ *
+ * <p>主循环两路展开以掩盖加法延迟，尾部不足一个向量宽度的元素按标量处理。只能通过
+ * {@link VectorMath} 反射加载，运行时未开启 {@code --add-modules jdk.incubator.vector} 时不会触碰本类。</p>
+ */
+final class SimdVectorKernels implements VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private static final int STEP = SPECIES.length();
+
+    SimdVectorKernels() {
+        if (STEP < 4) {
+            throw new UnsupportedOperationException("首选向量宽度过窄：" + STEP);
+        }
+    }
+
+    @Override
+    public float dot(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i + STEP < upper; i += 2 * STEP) {
+            acc0 = acc0.add(FloatVector.fromArray(SPECIES, left, leftOffset + i)
+                    .mul(FloatVector.fromArray(SPECIES, right, rightOffset + i)));
+            acc1 = acc1.add(FloatVector.fromArray(SPECIES, left, leftOffset + i + STEP)
+                    .mul(FloatVector.fromArray(SPECIES, right, rightOffset + i + STEP)));
+        }
+        for (; i < upper; i += STEP) {
+            acc0 = acc0.add(FloatVector.fromArray(SPECIES, left, leftOffset + i)
+                    .mul(FloatVector.fromArray(SPECIES, right, rightOffset + i)));
+        }
+        float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += left[leftOffset + i] * right[rightOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public float cosine(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        FloatVector dot = FloatVector.zero(SPECIES);
+        FloatVector leftNorm = FloatVector.zero(SPECIES);
+        FloatVector rightNorm = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += STEP) {
+            FloatVector l = FloatVector.fromArray(SPECIES, left, leftOffset + i);
+            FloatVector r = FloatVector.fromArray(SPECIES, right, rightOffset + i);
+            dot = dot.add(l.mul(r));
+            leftNorm = leftNorm.add(l.mul(l));
+            rightNorm = rightNorm.add(r.mul(r));
+        }
+        float dotSum = dot.reduceLanes(VectorOperators.ADD);
+        float leftSum = leftNorm.reduceLanes(VectorOperators.ADD);
+        float rightSum = rightNorm.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float l = left[leftOffset + i];
+            float r = right[rightOffset + i];
+            dotSum += l * r;
+            leftSum += l * l;
+            rightSum += r * r;
+        }
+        return VectorMath.cosineFromSums(dotSum, leftSum, rightSum);
+    }
+
+    @Override
+    public float l2Squared(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i + STEP < upper; i += 2 * STEP) {
+            FloatVector d0 = FloatVector.fromArray(SPECIES, left, leftOffset + i)
+                    .sub(FloatVector.fromArray(SPECIES, right, rightOffset + i));
+            FloatVector d1 = FloatVector.fromArray(SPECIES, left, leftOffset + i + STEP)
+                    .sub(FloatVector.fromArray(SPECIES, right, rightOffset + i + STEP));
+            acc0 = acc0.add(d0.mul(d0));
+            acc1 = acc1.add(d1.mul(d1));
+        }
+        for (; i < upper; i += STEP) {
+            FloatVector d = FloatVector.fromArray(SPECIES, left, leftOffset + i)
+                    .sub(FloatVector.fromArray(SPECIES, right, rightOffset + i));
+            acc0 = acc0.add(d.mul(d));
+        }
+        float sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            float d = left[leftOffset + i] - right[rightOffset + i];
+            sum += d * d;
+        }
+        return sum;
+    }
+
+    @Override
+    public void scale(float[] vector, int offset, int length, float factor) {
+        int upper = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upper; i += STEP) {
+            FloatVector.fromArray(SPECIES, vector, offset + i).mul(factor).intoArray(vector, offset + i);
+        }
+        for (; i < length; i++) {
+            vector[offset + i] *= factor;
+        }
+    }
+}
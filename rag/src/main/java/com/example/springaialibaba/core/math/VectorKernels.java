@@ -0,0 +1,18 @@
+package com.example.springaialibaba.core.math;
+
+/**
+ * {@link VectorMath} 的底层实现，按区间操作连续存放的 {@code float[]}，调用方负责校验下标。
+ */
+interface VectorKernels {
+
+    float dot(float[] left, int leftOffset, float[] right, int rightOffset, int length);
+
+    /**
+     * 单次遍历同时累加点积与两侧模长，返回余弦相似度；任一侧为零向量时返回 0。
+     */
+    float cosine(float[] left, int leftOffset, float[] right, int rightOffset, int length);
+
+    float l2Squared(float[] left, int leftOffset, float[] right, int rightOffset, int length);
+
+    void scale(float[] vector, int offset, int length, float factor);
+}
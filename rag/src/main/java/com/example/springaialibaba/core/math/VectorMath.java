@@ -0,0 +1,226 @@
+package com.example.springaialibaba.core.math;
+
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 进程内向量运算内核：点积、余弦、L2 距离、归一化与批量 topK。
+ *
+ * <p>JVM 以 {@code --add-modules jdk.incubator.vector} 启动时使用 SIMD 实现，否则退化为标量实现，
+ * 两者结果只存在浮点累加顺序带来的微小误差。可通过 {@code -Drag.vector-math.simd=false} 强制使用标量实现。</p>
+ *
+ * <p>所有方法都不分配中间对象（{@link #topK} 与 {@link #normalize(float[])} 的返回值除外），
+ * 多线程可直接并发调用。</p>
+ */
+public final class VectorMath {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorMath.class);
+
+    private static final String SIMD_PROPERTY = "rag.vector-math.simd";
+
+    private static final VectorKernels KERNELS = loadKernels();
+
+    private VectorMath() {
+    }
+
+    /**
+     * 当前是否使用 SIMD 实现。
+     */
+    public static boolean isSimdEnabled() {
+        return !(KERNELS instanceof ScalarVectorKernels);
+    }
+
+    public static float dot(float[] left, float[] right) {
+        checkSameLength(left, right);
+        return KERNELS.dot(left, 0, right, 0, left.length);
+    }
+
+    /**
+     * 对两个数组中各自从 offset 起的 length 个元素求点积，适用于按行连续存放的向量矩阵。
+     */
+    public static float dot(float[] left, int leftOffset, float[] right, int rightOffset, int length) {
+        Objects.checkFromIndexSize(leftOffset, length, left.length);
+        Objects.checkFromIndexSize(rightOffset, length, right.length);
+        return KERNELS.dot(left, leftOffset, right, rightOffset, length);
+    }
+
+    /**
+     * 余弦相似度，任一侧为零向量时返回 0。已归一化的向量直接用 {@link #dot(float[], float[])} 更快。
+     */
+    public static float cosine(float[] left, float[] right) {
+        checkSameLength(left, right);
+        return KERNELS.cosine(left, 0, right, 0, left.length);
+    }
+
+    public static float l2Squared(float[] left, float[] right) {
+        checkSameLength(left, right);
+        return KERNELS.l2Squared(left, 0, right, 0, left.length);
+    }
+
+    public static float l2(float[] left, float[] right) {
+        return (float) Math.sqrt(l2Squared(left, right));
+    }
+
+    public static float norm(float[] vector) {
+        return (float) Math.sqrt(KERNELS.dot(vector, 0, vector, 0, vector.length));
+    }
+
+    /**
+     * 原地缩放为单位向量，零向量保持不变；返回缩放前的模长。
+     */
+    public static float normalizeInPlace(float[] vector) {
+        float norm = norm(vector);
+        if (norm > 0.0f) {
+            KERNELS.scale(vector, 0, vector.length, 1.0f / norm);
+        }
+        return norm;
+    }
+
+    /**
+     * 返回单位化后的副本，原数组不变。
+     */
+    public static float[] normalize(float[] vector) {
+        float[] copy = vector.clone();
+        normalizeInPlace(copy);
+        return copy;
+    }
+
+    public static void scale(float[] vector, float factor) {
+        KERNELS.scale(vector, 0, vector.length, factor);
+    }
+
+    /**
+     * 计算 query 与按行连续存放的 {@code rows} 个向量的点积，结果写入 {@code scores[0..rows)}。
+     */
+    public static void dotBatch(float[] query, float[] matrix, int rows, float[] scores) {
+        int dimensions = query.length;
+        Objects.checkFromIndexSize(0, Math.multiplyExact(rows, dimensions), matrix.length);
+        Objects.checkFromIndexSize(0, rows, scores.length);
+        for (int row = 0, offset = 0; row < rows; row++, offset += dimensions) {
+            scores[row] = KERNELS.dot(query, 0, matrix, offset, dimensions);
+        }
+    }
+
+    /**
+     * 按点积从按行连续存放的向量中选出最相似的 k 行，按分数从高到低返回。
+     * 行向量与 query 均已归一化时即为余弦 topK。
+     */
+    public static TopK topK(float[] query, float[] matrix, int rows, int k) {
+        int dimensions = query.length;
+        Objects.checkFromIndexSize(0, Math.multiplyExact(rows, dimensions), matrix.length);
+        int limit = Math.min(Math.max(k, 0), rows);
+        // 小顶堆：heapScores[0] 为当前第 k 名的分数
+        int[] heapIndices = new int[limit];
+        float[] heapScores = new float[limit];
+        int size = 0;
+        for (int row = 0, offset = 0; row < rows && limit > 0; row++, offset += dimensions) {
+            float score = KERNELS.dot(query, 0, matrix, offset, dimensions);
+            if (size < limit) {
+                heapIndices[size] = row;
+                heapScores[size] = score;
+                siftUp(heapIndices, heapScores, size++);
+            }
+            else if (score > heapScores[0]) {
+                heapIndices[0] = row;
+                heapScores[0] = score;
+                siftDown(heapIndices, heapScores, size);
+            }
+        }
+        int[] indices = new int[size];
+        float[] scores = new float[size];
+        for (int i = size - 1; i >= 0; i--) {
+            indices[i] = heapIndices[0];
+            scores[i] = heapScores[0];
+            heapIndices[0] = heapIndices[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapIndices, heapScores, i);
+        }
+        return new TopK(indices, scores);
+    }
+
+    static float cosineFromSums(float dot, float leftNorm, float rightNorm) {
+        if (leftNorm == 0.0f || rightNorm == 0.0f) {
+            return 0.0f;
+        }
+        return (float) (dot / Math.sqrt((double) leftNorm * rightNorm));
+    }
+
+    private static void siftUp(int[] indices, float[] scores, int position) {
+        int index = indices[position];
+        float score = scores[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (scores[parent] <= score) {
+                break;
+            }
+            indices[position] = indices[parent];
+            scores[position] = scores[parent];
+            position = parent;
+        }
+        indices[position] = index;
+        scores[position] = score;
+    }
+
+    private static void siftDown(int[] indices, float[] scores, int size) {
+        if (size == 0) {
+            return;
+        }
+        int index = indices[0];
+        float score = scores[0];
+        int position = 0;
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && scores[child + 1] < scores[child]) {
+                child++;
+            }
+            if (score <= scores[child]) {
+                break;
+            }
+            indices[position] = indices[child];
+            scores[position] = scores[child];
+            position = child;
+        }
+        indices[position] = index;
+        scores[position] = score;
+    }
+
+    private static void checkSameLength(float[] left, float[] right) {
+        if (left.length != right.length) {
+            throw new IllegalArgumentException("向量维度不一致：" + left.length + " != " + right.length);
+        }
+    }
+
+    private static VectorKernels loadKernels() {
+        if (!Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))) {
+            return new ScalarVectorKernels();
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            log.info("VectorMath: 未启用 jdk.incubator.vector 模块，使用标量实现");
+            return new ScalarVectorKernels();
+        }
+        try {
+            VectorKernels kernels = (VectorKernels) Class.forName(VectorMath.class.getPackageName() + ".SimdVectorKernels")
+                    .getDeclaredConstructor()
+                    .newInstance();
+            log.info("VectorMath: 使用 SIMD 实现");
+            return kernels;
+        }
+        catch (ReflectiveOperationException | LinkageError | RuntimeException ex) {
+            log.info("VectorMath: SIMD 实现不可用，使用标量实现：{}", ex.toString());
+            return new ScalarVectorKernels();
+        }
+    }
+
+    /**
+     * topK 结果，{@code indices[i]} 为行号，{@code scores[i]} 为对应点积，按分数从高到低排列。
+     */
+    public record TopK(int[] indices, float[] scores) {
+
+        public int size() {
+            return indices.length;
+        }
+    }
+}
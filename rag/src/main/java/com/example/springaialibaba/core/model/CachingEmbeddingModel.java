@@ -0,0 +1,175 @@
+package com.example.springaialibaba.core.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.embedding.EmbeddingResponseMetadata;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * 在远程嵌入模型前增加进程内缓存的 {@link EmbeddingModel} 装饰器。
+ *
+ * <p>缓存 key 为 (模型名, 维度, 查询文本)，查询文本已由 {@code QueryPreprocessor} 规范化，
+ * 相同 FAQ 表述的重复查询直接命中缓存，省去一次嵌入接口的网络往返。
+ * 缓存按条目数量与写入后存活时间淘汰，向量以 {@code float[]} 紧凑存储。</p>
+ *
+ * <p>只缓存单条输入的请求，即 {@link #embed(String)} 等查询路径。多条输入的请求来自
+ * {@code VectorStore#add} 等批量入库路径，直接转发给被装饰的模型，避免入库文本挤占查询缓存；
+ * 文档入库路径（{@link #embed(Document)}）同样不经过缓存。一次请求内的多条查询文本（如扩展出的子查询）
+ * 通过 {@link #embedQueries(List)} 逐条查缓存，只把未命中的文本合并为一次调用。</p>
+ *
+ * <p>命中率、未命中数、淘汰数等指标通过 {@link MeterBinder} 以 {@code cache="rag.embedding"}
+ * 标签暴露到 Micrometer。</p>
+ */
+public class CachingEmbeddingModel implements EmbeddingModel, MeterBinder {
+
+    public static final String CACHE_NAME = "rag.embedding";
+
+    private static final Logger log = LoggerFactory.getLogger(CachingEmbeddingModel.class);
+
+    private final EmbeddingModel delegate;
+
+    private final String defaultModelName;
+
+    private final Cache<CacheKey, float[]> cache;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, String defaultModelName, long maximumSize, Duration ttl) {
+        Assert.notNull(delegate, "delegate 不能为空");
+        Assert.isTrue(maximumSize >= 0, "maximumSize 不能为负数");
+        Assert.notNull(ttl, "ttl 不能为空");
+        this.delegate = delegate;
+        this.defaultModelName = StringUtils.hasText(defaultModelName) ? defaultModelName : "default";
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        Assert.notNull(request, "EmbeddingRequest 不能为空");
+        List<String> inputs = request.getInstructions();
+        if (inputs.size() != 1) {
+            return delegate.call(request);
+        }
+        String modelName = resolveModelName(request.getOptions());
+        Integer dimensions = request.getOptions() != null ? request.getOptions().getDimensions() : null;
+
+        CacheKey key = new CacheKey(modelName, dimensions, inputs.get(0));
+        float[] vector = cache.getIfPresent(key);
+        EmbeddingResponseMetadata metadata = null;
+        if (vector == null) {
+            EmbeddingResponse response = delegate.call(request);
+            metadata = response.getMetadata();
+            List<Embedding> results = response.getResults();
+            if (results.isEmpty()) {
+                throw new IllegalStateException("嵌入模型未返回查询文本的向量");
+            }
+            vector = results.get(0).getOutput();
+            cache.put(key, vector);
+        }
+        log.debug("EmbeddingCache: {}", metadata == null ? "命中" : "未命中");
+
+        if (metadata == null) {
+            metadata = new EmbeddingResponseMetadata();
+            metadata.setModel(modelName);
+        }
+        // 返回副本，避免调用方修改缓存中的向量
+        return new EmbeddingResponse(List.of(new Embedding(vector.clone(), 0)), metadata);
+    }
+
+    /**
+     * 嵌入一组查询文本：逐条查缓存，未命中的文本合并为一次调用发送给被装饰的模型并写回缓存。
+     *
+     * @param texts 已规范化的查询文本
+     * @return 与 {@code texts} 一一对应的向量副本
+     */
+    public List<float[]> embedQueries(List<String> texts) {
+        Assert.notNull(texts, "texts 不能为空");
+        float[][] vectors = new float[texts.size()][];
+        List<String> misses = new ArrayList<>();
+        List<Integer> missPositions = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            float[] cached = cache.getIfPresent(new CacheKey(defaultModelName, null, texts.get(i)));
+            if (cached != null) {
+                vectors[i] = cached.clone();
+            }
+            else {
+                misses.add(texts.get(i));
+                missPositions.add(i);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<Embedding> results = delegate.call(new EmbeddingRequest(misses, EmbeddingOptions.builder().build()))
+                    .getResults();
+            if (results.size() != misses.size()) {
+                throw new IllegalStateException("嵌入结果数量不匹配，期望 " + misses.size() + "，实际 " + results.size());
+            }
+            for (int position = 0; position < results.size(); position++) {
+                Embedding embedding = results.get(position);
+                Integer index = embedding.getIndex();
+                int i = index != null && index >= 0 && index < misses.size() ? index : position;
+                cache.put(new CacheKey(defaultModelName, null, misses.get(i)), embedding.getOutput());
+                vectors[missPositions.get(i)] = embedding.getOutput().clone();
+            }
+        }
+        log.debug("EmbeddingCache: 批量查询 {} 条，未命中 {} 条", texts.size(), misses.size());
+        return Arrays.asList(vectors);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return delegate.embed(document);
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 被装饰的模型。批量入库等不希望占用查询缓存的场景直接使用它。
+     */
+    public EmbeddingModel getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 清空缓存，供嵌入模型切换或测试使用。
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private String resolveModelName(EmbeddingOptions options) {
+        if (options != null && StringUtils.hasText(options.getModel())) {
+            return options.getModel();
+        }
+        return defaultModelName;
+    }
+
+    private record CacheKey(String model, Integer dimensions, String text) {
+    }
+}
@@ -2,42 +2,81 @@ package com.example.springaialibaba.core.model;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
 
+import com.example.springaialibaba.core.math.VectorMath;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.Embedding;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingRequest;
 import org.springframework.ai.embedding.EmbeddingResponse;
 import org.springframework.ai.embedding.EmbeddingResponseMetadata;
-import org.springframework.context.annotation.Primary;
-import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
 /**
- * 基于文本内容生成确定性向量的本地嵌入模型，避免开发阶段依赖外部嵌入服务。
+ * 基于文本内容生成确定性向量的本地嵌入模型，避免开发与压测阶段依赖外部嵌入服务。
+ *
+ * <p>文本按字符小写后切分为 {@code minGram..maxGram} 个字符的 n-gram（不跨越空白），
+ * 每个 n-gram 通过特征哈希映射到一个维度并带 ±1 符号累加，最后归一化为单位向量。
+ * 字面相近的文本共享大量 n-gram，因此余弦相似度也更高，足以驱动检索链路的端到端压测。</p>
+ *
+ * <p>哈希在遍历字符时增量计算，不创建子串或字符数组，每条输入只分配结果向量本身；
+ * 一批输入达到 {@code parallelThreshold} 条时在公共 ForkJoinPool 上并行计算。</p>
+ *
+ * <p>通过 {@code local-embedding} profile 启用，见 {@code EmbeddingConfig}。</p>
  */
-// @Component
-// @Primary
 public class DeterministicEmbeddingModel implements EmbeddingModel {
 
+    public static final String MODEL_NAME = "deterministic-local";
+
     public static final int VECTOR_SIZE = 1536;
 
+    private final int dimensions;
+
+    private final int minGram;
+
+    private final int maxGram;
+
+    private final int parallelThreshold;
+
+    public DeterministicEmbeddingModel() {
+        this(VECTOR_SIZE, 1, 3, 64);
+    }
+
+    public DeterministicEmbeddingModel(int dimensions, int minGram, int maxGram, int parallelThreshold) {
+        Assert.isTrue(dimensions > 0, "dimensions 必须大于 0");
+        Assert.isTrue(minGram >= 1 && maxGram >= minGram, "n-gram 长度范围非法");
+        this.dimensions = dimensions;
+        this.minGram = minGram;
+        this.maxGram = maxGram;
+        this.parallelThreshold = Math.max(parallelThreshold, 1);
+    }
+
     @Override
     public EmbeddingResponse call(EmbeddingRequest request) {
         Assert.notNull(request, "EmbeddingRequest 不能为空");
         List<String> inputs = request.getInstructions();
-        List<Embedding> embeddings = new ArrayList<>(inputs.size());
-
-        for (int index = 0; index < inputs.size(); index++) {
-            String input = inputs.get(index);
-            embeddings.add(new Embedding(generateVector(input), index));
+        float[][] vectors = new float[inputs.size()][];
+        IntStream indexes = IntStream.range(0, vectors.length);
+        if (vectors.length >= parallelThreshold) {
+            indexes = indexes.parallel();
         }
+        indexes.forEach(index -> vectors[index] = generateVector(inputs.get(index)));
 
+        List<Embedding> embeddings = new ArrayList<>(vectors.length);
+        for (int index = 0; index < vectors.length; index++) {
+            embeddings.add(new Embedding(vectors[index], index));
+        }
         EmbeddingResponseMetadata metadata = new EmbeddingResponseMetadata();
-        metadata.setModel("deterministic-local");
+        metadata.setModel(MODEL_NAME);
         return new EmbeddingResponse(embeddings, metadata);
     }
 
+    @Override
+    public float[] embed(String text) {
+        return generateVector(text);
+    }
+
     @Override
     public float[] embed(Document document) {
         Assert.notNull(document, "Document 不能为空");
@@ -46,26 +85,43 @@ public class DeterministicEmbeddingModel implements EmbeddingModel {
 
     @Override
     public int dimensions() {
-        return VECTOR_SIZE;
+        return dimensions;
     }
 
     private float[] generateVector(String input) {
-        String text = (input != null) ? input : "";
-        float[] vector = new float[VECTOR_SIZE];
-        if (text.isEmpty()) {
+        float[] vector = new float[dimensions];
+        if (input == null || input.isEmpty()) {
             return vector;
         }
-        char[] chars = text.toCharArray();
-        for (char ch : chars) {
-            int index = Math.abs(ch) % VECTOR_SIZE;
-            vector[index] += 1.0f;
-        }
-        float norm = (float) Math.sqrt(chars.length);
-        if (norm > 0) {
-            for (int i = 0; i < VECTOR_SIZE; i++) {
-                vector[i] = vector[i] / norm;
+        int length = input.length();
+        for (int start = 0; start < length; start++) {
+            int hash = 0;
+            for (int n = 1; n <= maxGram && start + n <= length; n++) {
+                char ch = input.charAt(start + n - 1);
+                if (Character.isWhitespace(ch)) {
+                    break;
+                }
+                hash = hash * 31 + Character.toLowerCase(ch);
+                if (n >= minGram) {
+                    int mixed = mix(hash + n * 0x9E3779B9);
+                    int index = (mixed >>> 1) % dimensions;
+                    vector[index] += (mixed & 1) == 0 ? 1.0f : -1.0f;
+                }
             }
         }
+        VectorMath.normalizeInPlace(vector);
         return vector;
     }
+
+    /**
+     * MurmurHash3 的 32 位收尾混淆，使相邻的 n-gram 哈希均匀分散到各维度。
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
 }
@@ -0,0 +1,311 @@
+package com.example.springaialibaba.core.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * 将并发的小嵌入请求合并为微批次的 {@link EmbeddingModel} 装饰器。
+ *
+ * <p>调用线程把请求放入有界队列后阻塞等待；单个调度线程取出第一条请求后最多再等待 {@code maxLinger}，
+ * 期间到达的请求（模型与维度相同）合并到同一批，直到文本数达到 {@code maxBatchSize}。
+ * 每批只向被装饰的模型发送一次 {@link EmbeddingRequest}，再按各请求的偏移把结果切片交还调用方。
+ * 高峰期的 HTTP 往返与限流配额消耗因此按批次数而非请求数增长。</p>
+ *
+ * <p>批次在 {@code maxConcurrentBatches} 个发送线程上执行，发送线程全部忙碌时由调度线程自己发送，
+ * 这段时间内新到的请求自然累积成更大的批次。本身已达到 {@code maxBatchSize} 的请求、
+ * 以及队列已满时的请求直接透传给被装饰的模型。调用方最多等待 {@code callTimeout}，超时抛出
+ * {@link IllegalStateException}。</p>
+ */
+public class MicroBatchingEmbeddingModel implements EmbeddingModel, MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatchingEmbeddingModel.class);
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final EmbeddingModel delegate;
+
+    private final int maxBatchSize;
+
+    private final long maxLingerNanos;
+
+    private final long callTimeoutNanos;
+
+    private final BlockingQueue<PendingRequest> queue;
+
+    private final ExecutorService dispatcher;
+
+    private final ThreadPoolExecutor senders;
+
+    private volatile boolean running = true;
+
+    private DistributionSummary batchSizeSummary;
+
+    private Counter bypassCounter;
+
+    public MicroBatchingEmbeddingModel(EmbeddingModel delegate, int maxBatchSize, Duration maxLinger,
+            int queueCapacity, int maxConcurrentBatches, Duration callTimeout) {
+        Assert.notNull(delegate, "delegate 不能为空");
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize 必须大于 0");
+        Assert.notNull(maxLinger, "maxLinger 不能为空");
+        Assert.isTrue(callTimeout != null && !callTimeout.isNegative() && !callTimeout.isZero(),
+                "callTimeout 必须大于 0");
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = Math.max(maxLinger.toNanos(), 0L);
+        this.callTimeoutNanos = callTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        int senderCount = Math.max(maxConcurrentBatches, 1);
+        this.senders = new ThreadPoolExecutor(senderCount, senderCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(senderCount), daemonThreads("rag-embedding-batch-"),
+                MicroBatchingEmbeddingModel::sendOnDispatcher);
+        this.dispatcher = Executors.newSingleThreadExecutor(daemonThreads("rag-embedding-dispatch-"));
+        this.dispatcher.execute(this::dispatchLoop);
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        Assert.notNull(request, "EmbeddingRequest 不能为空");
+        List<String> inputs = request.getInstructions();
+        if (inputs.isEmpty() || inputs.size() >= maxBatchSize || !running) {
+            return bypass(request);
+        }
+        PendingRequest pending = new PendingRequest(request, BatchKey.of(request.getOptions()));
+        if (!queue.offer(pending)) {
+            return bypass(request);
+        }
+        // destroy() 可能在 running 检查与入队之间执行完毕，此时队列不会再被消费，取回请求自行发送
+        if (!running && queue.remove(pending)) {
+            return bypass(request);
+        }
+        return await(pending);
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        Assert.notNull(document, "Document 不能为空");
+        return embed(document.getFormattedContent());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizeSummary = DistributionSummary.builder("rag.embedding.batch.size")
+                .description("每次发送给嵌入服务的文本条数")
+                .register(registry);
+        bypassCounter = Counter.builder("rag.embedding.batch.bypass")
+                .description("未参与合并、直接透传的嵌入请求数")
+                .register(registry);
+        registry.gauge("rag.embedding.batch.queue", queue, BlockingQueue::size);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        dispatcher.shutdownNow();
+        senders.shutdown();
+        PendingRequest pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("嵌入批处理已关闭"));
+        }
+    }
+
+    private EmbeddingResponse await(PendingRequest pending) {
+        try {
+            return pending.future.get(callTimeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queue.remove(pending);
+            throw new IllegalStateException("等待嵌入结果时被中断", ex);
+        }
+        catch (TimeoutException ex) {
+            queue.remove(pending);
+            throw new IllegalStateException("等待嵌入结果超时", ex);
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("嵌入批处理失败", ex.getCause());
+        }
+    }
+
+    private void dispatchLoop() {
+        PendingRequest carried = null;
+        while (running) {
+            PendingRequest first;
+            try {
+                first = carried != null ? carried : queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            carried = null;
+            if (first == null) {
+                continue;
+            }
+            List<PendingRequest> batch = new ArrayList<>();
+            batch.add(first);
+            int size = first.size();
+            long deadline = System.nanoTime() + maxLingerNanos;
+            try {
+                while (size < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    // 等待期结束后仍把已在队列中的请求取完，不让它们再等一轮
+                    PendingRequest next = remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    if (!next.key.equals(first.key) || size + next.size() > maxBatchSize) {
+                        carried = next;
+                        break;
+                    }
+                    batch.add(next);
+                    size += next.size();
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            submit(batch);
+        }
+        if (carried != null) {
+            carried.future.completeExceptionally(new IllegalStateException("嵌入批处理已关闭"));
+        }
+    }
+
+    private void submit(List<PendingRequest> batch) {
+        senders.execute(() -> send(batch));
+    }
+
+    private void send(List<PendingRequest> batch) {
+        List<String> texts = new ArrayList<>();
+        batch.forEach(pending -> texts.addAll(pending.request.getInstructions()));
+        try {
+            EmbeddingOptions options = batch.get(0).request.getOptions();
+            EmbeddingResponse response = delegate.call(new EmbeddingRequest(texts, options));
+            float[][] vectors = orderedVectors(response, texts.size());
+            int offset = 0;
+            for (PendingRequest pending : batch) {
+                List<Embedding> slice = new ArrayList<>(pending.size());
+                for (int i = 0; i < pending.size(); i++) {
+                    slice.add(new Embedding(vectors[offset + i], i));
+                }
+                offset += pending.size();
+                pending.future.complete(new EmbeddingResponse(slice, response.getMetadata()));
+            }
+            if (batchSizeSummary != null) {
+                batchSizeSummary.record(texts.size());
+            }
+            log.debug("MicroBatchingEmbeddingModel: 合并 {} 个请求共 {} 条文本", batch.size(), texts.size());
+        }
+        catch (RuntimeException ex) {
+            batch.forEach(pending -> pending.future.completeExceptionally(ex));
+        }
+    }
+
+    private EmbeddingResponse bypass(EmbeddingRequest request) {
+        if (bypassCounter != null) {
+            bypassCounter.increment();
+        }
+        return delegate.call(request);
+    }
+
+    private static float[][] orderedVectors(EmbeddingResponse response, int expected) {
+        List<Embedding> results = response.getResults();
+        if (results.size() != expected) {
+            throw new IllegalStateException("嵌入结果数量不匹配，期望 " + expected + "，实际 " + results.size());
+        }
+        float[][] vectors = new float[expected][];
+        for (int position = 0; position < expected; position++) {
+            Embedding embedding = results.get(position);
+            Integer index = embedding.getIndex();
+            vectors[index != null && index >= 0 && index < expected ? index : position] = embedding.getOutput();
+        }
+        for (int i = 0; i < expected; i++) {
+            if (vectors[i] == null) {
+                throw new IllegalStateException("嵌入模型未返回第 " + i + " 条输入的向量");
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * 发送线程全部忙碌或发送池已关闭时，由调度线程直接发送。{@code CallerRunsPolicy} 在关闭后会静默丢弃任务，
+     * 已取出的请求将永远等不到结果，因此不能使用。
+     */
+    private static void sendOnDispatcher(Runnable task, ThreadPoolExecutor executor) {
+        task.run();
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(prefix);
+        threadFactory.setDaemon(true);
+        return threadFactory;
+    }
+
+    private static final class PendingRequest {
+
+        private final EmbeddingRequest request;
+
+        private final BatchKey key;
+
+        private final CompletableFuture<EmbeddingResponse> future = new CompletableFuture<>();
+
+        private PendingRequest(EmbeddingRequest request, BatchKey key) {
+            this.request = request;
+            this.key = key;
+        }
+
+        private int size() {
+            return request.getInstructions().size();
+        }
+    }
+
+    /**
+     * 只有模型与维度一致的请求才能合并到同一批。
+     */
+    private record BatchKey(String model, Integer dimensions) {
+
+        static BatchKey of(EmbeddingOptions options) {
+            if (options == null) {
+                return new BatchKey(null, null);
+            }
+            return new BatchKey(options.getModel(), options.getDimensions());
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.springaialibaba.core.preprocessor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的查询归一化器：小写、过滤特殊字符、合并空白与术语替换在一次遍历中完成。
+ *
+ * <p>术语词典在构造时编译为 Aho-Corasick 自动机（按字符排序的压缩转移表 + 失败指针），
+ * 匹配耗时只与查询长度和命中数有关，与词典规模无关。别名按与查询相同的规则归一化后参与匹配；
+ * 多个别名重叠时取最左、最长的一个，替换结果不会再被其他别名匹配。以 ASCII 字母或数字开头/结尾的别名
+ * 只在词边界处匹配，避免短别名误伤英文单词内部。</p>
+ *
+ * <p>实例不可变、线程安全；每个线程复用自己的缓冲区，单次调用只分配结果字符串。</p>
+ */
+public final class QueryNormalizer {
+
+    static final String ALLOWED_PUNCTUATION = " .,!?:;()[]{}<>-_'\"“”‘’·，。？！：；、（）《》【】…";
+
+    /**
+     * 超过该长度的查询使用临时缓冲区，避免线程长期持有大数组。
+     */
+    private static final int MAX_RETAINED_LENGTH = 8192;
+
+    private static final boolean[] ALLOWED_BMP = new boolean[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            ALLOWED_BMP[c] = !Character.isSurrogate((char) c) && isAllowedCodePoint(c);
+        }
+    }
+
+    private final char[] edgeChars;
+
+    private final int[] edgeTargets;
+
+    /**
+     * 节点 i 的出边位于 {@code edgeChars[edgeOffsets[i] .. edgeOffsets[i + 1])}，按字符升序排列。
+     */
+    private final int[] edgeOffsets;
+
+    private final int[] fail;
+
+    /**
+     * 以该节点结尾的别名编号，没有时为 -1。
+     */
+    private final int[] terminal;
+
+    /**
+     * 沿失败指针可达的最近一个终止节点，没有时为 -1。
+     */
+    private final int[] dictionaryLink;
+
+    private final String[] replacements;
+
+    private final int[] patternLengths;
+
+    private final boolean[] leftBoundary;
+
+    private final boolean[] rightBoundary;
+
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(() -> new Workspace(256));
+
+    private QueryNormalizer(Map<String, String> patterns) {
+        int size = patterns.size();
+        replacements = new String[size];
+        patternLengths = new int[size];
+        leftBoundary = new boolean[size];
+        rightBoundary = new boolean[size];
+
+        TrieBuilder trie = new TrieBuilder();
+        int id = 0;
+        for (Map.Entry<String, String> entry : patterns.entrySet()) {
+            String pattern = entry.getKey();
+            replacements[id] = entry.getValue();
+            patternLengths[id] = pattern.length();
+            leftBoundary[id] = isAsciiAlphanumeric(pattern.charAt(0));
+            rightBoundary[id] = isAsciiAlphanumeric(pattern.charAt(pattern.length() - 1));
+            trie.insert(pattern, id++);
+        }
+
+        int nodes = trie.size();
+        edgeOffsets = new int[nodes + 1];
+        edgeChars = new char[nodes - 1];
+        edgeTargets = new int[nodes - 1];
+        terminal = trie.terminals();
+        int position = 0;
+        for (int node = 0; node < nodes; node++) {
+            edgeOffsets[node] = position;
+            for (long edge : trie.sortedEdges(node)) {
+                edgeChars[position] = (char) (edge >>> 32);
+                edgeTargets[position++] = (int) edge;
+            }
+        }
+        edgeOffsets[nodes] = position;
+
+        fail = new int[nodes];
+        dictionaryLink = new int[nodes];
+        Arrays.fill(dictionaryLink, -1);
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+        for (int e = edgeOffsets[0]; e < edgeOffsets[1]; e++) {
+            queue[tail++] = edgeTargets[e];
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = edgeOffsets[node]; e < edgeOffsets[node + 1]; e++) {
+                int child = edgeTargets[e];
+                char c = edgeChars[e];
+                int f = fail[node];
+                int target = child(f, c);
+                while (target < 0 && f != 0) {
+                    f = fail[f];
+                    target = child(f, c);
+                }
+                fail[child] = target >= 0 ? target : 0;
+                dictionaryLink[child] = terminal[fail[child]] >= 0 ? fail[child] : dictionaryLink[fail[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * 编译术语词典。别名先按查询规则归一化，归一化后为空的条目被忽略，重复的别名以后出现的为准。
+     *
+     * @param dictionary 别名 → 标准词
+     */
+    public static QueryNormalizer compile(Map<String, String> dictionary) {
+        Map<String, String> patterns = new LinkedHashMap<>();
+        QueryNormalizer plain = new QueryNormalizer(Map.of());
+        if (dictionary != null) {
+            dictionary.forEach((alias, replacement) -> {
+                String pattern = plain.normalize(alias);
+                if (!pattern.isEmpty() && replacement != null) {
+                    patterns.remove(pattern);
+                    patterns.put(pattern, replacement);
+                }
+            });
+        }
+        return patterns.isEmpty() ? plain : new QueryNormalizer(patterns);
+    }
+
+    /**
+     * 词典中的别名数。
+     */
+    public int size() {
+        return replacements.length;
+    }
+
+    /**
+     * 归一化查询：小写、删除不允许的字符、连续空白合并为一个空格、替换术语并去掉首尾空白。
+     *
+     * @return 归一化结果，输入为 {@code null} 或空白时返回空字符串
+     */
+    public String normalize(String raw) {
+        if (raw == null || raw.isEmpty()) {
+            return "";
+        }
+        int rawLength = raw.length();
+        Workspace workspace = rawLength > MAX_RETAINED_LENGTH ? new Workspace(rawLength) : workspaces.get();
+        workspace.ensureCapacity(rawLength);
+        char[] text = workspace.text;
+        int length = 0;
+        int state = 0;
+        int matches = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < rawLength; ) {
+            int codePoint = raw.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isRegexWhitespace(codePoint)) {
+                pendingSpace = length > 0;
+                continue;
+            }
+            int lower = Character.toLowerCase(codePoint);
+            if (!isAllowed(lower)) {
+                continue;
+            }
+            if (pendingSpace) {
+                pendingSpace = false;
+                workspace.ensureCapacity(length + 1);
+                text = workspace.text;
+                text[length++] = ' ';
+                state = step(state, ' ');
+                matches = collect(workspace, state, length, matches);
+            }
+            workspace.ensureCapacity(length + 2);
+            text = workspace.text;
+            if (Character.isBmpCodePoint(lower)) {
+                text[length++] = (char) lower;
+                state = step(state, (char) lower);
+                matches = collect(workspace, state, length, matches);
+            }
+            else {
+                char high = Character.highSurrogate(lower);
+                char low = Character.lowSurrogate(lower);
+                text[length++] = high;
+                state = step(state, high);
+                matches = collect(workspace, state, length, matches);
+                text[length++] = low;
+                state = step(state, low);
+                matches = collect(workspace, state, length, matches);
+            }
+        }
+        if (matches == 0) {
+            return new String(text, 0, length);
+        }
+        return substitute(workspace, length, matches);
+    }
+
+    private int step(int state, char c) {
+        int next = child(state, c);
+        while (next < 0 && state != 0) {
+            state = fail[state];
+            next = child(state, c);
+        }
+        return next >= 0 ? next : 0;
+    }
+
+    private int child(int node, char c) {
+        int low = edgeOffsets[node];
+        int high = edgeOffsets[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            }
+            else if (midChar > c) {
+                high = mid - 1;
+            }
+            else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private int collect(Workspace workspace, int state, int end, int matches) {
+        int node = terminal[state] >= 0 ? state : dictionaryLink[state];
+        while (node >= 0) {
+            int pattern = terminal[node];
+            workspace.addMatch(matches++, end - patternLengths[pattern], pattern);
+            node = dictionaryLink[node];
+        }
+        return matches;
+    }
+
+    private String substitute(Workspace workspace, int length, int matches) {
+        char[] text = workspace.text;
+        int[] best = workspace.best;
+        Arrays.fill(best, 0, length, -1);
+        for (int m = 0; m < matches; m++) {
+            int start = workspace.matchStarts[m];
+            int pattern = workspace.matchPatterns[m];
+            int end = start + patternLengths[pattern];
+            if (leftBoundary[pattern] && start > 0 && isAsciiAlphanumeric(text[start - 1])) {
+                continue;
+            }
+            if (rightBoundary[pattern] && end < length && isAsciiAlphanumeric(text[end])) {
+                continue;
+            }
+            if (best[start] < 0 || patternLengths[pattern] > patternLengths[best[start]]) {
+                best[start] = pattern;
+            }
+        }
+        StringBuilder out = workspace.out;
+        out.setLength(0);
+        for (int i = 0; i < length; ) {
+            int pattern = best[i];
+            if (pattern >= 0) {
+                out.append(replacements[pattern]);
+                i += patternLengths[pattern];
+            }
+            else {
+                out.append(text[i++]);
+            }
+        }
+        int start = 0;
+        int end = out.length();
+        while (start < end && out.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && out.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return out.substring(start, end);
+    }
+
+    private static boolean isAllowed(int codePoint) {
+        return Character.isBmpCodePoint(codePoint) ? ALLOWED_BMP[codePoint] : isAllowedCodePoint(codePoint);
+    }
+
+    /**
+     * 与原正则 {@code [\p{IsAlphabetic}\p{IsDigit}\p{IsHan}\s<允许的标点>]} 等价。
+     */
+    private static boolean isAllowedCodePoint(int codePoint) {
+        return Character.isAlphabetic(codePoint)
+                || Character.isDigit(codePoint)
+                || Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN
+                || isRegexWhitespace(codePoint)
+                || (Character.isBmpCodePoint(codePoint) && ALLOWED_PUNCTUATION.indexOf(codePoint) >= 0);
+    }
+
+    /**
+     * 正则 {@code \s} 的字符集：{@code [ \t\n\x0B\f\r]}。
+     */
+    private static boolean isRegexWhitespace(int codePoint) {
+        return codePoint == ' ' || (codePoint >= '\t' && codePoint <= '\r');
+    }
+
+    private static boolean isAsciiAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * 构建期使用的字典树，转移存放在以 (节点, 字符) 为 key 的哈希表中。
+     */
+    private static final class TrieBuilder {
+
+        private final Map<Long, Integer> edges = new HashMap<>();
+
+        private final List<List<Long>> children = new ArrayList<>();
+
+        private final List<Integer> terminals = new ArrayList<>();
+
+        private TrieBuilder() {
+            newNode();
+        }
+
+        private void insert(String pattern, int id) {
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                long key = ((long) node << 16) | c;
+                Integer next = edges.get(key);
+                if (next == null) {
+                    next = newNode();
+                    edges.put(key, next);
+                    children.get(node).add(((long) c << 32) | next);
+                }
+                node = next;
+            }
+            terminals.set(node, id);
+        }
+
+        private int newNode() {
+            children.add(new ArrayList<>(2));
+            terminals.add(-1);
+            return terminals.size() - 1;
+        }
+
+        private int size() {
+            return terminals.size();
+        }
+
+        private int[] terminals() {
+            return terminals.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * 节点的出边，高 32 位为字符、低 32 位为目标节点，按字符升序。
+         */
+        private long[] sortedEdges(int node) {
+            long[] sorted = children.get(node).stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+
+    /**
+     * 线程私有的可复用缓冲区。
+     */
+    private static final class Workspace {
+
+        private char[] text;
+
+        private int[] best;
+
+        private int[] matchStarts = new int[16];
+
+        private int[] matchPatterns = new int[16];
+
+        private final StringBuilder out = new StringBuilder();
+
+        private Workspace(int capacity) {
+            text = new char[capacity];
+            best = new int[capacity];
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > text.length) {
+                int grown = Math.max(capacity, text.length * 2);
+                text = Arrays.copyOf(text, grown);
+                best = new int[grown];
+            }
+        }
+
+        private void addMatch(int index, int start, int pattern) {
+            if (index == matchStarts.length) {
+                matchStarts = Arrays.copyOf(matchStarts, index * 2);
+                matchPatterns = Arrays.copyOf(matchPatterns, index * 2);
+            }
+            matchStarts[index] = start;
+            matchPatterns[index] = pattern;
+        }
+    }
+}
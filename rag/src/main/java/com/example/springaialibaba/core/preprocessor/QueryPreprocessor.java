@@ -1,34 +1,71 @@
 package com.example.springaialibaba.core.preprocessor;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.Locale;
 import java.util.Map;
-import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 /**
  * Service responsible for normalising raw user queries before they are sent to the retrieval
  * pipeline. The normalisation process strips noisy characters, unifies casing and applies a
  * curated set of placeholder replacements to align the query with internal terminology.
+ *
+ * <p>The replacements come from a terminology dictionary ({@code app.query.dictionary.location},
+ * one {@code alias=standard} entry per line) compiled into a {@link QueryNormalizer}, so a query
+ * is cleaned and rewritten in a single pass regardless of the dictionary size. The dictionary is
+ * reloaded when the underlying resource changes; a broken file keeps the previous version.</p>
  */
 @Service
 public class QueryPreprocessor {
 
-    private static final String ALLOWED_PUNCTUATION =
-            " .,!?:;()[]{}<>-_'\"“”‘’·，。？！：；、（）《》【】…";
-    private static final Pattern DISALLOWED_CHARACTERS = Pattern.compile(
-            "[^\\p{IsAlphabetic}\\p{IsDigit}\\p{IsHan}\\s" + Pattern.quote(ALLOWED_PUNCTUATION) + "]");
-    private static final Pattern MULTIPLE_WHITESPACES = Pattern.compile("\\s+");
+    private static final Logger log = LoggerFactory.getLogger(QueryPreprocessor.class);
+
+    private final Resource dictionaryResource;
+
+    private volatile QueryNormalizer normalizer;
 
-    private final Map<String, String> placeholderReplacements;
+    private volatile long dictionaryLastModified;
 
     public QueryPreprocessor() {
         this(createDefaultReplacements());
     }
 
     QueryPreprocessor(Map<String, String> placeholderReplacements) {
-        this.placeholderReplacements = placeholderReplacements;
+        this.dictionaryResource = null;
+        this.normalizer = QueryNormalizer.compile(placeholderReplacements);
+    }
+
+    @Autowired
+    public QueryPreprocessor(ResourceLoader resourceLoader,
+            @Value("${app.query.dictionary.location:}") String dictionaryLocation) {
+        if (!StringUtils.hasText(dictionaryLocation)) {
+            this.dictionaryResource = null;
+            this.normalizer = QueryNormalizer.compile(createDefaultReplacements());
+            return;
+        }
+        this.dictionaryResource = resourceLoader.getResource(dictionaryLocation.trim());
+        if (!dictionaryResource.exists()) {
+            throw new IllegalStateException("查询归一化词典不存在: " + dictionaryLocation);
+        }
+        try {
+            reload();
+        }
+        catch (IOException ex) {
+            throw new IllegalStateException("读取查询归一化词典失败: " + dictionaryLocation, ex);
+        }
     }
 
     /**
@@ -39,27 +76,66 @@ public class QueryPreprocessor {
      * @return a cleaned query string, or an empty string when the input is {@code null} or blank
      */
     public String process(String rawQuery) {
-        if (rawQuery == null) {
-            return "";
-        }
+        return normalizer.normalize(rawQuery);
+    }
+
+    /**
+     * Number of aliases in the currently active dictionary.
+     */
+    public int dictionarySize() {
+        return normalizer.size();
+    }
 
-        String normalised = rawQuery.trim().toLowerCase(Locale.ROOT);
-        if (normalised.isEmpty()) {
-            return "";
+    /**
+     * Reloads the dictionary when the resource's modification time has changed since the last load.
+     */
+    @Scheduled(fixedDelayString = "${app.query.dictionary.refresh-interval:1m}",
+            initialDelayString = "${app.query.dictionary.refresh-interval:1m}")
+    public void reloadIfChanged() {
+        if (dictionaryResource == null) {
+            return;
+        }
+        try {
+            if (dictionaryResource.lastModified() != dictionaryLastModified) {
+                reload();
+            }
         }
+        catch (IOException | RuntimeException ex) {
+            log.warn("QueryPreprocessor: 重新加载查询归一化词典失败，继续使用旧词典：{}", ex.getMessage());
+        }
+    }
 
-        normalised = DISALLOWED_CHARACTERS.matcher(normalised).replaceAll("");
-        normalised = MULTIPLE_WHITESPACES.matcher(normalised).replaceAll(" ");
-        normalised = applyPlaceholderReplacements(normalised);
-        return normalised.trim();
+    private synchronized void reload() throws IOException {
+        long lastModified = dictionaryResource.lastModified();
+        long startedAt = System.nanoTime();
+        QueryNormalizer compiled = QueryNormalizer.compile(readDictionary(dictionaryResource));
+        normalizer = compiled;
+        dictionaryLastModified = lastModified;
+        log.info("QueryPreprocessor: 查询归一化词典加载完成，别名数={}，耗时={}ms", compiled.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
     }
 
-    private String applyPlaceholderReplacements(String text) {
-        String current = text;
-        for (Map.Entry<String, String> entry : placeholderReplacements.entrySet()) {
-            current = current.replace(entry.getKey(), entry.getValue());
+    static Map<String, String> readDictionary(Resource resource) throws IOException {
+        Map<String, String> dictionary = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String entry = lineNumber == 1 && line.startsWith("\uFEFF") ? line.substring(1).trim() : line.trim();
+                if (entry.isEmpty() || entry.startsWith("#")) {
+                    continue;
+                }
+                int separator = entry.indexOf('=');
+                if (separator <= 0) {
+                    log.warn("QueryPreprocessor: 忽略词典第 {} 行，缺少 \"别名=标准词\" 分隔符", lineNumber);
+                    continue;
+                }
+                dictionary.put(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim());
+            }
         }
-        return current;
+        return dictionary;
     }
 
     private static Map<String, String> createDefaultReplacements() {
@@ -4,9 +4,11 @@ import com.example.springaialibaba.config.properties.PromptProperties;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,35 +16,58 @@ import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.document.Document;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-import com.example.springaialibaba.core.rag.GenerationService;
-
 import org.springframework.util.StreamUtils;
 import org.springframework.util.Assert;
 
 /**
  * 根据用户问题、上下文以及渠道、Persona 构建最终提交给大模型的 Prompt。
+ *
+ * <p>模板在启动时预编译为 {@link PromptTemplate}，每次请求只做一次预分配容量的渲染。
+ * {@code prompt.templates-location} 下的模板文件按 persona / channel 注册到 {@link PromptTemplateRegistry}，
+ * 文件新增、删除或修改后按 {@code prompt.refresh-interval} 重新加载，加载失败时继续使用旧模板。
+ * 语气要求按渠道取自 {@code prompt.tones}。</p>
  */
 @Service
 public class DynamicPromptBuilder {
 
     private static final Logger log = LoggerFactory.getLogger(DynamicPromptBuilder.class);
 
+    private static final String HEADER_SEPARATOR = "---";
+
     private final PromptProperties properties;
 
     private final ResourceLoader resourceLoader;
 
-    private final String promptTemplate;
+    private final ResourcePatternResolver resourceResolver;
+
+    private final PromptTemplate defaultTemplate;
+
+    private volatile PromptTemplateRegistry registry;
+
+    private volatile String templatesSignature = "";
 
     public DynamicPromptBuilder(PromptProperties properties, ResourceLoader resourceLoader) {
         Assert.notNull(properties, "PromptProperties must not be null");
         Assert.notNull(resourceLoader, "ResourceLoader must not be null");
         this.properties = properties;
         this.resourceLoader = resourceLoader;
-        this.promptTemplate = loadTemplate(properties.getTemplate());
+        this.resourceResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.defaultTemplate = PromptTemplate.parse(loadTemplate(properties.getTemplate()));
+        this.registry = PromptTemplateRegistry.builder(defaultTemplate).build();
+        if (StringUtils.hasText(properties.getTemplatesLocation())) {
+            try {
+                reloadTemplates();
+            }
+            catch (IOException ex) {
+                throw new IllegalStateException("读取 Prompt 模板目录失败: " + properties.getTemplatesLocation(), ex);
+            }
+        }
     }
 
     /**
@@ -58,35 +83,100 @@ public class DynamicPromptBuilder {
         String resolvedPersona = resolveFallback(persona, properties.getDefaults().getPersona());
         String resolvedChannel = resolveFallback(channel, properties.getDefaults().getChannel());
         String resolvedQuestion = Objects.toString(question, "");
-        String resolvedContext = formatContext(context);
-        String resolvedTone = "保持礼貌但不过度热情，确保信息的传递效率是第一优先级的";
-        if (resolvedChannel.equals("生活闲聊")) {
-            resolvedTone = "轻松活泼，可以使用适量的表情符号和口语化的语气助词";
-        }
-        if (resolvedChannel.equals("售后服务")) {
-            resolvedTone = "普通咨询类问题，语气要干脆利落、热心引导。不需要道歉，只需要清晰地告知步骤。投诉/故障/报修类问题，使用温和且高度专业的语言，优先承认用户遇到的困难（共情），严禁推卸责任";
-        }
+        String resolvedTone = resolveTone(resolvedChannel);
 
-        String promptText = promptTemplate.replace("{persona}", resolvedPersona)
-                .replace("{channel}", resolvedChannel)
-                .replace("{question}", resolvedQuestion)
-                .replace("{context}", resolvedContext)
-                .replace("{tone}", resolvedTone);
-        log.info("Prompt: {}", promptText);
+        String promptText = registry.resolve(resolvedPersona, resolvedChannel)
+                .render(resolvedPersona, resolvedChannel, resolvedQuestion, context, resolvedTone);
+        log.debug("Prompt 构建完成: persona={}, channel={}, 长度={}", resolvedPersona, resolvedChannel,
+                promptText.length());
 
         return new Prompt(promptText);
     }
 
-    private String formatContext(List<Document> context) {
-        if (CollectionUtils.isEmpty(context)) {
-            return "";
+    /**
+     * 模板文件集合（文件名与修改时间）变化时重新加载。
+     */
+    @Scheduled(fixedDelayString = "${prompt.refresh-interval:1m}",
+            initialDelayString = "${prompt.refresh-interval:1m}")
+    public void reloadIfChanged() {
+        if (!StringUtils.hasText(properties.getTemplatesLocation())) {
+            return;
         }
+        try {
+            reloadTemplates();
+        }
+        catch (IOException | RuntimeException ex) {
+            log.warn("DynamicPromptBuilder: 重新加载 Prompt 模板失败，继续使用旧模板：{}", ex.getMessage());
+        }
+    }
 
-        return context.stream()
-                .filter(Objects::nonNull)
-                .map(Document::getText)
-                .filter(StringUtils::hasText)
-                .collect(Collectors.joining("\n---\n"));
+    private synchronized void reloadTemplates() throws IOException {
+        Resource[] resources = resourceResolver.getResources(properties.getTemplatesLocation().trim());
+        Arrays.sort(resources, Comparator.comparing(Resource::getDescription));
+        StringBuilder signature = new StringBuilder();
+        for (Resource resource : resources) {
+            if (resource.isReadable()) {
+                signature.append(resource.getDescription()).append('@').append(resource.lastModified()).append(';');
+            }
+        }
+        if (signature.toString().equals(templatesSignature)) {
+            return;
+        }
+        PromptTemplateRegistry.Builder builder = PromptTemplateRegistry.builder(defaultTemplate);
+        for (Resource resource : resources) {
+            if (resource.isReadable()) {
+                registerTemplate(builder, resource);
+            }
+        }
+        PromptTemplateRegistry reloaded = builder.build();
+        registry = reloaded;
+        templatesSignature = signature.toString();
+        log.info("DynamicPromptBuilder: Prompt 模板加载完成，按 persona / channel 注册的模板数={}", reloaded.size());
+    }
+
+    private void registerTemplate(PromptTemplateRegistry.Builder builder, Resource resource) throws IOException {
+        String content;
+        try (InputStream inputStream = resource.getInputStream()) {
+            content = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        }
+        String persona = PromptTemplateRegistry.ANY;
+        String channel = PromptTemplateRegistry.ANY;
+        int offset = 0;
+        while (offset < content.length()) {
+            int lineEnd = content.indexOf('\n', offset);
+            int next = lineEnd < 0 ? content.length() : lineEnd + 1;
+            String line = content.substring(offset, lineEnd < 0 ? content.length() : lineEnd).trim();
+            offset = next;
+            if (HEADER_SEPARATOR.equals(line)) {
+                builder.register(persona, channel, PromptTemplate.parse(content.substring(offset)));
+                return;
+            }
+            if (line.isEmpty()) {
+                continue;
+            }
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                break;
+            }
+            String key = line.substring(0, colon).trim();
+            String value = line.substring(colon + 1).trim();
+            if ("persona".equals(key) && StringUtils.hasText(value)) {
+                persona = value;
+            }
+            else if ("channel".equals(key) && StringUtils.hasText(value)) {
+                channel = value;
+            }
+        }
+        throw new IllegalStateException("Prompt 模板缺少以 --- 结束的 persona / channel 头部: " + resource.getDescription());
+    }
+
+    private String resolveTone(String channel) {
+        Map<String, String> tones = properties.getTones();
+        String tone = tones.get(channel);
+        if (tone == null) {
+            tone = tones.get(PromptProperties.DEFAULT_TONE_KEY);
+        }
+        return tone != null ? tone : "";
     }
 
     private String loadTemplate(String templateConfig) {
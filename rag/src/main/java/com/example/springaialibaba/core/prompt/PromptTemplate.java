@@ -0,0 +1,173 @@
+package com.example.springaialibaba.core.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.ai.document.Document;
+import org.springframework.util.StringUtils;
+
+/**
+ * 预编译的 Prompt 模板。
+ *
+ * <p>模板文本在加载时解析为“字面量 / 占位符”片段列表，渲染时先计算总长度，再把各片段与上下文文档
+ * 依次写入同一个预分配容量的 {@link StringBuilder}，不再为每个占位符生成一份完整 Prompt 的中间副本。
+ * 支持的占位符为 {@code {persona}}、{@code {channel}}、{@code {question}}、{@code {context}}、{@code {tone}}，
+ * 其他花括号内容按字面量保留。</p>
+ */
+public final class PromptTemplate {
+
+    static final String CONTEXT_SEPARATOR = "\n---\n";
+
+    private final String source;
+
+    private final Object[] segments;
+
+    private final int literalLength;
+
+    private PromptTemplate(String source, Object[] segments, int literalLength) {
+        this.source = source;
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    public static PromptTemplate parse(String text) {
+        String source = Objects.toString(text, "");
+        List<Object> segments = new ArrayList<>();
+        int literalLength = 0;
+        int literalStart = 0;
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf('{', position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            Placeholder placeholder = Placeholder.of(source, open + 1, close);
+            if (placeholder == null) {
+                position = open + 1;
+                continue;
+            }
+            if (open > literalStart) {
+                segments.add(source.substring(literalStart, open));
+                literalLength += open - literalStart;
+            }
+            segments.add(placeholder);
+            literalStart = close + 1;
+            position = literalStart;
+        }
+        if (literalStart < source.length()) {
+            segments.add(source.substring(literalStart));
+            literalLength += source.length() - literalStart;
+        }
+        return new PromptTemplate(source, segments.toArray(), literalLength);
+    }
+
+    /**
+     * 渲染模板，上下文文档的非空文本以 {@value #CONTEXT_SEPARATOR} 分隔写入 {@code {context}}。
+     */
+    public String render(String persona, String channel, String question, List<Document> context, String tone) {
+        int contextLength = -1;
+        int capacity = literalLength;
+        for (Object segment : segments) {
+            if (segment instanceof Placeholder placeholder) {
+                if (placeholder == Placeholder.CONTEXT) {
+                    if (contextLength < 0) {
+                        contextLength = contextLength(context);
+                    }
+                    capacity += contextLength;
+                }
+                else {
+                    capacity += value(placeholder, persona, channel, question, tone).length();
+                }
+            }
+        }
+        StringBuilder builder = new StringBuilder(capacity);
+        for (Object segment : segments) {
+            if (segment instanceof String literal) {
+                builder.append(literal);
+            }
+            else if (segment == Placeholder.CONTEXT) {
+                appendContext(builder, context);
+            }
+            else {
+                builder.append(value((Placeholder) segment, persona, channel, question, tone));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 模板原文。
+     */
+    public String source() {
+        return source;
+    }
+
+    private static String value(Placeholder placeholder, String persona, String channel, String question,
+            String tone) {
+        String value = switch (placeholder) {
+            case PERSONA -> persona;
+            case CHANNEL -> channel;
+            case QUESTION -> question;
+            case TONE -> tone;
+            case CONTEXT -> throw new IllegalStateException("context 占位符需单独渲染");
+        };
+        return value != null ? value : "";
+    }
+
+    private static int contextLength(List<Document> context) {
+        if (context == null) {
+            return 0;
+        }
+        int length = 0;
+        int count = 0;
+        for (Document document : context) {
+            if (document != null && StringUtils.hasText(document.getText())) {
+                length += document.getText().length();
+                count++;
+            }
+        }
+        return count > 0 ? length + (count - 1) * CONTEXT_SEPARATOR.length() : 0;
+    }
+
+    private static void appendContext(StringBuilder builder, List<Document> context) {
+        if (context == null) {
+            return;
+        }
+        boolean first = true;
+        for (Document document : context) {
+            if (document == null || !StringUtils.hasText(document.getText())) {
+                continue;
+            }
+            if (!first) {
+                builder.append(CONTEXT_SEPARATOR);
+            }
+            builder.append(document.getText());
+            first = false;
+        }
+    }
+
+    private enum Placeholder {
+
+        PERSONA("persona"), CHANNEL("channel"), QUESTION("question"), CONTEXT("context"), TONE("tone");
+
+        private final String token;
+
+        Placeholder(String token) {
+            this.token = token;
+        }
+
+        static Placeholder of(String source, int start, int end) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.token.length() == end - start && source.startsWith(placeholder.token, start)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.springaialibaba.core.prompt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * 按 (persona, channel) 索引的预编译模板集合，不可变。
+ *
+ * <p>查找顺序：精确匹配 (persona, channel) → 任意 persona + 该 channel → 该 persona + 任意 channel →
+ * 默认模板。模板文件中未声明的 persona / channel 视为 {@value #ANY}。</p>
+ */
+public final class PromptTemplateRegistry {
+
+    public static final String ANY = "*";
+
+    private final PromptTemplate defaultTemplate;
+
+    private final Map<String, PromptTemplate> templates;
+
+    private PromptTemplateRegistry(PromptTemplate defaultTemplate, Map<String, PromptTemplate> templates) {
+        this.defaultTemplate = defaultTemplate;
+        this.templates = templates;
+    }
+
+    public static Builder builder(PromptTemplate defaultTemplate) {
+        return new Builder(defaultTemplate);
+    }
+
+    public PromptTemplate resolve(String persona, String channel) {
+        if (templates.isEmpty()) {
+            return defaultTemplate;
+        }
+        PromptTemplate template = templates.get(key(persona, channel));
+        if (template == null) {
+            template = templates.get(key(ANY, channel));
+        }
+        if (template == null) {
+            template = templates.get(key(persona, ANY));
+        }
+        return template != null ? template : defaultTemplate;
+    }
+
+    /**
+     * 除默认模板外注册的模板数。
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    private static String key(String persona, String channel) {
+        return persona + '\u0000' + channel;
+    }
+
+    public static final class Builder {
+
+        private final PromptTemplate defaultTemplate;
+
+        private final Map<String, PromptTemplate> templates = new HashMap<>();
+
+        private Builder(PromptTemplate defaultTemplate) {
+            Assert.notNull(defaultTemplate, "defaultTemplate must not be null");
+            this.defaultTemplate = defaultTemplate;
+        }
+
+        /**
+         * 注册模板，persona 或 channel 为 {@value #ANY} 时匹配任意取值；相同键后注册的覆盖先注册的。
+         */
+        public Builder register(String persona, String channel, PromptTemplate template) {
+            Assert.hasText(persona, "persona must not be empty");
+            Assert.hasText(channel, "channel must not be empty");
+            Assert.notNull(template, "template must not be null");
+            templates.put(key(persona, channel), template);
+            return this;
+        }
+
+        public PromptTemplateRegistry build() {
+            PromptTemplate fallback = templates.getOrDefault(key(ANY, ANY), defaultTemplate);
+            Map<String, PromptTemplate> registered = new HashMap<>(templates);
+            registered.remove(key(ANY, ANY));
+            return new PromptTemplateRegistry(fallback, Map.copyOf(registered));
+        }
+    }
+}
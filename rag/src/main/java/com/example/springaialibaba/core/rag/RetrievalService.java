@@ -82,8 +82,8 @@ public class RetrievalService {
         log.info("重排前 {}", JSON.toJSONString(contents));
 
         try {
-            // 文档 rerank
-            List<RerankedDocument> rerankedDocuments = rerankClient.rerank(query, contents);
+            // 文档 rerank，等待时间受 Rerank 整体超时约束
+            List<RerankedDocument> rerankedDocuments = rerankClient.rerankAsync(query, contents).join();
             if (rerankedDocuments.isEmpty()) {
                 return limitDocuments(initialDocuments, targetSize);
             }
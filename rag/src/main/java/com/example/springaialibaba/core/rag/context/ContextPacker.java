@@ -0,0 +1,176 @@
+package com.example.springaialibaba.core.rag.context;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * 在 token 预算内把候选文档拼装为 Prompt 中的参考资料。
+ *
+ * <p>文档按传入顺序（即 rerank 顺序）依次放入，每篇只保留 {@code metadataKeys} 指定的元数据
+ * （如标题、章节），检索分数、距离等内部元数据不再进入 Prompt。第一篇放不下的文档在剩余预算不少于
+ * {@code minTailTokens} 时按句子边界截取开头部分，第一句就放不下时按字符硬截断，否则丢弃；其后的文档全部丢弃。</p>
+ */
+public final class ContextPacker {
+
+    private static final String DOCUMENT_SEPARATOR = "\n\n";
+
+    private final TokenEstimator estimator;
+
+    private final int maxTokens;
+
+    private final int minTailTokens;
+
+    private final List<String> metadataKeys;
+
+    public ContextPacker(TokenEstimator estimator, int maxTokens, int minTailTokens, List<String> metadataKeys) {
+        Assert.notNull(estimator, "estimator must not be null");
+        Assert.isTrue(maxTokens > 0, "maxTokens 必须大于 0");
+        this.estimator = estimator;
+        this.maxTokens = maxTokens;
+        this.minTailTokens = Math.max(minTailTokens, 1);
+        this.metadataKeys = metadataKeys != null
+                ? metadataKeys.stream().filter(StringUtils::hasText).map(String::trim).toList()
+                : List.of();
+    }
+
+    public PackedContext pack(List<Document> documents) {
+        StringBuilder context = new StringBuilder();
+        int usedTokens = 0;
+        int included = 0;
+        boolean truncated = false;
+        if (documents == null) {
+            return new PackedContext("", 0, 0, false);
+        }
+        for (Document document : documents) {
+            if (document == null || !StringUtils.hasText(document.getText())) {
+                continue;
+            }
+            String header = header(included + 1, document.getMetadata());
+            String text = document.getText().strip();
+            int headerTokens = estimator.estimate(header);
+            int textTokens = estimator.estimate(text);
+            int remaining = maxTokens - usedTokens;
+            if (headerTokens + textTokens <= remaining) {
+                append(context, header, text);
+                usedTokens += headerTokens + textTokens;
+                included++;
+                continue;
+            }
+            truncated = true;
+            int tailBudget = remaining - headerTokens;
+            if (tailBudget >= minTailTokens) {
+                String head = leadingSentences(text, tailBudget);
+                if (head.isEmpty()) {
+                    head = leadingChars(text, tailBudget);
+                }
+                if (!head.isEmpty()) {
+                    append(context, header, head);
+                    usedTokens += headerTokens + estimator.estimate(head);
+                    included++;
+                }
+            }
+            break;
+        }
+        return new PackedContext(context.toString(), usedTokens, included, truncated);
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    private String header(int index, Map<String, Object> metadata) {
+        StringBuilder header = new StringBuilder();
+        header.append('[').append(index).append("] ");
+        if (metadata == null || metadataKeys.isEmpty()) {
+            return header.toString();
+        }
+        for (String key : metadataKeys) {
+            Object value = metadata.get(key);
+            if (value != null && StringUtils.hasText(value.toString())) {
+                header.append(key).append(": ").append(value).append('\n');
+            }
+        }
+        return header.toString();
+    }
+
+    /**
+     * 在预算内尽可能多地保留完整句子；第一句就超出预算时返回空字符串。
+     */
+    private String leadingSentences(String text, int budget) {
+        int used = 0;
+        int end = 0;
+        int start = 0;
+        while (start < text.length()) {
+            int sentenceEnd = nextSentenceEnd(text, start);
+            int tokens = estimator.estimate(text.subSequence(start, sentenceEnd));
+            if (used + tokens > budget) {
+                break;
+            }
+            used += tokens;
+            end = sentenceEnd;
+            start = sentenceEnd;
+        }
+        return text.substring(0, end).strip();
+    }
+
+    /**
+     * 在预算内保留尽可能长的前缀，用于没有可用句子边界的长文本；不拆开代理对。
+     */
+    private String leadingChars(String text, int budget) {
+        int low = 0;
+        int high = text.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (estimator.estimate(text.subSequence(0, mid)) <= budget) {
+                low = mid;
+            }
+            else {
+                high = mid - 1;
+            }
+        }
+        if (low > 0 && low < text.length() && Character.isHighSurrogate(text.charAt(low - 1))) {
+            low--;
+        }
+        return text.substring(0, low).strip();
+    }
+
+    private static int nextSentenceEnd(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '。', '！', '？', '；', '!', '?', ';', '\n':
+                    return i + 1;
+                case '.':
+                    if (i + 1 == text.length() || Character.isWhitespace(text.charAt(i + 1))) {
+                        return i + 1;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return text.length();
+    }
+
+    private static void append(StringBuilder context, String header, String text) {
+        if (!context.isEmpty()) {
+            context.append(DOCUMENT_SEPARATOR);
+        }
+        context.append(header).append(text);
+    }
+
+    /**
+     * 拼装结果。
+     *
+     * @param text 参考资料文本
+     * @param tokens 估算的 token 数
+     * @param documents 放入的文档数（含被截断的一篇）
+     * @param truncated 是否有文档因预算被截断或丢弃
+     */
+    public record PackedContext(String text, int tokens, int documents, boolean truncated) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springaialibaba.core.rag.context;
+
+import java.util.Locale;
+
+/**
+ * 本地 token 数估算，用于在调用模型前约束 Prompt 大小。
+ *
+ * <p>不加载真实词表，按字符类别线性近似：汉字及全角符号按 {@code hanTokensPerChar} 计，
+ * 其他非空白字符按 {@code otherTokensPerChar} 计，空白不计。系数按聊天模型所属的分词器族选取，
+ * 结果向上取整，宁可高估也不低估。</p>
+ */
+public final class TokenEstimator {
+
+    private final double hanTokensPerChar;
+
+    private final double otherTokensPerChar;
+
+    public TokenEstimator(double hanTokensPerChar, double otherTokensPerChar) {
+        if (hanTokensPerChar <= 0 || otherTokensPerChar <= 0) {
+            throw new IllegalArgumentException("token 估算系数必须大于 0");
+        }
+        this.hanTokensPerChar = hanTokensPerChar;
+        this.otherTokensPerChar = otherTokensPerChar;
+    }
+
+    /**
+     * 按模型名选择近似系数：DeepSeek 约 0.6 token/汉字，Qwen、GLM 约 0.7 token/汉字，
+     * 英文等约 0.3 token/字符；未知模型按 1 token/汉字保守估算。
+     */
+    public static TokenEstimator forModel(String model) {
+        String name = model != null ? model.toLowerCase(Locale.ROOT) : "";
+        if (name.contains("deepseek")) {
+            return new TokenEstimator(0.6d, 0.3d);
+        }
+        if (name.contains("qwen") || name.contains("glm")) {
+            return new TokenEstimator(0.7d, 0.3d);
+        }
+        return new TokenEstimator(1.0d, 0.3d);
+    }
+
+    public int estimate(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        double tokens = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            tokens += isWide(c) ? hanTokensPerChar : otherTokensPerChar;
+        }
+        return (int) Math.ceil(tokens);
+    }
+
+    private static boolean isWide(char c) {
+        return (c >= '\u4E00' && c <= '\u9FFF')
+                || (c >= '\u3400' && c <= '\u4DBF')
+                || (c >= '\u3000' && c <= '\u303F')
+                || (c >= '\uFF00' && c <= '\uFFEF')
+                || Character.isSurrogate(c);
+    }
+}
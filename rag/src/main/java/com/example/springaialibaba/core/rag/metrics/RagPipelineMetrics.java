@@ -0,0 +1,206 @@
+package com.example.springaialibaba.core.rag.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.generation.augmentation.QueryAugmenter;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
+import org.springframework.ai.rag.preretrieval.query.transformation.QueryTransformer;
+import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.stereotype.Component;
+
+import com.example.springaialibaba.config.properties.ScopeProperties;
+import com.example.springaialibaba.core.rag.modules.CustomQueryAugmenter;
+
+/**
+ * Modular RAG 链路各阶段的 Micrometer 指标。
+ *
+ * <p>各阶段模块通过 {@code transformer(...)}、{@code retriever(...)} 等方法包装后注册到
+ * {@code RetrievalAugmentationAdvisor}，每次调用记录一次 {@value #STAGE_TIMER}（带百分位直方图），
+ * 并按阶段记录候选文档数、扩展出的子查询数、增强后的 Prompt 字符数与参考资料 token 估算值。LLM 调用的耗时与 token 用量由
+ * {@code LlmCallMetricsAdvisor} 记录，Rerank 降级由 {@code CustomDocumentPostProcessor} 记录。</p>
+ *
+ * <p>所有指标都带 {@code persona}、{@code channel} 标签，取自 Advisor 参数写入的 Query context。
+ * 二者由客户端传入，只有 {@link ScopeProperties} 白名单中的取值原样作为标签，其余记为 {@code other}，
+ * 缺失时记为 {@code unknown}，标签基数因此有上限。</p>
+ */
+@Component
+public class RagPipelineMetrics {
+
+    public static final String STAGE_TIMER = "rag.pipeline.stage";
+
+    public static final String DOCUMENTS_SUMMARY = "rag.pipeline.documents";
+
+    public static final String QUERIES_SUMMARY = "rag.pipeline.queries";
+
+    public static final String PROMPT_CHARS_SUMMARY = "rag.prompt.chars";
+
+    public static final String CONTEXT_TOKENS_SUMMARY = "rag.prompt.context.tokens";
+
+    public static final String LLM_TOKENS_SUMMARY = "rag.llm.tokens";
+
+    public static final String RERANK_FALLBACK_COUNTER = "rag.rerank.fallback";
+
+    private final MeterRegistry registry;
+
+    private final ScopeProperties scopeProperties;
+
+    public RagPipelineMetrics(MeterRegistry registry, ScopeProperties scopeProperties) {
+        this.registry = registry;
+        this.scopeProperties = scopeProperties;
+    }
+
+    public QueryTransformer transformer(QueryTransformer delegate) {
+        return query -> timed("transform", tags(query), () -> delegate.transform(query));
+    }
+
+    public QueryExpander expander(QueryExpander delegate) {
+        return query -> {
+            Tags tags = tags(query);
+            List<Query> expanded = timed("expand", tags, () -> delegate.expand(query));
+            summary(QUERIES_SUMMARY, tags).record(expanded.size());
+            return expanded;
+        };
+    }
+
+    public DocumentRetriever retriever(DocumentRetriever delegate) {
+        return query -> {
+            Tags tags = tags(query);
+            List<Document> documents = timed("retrieve", tags, () -> delegate.retrieve(query));
+            summary(DOCUMENTS_SUMMARY, tags.and("stage", "retrieve")).record(documents.size());
+            return documents;
+        };
+    }
+
+    public DocumentJoiner joiner(DocumentJoiner delegate) {
+        return documentsForQuery -> {
+            Tags tags = documentsForQuery.keySet().stream().findFirst().map(this::tags).orElseGet(this::unknownTags);
+            List<Document> documents = timed("join", tags, () -> delegate.join(documentsForQuery));
+            summary(DOCUMENTS_SUMMARY, tags.and("stage", "join")).record(documents.size());
+            return documents;
+        };
+    }
+
+    public DocumentPostProcessor postProcessor(DocumentPostProcessor delegate) {
+        return postProcessor("post-process", delegate);
+    }
+
+    /**
+     * 有多个后处理器时用不同的 {@code stage} 区分，例如近似重复折叠与 Rerank。
+     */
+    public DocumentPostProcessor postProcessor(String stage, DocumentPostProcessor delegate) {
+        return (query, documents) -> {
+            Tags tags = tags(query);
+            List<Document> processed = timed(stage, tags, () -> delegate.process(query, documents));
+            summary(DOCUMENTS_SUMMARY, tags.and("stage", stage)).record(processed.size());
+            return processed;
+        };
+    }
+
+    public QueryAugmenter augmenter(QueryAugmenter delegate) {
+        return (query, documents) -> {
+            Tags tags = tags(query);
+            Query augmented = timed("augment", tags, () -> delegate.augment(query, documents));
+            summary(PROMPT_CHARS_SUMMARY, tags).record(augmented.text() != null ? augmented.text().length() : 0);
+            if (augmented.context() != null
+                    && augmented.context().get(CustomQueryAugmenter.CONTEXT_TOKENS) instanceof Number tokens) {
+                summary(CONTEXT_TOKENS_SUMMARY, tags).record(tokens.doubleValue());
+            }
+            return augmented;
+        };
+    }
+
+    /**
+     * 记录一次 LLM 调用的耗时（{@code stage="llm"}）与 token 用量。
+     *
+     * @param context ChatClientRequest 的 context，其中包含 persona 与 channel 参数
+     * @param usage 模型返回的用量，可为 {@code null}
+     */
+    public void recordLlmCall(Map<String, Object> context, long elapsedNanos, Usage usage, boolean success) {
+        Tags tags = tags(context);
+        stageTimer("llm", tags, success).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (usage == null) {
+            return;
+        }
+        if (usage.getPromptTokens() != null && usage.getPromptTokens() > 0) {
+            summary(LLM_TOKENS_SUMMARY, tags.and("type", "prompt")).record(usage.getPromptTokens());
+        }
+        if (usage.getCompletionTokens() != null && usage.getCompletionTokens() > 0) {
+            summary(LLM_TOKENS_SUMMARY, tags.and("type", "completion")).record(usage.getCompletionTokens());
+        }
+    }
+
+    /**
+     * 记录流式调用从发出请求到收到首个分片的耗时（{@code stage="llm-first-token"}）。
+     */
+    public void recordLlmFirstToken(Map<String, Object> context, long elapsedNanos) {
+        stageTimer("llm-first-token", tags(context), true).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Rerank 失败、超时或返回空结果时，按原始检索顺序降级的次数。
+     */
+    public void recordRerankFallback(Query query, String reason) {
+        Counter.builder(RERANK_FALLBACK_COUNTER)
+                .description("Rerank 降级为原始检索顺序的次数")
+                .tags(tags(query).and("reason", reason))
+                .register(registry)
+                .increment();
+    }
+
+    private <T> T timed(String stage, Tags tags, Supplier<T> invocation) {
+        long startedAt = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = invocation.get();
+            success = true;
+            return result;
+        }
+        finally {
+            stageTimer(stage, tags, success).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer stageTimer(String stage, Tags tags, boolean success) {
+        return Timer.builder(STAGE_TIMER)
+                .description("RAG 链路各阶段耗时")
+                .tags(tags.and("stage", stage, "outcome", success ? "success" : "error"))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, Tags tags) {
+        return DistributionSummary.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private Tags tags(Query query) {
+        return query != null ? tags(query.context()) : unknownTags();
+    }
+
+    private Tags tags(Map<String, Object> context) {
+        if (context == null || context.isEmpty()) {
+            return unknownTags();
+        }
+        return Tags.of("persona", scopeProperties.personaTag(context.get("persona")),
+                "channel", scopeProperties.channelTag(context.get("channel")));
+    }
+
+    private Tags unknownTags() {
+        return Tags.of("persona", ScopeProperties.UNKNOWN, "channel", ScopeProperties.UNKNOWN);
+    }
+}
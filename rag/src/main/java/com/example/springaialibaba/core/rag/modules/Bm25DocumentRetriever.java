@@ -0,0 +1,47 @@
+package com.example.springaialibaba.core.rag.modules;
+
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.util.StringUtils;
+
+import com.example.springaialibaba.core.rag.sparse.Bm25IndexService;
+
+/**
+ * <h2>BM25 稀疏检索器（检索 - 第 3 步）</h2>
+ *
+ * <p><b>职责：</b>在进程内 BM25 倒排索引上检索关键词匹配的文档，
+ * 对产品型号、错误码等精确词命中效果好于向量检索，耗时通常在微秒级。</p>
+ *
+ * <p>一般不单独注册，而是由 {@link HybridDocumentRetriever} 与向量检索器组合使用。</p>
+ */
+public class Bm25DocumentRetriever implements DocumentRetriever {
+
+    private static final Logger log = LoggerFactory.getLogger(Bm25DocumentRetriever.class);
+
+    private final Bm25IndexService indexService;
+
+    private final int defaultTopK;
+
+    public Bm25DocumentRetriever(Bm25IndexService indexService, int defaultTopK) {
+        this.indexService = indexService;
+        this.defaultTopK = Math.max(defaultTopK, 1);
+    }
+
+    @Override
+    public List<Document> retrieve(Query query) {
+        if (!StringUtils.hasText(query.text())) {
+            return List.of();
+        }
+        Map<String, Object> context = query.context() != null ? query.context() : Map.of();
+        int topK = context.get("topK") instanceof Number topKNumber ? Math.max(topKNumber.intValue(), 1) : defaultTopK;
+        List<Document> results = indexService.search(query.text(), topK);
+        log.debug("DocumentRetriever: BM25 检索查询={}，命中 {} 篇", query.text(), results.size());
+        return results;
+    }
+}
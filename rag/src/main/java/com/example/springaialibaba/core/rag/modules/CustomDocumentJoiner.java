@@ -1,10 +1,11 @@
 package com.example.springaialibaba.core.rag.modules;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +29,11 @@ import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
  * 典型场景：多路召回后的去重合并；也可在此实现简单的重排序
  * （如按 metadata 中的 score 字段倒序排列）。</p>
  *
+ * <p><b>当前实现：</b>倒数排名融合（Reciprocal Rank Fusion）。每个 (子查询, 检索来源) 构成一路排名，
+ * 文档得分为各路 {@code 1 / (k + rank)} 之和，按得分倒序输出并写入 {@value #FUSION_SCORE_METADATA_KEY}。
+ * 来源与名次取自 {@link HybridDocumentRetriever} 标注的元数据，缺失时按文档在批次中的位置计算。
+ * 同一 id 的文档只保留首次出现的实例。</p>
+ *
  * <p><b>方法签名说明：</b></p>
  * <pre>{@code
  * // key = 某个子查询, value = 该子查询对应的 N 批结果（每个 DocumentRetriever 各返回一批）
@@ -49,23 +55,63 @@ import org.springframework.ai.rag.retrieval.join.DocumentJoiner;
  */
 public class CustomDocumentJoiner implements DocumentJoiner {
 
+    public static final String FUSION_SCORE_METADATA_KEY = "fusion_score";
+
+    public static final int DEFAULT_RRF_K = 60;
+
     private static final Logger log = LoggerFactory.getLogger(CustomDocumentJoiner.class);
 
+    private final int rrfK;
+
+    public CustomDocumentJoiner() {
+        this(DEFAULT_RRF_K);
+    }
+
+    public CustomDocumentJoiner(int rrfK) {
+        this.rrfK = Math.max(rrfK, 1);
+    }
+
     @Override
     public List<Document> join(Map<Query, List<List<Document>>> documentsForQuery) {
-        // --- 在此处实现自定义合并逻辑 ---
-        // 示例：展开所有批次，按 Document ID 去重后返回
         Map<String, Document> seen = new LinkedHashMap<>();
+        Map<String, Double> scores = new HashMap<>();
         for (Map.Entry<Query, List<List<Document>>> entry : documentsForQuery.entrySet()) {
             for (List<Document> batch : entry.getValue()) {
+                Map<Object, Integer> positions = new HashMap<>();
                 for (Document doc : batch) {
+                    Object source = doc.getMetadata().get(HybridDocumentRetriever.SOURCE_METADATA_KEY);
+                    // 同一批次内按来源分别计数，作为缺失名次元数据时的排名
+                    int position = positions.merge(source != null ? source : "", 1, Integer::sum);
+                    int rank = resolveRank(doc.getMetadata().get(HybridDocumentRetriever.RANK_METADATA_KEY), position);
                     // 以 id 为 key，保留首次出现的文档（保证顺序的同时去重）
                     seen.putIfAbsent(doc.getId(), doc);
+                    scores.merge(doc.getId(), 1.0d / (rrfK + rank), Double::sum);
                 }
             }
         }
-        List<Document> merged = new ArrayList<>(seen.values());
-        log.debug("DocumentJoiner: 合并后共 {} 篇文档", merged.size());
+        List<Document> merged = new ArrayList<>(seen.size());
+        for (Document doc : seen.values()) {
+            merged.add(withFusionScore(doc, scores.get(doc.getId())));
+        }
+        // List.sort 是稳定排序，同分文档保持首次出现的顺序
+        merged.sort(Comparator.comparingDouble(
+                (Document doc) -> (Double) doc.getMetadata().get(FUSION_SCORE_METADATA_KEY)).reversed());
+        log.debug("DocumentJoiner: 融合后共 {} 篇文档", merged.size());
         return merged;
     }
+
+    private int resolveRank(Object rankValue, int position) {
+        if (rankValue instanceof Number rankNumber && rankNumber.intValue() > 0) {
+            return rankNumber.intValue();
+        }
+        return position;
+    }
+
+    private Document withFusionScore(Document document, double fusionScore) {
+        Map<String, Object> metadata = new LinkedHashMap<>(document.getMetadata());
+        metadata.put(FUSION_SCORE_METADATA_KEY, fusionScore);
+        return document.mutate()
+                .metadata(metadata)
+                .build();
+    }
 }
@@ -1,12 +1,14 @@
 package com.example.springaialibaba.core.rag.modules;
 
 import com.example.springaialibaba.core.client.RerankClient;
+import com.example.springaialibaba.core.rag.metrics.RagPipelineMetrics;
 import com.example.springaialibaba.model.entity.RerankedDocument;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,9 +55,16 @@ public class CustomDocumentPostProcessor implements DocumentPostProcessor {
 
     private final int topN;
 
+    private final RagPipelineMetrics metrics;
+
     public CustomDocumentPostProcessor(RerankClient rerankClient, int topN) {
+        this(rerankClient, topN, null);
+    }
+
+    public CustomDocumentPostProcessor(RerankClient rerankClient, int topN, RagPipelineMetrics metrics) {
         this.rerankClient = rerankClient;
         this.topN = Math.max(topN, 0);
+        this.metrics = metrics;
     }
 
     @Override
@@ -72,8 +81,10 @@ public class CustomDocumentPostProcessor implements DocumentPostProcessor {
                 .map(this::resolveDocumentContent)
                 .toList();
         try {
-            List<RerankedDocument> reranked = rerankClient.rerank(query.text(), contents);
+            // 等待时间受 Rerank 整体超时约束，超时或执行器饱和时走下方的降级分支
+            List<RerankedDocument> reranked = rerankClient.rerankAsync(query.text(), contents).join();
             if (reranked.isEmpty()) {
+                recordFallback(query, "empty");
                 return limitDocuments(documents, targetSize);
             }
 
@@ -91,6 +102,7 @@ public class CustomDocumentPostProcessor implements DocumentPostProcessor {
                 }
             }
             if (result.isEmpty()) {
+                recordFallback(query, "invalid");
                 return limitDocuments(documents, targetSize);
             }
             if (result.size() < targetSize) {
@@ -110,10 +122,17 @@ public class CustomDocumentPostProcessor implements DocumentPostProcessor {
         }
         catch (RuntimeException ex) {
             log.warn("DocumentPostProcessor: Rerank 失败，降级使用原始检索顺序", ex);
+            recordFallback(query, ex.getCause() instanceof TimeoutException ? "timeout" : "error");
             return limitDocuments(documents, targetSize);
         }
     }
 
+    private void recordFallback(Query query, String reason) {
+        if (metrics != null) {
+            metrics.recordRerankFallback(query, reason);
+        }
+    }
+
     private List<Document> limitDocuments(List<Document> documents, int limit) {
         if (documents.size() <= limit) {
             return new ArrayList<>(documents);
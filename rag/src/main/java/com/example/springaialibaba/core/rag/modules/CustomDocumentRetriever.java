@@ -2,6 +2,8 @@ package com.example.springaialibaba.core.rag.modules;
 
 import java.util.List;
 import java.util.Map;
+
+import com.example.springaialibaba.core.vectorstore.QueryVectorSearch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
@@ -27,6 +29,9 @@ import org.springframework.util.StringUtils;
  * 典型场景：对接非向量数据库（如 Elasticsearch 全文检索、自建 API 等）；
  * 或在向量检索之外，增加混合检索（稀疏 + 稠密）逻辑。</p>
  *
+ * <p>子查询 context 中带有 {@link #QUERY_EMBEDDING}（由 {@link CustomQueryExpander} 批量计算）
+ * 且配置了 {@link QueryVectorSearch} 时直接按向量检索，不再逐条嵌入；否则走文本检索。</p>
+ *
  * <p><b>对应接口：</b>
  * {@link org.springframework.ai.rag.retrieval.search.DocumentRetriever}</p>
  *
@@ -42,16 +47,29 @@ import org.springframework.util.StringUtils;
  */
 public class CustomDocumentRetriever implements DocumentRetriever {
 
+    /**
+     * 子查询 context 中预先计算好的查询向量（{@code float[]}）。
+     */
+    public static final String QUERY_EMBEDDING = "retrievalQueryEmbedding";
+
     private static final Logger log = LoggerFactory.getLogger(CustomDocumentRetriever.class);
 
     private final VectorStore vectorStore;
 
+    private final QueryVectorSearch vectorSearch;
+
     private final int defaultTopK;
 
     private final double defaultSimilarityThreshold;
 
     public CustomDocumentRetriever(VectorStore vectorStore, int defaultTopK, double defaultSimilarityThreshold) {
+        this(vectorStore, null, defaultTopK, defaultSimilarityThreshold);
+    }
+
+    public CustomDocumentRetriever(VectorStore vectorStore, QueryVectorSearch vectorSearch, int defaultTopK,
+            double defaultSimilarityThreshold) {
         this.vectorStore = vectorStore;
+        this.vectorSearch = vectorSearch;
         this.defaultTopK = Math.max(defaultTopK, 1);
         this.defaultSimilarityThreshold = defaultSimilarityThreshold;
     }
@@ -66,6 +84,10 @@ public class CustomDocumentRetriever implements DocumentRetriever {
         Map<String, Object> context = query.context() != null ? query.context() : Map.of();
         int topK = resolveTopK(context.get("topK"));
         double threshold = resolveSimilarityThreshold(context);
+        if (vectorSearch != null && context.get(QUERY_EMBEDDING) instanceof float[] queryVector) {
+            List<Document> results = vectorSearch.similaritySearch(queryVector, topK, threshold, null);
+            return results != null ? results : List.of();
+        }
         SearchRequest searchRequest = SearchRequest.builder()
                 .query(query.text())
                 .topK(topK)
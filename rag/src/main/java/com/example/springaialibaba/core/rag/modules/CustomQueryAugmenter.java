@@ -1,6 +1,11 @@
 package com.example.springaialibaba.core.rag.modules;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import com.example.springaialibaba.core.rag.context.ContextPacker;
+import com.example.springaialibaba.core.rag.context.TokenEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
@@ -37,6 +42,9 @@ import org.springframework.util.StringUtils;
  * <p><b>内置替代品：</b>
  * {@code ContextualQueryAugmenter}（内置默认实现，支持 empty-context 兜底提示）</p>
  *
+ * <p><b>上下文预算：</b>参考资料由 {@link ContextPacker} 在 token 预算内按文档顺序拼装，超出部分截断到句子边界或丢弃；
+ * 实际使用的 token 估算值写入增强后 Query 的 context（{@value #CONTEXT_TOKENS}），供指标统计。</p>
+ *
  * <p><b>注册方式：</b></p>
  * <pre>{@code
  * RetrievalAugmentationAdvisor.builder()
@@ -50,6 +58,26 @@ public class CustomQueryAugmenter implements QueryAugmenter {
     private static final String DEFAULT_PERSONA = "客服人员";
     private static final String DEFAULT_CHANNEL = "售后服务";
 
+    /**
+     * 增强后 Query context 中记录参考资料 token 估算值的键。
+     */
+    public static final String CONTEXT_TOKENS = "contextTokens";
+
+    private static final int DEFAULT_MAX_CONTEXT_TOKENS = 2000;
+
+    private static final int DEFAULT_MIN_TAIL_TOKENS = 64;
+
+    private final ContextPacker contextPacker;
+
+    public CustomQueryAugmenter() {
+        this(new ContextPacker(TokenEstimator.forModel(null), DEFAULT_MAX_CONTEXT_TOKENS, DEFAULT_MIN_TAIL_TOKENS,
+                List.of("title", "section")));
+    }
+
+    public CustomQueryAugmenter(ContextPacker contextPacker) {
+        this.contextPacker = contextPacker;
+    }
+
     @Override
     public Query augment(Query query, List<Document> documents) {
         log.debug("QueryAugmenter: 基于 {} 篇文档增强查询", documents.size());
@@ -67,7 +95,10 @@ public class CustomQueryAugmenter implements QueryAugmenter {
             return query.mutate().text(fallback).build();
         }
 
-        String context = buildContext(documents);
+        ContextPacker.PackedContext packed = contextPacker.pack(documents);
+        log.debug("QueryAugmenter: 参考资料放入 {}/{} 篇文档，约 {} tokens（预算 {}），截断={}", packed.documents(),
+                documents.size(), packed.tokens(), contextPacker.getMaxTokens(), packed.truncated());
+        String context = packed.text();
         String augmentedText = """
                 你是一名%s，服务渠道是%s。
                 请严格基于以下参考资料回答用户问题，不要编造资料中未提及的内容。
@@ -79,17 +110,9 @@ public class CustomQueryAugmenter implements QueryAugmenter {
                 用户问题：%s
                 """.formatted(persona, channel, context, originalQuestion);
 
-        return query.mutate().text(augmentedText).build();
-    }
-
-    private String buildContext(List<Document> documents) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < documents.size(); i++) {
-            sb.append("[").append(i + 1).append("] ");
-            sb.append(documents.get(i).getFormattedContent());
-            sb.append("\n\n");
-        }
-        return sb.toString().trim();
+        Map<String, Object> augmentedContext = new LinkedHashMap<>(query.context());
+        augmentedContext.put(CONTEXT_TOKENS, packed.tokens());
+        return query.mutate().text(augmentedText).context(augmentedContext).build();
     }
 
     private String resolveContextValue(Query query, String key, String defaultValue) {
@@ -1,12 +1,24 @@
 package com.example.springaialibaba.core.rag.modules;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.rag.Query;
 import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.util.Assert;
+
+import com.example.springaialibaba.core.model.CachingEmbeddingModel;
 
 /**
  * <h2>自定义查询扩展器（预检索 - 第 2 步）</h2>
@@ -24,6 +36,16 @@ import org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander;
  * 每个子查询独立去检索，最后由 DocumentJoiner 合并去重。
  * 典型场景：多路召回、同义词扩展、多语言并行检索。</p>
  *
+ * <p>扩展时会把扇出开始时刻写入每个子查询的 context
+ * （{@link DeadlineDocumentRetriever#FAN_OUT_STARTED_AT}），
+ * 使所有子查询共享同一个检索截止时间。</p>
+ *
+ * <p>配置了 {@link EmbeddingModel} 时，所有子查询的文本通过一次批量嵌入调用得到向量，
+ * 写入各自 context 的 {@link CustomDocumentRetriever#QUERY_EMBEDDING}，检索阶段直接按向量查询，
+ * N 个子查询只产生一次嵌入往返。模型为 {@link CachingEmbeddingModel} 时先逐条查询向量缓存，只嵌入未命中的文本。
+ * 批量嵌入在检索线程池上执行，同样受扇出截止时间约束；失败、超时或线程池已满时不写入向量，
+ * 检索器回退为逐条按文本检索。</p>
+ *
  * <p><b>对应接口：</b>
  * {@link org.springframework.ai.rag.preretrieval.query.expansion.QueryExpander}</p>
  *
@@ -41,19 +63,104 @@ public class CustomQueryExpander implements QueryExpander {
 
     private static final Logger log = LoggerFactory.getLogger(CustomQueryExpander.class);
 
+    private final EmbeddingModel embeddingModel;
+
+    private final AsyncTaskExecutor executor;
+
+    private final long deadlineNanos;
+
+    public CustomQueryExpander() {
+        this.embeddingModel = null;
+        this.executor = null;
+        this.deadlineNanos = 0L;
+    }
+
+    public CustomQueryExpander(EmbeddingModel embeddingModel, AsyncTaskExecutor executor, long deadlineMillis) {
+        Assert.notNull(embeddingModel, "embeddingModel 不能为空");
+        Assert.notNull(executor, "executor 不能为空");
+        Assert.isTrue(deadlineMillis > 0, "deadlineMillis 必须大于 0");
+        this.embeddingModel = embeddingModel;
+        this.executor = executor;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
     @Override
     public List<Query> expand(Query query) {
         List<Query> expanded = new ArrayList<>();
 
+        // 记录扇出开始时刻，子查询共享同一个检索截止时间
+        Map<String, Object> context = new LinkedHashMap<>(query.context());
+        context.putIfAbsent(DeadlineDocumentRetriever.FAN_OUT_STARTED_AT, System.nanoTime());
+        Query stamped = query.mutate().context(context).build();
+
         // 始终保留原始查询
-        expanded.add(query);
+        expanded.add(stamped);
 
         // --- 在此处添加自定义扩展逻辑 ---
         // 示例：追加一个包含"请详细说明"前缀的扩展查询，引导检索更完整的段落
         String enrichedText = "请详细说明：" + query.text();
-        expanded.add(query.mutate().text(enrichedText).build());
+        expanded.add(stamped.mutate().text(enrichedText).build());
 
         log.debug("QueryExpander: 原始查询扩展为 {} 个子查询", expanded.size());
-        return expanded;
+        return attachEmbeddings(expanded, stamped.context().get(DeadlineDocumentRetriever.FAN_OUT_STARTED_AT));
+    }
+
+    /**
+     * 一次批量嵌入所有子查询，把向量放入各自的 context；最多等待到扇出截止时间。
+     */
+    private List<Query> attachEmbeddings(List<Query> queries, Object fanOutStartedAt) {
+        if (embeddingModel == null || queries.isEmpty()) {
+            return queries;
+        }
+        long startedAt = fanOutStartedAt instanceof Long nanos ? nanos : System.nanoTime();
+        long remainingNanos = startedAt + deadlineNanos - System.nanoTime();
+        List<String> texts = queries.stream().map(Query::text).toList();
+        Future<List<float[]>> future;
+        try {
+            future = executor.submit(() -> embed(texts));
+        }
+        catch (RejectedExecutionException ex) {
+            log.warn("QueryExpander: 检索线程池已满，跳过子查询批量嵌入，检索时逐条嵌入");
+            return queries;
+        }
+        List<float[]> vectors;
+        try {
+            vectors = future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        }
+        catch (TimeoutException ex) {
+            future.cancel(true);
+            log.warn("QueryExpander: 子查询批量嵌入超过截止时间 {} ms，检索时逐条嵌入",
+                    TimeUnit.NANOSECONDS.toMillis(deadlineNanos));
+            return queries;
+        }
+        catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return queries;
+        }
+        catch (ExecutionException ex) {
+            log.warn("QueryExpander: 子查询批量嵌入失败，检索时逐条嵌入: {}", ex.getCause().getMessage());
+            return queries;
+        }
+        if (vectors == null || vectors.size() != queries.size()) {
+            log.warn("QueryExpander: 批量嵌入返回 {} 个向量，与子查询数 {} 不一致，检索时逐条嵌入",
+                    vectors == null ? 0 : vectors.size(), queries.size());
+            return queries;
+        }
+        List<Query> embedded = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            Query query = queries.get(i);
+            Map<String, Object> context = new LinkedHashMap<>(query.context());
+            context.put(CustomDocumentRetriever.QUERY_EMBEDDING, vectors.get(i));
+            embedded.add(query.mutate().context(context).build());
+        }
+        return embedded;
+    }
+
+    private List<float[]> embed(List<String> texts) {
+        if (embeddingModel instanceof CachingEmbeddingModel cachingEmbeddingModel) {
+            return cachingEmbeddingModel.embedQueries(texts);
+        }
+        return embeddingModel.embed(texts);
     }
 }
@@ -0,0 +1,101 @@
+package com.example.springaialibaba.core.rag.modules;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * <h2>带截止时间的文档检索器（检索 - 第 3 步的装饰器）</h2>
+ *
+ * <p><b>职责：</b>把被装饰的 {@link DocumentRetriever} 放到独立、有界的检索线程池中执行，
+ * 并为同一次请求的所有子查询共享一个截止时间。超过截止时间仍未返回的子查询直接丢弃，
+ * 由 {@link CustomDocumentJoiner} 合并已完成的部分结果。</p>
+ *
+ * <p><b>截止时间的计算：</b>{@link CustomQueryExpander} 在扩展子查询时会把扇出开始时刻
+ * （{@link #FAN_OUT_STARTED_AT}，{@link System#nanoTime()}）写入每个子查询的 context，
+ * 因此排队等待的时间也会计入同一个预算；context 中缺失该值时，从本次调用开始计时。</p>
+ *
+ * <p><b>降级策略：</b>线程池已满、子查询超时或抛出异常时均返回空列表，不中断整个 Advisor 链路。</p>
+ */
+public class DeadlineDocumentRetriever implements DocumentRetriever {
+
+    /**
+     * 子查询 context 中记录扇出开始时刻的 key，值为 {@link System#nanoTime()}。
+     */
+    public static final String FAN_OUT_STARTED_AT = "retrievalFanOutStartedAt";
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineDocumentRetriever.class);
+
+    private final DocumentRetriever delegate;
+
+    private final AsyncTaskExecutor executor;
+
+    private final long deadlineNanos;
+
+    public DeadlineDocumentRetriever(DocumentRetriever delegate, AsyncTaskExecutor executor, long deadlineMillis) {
+        Assert.notNull(delegate, "delegate 不能为空");
+        Assert.notNull(executor, "executor 不能为空");
+        Assert.isTrue(deadlineMillis > 0, "deadlineMillis 必须大于 0");
+        this.delegate = delegate;
+        this.executor = executor;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+    }
+
+    @Override
+    public List<Document> retrieve(Query query) {
+        long remainingNanos = resolveRemainingNanos(query.context());
+        if (remainingNanos <= 0) {
+            log.warn("DocumentRetriever: 请求检索预算已耗尽，跳过子查询={}", query.text());
+            return List.of();
+        }
+
+        Future<List<Document>> future;
+        try {
+            future = executor.submit(() -> delegate.retrieve(query));
+        }
+        catch (RejectedExecutionException ex) {
+            log.warn("DocumentRetriever: 检索线程池已满，跳过子查询={}", query.text());
+            return List.of();
+        }
+
+        try {
+            List<Document> documents = future.get(remainingNanos, TimeUnit.NANOSECONDS);
+            return documents != null ? documents : List.of();
+        }
+        catch (TimeoutException ex) {
+            future.cancel(true);
+            log.warn("DocumentRetriever: 子查询超过截止时间 {} ms，返回部分结果，子查询={}",
+                    TimeUnit.NANOSECONDS.toMillis(deadlineNanos), query.text());
+            return List.of();
+        }
+        catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
+        catch (ExecutionException ex) {
+            log.warn("DocumentRetriever: 子查询检索失败，返回部分结果，子查询={}", query.text(), ex.getCause());
+            return List.of();
+        }
+    }
+
+    private long resolveRemainingNanos(Map<String, Object> context) {
+        Object startedAt = context != null ? context.get(FAN_OUT_STARTED_AT) : null;
+        if (startedAt instanceof Long startedAtNanos) {
+            return startedAtNanos + deadlineNanos - System.nanoTime();
+        }
+        return deadlineNanos;
+    }
+}
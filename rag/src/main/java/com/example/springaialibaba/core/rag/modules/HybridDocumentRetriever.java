@@ -0,0 +1,74 @@
+package com.example.springaialibaba.core.rag.modules;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+import org.springframework.util.Assert;
+
+/**
+ * <h2>混合检索器（检索 - 第 3 步）</h2>
+ *
+ * <p><b>职责：</b>Advisor 只能注册一个 {@link DocumentRetriever}，本类把稠密（向量）检索与稀疏（BM25）检索
+ * 组合为一次调用。两路结果拼接返回，每篇文档在元数据中标注来源 {@link #SOURCE_METADATA_KEY}
+ * 与该路内的名次 {@link #RANK_METADATA_KEY}，由 {@link CustomDocumentJoiner} 按倒数排名融合（RRF）。</p>
+ *
+ * <p>稀疏检索在进程内完成，先于稠密检索执行；稠密检索失败时仅返回稀疏结果。</p>
+ */
+public class HybridDocumentRetriever implements DocumentRetriever {
+
+    public static final String SOURCE_METADATA_KEY = "retrieval_source";
+
+    public static final String RANK_METADATA_KEY = "retrieval_rank";
+
+    public static final String DENSE_SOURCE = "dense";
+
+    public static final String SPARSE_SOURCE = "sparse";
+
+    private static final Logger log = LoggerFactory.getLogger(HybridDocumentRetriever.class);
+
+    private final DocumentRetriever denseRetriever;
+
+    private final DocumentRetriever sparseRetriever;
+
+    public HybridDocumentRetriever(DocumentRetriever denseRetriever, DocumentRetriever sparseRetriever) {
+        Assert.notNull(denseRetriever, "denseRetriever 不能为空");
+        Assert.notNull(sparseRetriever, "sparseRetriever 不能为空");
+        this.denseRetriever = denseRetriever;
+        this.sparseRetriever = sparseRetriever;
+    }
+
+    @Override
+    public List<Document> retrieve(Query query) {
+        List<Document> sparse = sparseRetriever.retrieve(query);
+        List<Document> dense;
+        try {
+            dense = denseRetriever.retrieve(query);
+        }
+        catch (RuntimeException ex) {
+            log.warn("DocumentRetriever: 向量检索失败，仅使用 BM25 结果，查询={}", query.text(), ex);
+            dense = List.of();
+        }
+        List<Document> combined = new ArrayList<>(dense.size() + sparse.size());
+        tag(dense, DENSE_SOURCE, combined);
+        tag(sparse, SPARSE_SOURCE, combined);
+        log.debug("DocumentRetriever: 混合检索 dense={}，sparse={}", dense.size(), sparse.size());
+        return combined;
+    }
+
+    private void tag(List<Document> documents, String source, List<Document> target) {
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            Map<String, Object> metadata = new LinkedHashMap<>(document.getMetadata());
+            metadata.put(SOURCE_METADATA_KEY, source);
+            metadata.put(RANK_METADATA_KEY, i + 1);
+            target.add(document.mutate().metadata(metadata).build());
+        }
+    }
+}
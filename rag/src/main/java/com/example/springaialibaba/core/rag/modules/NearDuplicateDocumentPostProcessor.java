@@ -0,0 +1,90 @@
+package com.example.springaialibaba.core.rag.modules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.springaialibaba.core.math.SimHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.postretrieval.document.DocumentPostProcessor;
+
+/**
+ * 近似重复分块折叠（后检索阶段，排在 Rerank 之前）。
+ *
+ * <p>分块按 80~100 字重叠切分，相邻分块及重复的 FAQ 套话经常同时被召回，而 {@link CustomDocumentJoiner}
+ * 只能按 ID 去重。这里按 {@link SimHash} 指纹比较，汉明距离不超过 {@code maxDistance} 的文档归为一组，
+ * 每组只保留得分最高的一篇（融合分数，其次为检索分数），并占据该组首次出现的位置。
+ * 指纹优先取入库时写入 metadata 的 {@value SimHash#METADATA_KEY}，缺失时现场计算。</p>
+ *
+ * <p>候选更少、更多样，Rerank 请求体与最终 Prompt 的 token 数都随之减少。</p>
+ */
+public class NearDuplicateDocumentPostProcessor implements DocumentPostProcessor {
+
+    public static final int DEFAULT_MAX_DISTANCE = 6;
+
+    private static final Logger log = LoggerFactory.getLogger(NearDuplicateDocumentPostProcessor.class);
+
+    private final int maxDistance;
+
+    public NearDuplicateDocumentPostProcessor() {
+        this(DEFAULT_MAX_DISTANCE);
+    }
+
+    public NearDuplicateDocumentPostProcessor(int maxDistance) {
+        this.maxDistance = Math.max(maxDistance, 0);
+    }
+
+    @Override
+    public List<Document> process(Query query, List<Document> documents) {
+        if (documents == null || documents.size() < 2) {
+            return documents;
+        }
+        List<Document> representatives = new ArrayList<>(documents.size());
+        List<Long> fingerprints = new ArrayList<>(documents.size());
+        List<Double> scores = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            if (document == null) {
+                continue;
+            }
+            long fingerprint = fingerprint(document);
+            double score = score(document);
+            int duplicateOf = -1;
+            for (int i = 0; i < representatives.size(); i++) {
+                if (SimHash.distance(fingerprints.get(i), fingerprint) <= maxDistance) {
+                    duplicateOf = i;
+                    break;
+                }
+            }
+            if (duplicateOf < 0) {
+                representatives.add(document);
+                fingerprints.add(fingerprint);
+                scores.add(score);
+            }
+            else if (score > scores.get(duplicateOf)) {
+                // 指纹随代表文档一起替换，后续文档与实际保留的文档比较
+                representatives.set(duplicateOf, document);
+                fingerprints.set(duplicateOf, fingerprint);
+                scores.set(duplicateOf, score);
+            }
+        }
+        if (representatives.size() < documents.size()) {
+            log.debug("NearDuplicateDocumentPostProcessor: {} 篇候选折叠为 {} 篇", documents.size(),
+                    representatives.size());
+        }
+        return representatives;
+    }
+
+    private static long fingerprint(Document document) {
+        Long stored = SimHash.parseHex(document.getMetadata().get(SimHash.METADATA_KEY));
+        return stored != null ? stored : SimHash.of(document.getText());
+    }
+
+    private static double score(Document document) {
+        if (document.getMetadata().get(CustomDocumentJoiner.FUSION_SCORE_METADATA_KEY) instanceof Number fusion) {
+            return fusion.doubleValue();
+        }
+        return document.getScore() != null ? document.getScore() : Double.NEGATIVE_INFINITY;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.springaialibaba.core.rag.sparse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.springframework.ai.document.Document;
+
+/**
+ * 基于 BM25 打分的只读倒排索引。
+ *
+ * <p>倒排表以每个词一组 {@code int[]}（文档序号、词频）紧凑存储，构建完成后不可修改，
+ * 可以在多个请求线程间无锁共享；刷新时整体替换为新实例。</p>
+ */
+public final class Bm25Index {
+
+    public static final String SCORE_METADATA_KEY = "bm25_score";
+
+    private static final Bm25Index EMPTY = new Builder().build();
+
+    private final Document[] documents;
+
+    private final int[] documentLengths;
+
+    private final double averageDocumentLength;
+
+    private final Map<String, Postings> postings;
+
+    private final double k1;
+
+    private final double b;
+
+    private Bm25Index(Document[] documents, int[] documentLengths, Map<String, Postings> postings, double k1, double b) {
+        this.documents = documents;
+        this.documentLengths = documentLengths;
+        this.postings = postings;
+        this.k1 = k1;
+        this.b = b;
+        long totalLength = 0;
+        for (int length : documentLengths) {
+            totalLength += length;
+        }
+        this.averageDocumentLength = documents.length == 0 ? 0.0d : (double) totalLength / documents.length;
+    }
+
+    public static Bm25Index empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return documents.length;
+    }
+
+    /**
+     * 按 BM25 分数检索 topK 篇文档，分数写入 {@link Document#getScore()} 与 {@value #SCORE_METADATA_KEY} 元数据。
+     */
+    public List<Document> search(String query, int topK) {
+        if (documents.length == 0 || topK <= 0) {
+            return List.of();
+        }
+        Set<String> terms = new LinkedHashSet<>(Bm25Tokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        float[] scores = new float[documents.length];
+        int[] touched = new int[16];
+        int touchedCount = 0;
+        for (String term : terms) {
+            Postings termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            double idf = idf(termPostings.size);
+            for (int i = 0; i < termPostings.size; i++) {
+                int doc = termPostings.documents[i];
+                int tf = termPostings.frequencies[i];
+                double norm = k1 * (1.0d - b + b * documentLengths[doc] / averageDocumentLength);
+                if (scores[doc] == 0.0f) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = doc;
+                }
+                scores[doc] += (float) (idf * tf * (k1 + 1.0d) / (tf + norm));
+            }
+        }
+
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(topK, Math.max(touchedCount, 1)) + 1,
+                (left, right) -> Float.compare(scores[left], scores[right]));
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (heap.size() < topK) {
+                heap.offer(doc);
+            }
+            else if (scores[doc] > scores[heap.peek()]) {
+                heap.poll();
+                heap.offer(doc);
+            }
+        }
+
+        Document[] ranked = new Document[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            int doc = heap.poll();
+            ranked[i] = withScore(documents[doc], scores[doc]);
+        }
+        return List.of(ranked);
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1.0d + (documents.length - documentFrequency + 0.5d) / (documentFrequency + 0.5d));
+    }
+
+    private Document withScore(Document document, double score) {
+        Map<String, Object> metadata = new LinkedHashMap<>(document.getMetadata());
+        metadata.put(SCORE_METADATA_KEY, score);
+        return document.mutate()
+                .metadata(metadata)
+                .score(score)
+                .build();
+    }
+
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+
+        private int[] frequencies = new int[4];
+
+        private int size;
+
+        private void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        private void trim() {
+            documents = Arrays.copyOf(documents, size);
+            frequencies = Arrays.copyOf(frequencies, size);
+        }
+    }
+
+    /**
+     * 逐篇添加文档构建索引，非线程安全。
+     */
+    public static final class Builder {
+
+        private final List<Document> documents = new ArrayList<>();
+
+        private int[] documentLengths = new int[64];
+
+        private final Map<String, Postings> postings = new HashMap<>();
+
+        private double k1 = 1.2d;
+
+        private double b = 0.75d;
+
+        public Builder k1(double k1) {
+            this.k1 = k1;
+            return this;
+        }
+
+        public Builder b(double b) {
+            this.b = b;
+            return this;
+        }
+
+        public Builder add(Document document) {
+            int docIndex = documents.size();
+            List<String> tokens = Bm25Tokenizer.tokenize(document.getText());
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new Postings()).add(docIndex, entry.getValue());
+            }
+            if (docIndex == documentLengths.length) {
+                documentLengths = Arrays.copyOf(documentLengths, docIndex * 2);
+            }
+            documentLengths[docIndex] = tokens.size();
+            documents.add(document);
+            return this;
+        }
+
+        public Bm25Index build() {
+            for (Postings termPostings : postings.values()) {
+                termPostings.trim();
+            }
+            return new Bm25Index(documents.toArray(new Document[0]),
+                    Arrays.copyOf(documentLengths, documents.size()), Map.copyOf(postings), k1, b);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.springaialibaba.core.rag.sparse;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.springaialibaba.core.ingestion.CorpusChangedEvent;
+import com.example.springaialibaba.core.vectorstore.RagChunkMetadata;
+import com.example.springaialibaba.core.vectorstore.SqlIdentifiers;
+
+/**
+ * 维护 {@code rag_chunks.content} 的进程内 BM25 索引。
+ *
+ * <p>应用启动后全量加载一次，之后按固定间隔比对表的行数与 {@code last_modified} 最大值，
+ * 发生变化时在后台重建并原子替换索引，检索线程始终读取完整的快照。</p>
+ */
+@Service
+public class Bm25IndexService {
+
+    private static final Logger log = LoggerFactory.getLogger(Bm25IndexService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final boolean enabled;
+
+    private final String tableName;
+
+    private volatile Bm25Index index = Bm25Index.empty();
+
+    private volatile String loadedSignature;
+
+    public Bm25IndexService(JdbcTemplate jdbcTemplate,
+            @Value("${app.retrieval.sparse.enabled:true}") boolean enabled,
+            @Value("${app.retrieval.sparse.table-name:rag_chunks}") String tableName) {
+        SqlIdentifiers.requireTableName(tableName);
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.tableName = tableName;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<Document> search(String query, int topK) {
+        if (!enabled) {
+            return List.of();
+        }
+        return index.search(query, topK);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refreshIfChanged();
+    }
+
+    /**
+     * 表内容变化时重建索引，未变化时只执行一次轻量的签名查询。
+     */
+    @Scheduled(fixedDelayString = "${app.retrieval.sparse.refresh-interval:5m}",
+            initialDelayString = "${app.retrieval.sparse.refresh-interval:5m}")
+    public void refreshIfChanged() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String signature = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) || ':' || COALESCE(MAX(last_modified)::text, '') FROM " + tableName, String.class);
+            if (Objects.equals(signature, loadedSignature)) {
+                return;
+            }
+            rebuild();
+            loadedSignature = signature;
+        }
+        catch (DataAccessException ex) {
+            log.warn("Bm25IndexService: 刷新 BM25 索引失败，继续使用旧索引：{}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 增量索引提交后立即刷新，不等待下一次定时检查。
+     */
+    @EventListener
+    public void onCorpusChanged(CorpusChangedEvent event) {
+        refreshIfChanged();
+    }
+
+    /**
+     * 无条件全量重建索引。
+     */
+    public void rebuild() {
+        long startedAt = System.nanoTime();
+        Bm25Index.Builder builder = Bm25Index.builder();
+        RowCallbackHandler rowHandler = rs -> builder.add(Document.builder()
+                .id(rs.getString(1))
+                .text(rs.getString(2))
+                .metadata(RagChunkMetadata.parse(rs.getString(3)))
+                .build());
+        jdbcTemplate.query("SELECT id, content, metadata::text FROM " + tableName
+                + " WHERE id IS NOT NULL AND content IS NOT NULL", rowHandler);
+        Bm25Index rebuilt = builder.build();
+        index = rebuilt;
+        log.info("Bm25IndexService: BM25 索引重建完成，文档数={}，耗时={}ms", rebuilt.size(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
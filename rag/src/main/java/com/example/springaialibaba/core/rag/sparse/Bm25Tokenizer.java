@@ -0,0 +1,103 @@
+package com.example.springaialibaba.core.rag.sparse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * BM25 使用的轻量分词器，不依赖外部词典。
+ *
+ * <ul>
+ *   <li>连续的汉字（CJK 统一表意文字）切分为重叠的二元组，单个汉字作为一个词；</li>
+ *   <li>字母数字串（允许内部的 {@code -}、{@code .}、{@code _}，如 {@code model-y}、{@code 3.5}）
+ *       整体作为一个词，含连接符时额外输出拆分后的各部分，使 {@code model-y} 与 {@code model y} 均可召回；</li>
+ *   <li>其余字符视为分隔符，统一转为小写。</li>
+ * </ul>
+ */
+public final class Bm25Tokenizer {
+
+    private Bm25Tokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        String normalised = text.toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>(normalised.length() / 2 + 1);
+        int length = normalised.length();
+        int i = 0;
+        while (i < length) {
+            char c = normalised.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < length && isCjk(normalised.charAt(i))) {
+                    i++;
+                }
+                emitCjkBigrams(normalised, start, i, tokens);
+            }
+            else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < length && isWordPart(normalised, i)) {
+                    i++;
+                }
+                emitWord(normalised.substring(start, i), tokens);
+            }
+            else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static void emitCjkBigrams(String text, int start, int end, List<String> tokens) {
+        if (end - start == 1) {
+            tokens.add(text.substring(start, end));
+            return;
+        }
+        for (int i = start; i < end - 1; i++) {
+            tokens.add(text.substring(i, i + 2));
+        }
+    }
+
+    private static void emitWord(String word, List<String> tokens) {
+        tokens.add(word);
+        int partStart = 0;
+        boolean compound = false;
+        for (int i = 0; i < word.length(); i++) {
+            if (isConnector(word.charAt(i))) {
+                compound = true;
+                if (i > partStart) {
+                    tokens.add(word.substring(partStart, i));
+                }
+                partStart = i + 1;
+            }
+        }
+        if (compound && partStart < word.length()) {
+            tokens.add(word.substring(partStart));
+        }
+    }
+
+    private static boolean isWordPart(String text, int index) {
+        char c = text.charAt(index);
+        if (isCjk(c)) {
+            return false;
+        }
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        // 连接符只有夹在两个字母数字之间时才属于词的一部分
+        return isConnector(c)
+                && index + 1 < text.length()
+                && Character.isLetterOrDigit(text.charAt(index + 1))
+                && !isCjk(text.charAt(index + 1));
+    }
+
+    private static boolean isConnector(char c) {
+        return c == '-' || c == '.' || c == '_';
+    }
+
+    private static boolean isCjk(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+}
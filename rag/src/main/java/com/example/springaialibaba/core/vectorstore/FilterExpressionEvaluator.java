@@ -0,0 +1,106 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * 在内存中对文档元数据求值 Spring AI 的 {@link Filter.Expression}。
+ *
+ * <p>支持 {@code AND/OR/NOT}、比较运算 {@code == != > >= < <=}、{@code IN/NIN} 与
+ * {@code ISNULL/ISNOTNULL}。数值统一按 {@code double} 比较，其余类型不一致时按字符串比较。</p>
+ */
+public final class FilterExpressionEvaluator {
+
+    private FilterExpressionEvaluator() {
+    }
+
+    public static boolean matches(Filter.Operand operand, Map<String, Object> metadata) {
+        if (operand == null) {
+            return true;
+        }
+        if (operand instanceof Filter.Group group) {
+            return matches(group.content(), metadata);
+        }
+        if (!(operand instanceof Filter.Expression expression)) {
+            throw new IllegalArgumentException("不支持的过滤表达式操作数：" + operand);
+        }
+        return switch (expression.type()) {
+            case AND -> matches(expression.left(), metadata) && matches(expression.right(), metadata);
+            case OR -> matches(expression.left(), metadata) || matches(expression.right(), metadata);
+            case NOT -> !matches(expression.left(), metadata);
+            case ISNULL -> resolveKey(expression, metadata) == null;
+            case ISNOTNULL -> resolveKey(expression, metadata) != null;
+            case EQ -> valueEquals(resolveKey(expression, metadata), resolveValue(expression));
+            case NE -> !valueEquals(resolveKey(expression, metadata), resolveValue(expression));
+            case GT -> compare(resolveKey(expression, metadata), resolveValue(expression), result -> result > 0);
+            case GTE -> compare(resolveKey(expression, metadata), resolveValue(expression), result -> result >= 0);
+            case LT -> compare(resolveKey(expression, metadata), resolveValue(expression), result -> result < 0);
+            case LTE -> compare(resolveKey(expression, metadata), resolveValue(expression), result -> result <= 0);
+            case IN -> contains(resolveValue(expression), resolveKey(expression, metadata));
+            case NIN -> !contains(resolveValue(expression), resolveKey(expression, metadata));
+        };
+    }
+
+    private static Object resolveKey(Filter.Expression expression, Map<String, Object> metadata) {
+        if (!(expression.left() instanceof Filter.Key key)) {
+            throw new IllegalArgumentException("过滤表达式左侧必须为元数据 key：" + expression);
+        }
+        return metadata.get(unquote(key.key()));
+    }
+
+    private static Object resolveValue(Filter.Expression expression) {
+        if (!(expression.right() instanceof Filter.Value value)) {
+            throw new IllegalArgumentException("过滤表达式右侧必须为常量：" + expression);
+        }
+        return value.value();
+    }
+
+    private static String unquote(String key) {
+        if (key.length() >= 2
+                && (key.startsWith("\"") && key.endsWith("\"") || key.startsWith("'") && key.endsWith("'"))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+
+    private static boolean contains(Object candidates, Object actual) {
+        if (!(candidates instanceof Collection<?> collection)) {
+            return valueEquals(actual, candidates);
+        }
+        for (Object candidate : collection) {
+            if (valueEquals(actual, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean valueEquals(Object actual, Object expected) {
+        if (actual instanceof Number left && expected instanceof Number right) {
+            return Double.compare(left.doubleValue(), right.doubleValue()) == 0;
+        }
+        if (actual != null && expected != null && actual.getClass() != expected.getClass()) {
+            return Objects.equals(actual.toString(), expected.toString());
+        }
+        return Objects.equals(actual, expected);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static boolean compare(Object actual, Object expected, IntPredicate predicate) {
+        if (actual == null || expected == null) {
+            // 缺失的字段不满足任何范围条件
+            return false;
+        }
+        if (actual instanceof Number left && expected instanceof Number right) {
+            return predicate.test(Double.compare(left.doubleValue(), right.doubleValue()));
+        }
+        if (actual instanceof Comparable comparable && actual.getClass() == expected.getClass()) {
+            return predicate.test(comparable.compareTo(expected));
+        }
+        return predicate.test(actual.toString().compareTo(expected.toString()));
+    }
+}
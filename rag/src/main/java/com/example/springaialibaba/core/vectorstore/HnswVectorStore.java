@@ -0,0 +1,562 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.springaialibaba.core.math.VectorMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * 进程内的 HNSW（Hierarchical Navigable Small World）向量库。
+ *
+ * <p>所有向量归一化后按节点顺序存放在一个连续的 {@code float[]} 中，相似度即点积（余弦相似度）；
+ * 图结构为每个节点每层一组 {@code int[]} 邻接表。检索支持 {@link SearchRequest#getTopK()}、
+ * {@link SearchRequest#getSimilarityThreshold()} 与元数据过滤表达式：带过滤条件时扩大搜索宽度，
+ * 命中不足 topK 时退化为对过滤后的节点做精确扫描。</p>
+ *
+ * <p>读写通过读写锁隔离；删除与覆盖写只做标记，被标记的节点仍参与图导航但不会出现在结果中。
+ * {@link #newLoader()} 可在锁外构建一张新图后原子替换，用于从 {@code rag_chunks} 全量重载。</p>
+ *
+ * <p>返回的文档与 PgVectorStore 保持一致：{@link Document#getScore()} 为相似度，
+ * 元数据 {@value #DISTANCE_METADATA_KEY} 为 {@code 1 - 相似度}。</p>
+ */
+public class HnswVectorStore implements VectorStore, QueryVectorSearch {
+
+    public static final String DISTANCE_METADATA_KEY = "distance";
+
+    private static final Logger log = LoggerFactory.getLogger(HnswVectorStore.class);
+
+    private static final Comparator<Candidate> BEST_FIRST =
+            (left, right) -> Float.compare(right.similarity(), left.similarity());
+
+    private static final Comparator<Candidate> WORST_FIRST =
+            (left, right) -> Float.compare(left.similarity(), right.similarity());
+
+    private final EmbeddingModel embeddingModel;
+
+    private final int dimensions;
+
+    private final int maxConnections;
+
+    private final int efConstruction;
+
+    private final int efSearch;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Graph graph;
+
+    public HnswVectorStore(EmbeddingModel embeddingModel, int dimensions) {
+        this(embeddingModel, dimensions, 16, 100, 128);
+    }
+
+    public HnswVectorStore(EmbeddingModel embeddingModel, int dimensions, int maxConnections, int efConstruction,
+            int efSearch) {
+        Assert.isTrue(dimensions > 0, "dimensions 必须大于 0");
+        Assert.isTrue(maxConnections >= 2, "maxConnections 不能小于 2");
+        this.embeddingModel = embeddingModel;
+        this.dimensions = dimensions;
+        this.maxConnections = maxConnections;
+        this.efConstruction = Math.max(efConstruction, maxConnections);
+        this.efSearch = Math.max(efSearch, 1);
+        this.graph = newGraph();
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        if (CollectionUtils.isEmpty(documents)) {
+            return;
+        }
+        Assert.notNull(embeddingModel, "未配置 EmbeddingModel，无法为文档生成向量");
+        List<String> texts = documents.stream().map(Document::getText).toList();
+        List<float[]> vectors = embeddingModel.embed(texts);
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            upsert(document.getId(), document.getText(), document.getMetadata(), vectors.get(i));
+        }
+    }
+
+    /**
+     * 写入已有向量的文档，id 已存在时覆盖。
+     */
+    public void upsert(String id, String text, Map<String, Object> metadata, float[] vector) {
+        Assert.hasText(id, "id 不能为空");
+        float[] unit = normalise(vector);
+        lock.writeLock().lock();
+        try {
+            graph.put(id, text, metadata, unit);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        if (CollectionUtils.isEmpty(idList)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (String id : idList) {
+                graph.remove(id);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        Assert.notNull(filterExpression, "filterExpression 不能为空");
+        lock.writeLock().lock();
+        try {
+            graph.removeIf(filterExpression);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        Assert.notNull(request, "SearchRequest 不能为空");
+        if (!StringUtils.hasText(request.getQuery())) {
+            return List.of();
+        }
+        Assert.notNull(embeddingModel, "未配置 EmbeddingModel，无法为查询生成向量");
+        float[] queryVector = embeddingModel.embed(request.getQuery());
+        return similaritySearch(queryVector, request.getTopK(), request.getSimilarityThreshold(),
+                request.getFilterExpression());
+    }
+
+    /**
+     * 使用已计算好的查询向量检索。
+     */
+    @Override
+    public List<Document> similaritySearch(float[] queryVector, int topK, double similarityThreshold,
+            Filter.Expression filterExpression) {
+        if (topK <= 0) {
+            return List.of();
+        }
+        float[] unit = normalise(queryVector);
+        lock.readLock().lock();
+        try {
+            List<Candidate> hits = graph.search(unit, topK, Math.max(efSearch, topK), similarityThreshold,
+                    filterExpression);
+            return hits.stream().map(graph::toDocument).toList();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前有效（未删除）的文档数。
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return graph.liveCount();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 创建一个在锁外构建新图的加载器，{@link Loader#publish()} 时整体替换当前索引。
+     */
+    public Loader newLoader() {
+        return new Loader(newGraph());
+    }
+
+    private Graph newGraph() {
+        return new Graph(dimensions, maxConnections, efConstruction);
+    }
+
+    private float[] normalise(float[] vector) {
+        Assert.notNull(vector, "向量不能为空");
+        Assert.isTrue(vector.length == dimensions,
+                () -> "向量维度不匹配，期望 " + dimensions + "，实际 " + vector.length);
+        return VectorMath.normalize(vector);
+    }
+
+    /**
+     * 批量构建新索引的加载器，非线程安全。
+     */
+    public final class Loader {
+
+        private final Graph target;
+
+        private Loader(Graph target) {
+            this.target = target;
+        }
+
+        public Loader add(String id, String text, Map<String, Object> metadata, float[] vector) {
+            target.put(id, text, metadata, normalise(vector));
+            return this;
+        }
+
+        public void publish() {
+            lock.writeLock().lock();
+            try {
+                graph = target;
+            }
+            finally {
+                lock.writeLock().unlock();
+            }
+            log.info("HnswVectorStore: 索引已替换，文档数={}", target.liveCount());
+        }
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+
+    /**
+     * HNSW 图及其向量、文档数据，由外层读写锁保护。
+     */
+    private static final class Graph {
+
+        private static final int MAX_LEVEL = 16;
+
+        private final int dimensions;
+
+        private final int maxConnections;
+
+        private final int maxConnectionsLayer0;
+
+        private final int efConstruction;
+
+        private final double levelMultiplier;
+
+        private final SplittableRandom random = new SplittableRandom(42L);
+
+        private final Map<String, Integer> nodeById = new HashMap<>();
+
+        private final BitSet deleted = new BitSet();
+
+        private float[] vectors;
+
+        private String[] ids;
+
+        private String[] texts;
+
+        private Map<String, Object>[] metadatas;
+
+        private int[][][] neighbors;
+
+        private int size;
+
+        private int entryPoint = -1;
+
+        private int maxLevel = -1;
+
+        @SuppressWarnings("unchecked")
+        private Graph(int dimensions, int maxConnections, int efConstruction) {
+            this.dimensions = dimensions;
+            this.maxConnections = maxConnections;
+            this.maxConnectionsLayer0 = maxConnections * 2;
+            this.efConstruction = efConstruction;
+            this.levelMultiplier = 1.0d / Math.log(maxConnections);
+            int initialCapacity = 16;
+            this.vectors = new float[initialCapacity * dimensions];
+            this.ids = new String[initialCapacity];
+            this.texts = new String[initialCapacity];
+            this.metadatas = new Map[initialCapacity];
+            this.neighbors = new int[initialCapacity][][];
+        }
+
+        private int liveCount() {
+            return nodeById.size();
+        }
+
+        private void put(String id, String text, Map<String, Object> metadata, float[] unit) {
+            Integer previous = nodeById.get(id);
+            if (previous != null) {
+                deleted.set(previous);
+            }
+            int node = allocate(id, text, metadata, unit);
+            insert(node);
+            nodeById.put(id, node);
+        }
+
+        private void remove(String id) {
+            Integer node = nodeById.remove(id);
+            if (node != null) {
+                deleted.set(node);
+            }
+        }
+
+        private void removeIf(Filter.Expression filterExpression) {
+            Iterator<Map.Entry<String, Integer>> iterator = nodeById.entrySet().iterator();
+            while (iterator.hasNext()) {
+                int node = iterator.next().getValue();
+                if (FilterExpressionEvaluator.matches(filterExpression, metadatas[node])) {
+                    deleted.set(node);
+                    iterator.remove();
+                }
+            }
+        }
+
+        private int allocate(String id, String text, Map<String, Object> metadata, float[] unit) {
+            if (size == ids.length) {
+                int capacity = ids.length + (ids.length >> 1);
+                vectors = Arrays.copyOf(vectors, Math.multiplyExact(capacity, dimensions));
+                ids = Arrays.copyOf(ids, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+                metadatas = Arrays.copyOf(metadatas, capacity);
+                neighbors = Arrays.copyOf(neighbors, capacity);
+            }
+            int node = size++;
+            System.arraycopy(unit, 0, vectors, node * dimensions, dimensions);
+            ids[node] = id;
+            texts[node] = text;
+            metadatas[node] = metadata != null ? new LinkedHashMap<>(metadata) : new LinkedHashMap<>();
+            return node;
+        }
+
+        private void insert(int node) {
+            int level = Math.min((int) (-Math.log(1.0d - random.nextDouble()) * levelMultiplier), MAX_LEVEL);
+            neighbors[node] = new int[level + 1][];
+            for (int layer = 0; layer <= level; layer++) {
+                // 下标 0 存放邻居数量
+                neighbors[node][layer] = new int[1 + maxConnections(layer)];
+            }
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return;
+            }
+
+            float[] query = vectorOf(node);
+            int entry = entryPoint;
+            for (int layer = maxLevel; layer > level; layer--) {
+                entry = greedyClosest(query, entry, layer);
+            }
+            for (int layer = Math.min(level, maxLevel); layer >= 0; layer--) {
+                List<Candidate> candidates = sortedBestFirst(searchLayer(query, entry, efConstruction, layer));
+                List<Candidate> selected = selectNeighbors(candidates, maxConnections(layer));
+                int[] own = neighbors[node][layer];
+                for (Candidate candidate : selected) {
+                    own[++own[0]] = candidate.node();
+                    connect(candidate.node(), node, layer);
+                }
+                entry = candidates.get(0).node();
+            }
+            if (level > maxLevel) {
+                entryPoint = node;
+                maxLevel = level;
+            }
+        }
+
+        private List<Candidate> search(float[] query, int topK, int ef, double threshold, Filter.Expression filter) {
+            if (entryPoint < 0 || nodeById.isEmpty()) {
+                return List.of();
+            }
+            int entry = entryPoint;
+            for (int layer = maxLevel; layer > 0; layer--) {
+                entry = greedyClosest(query, entry, layer);
+            }
+            // 过滤与删除标记会淘汰部分候选，此时放宽搜索宽度
+            int width = filter != null || !deleted.isEmpty() ? Math.max(ef, topK * 4) : ef;
+            List<Candidate> hits = new ArrayList<>(topK);
+            for (Candidate candidate : sortedBestFirst(searchLayer(query, entry, width, 0))) {
+                if (candidate.similarity() < threshold) {
+                    break;
+                }
+                if (accept(candidate.node(), filter)) {
+                    hits.add(candidate);
+                    if (hits.size() == topK) {
+                        return hits;
+                    }
+                }
+            }
+            if (filter != null) {
+                return exactSearch(query, topK, threshold, filter);
+            }
+            return hits;
+        }
+
+        private List<Candidate> exactSearch(float[] query, int topK, double threshold, Filter.Expression filter) {
+            PriorityQueue<Candidate> best = new PriorityQueue<>(topK + 1, WORST_FIRST);
+            for (int node : nodeById.values()) {
+                if (!FilterExpressionEvaluator.matches(filter, metadatas[node])) {
+                    continue;
+                }
+                float similarity = similarity(query, node);
+                if (similarity < threshold) {
+                    continue;
+                }
+                best.offer(new Candidate(node, similarity));
+                if (best.size() > topK) {
+                    best.poll();
+                }
+            }
+            return sortedBestFirst(best);
+        }
+
+        private boolean accept(int node, Filter.Expression filter) {
+            return !deleted.get(node) && (filter == null || FilterExpressionEvaluator.matches(filter, metadatas[node]));
+        }
+
+        private Document toDocument(Candidate candidate) {
+            int node = candidate.node();
+            Map<String, Object> metadata = new LinkedHashMap<>(metadatas[node]);
+            metadata.put(DISTANCE_METADATA_KEY, 1.0d - candidate.similarity());
+            return Document.builder()
+                    .id(ids[node])
+                    .text(texts[node])
+                    .metadata(metadata)
+                    .score((double) candidate.similarity())
+                    .build();
+        }
+
+        private int greedyClosest(float[] query, int entry, int layer) {
+            int current = entry;
+            float currentSimilarity = similarity(query, current);
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                int[] list = neighbors[current][layer];
+                for (int i = 1; i <= list[0]; i++) {
+                    float similarity = similarity(query, list[i]);
+                    if (similarity > currentSimilarity) {
+                        currentSimilarity = similarity;
+                        current = list[i];
+                        improved = true;
+                    }
+                }
+            }
+            return current;
+        }
+
+        private PriorityQueue<Candidate> searchLayer(float[] query, int entry, int ef, int layer) {
+            BitSet visited = new BitSet(size);
+            PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+            PriorityQueue<Candidate> results = new PriorityQueue<>(ef + 1, WORST_FIRST);
+            Candidate start = new Candidate(entry, similarity(query, entry));
+            visited.set(entry);
+            candidates.add(start);
+            results.add(start);
+            while (!candidates.isEmpty()) {
+                Candidate current = candidates.poll();
+                if (results.size() >= ef && current.similarity() < results.peek().similarity()) {
+                    break;
+                }
+                int[] list = neighbors[current.node()][layer];
+                for (int i = 1; i <= list[0]; i++) {
+                    int neighbor = list[i];
+                    if (visited.get(neighbor)) {
+                        continue;
+                    }
+                    visited.set(neighbor);
+                    float similarity = similarity(query, neighbor);
+                    if (results.size() < ef || similarity > results.peek().similarity()) {
+                        Candidate candidate = new Candidate(neighbor, similarity);
+                        candidates.add(candidate);
+                        results.add(candidate);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+            return results;
+        }
+
+        /**
+         * 启发式选邻：优先保留与已选邻居不过分相似的候选，不足时按相似度补齐。
+         */
+        private List<Candidate> selectNeighbors(List<Candidate> candidatesBestFirst, int limit) {
+            List<Candidate> selected = new ArrayList<>(limit);
+            List<Candidate> pruned = new ArrayList<>();
+            for (Candidate candidate : candidatesBestFirst) {
+                if (selected.size() >= limit) {
+                    break;
+                }
+                boolean diverse = true;
+                for (Candidate chosen : selected) {
+                    if (similarity(candidate.node(), chosen.node()) > candidate.similarity()) {
+                        diverse = false;
+                        break;
+                    }
+                }
+                if (diverse) {
+                    selected.add(candidate);
+                }
+                else {
+                    pruned.add(candidate);
+                }
+            }
+            for (int i = 0; i < pruned.size() && selected.size() < limit; i++) {
+                selected.add(pruned.get(i));
+            }
+            return selected;
+        }
+
+        private void connect(int from, int to, int layer) {
+            int[] list = neighbors[from][layer];
+            int limit = maxConnections(layer);
+            if (list[0] < limit) {
+                list[++list[0]] = to;
+                return;
+            }
+            // 邻接表已满时替换其中与 from 最不相似的邻居，避免对整张邻接表重新做启发式选邻
+            int worstSlot = -1;
+            float worstSimilarity = similarity(from, to);
+            for (int i = 1; i <= list[0]; i++) {
+                float similarity = similarity(from, list[i]);
+                if (similarity < worstSimilarity) {
+                    worstSimilarity = similarity;
+                    worstSlot = i;
+                }
+            }
+            if (worstSlot > 0) {
+                list[worstSlot] = to;
+            }
+        }
+
+        private int maxConnections(int layer) {
+            return layer == 0 ? maxConnectionsLayer0 : maxConnections;
+        }
+
+        private float[] vectorOf(int node) {
+            return Arrays.copyOfRange(vectors, node * dimensions, (node + 1) * dimensions);
+        }
+
+        private float similarity(float[] query, int node) {
+            return VectorMath.dot(query, 0, vectors, node * dimensions, dimensions);
+        }
+
+        private float similarity(int left, int right) {
+            return VectorMath.dot(vectors, left * dimensions, vectors, right * dimensions, dimensions);
+        }
+
+        private static List<Candidate> sortedBestFirst(PriorityQueue<Candidate> queue) {
+            List<Candidate> sorted = new ArrayList<>(queue);
+            sorted.sort(BEST_FIRST);
+            return sorted;
+        }
+    }
+}
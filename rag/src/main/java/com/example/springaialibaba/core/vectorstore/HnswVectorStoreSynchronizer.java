@@ -0,0 +1,156 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import com.example.springaialibaba.core.ingestion.CorpusChangedEvent;
+
+/**
+ * 将 {@code rag_chunks} 同步到 {@link HnswVectorStore} 的只读副本。
+ *
+ * <p>启动后全量加载；之后按固定间隔只拉取 {@code last_modified} 晚于上次水位的行做增量覆盖写。
+ * 表行数与本地文档数不一致（说明发生过删除）时在锁外重建整张图后原子替换。
+ * 收到 {@link CorpusChangedEvent} 时先移除已删除的分块再立即增量同步，无需等待定时任务，也不会触发全量重建。</p>
+ */
+public class HnswVectorStoreSynchronizer {
+
+    private static final Logger log = LoggerFactory.getLogger(HnswVectorStoreSynchronizer.class);
+
+    private final HnswVectorStore vectorStore;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String tableName;
+
+    private volatile Timestamp watermark;
+
+    public HnswVectorStoreSynchronizer(HnswVectorStore vectorStore, JdbcTemplate jdbcTemplate, String tableName) {
+        SqlIdentifiers.requireTableName(tableName);
+        this.vectorStore = vectorStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableName = tableName;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        }
+        catch (DataAccessException ex) {
+            log.warn("HnswVectorStoreSynchronizer: 初始加载失败，等待下次同步：{}", ex.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.vectorstore.local.sync-interval:30s}",
+            initialDelayString = "${app.vectorstore.local.sync-interval:30s}")
+    public void sync() {
+        try {
+            if (watermark == null) {
+                reload();
+                return;
+            }
+            Timestamp since = watermark;
+            int[] changed = {0};
+            jdbcTemplate.query(selectSql() + " AND last_modified > ?", rs -> {
+                vectorStore.upsert(rs.getString(1), rs.getString(2),
+                        RagChunkMetadata.parse(rs.getString(3)), parseVector(rs.getString(4)));
+                advanceWatermark(rs);
+                changed[0]++;
+            }, since);
+            Long rowCount = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM " + tableName + " WHERE id IS NOT NULL AND embedding IS NOT NULL", Long.class);
+            if (rowCount != null && rowCount != vectorStore.size()) {
+                log.info("HnswVectorStoreSynchronizer: 表行数 {} 与本地文档数 {} 不一致，全量重建", rowCount,
+                        vectorStore.size());
+                reload();
+            }
+            else if (changed[0] > 0) {
+                log.info("HnswVectorStoreSynchronizer: 增量同步 {} 条", changed[0]);
+            }
+        }
+        catch (DataAccessException ex) {
+            log.warn("HnswVectorStoreSynchronizer: 同步失败，继续使用当前索引：{}", ex.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onCorpusChanged(CorpusChangedEvent event) {
+        if (!event.deletedChunkIds().isEmpty()) {
+            vectorStore.delete(List.copyOf(event.deletedChunkIds()));
+        }
+        sync();
+    }
+
+    /**
+     * 全量重建：新图在锁外构建，完成后一次性替换。
+     */
+    public void reload() {
+        long startedAt = System.nanoTime();
+        HnswVectorStore.Loader loader = vectorStore.newLoader();
+        Timestamp[] latest = {null};
+        jdbcTemplate.query(selectSql(), rs -> {
+            loader.add(rs.getString(1), rs.getString(2), RagChunkMetadata.parse(rs.getString(3)),
+                    parseVector(rs.getString(4)));
+            Timestamp modified = rs.getTimestamp(5);
+            if (modified != null && (latest[0] == null || modified.after(latest[0]))) {
+                latest[0] = modified;
+            }
+        });
+        loader.publish();
+        watermark = latest[0] != null ? latest[0] : new Timestamp(0L);
+        log.info("HnswVectorStoreSynchronizer: 全量加载完成，耗时={}ms", (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private String selectSql() {
+        return "SELECT id, content, metadata::text, embedding::text, last_modified FROM " + tableName
+                + " WHERE id IS NOT NULL AND embedding IS NOT NULL";
+    }
+
+    private void advanceWatermark(ResultSet rs) throws SQLException {
+        Timestamp modified = rs.getTimestamp(5);
+        if (modified != null && modified.after(watermark)) {
+            watermark = modified;
+        }
+    }
+
+    /**
+     * 解析 pgvector 的文本表示 {@code [0.1,0.2,...]}。
+     */
+    static float[] parseVector(String text) {
+        if (!StringUtils.hasText(text)) {
+            return new float[0];
+        }
+        int start = text.indexOf('[') + 1;
+        int end = text.lastIndexOf(']');
+        if (end < start) {
+            end = text.length();
+        }
+        int count = start == end ? 0 : 1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                count++;
+            }
+        }
+        float[] vector = new float[count];
+        int index = 0;
+        int tokenStart = start;
+        for (int i = start; i <= end && index < count; i++) {
+            if (i == end || text.charAt(i) == ',') {
+                vector[index++] = Float.parseFloat(text.substring(tokenStart, i).trim());
+                tokenStart = i + 1;
+            }
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * 将 {@code id, content, metadata::text, distance} 四列映射为与 PgVectorStore 结果一致的 {@link Document}。
+ */
+final class PgVectorDocumentMapper implements RowMapper<Document> {
+
+    static final String DISTANCE_METADATA_KEY = "distance";
+
+    static final PgVectorDocumentMapper INSTANCE = new PgVectorDocumentMapper();
+
+    private PgVectorDocumentMapper() {
+    }
+
+    @Override
+    public Document mapRow(ResultSet rs, int rowNum) throws SQLException {
+        double distance = rs.getDouble(4);
+        Map<String, Object> metadata = RagChunkMetadata.parse(rs.getString(3));
+        metadata.put(DISTANCE_METADATA_KEY, distance);
+        return Document.builder()
+                .id(rs.getString(1))
+                .text(rs.getString(2))
+                .metadata(metadata)
+                .score(1.0d - distance)
+                .build();
+    }
+}
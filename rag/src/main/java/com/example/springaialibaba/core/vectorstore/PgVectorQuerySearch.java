@@ -0,0 +1,57 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.List;
+
+import com.pgvector.PGvector;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.pgvector.PgVectorFilterExpressionConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+
+/**
+ * 为自动配置的 PgVectorStore 补充按查询向量检索的路径。
+ *
+ * <p>SQL 与 PgVectorStore 的余弦检索相同（{@code embedding <=> ?} 排序并按 {@code 1 - 阈值} 截断），
+ * 因此沿用同一个 HNSW 索引，结果与分数和文本检索完全一致，只是省去了检索内部的嵌入调用。</p>
+ */
+public class PgVectorQuerySearch implements QueryVectorSearch {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String tableName;
+
+    private final int dimensions;
+
+    private final PgVectorFilterExpressionConverter filterConverter = new PgVectorFilterExpressionConverter();
+
+    public PgVectorQuerySearch(JdbcTemplate jdbcTemplate, String tableName, int dimensions) {
+        SqlIdentifiers.requireTableName(tableName);
+        Assert.isTrue(dimensions > 0, "dimensions 必须大于 0");
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableName = tableName;
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public List<Document> similaritySearch(float[] queryVector, int topK, double similarityThreshold,
+            Filter.Expression filterExpression) {
+        if (topK <= 0) {
+            return List.of();
+        }
+        Assert.isTrue(queryVector != null && queryVector.length == dimensions,
+                () -> "查询向量维度不匹配，期望 " + dimensions);
+        PGvector vector = new PGvector(queryVector);
+        return jdbcTemplate.query(searchSql(filterExpression), PgVectorDocumentMapper.INSTANCE, vector, vector,
+                1.0d - similarityThreshold, topK);
+    }
+
+    String searchSql(Filter.Expression filterExpression) {
+        String filter = "";
+        if (filterExpression != null) {
+            filter = " AND metadata::jsonb @@ '" + filterConverter.convertExpression(filterExpression) + "'::jsonpath";
+        }
+        return "SELECT id, content, metadata::text, embedding <=> ?::vector AS distance FROM " + tableName
+                + " WHERE embedding <=> ?::vector <= ?" + filter + " ORDER BY distance LIMIT ?";
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.pgvector.PGvector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.pgvector.PgVectorFilterExpressionConverter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * 基于 pgvector 量化表达式索引的两阶段检索。
+ *
+ * <p>第一阶段在量化后的向量上召回 {@code topK * oversample} 条候选：
+ * {@link Mode#HALFVEC} 使用 {@code embedding::halfvec} 上的余弦 HNSW 索引（每维 2 字节），
+ * {@link Mode#BINARY} 使用 {@code binary_quantize(embedding)::bit} 上的汉明距离 HNSW 索引（每维 1 bit）；
+ * 第二阶段仅对候选读取原始 {@code vector} 计算全精度余弦距离并重排，再应用相似度阈值，
+ * 因此返回的分数与 PgVectorStore 完全一致。</p>
+ *
+ * <p>写入与删除委托给原有的 PgVectorStore，表结构不变，只需额外创建表达式索引
+ * （见 {@link #createIndexIfNecessary()}）。</p>
+ */
+public class QuantizedPgVectorStore implements VectorStore, QueryVectorSearch {
+
+    public static final String DISTANCE_METADATA_KEY = PgVectorDocumentMapper.DISTANCE_METADATA_KEY;
+
+    private static final Logger log = LoggerFactory.getLogger(QuantizedPgVectorStore.class);
+
+    /**
+     * 第一阶段使用的量化方式。
+     */
+    public enum Mode {
+
+        /** 半精度浮点，内存与扫描量约为原始向量的 1/2，召回几乎无损。 */
+        HALFVEC,
+
+        /** 符号位二值化，内存与扫描量约为原始向量的 1/32，需要更大的 oversample 弥补召回。 */
+        BINARY
+    }
+
+    private final VectorStore delegate;
+
+    private final EmbeddingModel embeddingModel;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final String tableName;
+
+    private final int dimensions;
+
+    private final Mode mode;
+
+    private final int oversample;
+
+    private final PgVectorFilterExpressionConverter filterConverter = new PgVectorFilterExpressionConverter();
+
+    public QuantizedPgVectorStore(VectorStore delegate, EmbeddingModel embeddingModel, JdbcTemplate jdbcTemplate,
+            String tableName, int dimensions, Mode mode, int oversample) {
+        SqlIdentifiers.requireTableName(tableName);
+        Assert.isTrue(dimensions > 0, "dimensions 必须大于 0");
+        Assert.notNull(mode, "mode 不能为空");
+        this.delegate = delegate;
+        this.embeddingModel = embeddingModel;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableName = tableName;
+        this.dimensions = dimensions;
+        this.mode = mode;
+        this.oversample = Math.max(oversample, 1);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void add(List<Document> documents) {
+        delegate.add(documents);
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        delegate.delete(idList);
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        delegate.delete(filterExpression);
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        Assert.notNull(request, "SearchRequest 不能为空");
+        if (!StringUtils.hasText(request.getQuery())) {
+            return List.of();
+        }
+        float[] queryVector = embeddingModel.embed(request.getQuery());
+        return similaritySearch(queryVector, request.getTopK(), request.getSimilarityThreshold(),
+                request.getFilterExpression());
+    }
+
+    /**
+     * 使用已计算好的查询向量检索。
+     */
+    @Override
+    public List<Document> similaritySearch(float[] queryVector, int topK, double similarityThreshold,
+            Filter.Expression filterExpression) {
+        return similaritySearch(queryVector, topK, similarityThreshold, filterExpression, oversample);
+    }
+
+    /**
+     * 指定本次 oversample 倍数检索，便于在线调参与基准测试比较召回率。
+     */
+    public List<Document> similaritySearch(float[] queryVector, int topK, double similarityThreshold,
+            Filter.Expression filterExpression, int oversample) {
+        if (topK <= 0) {
+            return List.of();
+        }
+        Assert.isTrue(queryVector != null && queryVector.length == dimensions,
+                () -> "查询向量维度不匹配，期望 " + dimensions);
+        PGvector vector = new PGvector(queryVector);
+        int shortlist = Math.multiplyExact(topK, Math.max(oversample, 1));
+        double maxDistance = 1.0d - similarityThreshold;
+        return jdbcTemplate.query(searchSql(filterExpression), PgVectorDocumentMapper.INSTANCE, vector, vector, shortlist,
+                maxDistance, topK);
+    }
+
+    /**
+     * 创建第一阶段所需的表达式索引，已存在时跳过；大表上建议改为离线执行 {@code CREATE INDEX CONCURRENTLY}。
+     */
+    public void createIndexIfNecessary() {
+        String indexName = "idx_" + tableName.replace('.', '_') + "_embedding_" + mode.name().toLowerCase(Locale.ROOT);
+        String ddl = "CREATE INDEX IF NOT EXISTS " + indexName + " ON " + tableName + " USING hnsw ("
+                + switch (mode) {
+                    case HALFVEC -> "(embedding::halfvec(" + dimensions + ")) halfvec_cosine_ops";
+                    case BINARY -> "(binary_quantize(embedding)::bit(" + dimensions + ")) bit_hamming_ops";
+                } + ")";
+        long startedAt = System.nanoTime();
+        jdbcTemplate.execute(ddl);
+        log.info("QuantizedPgVectorStore: 量化索引 {} 已就绪，耗时={}ms", indexName,
+                (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    String searchSql(Filter.Expression filterExpression) {
+        String where = "";
+        if (filterExpression != null) {
+            where = " WHERE metadata::jsonb @@ '" + filterConverter.convertExpression(filterExpression) + "'::jsonpath";
+        }
+        String firstStageOrder = switch (mode) {
+            case HALFVEC -> "embedding::halfvec(" + dimensions + ") <=> ?::halfvec(" + dimensions + ")";
+            case BINARY -> "binary_quantize(embedding)::bit(" + dimensions + ") <~> binary_quantize(?::vector)";
+        };
+        // 子查询的 ORDER BY ... LIMIT 走量化索引，外层只对候选做全精度重排
+        return "SELECT id, content, metadata::text, distance FROM ("
+                + "SELECT id, content, metadata, embedding <=> ?::vector AS distance FROM ("
+                + "SELECT id, content, metadata, embedding FROM " + tableName + where
+                + " ORDER BY " + firstStageOrder + " LIMIT ?) shortlist) rescored"
+                + " WHERE distance <= ? ORDER BY distance LIMIT ?";
+    }
+}
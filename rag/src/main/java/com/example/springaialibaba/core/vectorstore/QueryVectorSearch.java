@@ -0,0 +1,19 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.List;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * 接受已计算好的查询向量的检索入口。
+ *
+ * <p>{@link org.springframework.ai.vectorstore.VectorStore#similaritySearch} 只接受文本，
+ * 每次检索都要单独嵌入一次；调用方若已批量算好了向量（例如同一请求扩展出的多个子查询），
+ * 可以通过本接口跳过检索内部的嵌入。返回的文档分数语义与 PgVectorStore 一致。</p>
+ */
+public interface QueryVectorSearch {
+
+    List<Document> similaritySearch(float[] queryVector, int topK, double similarityThreshold,
+            Filter.Expression filterExpression);
+}
@@ -0,0 +1,37 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.StringUtils;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+
+/**
+ * {@code rag_chunks.metadata} 列的解析。直接读取该表的组件统一以 {@code metadata::text} 取出 jsonb 文本后交由本类解析。
+ */
+public final class RagChunkMetadata {
+
+    private RagChunkMetadata() {
+    }
+
+    /**
+     * 解析 jsonb 文本，忽略值为 {@code null} 的键，返回可修改的有序 Map。
+     */
+    public static Map<String, Object> parse(String json) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        if (!StringUtils.hasText(json)) {
+            return metadata;
+        }
+        JSONObject parsed = JSON.parseObject(json);
+        if (parsed != null) {
+            parsed.forEach((key, value) -> {
+                if (key != null && value != null) {
+                    metadata.put(key, value);
+                }
+            });
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.springaialibaba.core.vectorstore;
+
+import java.util.regex.Pattern;
+
+/**
+ * 拼接进 SQL 的标识符校验。表名来自配置，无法作为绑定参数传入，只允许 {@code [schema.]table} 形式的普通标识符。
+ */
+public final class SqlIdentifiers {
+
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private SqlIdentifiers() {
+    }
+
+    /**
+     * 校验表名并原样返回。
+     *
+     * @throws IllegalArgumentException 表名为空或包含标识符以外的字符时抛出
+     */
+    public static String requireTableName(String tableName) {
+        if (tableName == null || !TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("非法的表名：" + tableName);
+        }
+        return tableName;
+    }
+}
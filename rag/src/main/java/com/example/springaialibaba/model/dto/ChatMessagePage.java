@@ -0,0 +1,11 @@
+package com.example.springaialibaba.model.dto;
+
+import java.util.List;
+
+import com.example.springaialibaba.model.entity.ChatMessage;
+
+/**
+ * One page of a session's messages, newest first. {@code nextCursor} is {@code null} on the last page.
+ */
+public record ChatMessagePage(List<ChatMessage> messages, String nextCursor) {
+}
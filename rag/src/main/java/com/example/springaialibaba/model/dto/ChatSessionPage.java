@@ -0,0 +1,11 @@
+package com.example.springaialibaba.model.dto;
+
+import java.util.List;
+
+import com.example.springaialibaba.model.entity.ChatSession;
+
+/**
+ * One page of a user's sessions, newest first. {@code nextCursor} is {@code null} on the last page.
+ */
+public record ChatSessionPage(List<ChatSession> sessions, String nextCursor) {
+}
@@ -0,0 +1,7 @@
+package com.example.springaialibaba.model.dto;
+
+/**
+ * 提交入库任务的请求体，{@code path} 相对 {@code app.ingestion.base-dir}，{@code resume} 为空时默认续传。
+ */
+public record IngestionJobRequest(String path, Boolean resume) {
+}
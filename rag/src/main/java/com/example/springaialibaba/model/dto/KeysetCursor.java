@@ -0,0 +1,48 @@
+package com.example.springaialibaba.model.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.example.springaialibaba.model.entity.ChatMessage;
+import com.example.springaialibaba.model.entity.ChatSession;
+
+/**
+ * Keyset position within a list ordered by {@code (created_at, id)}, such as a session's messages or a
+ * user's sessions.
+ *
+ * <p>Clients only see the opaque URL-safe token produced by {@link #encode()}.</p>
+ */
+public record KeysetCursor(OffsetDateTime createdAt, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static KeysetCursor of(ChatMessage message) {
+        return new KeysetCursor(message.createdAt(), message.id());
+    }
+
+    public static KeysetCursor of(ChatSession session) {
+        return new KeysetCursor(session.createdAt(), session.id());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("无效的分页游标: " + token);
+            }
+            return new KeysetCursor(OffsetDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        }
+        catch (DateTimeParseException | NumberFormatException ex) {
+            throw new IllegalArgumentException("无效的分页游标: " + token, ex);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.springaialibaba.model.dto;
+
+/**
+ * 增量索引请求体，{@code path} 相对 {@code app.ingestion.base-dir}，为空时处理整个目录。
+ */
+public record ReindexRequest(String path) {
+}
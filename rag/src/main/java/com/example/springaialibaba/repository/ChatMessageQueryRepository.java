@@ -0,0 +1,113 @@
+package com.example.springaialibaba.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.springaialibaba.model.dto.KeysetCursor;
+import com.example.springaialibaba.model.entity.ChatMessage;
+import com.example.springaialibaba.model.enums.ChatMessageRole;
+
+/**
+ * Read-side queries over {@code chat_message} that the derived repository methods cannot express:
+ * keyset pagination on {@code (created_at, id)} and a cursor-backed full export.
+ *
+ * <p>{@code retrieval_context} is only selected when the caller asks for it, so listing a long support
+ * session no longer parses every JSONB payload into a {@link JsonNode}.</p>
+ */
+@Repository
+public class ChatMessageQueryRepository {
+
+    private static final String BASE_COLUMNS = "id, session_id, role, content, created_at";
+
+    private static final String CONTEXT_COLUMN = ", retrieval_context";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final JdbcTemplate exportJdbcTemplate;
+
+    private final TransactionTemplate exportTransaction;
+
+    private final ObjectMapper objectMapper;
+
+    public ChatMessageQueryRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, @Value("${app.chat-history.export.fetch-size:500}") int exportFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.exportJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.exportJdbcTemplate.setFetchSize(Math.max(exportFetchSize, 1));
+        this.exportTransaction = new TransactionTemplate(transactionManager);
+        this.exportTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Returns up to {@code limit} messages of the session older than {@code before}, newest first.
+     *
+     * @param before exclusive upper bound, or {@code null} for the newest messages
+     */
+    public List<ChatMessage> findPage(Long sessionId, KeysetCursor before, int limit,
+            boolean includeRetrievalContext) {
+        String columns = columns(includeRetrievalContext);
+        RowMapper<ChatMessage> rowMapper = rowMapper(includeRetrievalContext);
+        if (before == null) {
+            return jdbcTemplate.query("SELECT " + columns + " FROM chat_message WHERE session_id = ?"
+                    + " ORDER BY created_at DESC, id DESC LIMIT ?", rowMapper, sessionId, limit);
+        }
+        return jdbcTemplate.query("SELECT " + columns + " FROM chat_message WHERE session_id = ?"
+                + " AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?",
+                rowMapper, sessionId, before.createdAt(), before.id(), limit);
+    }
+
+    /**
+     * Feeds every message of the session to {@code consumer} in chronological order.
+     *
+     * <p>Runs inside a read-only transaction so that PostgreSQL honours the fetch size and streams rows
+     * through a server-side cursor instead of materialising the whole result set.</p>
+     */
+    public void streamBySessionId(Long sessionId, boolean includeRetrievalContext, Consumer<ChatMessage> consumer) {
+        String sql = "SELECT " + columns(includeRetrievalContext)
+                + " FROM chat_message WHERE session_id = ? ORDER BY created_at, id";
+        RowMapper<ChatMessage> rowMapper = rowMapper(includeRetrievalContext);
+        RowCallbackHandler rowHandler = rs -> consumer.accept(rowMapper.mapRow(rs, rs.getRow()));
+        exportTransaction.executeWithoutResult(status -> exportJdbcTemplate.query(sql, rowHandler, sessionId));
+    }
+
+    private static String columns(boolean includeRetrievalContext) {
+        return includeRetrievalContext ? BASE_COLUMNS + CONTEXT_COLUMN : BASE_COLUMNS;
+    }
+
+    private RowMapper<ChatMessage> rowMapper(boolean includeRetrievalContext) {
+        return (rs, rowNum) -> new ChatMessage(
+                rs.getLong("id"),
+                rs.getLong("session_id"),
+                ChatMessageRole.valueOf(rs.getString("role")),
+                rs.getString("content"),
+                includeRetrievalContext ? readRetrievalContext(rs) : null,
+                rs.getObject("created_at", OffsetDateTime.class));
+    }
+
+    private JsonNode readRetrievalContext(ResultSet rs) throws SQLException {
+        String value = rs.getString("retrieval_context");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(value);
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Failed to deserialize JSONB to JsonNode", ex);
+        }
+    }
+}
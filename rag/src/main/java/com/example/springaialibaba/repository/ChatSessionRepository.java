@@ -1,8 +1,11 @@
 package com.example.springaialibaba.repository;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.springaialibaba.model.entity.ChatSession;
@@ -12,4 +15,12 @@ public interface ChatSessionRepository
         extends CrudRepository<ChatSession, Long>, PagingAndSortingRepository<ChatSession, Long> {
 
     List<ChatSession> findByUserIdOrderByCreatedAtDesc(String userId);
+
+    @Query("SELECT * FROM chat_session WHERE user_id = :userId ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<ChatSession> findRecentByUserId(@Param("userId") String userId, @Param("limit") int limit);
+
+    @Query("SELECT * FROM chat_session WHERE user_id = :userId AND (created_at, id) < (:createdAt, :id)"
+            + " ORDER BY created_at DESC, id DESC LIMIT :limit")
+    List<ChatSession> findByUserIdBefore(@Param("userId") String userId, @Param("createdAt") OffsetDateTime createdAt,
+            @Param("id") long id, @Param("limit") int limit);
 }
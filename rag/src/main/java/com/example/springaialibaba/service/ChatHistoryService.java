@@ -6,13 +6,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import com.example.springaialibaba.model.dto.ChatMessagePage;
+import com.example.springaialibaba.model.dto.ChatSessionPage;
+import com.example.springaialibaba.model.dto.KeysetCursor;
 import com.example.springaialibaba.model.entity.ChatMessage;
 import com.example.springaialibaba.model.entity.ChatSession;
 import com.example.springaialibaba.model.enums.ChatMessageRole;
 import com.example.springaialibaba.model.enums.ChatSessionStatus;
+import com.example.springaialibaba.repository.ChatMessageQueryRepository;
 import com.example.springaialibaba.repository.ChatMessageRepository;
 import com.example.springaialibaba.repository.ChatSessionRepository;
 
@@ -24,17 +30,38 @@ public class ChatHistoryService {
 
     private final ChatSessionRepository chatSessionRepository;
 
+    private final ChatSessionCache chatSessionCache;
+
     private final ChatMessageRepository chatMessageRepository;
 
+    private final ChatMessageQueryRepository chatMessageQueryRepository;
+
+    private final ChatMessageWriteBehindQueue chatMessageWriteBehindQueue;
+
     private final ObjectMapper objectMapper;
 
-    public ChatHistoryService(ChatSessionRepository chatSessionRepository,
-            ChatMessageRepository chatMessageRepository, ObjectMapper objectMapper) {
+    private final int defaultPageSize;
+
+    private final int maxPageSize;
+
+    public ChatHistoryService(ChatSessionRepository chatSessionRepository, ChatSessionCache chatSessionCache,
+            ChatMessageRepository chatMessageRepository, ChatMessageQueryRepository chatMessageQueryRepository,
+            ChatMessageWriteBehindQueue chatMessageWriteBehindQueue, ObjectMapper objectMapper,
+            @Value("${app.chat-history.page.default-size:50}") int defaultPageSize,
+            @Value("${app.chat-history.page.max-size:200}") int maxPageSize) {
         this.chatSessionRepository = chatSessionRepository;
+        this.chatSessionCache = chatSessionCache;
         this.chatMessageRepository = chatMessageRepository;
+        this.chatMessageQueryRepository = chatMessageQueryRepository;
+        this.chatMessageWriteBehindQueue = chatMessageWriteBehindQueue;
         this.objectMapper = objectMapper;
+        this.maxPageSize = Math.max(maxPageSize, 1);
+        this.defaultPageSize = Math.min(Math.max(defaultPageSize, 1), this.maxPageSize);
     }
 
+    /**
+     * Returns every session of the user; prefer {@link #findSessionPage} for listing.
+     */
     public List<ChatSession> findSessionsByUserId(String userId) {
         if (!StringUtils.hasText(userId)) {
             throw new IllegalArgumentException("用户ID不能为空");
@@ -42,11 +69,74 @@ public class ChatHistoryService {
         return chatSessionRepository.findByUserIdOrderByCreatedAtDesc(userId);
     }
 
+    /**
+     * Returns one page of the user's sessions, newest first, using keyset pagination on
+     * {@code (created_at, id)}. The first page is served from {@link ChatSessionCache} when it fits.
+     */
+    public ChatSessionPage findSessionPage(String userId, String cursor, Integer limit) {
+        if (!StringUtils.hasText(userId)) {
+            throw new IllegalArgumentException("用户ID不能为空");
+        }
+        int pageSize = resolvePageSize(limit);
+        List<ChatSession> rows;
+        if (StringUtils.hasText(cursor)) {
+            KeysetCursor before = KeysetCursor.decode(cursor.trim());
+            rows = chatSessionRepository.findByUserIdBefore(userId, before.createdAt(), before.id(), pageSize + 1);
+        }
+        else if (pageSize < chatSessionCache.recentLimit()) {
+            List<ChatSession> recent = chatSessionCache.findRecentByUserId(userId);
+            rows = recent.subList(0, Math.min(recent.size(), pageSize + 1));
+        }
+        else {
+            rows = chatSessionRepository.findRecentByUserId(userId, pageSize + 1);
+        }
+        if (rows.size() <= pageSize) {
+            return new ChatSessionPage(List.copyOf(rows), null);
+        }
+        List<ChatSession> sessions = List.copyOf(rows.subList(0, pageSize));
+        return new ChatSessionPage(sessions, KeysetCursor.of(sessions.get(pageSize - 1)).encode());
+    }
+
     public List<ChatMessage> findMessagesBySessionId(Long sessionId) {
         ChatSession session = findSessionOrThrow(sessionId);
         return chatMessageRepository.findBySessionIdOrderByCreatedAtDesc(session.id());
     }
 
+    /**
+     * Returns one page of the session's messages, newest first, using keyset pagination on
+     * {@code (created_at, id)}. Page sizes above {@code app.chat-history.page.max-size} are capped.
+     *
+     * @param cursor {@code nextCursor} of the previous page, or blank for the first page
+     * @param limit requested page size, or {@code null} for the default
+     * @param includeRetrievalContext whether to load the {@code retrieval_context} JSON of each message
+     */
+    public ChatMessagePage findMessagePage(Long sessionId, String cursor, Integer limit,
+            boolean includeRetrievalContext) {
+        ChatSession session = findSessionOrThrow(sessionId);
+        int pageSize = resolvePageSize(limit);
+        KeysetCursor before = StringUtils.hasText(cursor) ? KeysetCursor.decode(cursor.trim()) : null;
+        List<ChatMessage> rows = chatMessageQueryRepository.findPage(session.id(), before, pageSize + 1,
+                includeRetrievalContext);
+        if (rows.size() <= pageSize) {
+            return new ChatMessagePage(rows, null);
+        }
+        List<ChatMessage> messages = List.copyOf(rows.subList(0, pageSize));
+        return new ChatMessagePage(messages, KeysetCursor.of(messages.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Streams every message of an existing session to {@code consumer} in chronological order without
+     * holding the whole history in memory. Callers are expected to have resolved the session via
+     * {@link #findSession(Long)} before the response is committed.
+     */
+    public void exportMessages(Long sessionId, boolean includeRetrievalContext, Consumer<ChatMessage> consumer) {
+        chatMessageQueryRepository.streamBySessionId(sessionId, includeRetrievalContext, consumer);
+    }
+
+    public ChatSession findSession(Long sessionId) {
+        return findSessionOrThrow(sessionId);
+    }
+
     public ChatSession updateSession(Long sessionId, String title, String category) {
         ChatSession existing = findSessionOrThrow(sessionId);
         String updatedTitle = StringUtils.hasText(title) ? title : existing.sessionTitle();
@@ -62,18 +152,50 @@ public class ChatHistoryService {
                 existing.sessionStatus(),
                 existing.createdAt(),
                 existing.updatedAt());
-        return chatSessionRepository.save(updatedSession);
+        return chatSessionCache.save(updatedSession);
     }
 
     public void deleteSession(Long sessionId) {
-        if (!chatSessionRepository.existsById(sessionId)) {
-            throw new IllegalArgumentException("会话不存在: " + sessionId);
-        }
-        chatSessionRepository.deleteById(sessionId);
+        chatSessionCache.delete(findSessionOrThrow(sessionId));
     }
 
     public ChatMessage saveNewMessage(Long sessionId, String role, String content, String retrievalContext) {
         ChatSession session = findSessionOrThrow(sessionId);
+        return chatMessageRepository.save(newMessage(session.id(), role, content, retrievalContext));
+    }
+
+    /**
+     * Validates the message on the calling thread and hands it to {@link ChatMessageWriteBehindQueue}, which
+     * persists it asynchronously in a batch. Prefer this over {@link #saveNewMessage} on the request path.
+     */
+    public void appendMessage(Long sessionId, String role, String content, String retrievalContext) {
+        chatMessageWriteBehindQueue.enqueue(newMessage(sessionId, role, content, retrievalContext));
+    }
+
+    public ChatSession createOrGetSession(Optional<Long> sessionId, String title, String userId) {
+        if (!StringUtils.hasText(userId)) {
+            throw new IllegalArgumentException("用户ID不能为空");
+        }
+        if (sessionId.isPresent()) {
+            return findSessionOrThrow(sessionId.get());
+        }
+        ChatSession newSession = new ChatSession(
+                null,
+                userId,
+                null,
+                null,
+                ChatSessionStatus.ACTIVE,
+                null,
+                null);
+        return chatSessionCache.save(newSession);
+    }
+
+    private ChatSession findSessionOrThrow(Long sessionId) {
+        return chatSessionCache.findById(sessionId)
+                .orElseThrow(() -> new IllegalArgumentException("会话不存在: " + sessionId));
+    }
+
+    private ChatMessage newMessage(Long sessionId, String role, String content, String retrievalContext) {
         if (!StringUtils.hasText(role)) {
             throw new IllegalArgumentException("消息角色不能为空");
         }
@@ -88,37 +210,23 @@ public class ChatHistoryService {
             throw new IllegalArgumentException("不支持的消息角色: " + role, ex);
         }
         JsonNode retrievalContextNode = parseRetrievalContext(retrievalContext);
-        ChatMessage message = new ChatMessage(
+        return new ChatMessage(
                 null,
-                session.id(),
+                sessionId,
                 messageRole,
                 content,
                 retrievalContextNode,
                 null);
-        return chatMessageRepository.save(message);
     }
 
-    public ChatSession createOrGetSession(Optional<Long> sessionId, String title, String userId) {
-        if (!StringUtils.hasText(userId)) {
-            throw new IllegalArgumentException("用户ID不能为空");
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return defaultPageSize;
         }
-        if (sessionId.isPresent()) {
-            return findSessionOrThrow(sessionId.get());
+        if (limit <= 0) {
+            throw new IllegalArgumentException("分页大小必须大于 0");
         }
-        ChatSession newSession = new ChatSession(
-                null,
-                userId,
-                null,
-                null,
-                ChatSessionStatus.ACTIVE,
-                null,
-                null);
-        return chatSessionRepository.save(newSession);
-    }
-
-    private ChatSession findSessionOrThrow(Long sessionId) {
-        return chatSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("会话不存在: " + sessionId));
+        return Math.min(limit, maxPageSize);
     }
 
     private JsonNode parseRetrievalContext(String retrievalContext) {
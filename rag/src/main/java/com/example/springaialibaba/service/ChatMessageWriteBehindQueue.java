@@ -0,0 +1,283 @@
+package com.example.springaialibaba.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.springaialibaba.model.entity.ChatMessage;
+
+/**
+ * Asynchronous, bounded write-behind buffer for chat messages.
+ *
+ * <p>Request threads only check the session against {@link ChatSessionCache} and enqueue
+ * the message; {@code created_at} is stamped at enqueue time so ordering reflects when the message was
+ * produced, not when it was flushed. A single writer thread takes the first queued message, lingers up to
+ * {@code max-linger} for more and writes up to {@code batch-size} messages from any number of requests as
+ * one JDBC batch insert in a single transaction. When a batch fails (for example because a session was
+ * deleted in the meantime) it is retried row by row so one bad message does not take the rest down.</p>
+ *
+ * <p>Durability is configured by two knobs: {@code overflow-policy} decides whether a full queue makes the
+ * caller write synchronously ({@link OverflowPolicy#CALLER_RUNS}, nothing is lost) or drops the message
+ * ({@link OverflowPolicy#DISCARD}); {@code shutdown-timeout} bounds how long shutdown waits for the queue to
+ * drain. With {@code enabled=false} every message is written synchronously on the caller thread.</p>
+ */
+@Service
+public class ChatMessageWriteBehindQueue implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatMessageWriteBehindQueue.class);
+
+    private static final String INSERT_SQL = "INSERT INTO chat_message (session_id, role, content, retrieval_context,"
+            + " created_at) VALUES (?, ?, ?, ?::jsonb, ?)";
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /**
+     * What to do when the queue is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Write the message synchronously on the calling thread.
+         */
+        CALLER_RUNS,
+
+        /**
+         * Drop the message and count it in {@code chat.message.write.discarded}.
+         */
+        DISCARD
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate batchTransaction;
+
+    private final ChatSessionCache chatSessionCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final long maxLingerNanos;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final Duration shutdownTimeout;
+
+    private final BlockingQueue<ChatMessage> queue;
+
+    private final ExecutorService writer;
+
+    private volatile boolean running = true;
+
+    private DistributionSummary batchSizeSummary;
+
+    private Counter discardedCounter;
+
+    private Counter failedCounter;
+
+    public ChatMessageWriteBehindQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            ChatSessionCache chatSessionCache, ObjectMapper objectMapper,
+            @Value("${app.chat-history.write-behind.enabled:true}") boolean enabled,
+            @Value("${app.chat-history.write-behind.batch-size:100}") int batchSize,
+            @Value("${app.chat-history.write-behind.max-linger:50ms}") Duration maxLinger,
+            @Value("${app.chat-history.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.chat-history.write-behind.overflow-policy:CALLER_RUNS}") String overflowPolicy,
+            @Value("${app.chat-history.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.chatSessionCache = chatSessionCache;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxLingerNanos = Math.max(maxLinger.toNanos(), 0L);
+        this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase(Locale.ROOT));
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        if (enabled) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("chat-message-writer-");
+            threadFactory.setDaemon(true);
+            this.writer = Executors.newSingleThreadExecutor(threadFactory);
+            this.writer.execute(this::writeLoop);
+        }
+        else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Validates the session and hands the message to the writer thread.
+     *
+     * @throws IllegalArgumentException when the session does not exist
+     */
+    public void enqueue(ChatMessage message) {
+        requireSession(message.sessionId());
+        ChatMessage stamped = message.createdAt() != null ? message : new ChatMessage(message.id(),
+                message.sessionId(), message.role(), message.content(), message.retrievalContext(),
+                OffsetDateTime.now());
+        if (!enabled || !running) {
+            insert(List.of(stamped));
+            return;
+        }
+        if (queue.offer(stamped)) {
+            // destroy() may have drained the queue between the running check and the offer; take the message
+            // back and write it here rather than leave it in a queue nobody consumes any more
+            if (!running && queue.remove(stamped)) {
+                insert(List.of(stamped));
+            }
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.DISCARD) {
+            if (discardedCounter != null) {
+                discardedCounter.increment();
+            }
+            log.warn("会话消息写入队列已满，丢弃 sessionId={} 的消息", stamped.sessionId());
+            return;
+        }
+        insert(List.of(stamped));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizeSummary = DistributionSummary.builder("chat.message.write.batch.size")
+                .description("每次批量写入的会话消息条数")
+                .register(registry);
+        discardedCounter = Counter.builder("chat.message.write.discarded")
+                .description("队列已满时被丢弃的会话消息数")
+                .register(registry);
+        failedCounter = Counter.builder("chat.message.write.failed")
+                .description("逐条重试后仍写入失败的会话消息数")
+                .register(registry);
+        registry.gauge("chat.message.write.queue", queue, BlockingQueue::size);
+    }
+
+    /**
+     * Stops accepting asynchronous writes and drains the queue within {@code shutdown-timeout}.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        writer.shutdown();
+        if (!writer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            writer.shutdownNow();
+        }
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        while (System.nanoTime() < deadline && queue.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+        if (!queue.isEmpty()) {
+            log.error("关闭超时，仍有 {} 条会话消息未写入", queue.size());
+        }
+    }
+
+    private void writeLoop() {
+        while (running) {
+            ChatMessage first;
+            try {
+                first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (first == null) {
+                continue;
+            }
+            List<ChatMessage> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            long deadline = System.nanoTime() + maxLingerNanos;
+            try {
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    ChatMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<ChatMessage> batch) {
+        try {
+            insert(batch);
+            if (batchSizeSummary != null) {
+                batchSizeSummary.record(batch.size());
+            }
+        }
+        catch (DataAccessException | IllegalArgumentException ex) {
+            if (batch.size() == 1) {
+                if (failedCounter != null) {
+                    failedCounter.increment();
+                }
+                log.warn("写入 sessionId={} 的会话消息失败：{}", batch.get(0).sessionId(), ex.getMessage());
+                return;
+            }
+            log.warn("批量写入 {} 条会话消息失败，改为逐条写入：{}", batch.size(), ex.getMessage());
+            batch.forEach(message -> flush(List.of(message)));
+        }
+    }
+
+    private void insert(List<ChatMessage> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (ChatMessage message : batch) {
+            rows.add(new Object[] {message.sessionId(), message.role().name(), message.content(),
+                    retrievalContextJson(message), message.createdAt()});
+        }
+        batchTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+        log.debug("ChatMessageWriteBehindQueue: 批量写入 {} 条会话消息", batch.size());
+    }
+
+    private String retrievalContextJson(ChatMessage message) {
+        if (message.retrievalContext() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(message.retrievalContext());
+        }
+        catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Failed to serialize JsonNode to JSONB", ex);
+        }
+    }
+
+    private void requireSession(Long sessionId) {
+        if (!chatSessionCache.existsById(sessionId)) {
+            throw new IllegalArgumentException("会话不存在: " + sessionId);
+        }
+    }
+}
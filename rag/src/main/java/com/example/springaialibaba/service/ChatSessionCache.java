@@ -0,0 +1,95 @@
+package com.example.springaialibaba.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.springaialibaba.model.entity.ChatSession;
+import com.example.springaialibaba.repository.ChatSessionRepository;
+
+/**
+ * Bounded in-process cache in front of {@link ChatSessionRepository}.
+ *
+ * <p>Sessions are cached by id, and each user's newest {@code default-size + 1} sessions are cached as the
+ * first page of the session list. Writes go through this class: updates replace the cached record, while
+ * creates and deletes invalidate it together with the owner's first page. A newly created session is not
+ * cached until it is first read, because {@code created_at} and {@code updated_at} are filled in by the
+ * database. Entries expire after {@code ttl} without access, which bounds staleness if rows are changed
+ * outside this process.</p>
+ */
+@Service
+public class ChatSessionCache {
+
+    private final ChatSessionRepository chatSessionRepository;
+
+    private final int recentLimit;
+
+    private final Cache<Long, ChatSession> sessionsById;
+
+    private final Cache<String, List<ChatSession>> recentByUser;
+
+    public ChatSessionCache(ChatSessionRepository chatSessionRepository,
+            @Value("${app.chat-history.page.default-size:50}") int defaultPageSize,
+            @Value("${app.chat-history.session-cache.maximum-size:10000}") long maximumSize,
+            @Value("${app.chat-history.session-cache.ttl:30m}") Duration ttl) {
+        this.chatSessionRepository = chatSessionRepository;
+        this.recentLimit = Math.max(defaultPageSize, 1) + 1;
+        this.sessionsById = Caffeine.newBuilder()
+                .maximumSize(Math.max(maximumSize, 1))
+                .expireAfterAccess(ttl)
+                .build();
+        this.recentByUser = Caffeine.newBuilder()
+                .maximumSize(Math.max(maximumSize / recentLimit, 1))
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    public Optional<ChatSession> findById(Long sessionId) {
+        if (sessionId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(sessionsById.get(sessionId,
+                id -> chatSessionRepository.findById(id).orElse(null)));
+    }
+
+    /**
+     * Returns up to {@link #recentLimit()} of the user's newest sessions, newest first.
+     */
+    public List<ChatSession> findRecentByUserId(String userId) {
+        return recentByUser.get(userId, id -> {
+            List<ChatSession> sessions = List.copyOf(chatSessionRepository.findRecentByUserId(id, recentLimit));
+            sessions.forEach(session -> sessionsById.put(session.id(), session));
+            return sessions;
+        });
+    }
+
+    public int recentLimit() {
+        return recentLimit;
+    }
+
+    public ChatSession save(ChatSession session) {
+        ChatSession saved = chatSessionRepository.save(session);
+        if (session.id() != null) {
+            sessionsById.put(saved.id(), saved);
+        }
+        else {
+            sessionsById.invalidate(saved.id());
+        }
+        recentByUser.invalidate(saved.userId());
+        return saved;
+    }
+
+    public boolean existsById(Long sessionId) {
+        return findById(sessionId).isPresent();
+    }
+
+    public void delete(ChatSession session) {
+        chatSessionRepository.deleteById(session.id());
+        sessionsById.invalidate(session.id());
+        recentByUser.invalidate(session.userId());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.springaialibaba.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.config.properties.ScopeProperties;
+import com.example.springaialibaba.core.cache.SemanticAnswerCache;
+import com.example.springaialibaba.core.ingestion.CorpusChangedEvent;
+import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
+import com.example.springaialibaba.model.dto.RagQueryResponse;
+import com.example.springaialibaba.model.dto.ReferenceDto;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class SemanticAnswerCacheTest {
+
+    private static final Map<String, float[]> VECTORS = Map.of(
+            "model-y 如何充电", new float[] {1f, 0f, 0f},
+            "model-y 怎么充电", new float[] {0.99f, 0.1f, 0f},
+            "退货流程", new float[] {0f, 0f, 1f});
+
+    private EmbeddingModel embeddingModel;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private SemanticAnswerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        embeddingModel = mock(EmbeddingModel.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(embeddingModel.embed(anyString())).thenAnswer(invocation -> VECTORS.get(invocation.<String>getArgument(0)));
+        cache = new SemanticAnswerCache(embeddingModel, new QueryPreprocessor(), jdbcTemplate,
+                new ScopeProperties(), true, 0.95, 100, 8, Duration.ofMinutes(5), "rag_chunks");
+    }
+
+    @Test
+    void shouldReturnAnswerForSemanticallySimilarQuestion() {
+        cache.put("Model Y 如何充电", "客服人员", "售后服务", answer());
+
+        assertThat(cache.lookup("model y 怎么充电", "客服人员", "售后服务"))
+                .hasValueSatisfying(response -> {
+                    assertThat(response.getAnswer()).isEqualTo("使用官方充电桩");
+                    assertThat(response.getSessionId()).isNull();
+                });
+        assertThat(cache.lookup("退货流程", "客服人员", "售后服务")).isEmpty();
+    }
+
+    @Test
+    void shouldIsolateEntriesByPersonaAndChannel() {
+        cache.put("Model Y 如何充电", "客服人员", "售后服务", answer());
+
+        assertThat(cache.lookup("Model Y 如何充电", "通用知识助手", "售后服务")).isEmpty();
+        assertThat(cache.lookup("Model Y 如何充电", "客服人员", "生活闲聊")).isEmpty();
+    }
+
+    @Test
+    void shouldNotCacheScopesOutsideWhitelist() {
+        cache.put("Model Y 如何充电", "技术专家", "web", answer());
+
+        assertThat(cache.lookup("Model Y 如何充电", "技术专家", "web")).isEmpty();
+        verify(embeddingModel, never()).embed(anyString());
+    }
+
+    @Test
+    void shouldNotCacheAnswersWithoutReferences() {
+        cache.put("Model Y 如何充电", "客服人员", "售后服务", new RagQueryResponse("暂无相关内容", List.of(), null));
+
+        assertThat(cache.lookup("Model Y 如何充电", "客服人员", "售后服务")).isEmpty();
+    }
+
+    @Test
+    void shouldInvalidateWhenCorpusChanges() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("rag_chunks"))).thenReturn(10L, 10L, 12L);
+        cache.put("Model Y 如何充电", "客服人员", "售后服务", answer());
+
+        cache.checkCorpusVersion();
+        cache.checkCorpusVersion();
+        assertThat(cache.lookup("Model Y 如何充电", "客服人员", "售后服务")).isPresent();
+
+        cache.checkCorpusVersion();
+        assertThat(cache.lookup("Model Y 如何充电", "客服人员", "售后服务")).isEmpty();
+    }
+
+    @Test
+    void shouldEvictOnlyAnswersReferencingChangedDocuments() {
+        cache.put("Model Y 如何充电", "客服人员", "售后服务", answer());
+        cache.put("退货流程", "客服人员", "售后服务", new RagQueryResponse("七天无理由退货",
+                List.of(new ReferenceDto("退货政策", "流程", "document-2", "chunk-7")), 0.8));
+
+        cache.onCorpusChanged(new CorpusChangedEvent(Set.of("document-1"), Set.of("chunk-1"), Set.of()));
+
+        assertThat(cache.lookup("Model Y 如何充电", "客服人员", "售后服务")).isEmpty();
+        assertThat(cache.lookup("退货流程", "客服人员", "售后服务")).isPresent();
+    }
+
+    @Test
+    void shouldKeepUnrelatedAnswersWhenEventAlreadyBaselinedTheChange() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq("rag_chunks"))).thenReturn(10L, 12L, 12L);
+        cache.put("退货流程", "客服人员", "售后服务", new RagQueryResponse("七天无理由退货",
+                List.of(new ReferenceDto("退货政策", "流程", "document-2", "chunk-7")), 0.8));
+
+        cache.checkCorpusVersion();
+        cache.onCorpusChanged(new CorpusChangedEvent(Set.of("document-1"), Set.of("chunk-1"), Set.of()));
+        cache.checkCorpusVersion();
+
+        assertThat(cache.lookup("退货流程", "客服人员", "售后服务")).isPresent();
+    }
+
+    private RagQueryResponse answer() {
+        ReferenceDto reference = new ReferenceDto("充电指南", "家用充电", "document-1", "chunk-1");
+        return new RagQueryResponse("使用官方充电桩", List.of(reference), 0.9);
+    }
+}
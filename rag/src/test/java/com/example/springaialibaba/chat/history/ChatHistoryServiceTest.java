@@ -3,18 +3,29 @@ package com.example.springaialibaba.chat.history;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.example.springaialibaba.model.dto.ChatMessagePage;
+import com.example.springaialibaba.model.dto.ChatSessionPage;
+import com.example.springaialibaba.model.dto.KeysetCursor;
 import com.example.springaialibaba.model.entity.ChatMessage;
 import com.example.springaialibaba.model.entity.ChatSession;
 import com.example.springaialibaba.model.enums.ChatMessageRole;
 import com.example.springaialibaba.model.enums.ChatSessionStatus;
+import com.example.springaialibaba.repository.ChatMessageQueryRepository;
 import com.example.springaialibaba.repository.ChatMessageRepository;
 import com.example.springaialibaba.repository.ChatSessionRepository;
 import com.example.springaialibaba.service.ChatHistoryService;
+import com.example.springaialibaba.service.ChatMessageWriteBehindQueue;
+import com.example.springaialibaba.service.ChatSessionCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,11 +48,19 @@ class ChatHistoryServiceTest {
     @Mock
     private ChatMessageRepository chatMessageRepository;
 
+    @Mock
+    private ChatMessageQueryRepository chatMessageQueryRepository;
+
+    @Mock
+    private ChatMessageWriteBehindQueue chatMessageWriteBehindQueue;
+
     private ChatHistoryService chatHistoryService;
 
     @BeforeEach
     void setUp() {
-        chatHistoryService = new ChatHistoryService(chatSessionRepository, chatMessageRepository, new ObjectMapper());
+        ChatSessionCache chatSessionCache = new ChatSessionCache(chatSessionRepository, 2, 100, Duration.ofMinutes(5));
+        chatHistoryService = new ChatHistoryService(chatSessionRepository, chatSessionCache, chatMessageRepository,
+                chatMessageQueryRepository, chatMessageWriteBehindQueue, new ObjectMapper(), 2, 3);
     }
 
     @Test
@@ -73,6 +92,93 @@ class ChatHistoryServiceTest {
         assertThat(messages).containsExactly(message);
     }
 
+    @Test
+    void shouldReturnNextCursorWhenMorePagesRemain() {
+        ChatSession session = new ChatSession(SESSION_ID, USER_ID, null, null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+        OffsetDateTime now = OffsetDateTime.parse("2025-01-01T10:00:00.123456+08:00");
+        ChatMessage newest = new ChatMessage(3L, SESSION_ID, ChatMessageRole.ASSISTANT, "c", null, now);
+        ChatMessage middle = new ChatMessage(2L, SESSION_ID, ChatMessageRole.USER, "b", null, now);
+        ChatMessage oldest = new ChatMessage(1L, SESSION_ID, ChatMessageRole.USER, "a", null, now.minusSeconds(1));
+        when(chatMessageQueryRepository.findPage(eq(SESSION_ID), isNull(), eq(3), eq(false)))
+                .thenReturn(List.of(newest, middle, oldest));
+
+        ChatMessagePage page = chatHistoryService.findMessagePage(SESSION_ID, null, null, false);
+
+        assertThat(page.messages()).containsExactly(newest, middle);
+        assertThat(KeysetCursor.decode(page.nextCursor())).isEqualTo(new KeysetCursor(now, 2L));
+    }
+
+    @Test
+    void shouldCapPageSizeAndContinueFromCursor() {
+        ChatSession session = new ChatSession(SESSION_ID, USER_ID, null, null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+        KeysetCursor cursor = new KeysetCursor(OffsetDateTime.parse("2025-01-01T10:00:00Z"), 7L);
+        ChatMessage message = new ChatMessage(6L, SESSION_ID, ChatMessageRole.USER, "hi", null, null);
+        when(chatMessageQueryRepository.findPage(SESSION_ID, cursor, 4, true)).thenReturn(List.of(message));
+
+        ChatMessagePage page = chatHistoryService.findMessagePage(SESSION_ID, cursor.encode(), 500, true);
+
+        assertThat(page.messages()).containsExactly(message);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectInvalidCursor() {
+        ChatSession session = new ChatSession(SESSION_ID, USER_ID, null, null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+
+        assertThatThrownBy(() -> chatHistoryService.findMessagePage(SESSION_ID, "bm90LWEtY3Vyc29y", 10, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("无效的分页游标");
+    }
+
+    @Test
+    void shouldServeRepeatedSessionLookupsFromCache() {
+        ChatSession session = new ChatSession(SESSION_ID, USER_ID, "title", null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
+
+        chatHistoryService.findSession(SESSION_ID);
+        chatHistoryService.createOrGetSession(Optional.of(SESSION_ID), null, USER_ID);
+
+        verify(chatSessionRepository, times(1)).findById(SESSION_ID);
+    }
+
+    @Test
+    void shouldServeFirstSessionPageFromCacheUntilSessionChanges() {
+        OffsetDateTime now = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+        ChatSession newest = new ChatSession(3L, USER_ID, "c", "default", ChatSessionStatus.ACTIVE, now, now);
+        ChatSession middle = new ChatSession(2L, USER_ID, "b", "default", ChatSessionStatus.ACTIVE, now, now);
+        ChatSession oldest = new ChatSession(1L, USER_ID, "a", "default", ChatSessionStatus.ACTIVE,
+                now.minusMinutes(1), now);
+        when(chatSessionRepository.findRecentByUserId(USER_ID, 3)).thenReturn(List.of(newest, middle, oldest));
+        when(chatSessionRepository.save(any(ChatSession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ChatSessionPage first = chatHistoryService.findSessionPage(USER_ID, null, 2);
+        ChatSessionPage single = chatHistoryService.findSessionPage(USER_ID, null, 1);
+        ChatSession renamed = chatHistoryService.updateSession(3L, "renamed", null);
+        chatHistoryService.findSessionPage(USER_ID, null, null);
+
+        assertThat(first.sessions()).containsExactly(newest, middle);
+        assertThat(KeysetCursor.decode(first.nextCursor())).isEqualTo(new KeysetCursor(now, 2L));
+        assertThat(single.sessions()).containsExactly(newest);
+        assertThat(renamed.sessionTitle()).isEqualTo("renamed");
+        verify(chatSessionRepository, times(2)).findRecentByUserId(USER_ID, 3);
+        verify(chatSessionRepository, never()).findById(3L);
+    }
+
+    @Test
+    void shouldLoadLaterSessionPagesByCursor() {
+        KeysetCursor cursor = new KeysetCursor(OffsetDateTime.parse("2025-01-01T10:00:00Z"), 2L);
+        ChatSession oldest = new ChatSession(1L, USER_ID, "a", null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatSessionRepository.findByUserIdBefore(USER_ID, cursor.createdAt(), 2L, 3)).thenReturn(List.of(oldest));
+
+        ChatSessionPage page = chatHistoryService.findSessionPage(USER_ID, cursor.encode(), 2);
+
+        assertThat(page.sessions()).containsExactly(oldest);
+        assertThat(page.nextCursor()).isNull();
+    }
+
     @Test
     void shouldUpdateSession() {
         ChatSession session = new ChatSession(SESSION_ID, USER_ID, "old", "default", ChatSessionStatus.ACTIVE, null, null);
@@ -98,7 +204,8 @@ class ChatHistoryServiceTest {
 
     @Test
     void shouldDeleteSession() {
-        when(chatSessionRepository.existsById(SESSION_ID)).thenReturn(true);
+        ChatSession session = new ChatSession(SESSION_ID, USER_ID, null, null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.of(session));
 
         chatHistoryService.deleteSession(SESSION_ID);
 
@@ -107,7 +214,7 @@ class ChatHistoryServiceTest {
 
     @Test
     void shouldThrowWhenDeletingMissingSession() {
-        when(chatSessionRepository.existsById(SESSION_ID)).thenReturn(false);
+        when(chatSessionRepository.findById(SESSION_ID)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> chatHistoryService.deleteSession(SESSION_ID))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -147,6 +254,27 @@ class ChatHistoryServiceTest {
         assertThat(captured.retrievalContext().get("foo").asInt()).isEqualTo(1);
     }
 
+    @Test
+    void shouldAppendMessageThroughWriteBehindQueue() {
+        ArgumentCaptor<ChatMessage> messageCaptor = ArgumentCaptor.forClass(ChatMessage.class);
+
+        chatHistoryService.appendMessage(SESSION_ID, "assistant", "answer", "{\"foo\":1}");
+
+        verify(chatMessageWriteBehindQueue).enqueue(messageCaptor.capture());
+        verify(chatSessionRepository, never()).findById(any());
+        ChatMessage captured = messageCaptor.getValue();
+        assertThat(captured.role()).isEqualTo(ChatMessageRole.ASSISTANT);
+        assertThat(captured.retrievalContext().get("foo").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldValidateAppendedMessageOnCallerThread() {
+        assertThatThrownBy(() -> chatHistoryService.appendMessage(SESSION_ID, "user", " ", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("消息内容不能为空");
+        verify(chatMessageWriteBehindQueue, never()).enqueue(any());
+    }
+
     @Test
     void shouldThrowWhenRoleInvalid() {
         ChatSession session = new ChatSession(SESSION_ID, USER_ID, null, null, ChatSessionStatus.ACTIVE, null, null);
@@ -0,0 +1,147 @@
+package com.example.springaialibaba.chat.history;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.model.entity.ChatMessage;
+import com.example.springaialibaba.model.entity.ChatSession;
+import com.example.springaialibaba.model.enums.ChatMessageRole;
+import com.example.springaialibaba.model.enums.ChatSessionStatus;
+import com.example.springaialibaba.repository.ChatSessionRepository;
+import com.example.springaialibaba.service.ChatMessageWriteBehindQueue;
+import com.example.springaialibaba.service.ChatSessionCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ChatMessageWriteBehindQueueTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final ChatSessionRepository chatSessionRepository = mock(ChatSessionRepository.class);
+
+    private final List<List<Object[]>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private ChatMessageWriteBehindQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) {
+            queue.destroy();
+        }
+    }
+
+    @Test
+    void shouldGroupMessagesIntoOneBatchAndCheckSessionOnce() throws InterruptedException {
+        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(session(1L)));
+        recordBatches();
+        queue = newQueue(true, 10, Duration.ofMillis(200));
+
+        for (int i = 0; i < 5; i++) {
+            queue.enqueue(message(1L, "消息 " + i));
+        }
+        queue.destroy();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(row -> row[2])
+                .containsExactly("消息 0", "消息 1", "消息 2", "消息 3", "消息 4");
+        assertThat(batches.get(0)).allSatisfy(row -> assertThat(row[4]).isNotNull());
+        verify(chatSessionRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void shouldRejectUnknownSessionWithoutQueueing() throws InterruptedException {
+        when(chatSessionRepository.findById(404L)).thenReturn(Optional.empty());
+        queue = newQueue(true, 10, Duration.ofMillis(10));
+
+        assertThatThrownBy(() -> queue.enqueue(message(404L, "hi")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("会话不存在");
+        queue.destroy();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void shouldRetryRowByRowWhenBatchFails() throws InterruptedException {
+        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(session(1L)));
+        queue = newQueue(true, 10, Duration.ofMillis(200));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            if (rows.size() > 1 || "坏消息".equals(rows.get(0)[2])) {
+                throw new DataIntegrityViolationException("fk_session");
+            }
+            batches.add(rows);
+            return new int[] {1};
+        });
+
+        queue.enqueue(message(1L, "好消息 1"));
+        queue.enqueue(message(1L, "坏消息"));
+        queue.enqueue(message(1L, "好消息 2"));
+        queue.destroy();
+
+        assertThat(batches).extracting(rows -> rows.get(0)[2]).containsExactly("好消息 1", "好消息 2");
+    }
+
+    @Test
+    void shouldWriteSynchronouslyWhenDisabled() {
+        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(session(1L)));
+        recordBatches();
+        queue = newQueue(false, 10, Duration.ofMillis(200));
+
+        queue.enqueue(message(1L, "同步写入"));
+
+        assertThat(batches).hasSize(1);
+    }
+
+    @Test
+    void shouldWriteSynchronouslyAfterShutdown() throws InterruptedException {
+        when(chatSessionRepository.findById(1L)).thenReturn(Optional.of(session(1L)));
+        recordBatches();
+        queue = newQueue(true, 10, Duration.ofMillis(200));
+        queue.destroy();
+
+        queue.enqueue(message(1L, "关闭后写入"));
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(row -> row[2]).containsExactly("关闭后写入");
+    }
+
+    private void recordBatches() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.add(rows);
+            return new int[rows.size()];
+        });
+    }
+
+    private ChatMessageWriteBehindQueue newQueue(boolean enabled, int batchSize, Duration maxLinger) {
+        ChatSessionCache chatSessionCache = new ChatSessionCache(chatSessionRepository, 10, 100, Duration.ofMinutes(5));
+        return new ChatMessageWriteBehindQueue(jdbcTemplate, mock(PlatformTransactionManager.class),
+                chatSessionCache, new ObjectMapper(), enabled, batchSize, maxLinger, 100, "caller_runs",
+                Duration.ofSeconds(5));
+    }
+
+    private static ChatSession session(Long id) {
+        return new ChatSession(id, "user-1", null, null, ChatSessionStatus.ACTIVE, null, null);
+    }
+
+    private static ChatMessage message(Long sessionId, String content) {
+        return new ChatMessage(null, sessionId, ChatMessageRole.USER, content, null, null);
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.springaialibaba.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.springaialibaba.service.ChatHistoryService;
@@ -15,10 +21,14 @@ import com.example.springaialibaba.model.entity.ChatMessage;
 import com.example.springaialibaba.model.enums.ChatMessageRole;
 import com.example.springaialibaba.model.entity.ChatSession;
 import com.example.springaialibaba.model.enums.ChatSessionStatus;
+import com.example.springaialibaba.model.dto.ChatMessagePage;
+import com.example.springaialibaba.model.dto.ChatSessionPage;
 import com.example.springaialibaba.model.dto.UpdateChatSessionRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +36,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(controllers = ChatHistoryController.class)
 class ChatHistoryControllerTest {
@@ -57,6 +68,23 @@ class ChatHistoryControllerTest {
         verifyNoMoreInteractions(chatHistoryService);
     }
 
+    @Test
+    @DisplayName("按游标分页返回用户的会话")
+    void testGetSessionPage_Success() throws Exception {
+        ChatSession session = new ChatSession(1L, "user-1", "欢迎", "default", ChatSessionStatus.ACTIVE,
+                OffsetDateTime.now(), OffsetDateTime.now());
+        when(chatHistoryService.findSessionPage("user-1", null, 10))
+                .thenReturn(new ChatSessionPage(List.of(session), null));
+
+        mockMvc.perform(get(BASE_URL + "/sessions/page").param("userId", "user-1").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sessions[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(chatHistoryService).findSessionPage("user-1", null, 10);
+        verifyNoMoreInteractions(chatHistoryService);
+    }
+
     @Test
     @DisplayName("返回指定会话的消息列")
     void testGetMessages_Success() throws Exception {
@@ -73,6 +101,64 @@ class ChatHistoryControllerTest {
         verifyNoMoreInteractions(chatHistoryService);
     }
 
+    @Test
+    @DisplayName("按游标分页返回会话消息")
+    void testGetMessagePage_Success() throws Exception {
+        ChatMessage message = new ChatMessage(5L, 9L, ChatMessageRole.USER, "你好", null, OffsetDateTime.now());
+        when(chatHistoryService.findMessagePage(9L, "abc", 20, false))
+                .thenReturn(new ChatMessagePage(List.of(message), "next"));
+
+        mockMvc.perform(get(BASE_URL + "/sessions/{sessionId}/messages", 9L)
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages[0].id").value(5L))
+                .andExpect(jsonPath("$.messages[0].retrievalContext").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(chatHistoryService).findMessagePage(9L, "abc", 20, false);
+        verifyNoMoreInteractions(chatHistoryService);
+    }
+
+    @Test
+    @DisplayName("以 NDJSON 流式导出会话消息")
+    void testExportMessages_Success() throws Exception {
+        ChatSession session = new ChatSession(9L, "user-9", null, null, ChatSessionStatus.ACTIVE, null, null);
+        when(chatHistoryService.findSession(9L)).thenReturn(session);
+        doAnswer(invocation -> {
+            Consumer<ChatMessage> consumer = invocation.getArgument(2);
+            consumer.accept(new ChatMessage(1L, 9L, ChatMessageRole.USER, "问题", null, null));
+            consumer.accept(new ChatMessage(2L, 9L, ChatMessageRole.ASSISTANT, "回答", null, null));
+            return null;
+        }).when(chatHistoryService).exportMessages(eq(9L), eq(false), any());
+
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/sessions/{sessionId}/messages/export", 9L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(1)).get("content").asText())
+                .isEqualTo("回答");
+    }
+
+    @Test
+    @DisplayName("导出不存在的会话返回 404")
+    void testExportMessages_NotFound() throws Exception {
+        when(chatHistoryService.findSession(404L)).thenThrow(new IllegalArgumentException("会话不存在: 404"));
+
+        mockMvc.perform(get(BASE_URL + "/sessions/{sessionId}/messages/export", 404L))
+                .andExpect(status().isNotFound());
+
+        verify(chatHistoryService).findSession(404L);
+        verifyNoMoreInteractions(chatHistoryService);
+    }
+
     @Test
     @DisplayName("成功更新聊天会话信息")
     void testUpdateSession_Success() throws Exception {
@@ -1,15 +1,20 @@
 package com.example.springaialibaba.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.springaialibaba.core.cache.SemanticAnswerCache;
 import com.example.springaialibaba.core.formatter.ResponseFormatter;
 import com.example.springaialibaba.model.dto.RagQueryRequest;
 import com.example.springaialibaba.model.dto.RagQueryResponse;
@@ -18,6 +23,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,6 +40,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 @WebMvcTest(controllers = ModularRagController.class)
 class ModularRagControllerTest {
@@ -50,6 +58,9 @@ class ModularRagControllerTest {
     @MockBean
     private ResponseFormatter responseFormatter;
 
+    @MockBean
+    private SemanticAnswerCache semanticAnswerCache;
+
     @Test
     @DisplayName("成功走 Advisor 链路并保持响应兼容")
     void testSuccessfulAdvisorFlow() throws Exception {
@@ -180,6 +191,73 @@ class ModularRagControllerTest {
         verifyNoInteractions(ragChatClient, responseFormatter);
     }
 
+    @Test
+    @DisplayName("流式接口依次推送引用、token 与结束事件")
+    void testStreamingAdvisorFlow() throws Exception {
+        RagQueryRequest request = new RagQueryRequest("How to charge the EV?", "expert", "web");
+        List<Document> documents = List.of(new Document("doc-content", Map.of("score", 0.85)));
+        ChatClient.ChatClientRequestSpec requestSpec = mock(ChatClient.ChatClientRequestSpec.class);
+        ChatClient.StreamResponseSpec streamResponseSpec = mock(ChatClient.StreamResponseSpec.class);
+
+        when(semanticAnswerCache.lookup(anyString(), anyString(), anyString())).thenReturn(Optional.empty());
+        when(ragChatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.advisors(any(Consumer.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.stream()).thenReturn(streamResponseSpec);
+        when(streamResponseSpec.chatClientResponse()).thenReturn(Flux.just(
+                buildAdvisorResponse("Use the ", documents),
+                buildAdvisorResponse("official charger.", documents)));
+
+        ReferenceDto reference = new ReferenceDto("doc-1", "section-1", "document-123", "chunk-1");
+        when(responseFormatter.format("", documents, 0.85))
+                .thenReturn(new RagQueryResponse("", List.of(reference), 0.85));
+        RagQueryResponse formatted = new RagQueryResponse("Use the official charger.", List.of(reference), 0.7225);
+        when(responseFormatter.format("Use the official charger.", documents, 0.85)).thenReturn(formatted);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/rag/modular/query/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).containsSubsequence(
+                "event:references", "document-123",
+                "event:token", "Use the ",
+                "event:token", "official charger.",
+                "event:done", "\"confidence\":0.7225");
+        verify(semanticAnswerCache, timeout(1000)).put("How to charge the EV?", "expert", "web", formatted);
+    }
+
+    @Test
+    @DisplayName("流式生成失败时推送 error 事件并结束连接")
+    void testStreamingErrorCompletesEmitter() throws Exception {
+        RagQueryRequest request = new RagQueryRequest("trigger error", null, null);
+        ChatClient.ChatClientRequestSpec requestSpec = mock(ChatClient.ChatClientRequestSpec.class);
+        ChatClient.StreamResponseSpec streamResponseSpec = mock(ChatClient.StreamResponseSpec.class);
+
+        when(semanticAnswerCache.lookup(anyString(), anyString(), anyString())).thenReturn(Optional.empty());
+        when(ragChatClient.prompt()).thenReturn(requestSpec);
+        when(requestSpec.advisors(any(Consumer.class))).thenReturn(requestSpec);
+        when(requestSpec.user(anyString())).thenReturn(requestSpec);
+        when(requestSpec.stream()).thenReturn(streamResponseSpec);
+        when(streamResponseSpec.chatClientResponse()).thenReturn(Flux.error(new RuntimeException("advisor failed")));
+
+        MvcResult result = mockMvc.perform(post("/api/v1/rag/modular/query/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsBytes(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(1000);
+
+        assertThat(result.getResponse().getContentAsString())
+                .containsSubsequence("event:error", "advisor failed");
+        verify(semanticAnswerCache, never()).put(anyString(), anyString(), anyString(), any());
+    }
+
     private ChatClientResponse buildAdvisorResponse(String answer, List<Document> documents) {
         ChatResponse chatResponse = new ChatResponse(List.of(new Generation(new AssistantMessage(answer))));
         return new ChatClientResponse(chatResponse,
@@ -9,6 +9,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.example.springaialibaba.core.cache.SemanticAnswerCache;
 import com.example.springaialibaba.core.formatter.ResponseFormatter;
 import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
 import com.example.springaialibaba.core.rag.GenerationService;
@@ -50,6 +51,9 @@ class RagControllerTest {
     @MockBean
     private ResponseFormatter responseFormatter;
 
+    @MockBean
+    private SemanticAnswerCache semanticAnswerCache;
+
     @Test
     @DisplayName("成功编排旧手动链路并保持响应兼容")
     void testSuccessfulLegacyFlow() throws Exception {
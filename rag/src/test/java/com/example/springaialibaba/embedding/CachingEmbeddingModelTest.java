@@ -0,0 +1,107 @@
+package com.example.springaialibaba.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.core.model.CachingEmbeddingModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+@ExtendWith(MockitoExtension.class)
+class CachingEmbeddingModelTest {
+
+    @Mock
+    private EmbeddingModel delegate;
+
+    private CachingEmbeddingModel cachingModel;
+
+    @BeforeEach
+    void setUp() {
+        cachingModel = new CachingEmbeddingModel(delegate, "test-model", 100, Duration.ofMinutes(5));
+        when(delegate.call(any(EmbeddingRequest.class))).thenAnswer(invocation -> {
+            EmbeddingRequest request = invocation.getArgument(0);
+            List<Embedding> embeddings = new ArrayList<>();
+            for (int i = 0; i < request.getInstructions().size(); i++) {
+                embeddings.add(new Embedding(new float[] {request.getInstructions().get(i).length()}, i));
+            }
+            return new EmbeddingResponse(embeddings);
+        });
+    }
+
+    @Test
+    void shouldServeRepeatedQueryFromCache() {
+        float[] first = cachingModel.embed("model-y 如何充电");
+        float[] second = cachingModel.embed("model-y 如何充电");
+
+        assertThat(second).containsExactly(first);
+        verify(delegate, times(1)).call(any(EmbeddingRequest.class));
+    }
+
+    @Test
+    void shouldBypassCacheForBatchRequests() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cachingModel.bindTo(registry);
+
+        List<float[]> vectors = cachingModel.embed(List.of("abc", "abcde"));
+        cachingModel.embed("abc");
+
+        assertThat(vectors).hasSize(2);
+        assertThat(vectors.get(0)).containsExactly(3f);
+        assertThat(vectors.get(1)).containsExactly(5f);
+        ArgumentCaptor<EmbeddingRequest> requestCaptor = ArgumentCaptor.forClass(EmbeddingRequest.class);
+        verify(delegate, times(2)).call(requestCaptor.capture());
+        assertThat(requestCaptor.getAllValues().get(0).getInstructions()).containsExactly("abc", "abcde");
+        assertThat(registry.get("cache.size").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldEmbedOnlyUncachedQueriesInOneBatch() {
+        cachingModel.embed("abc");
+
+        List<float[]> vectors = cachingModel.embedQueries(List.of("abc", "abcde", "ab"));
+        cachingModel.embed("abcde");
+
+        assertThat(vectors).hasSize(3);
+        assertThat(vectors.get(0)).containsExactly(3f);
+        assertThat(vectors.get(1)).containsExactly(5f);
+        assertThat(vectors.get(2)).containsExactly(2f);
+        ArgumentCaptor<EmbeddingRequest> requestCaptor = ArgumentCaptor.forClass(EmbeddingRequest.class);
+        verify(delegate, times(2)).call(requestCaptor.capture());
+        assertThat(requestCaptor.getAllValues().get(1).getInstructions()).containsExactly("abcde", "ab");
+    }
+
+    @Test
+    void shouldExposeHitAndMissMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cachingModel.bindTo(registry);
+
+        cachingModel.embed("faq");
+        cachingModel.embed("faq");
+
+        assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldReturnCopiesOfCachedVectors() {
+        float[] first = cachingModel.embed("copy");
+        first[0] = -1f;
+
+        assertThat(cachingModel.embed("copy")).containsExactly(4f);
+    }
+}
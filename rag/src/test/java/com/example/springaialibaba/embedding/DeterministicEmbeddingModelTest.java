@@ -0,0 +1,57 @@
+package com.example.springaialibaba.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.example.springaialibaba.core.math.VectorMath;
+import com.example.springaialibaba.core.model.DeterministicEmbeddingModel;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+class DeterministicEmbeddingModelTest {
+
+    @Test
+    void shouldProduceStableUnitVectorsWithConfiguredDimensions() {
+        DeterministicEmbeddingModel model = new DeterministicEmbeddingModel(4096, 1, 3, 64);
+
+        float[] first = model.embed("Model Y 如何安装家用充电桩");
+        float[] second = model.embed("Model Y 如何安装家用充电桩");
+
+        assertThat(model.dimensions()).isEqualTo(4096);
+        assertThat(first).hasSize(4096).containsExactly(second);
+        assertThat(VectorMath.norm(first)).isCloseTo(1.0f, within(1e-4f));
+        assertThat(model.embed("")).hasSize(4096).containsOnly(0.0f);
+    }
+
+    @Test
+    void shouldRankLexicallySimilarTextsCloser() {
+        DeterministicEmbeddingModel model = new DeterministicEmbeddingModel();
+
+        float[] query = model.embed("model y 怎么安装充电桩");
+        float[] similar = model.embed("Model Y 如何安装家用充电桩");
+        float[] unrelated = model.embed("退货流程需要提供发票");
+
+        assertThat(VectorMath.dot(query, similar)).isGreaterThan(VectorMath.dot(query, unrelated) + 0.2f);
+    }
+
+    @Test
+    void shouldReturnSameVectorsForParallelAndSequentialBatches() {
+        List<String> inputs = IntStream.range(0, 200).mapToObj(i -> "文档片段 chunk-" + i).toList();
+        DeterministicEmbeddingModel parallel = new DeterministicEmbeddingModel(1536, 1, 3, 16);
+        DeterministicEmbeddingModel sequential = new DeterministicEmbeddingModel(1536, 1, 3, Integer.MAX_VALUE);
+
+        EmbeddingResponse parallelResponse = parallel.call(new EmbeddingRequest(inputs, null));
+        EmbeddingResponse sequentialResponse = sequential.call(new EmbeddingRequest(inputs, null));
+
+        assertThat(parallelResponse.getResults()).hasSize(200);
+        assertThat(parallelResponse.getMetadata().getModel()).isEqualTo(DeterministicEmbeddingModel.MODEL_NAME);
+        for (int i = 0; i < inputs.size(); i++) {
+            assertThat(parallelResponse.getResults().get(i).getIndex()).isEqualTo(i);
+            assertThat(parallelResponse.getResults().get(i).getOutput())
+                    .containsExactly(sequentialResponse.getResults().get(i).getOutput());
+        }
+    }
+}
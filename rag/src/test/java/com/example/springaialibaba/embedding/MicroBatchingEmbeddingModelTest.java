@@ -0,0 +1,158 @@
+package com.example.springaialibaba.embedding;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.springaialibaba.core.model.DeterministicEmbeddingModel;
+import com.example.springaialibaba.core.model.MicroBatchingEmbeddingModel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+class MicroBatchingEmbeddingModelTest {
+
+    private final DeterministicEmbeddingModel localModel = new DeterministicEmbeddingModel(64, 1, 3, 64);
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    private MicroBatchingEmbeddingModel batching;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (batching != null) {
+            batching.destroy();
+        }
+    }
+
+    @Test
+    void shouldMergeConcurrentCallsAndReturnEachCallerItsOwnVector() {
+        batching = new MicroBatchingEmbeddingModel(recording(localModel), 8, Duration.ofMillis(50), 100, 2, Duration.ofSeconds(5));
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<float[]>> results = IntStream.range(0, 16)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return batching.embed("问题 " + i);
+                }, callers))
+                .toList();
+
+        start.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).join()).containsExactly(localModel.embed("问题 " + i));
+        }
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(16);
+        assertThat(batchSizes).allMatch(size -> size <= 8);
+        assertThat(batchSizes.size()).isLessThan(16);
+    }
+
+    @Test
+    void shouldPassLargeRequestsStraightThrough() {
+        batching = new MicroBatchingEmbeddingModel(recording(localModel), 4, Duration.ofSeconds(5), 100, 1, Duration.ofSeconds(5));
+        List<String> texts = List.of("a", "b", "c", "d", "e");
+
+        List<float[]> vectors = batching.embed(texts);
+
+        assertThat(vectors).hasSize(5);
+        assertThat(batchSizes).containsExactly(5);
+    }
+
+    @Test
+    void shouldPropagateDelegateFailureToEveryCallerInTheBatch() {
+        EmbeddingModel failing = new EmbeddingModel() {
+            @Override
+            public EmbeddingResponse call(EmbeddingRequest request) {
+                throw new IllegalStateException("嵌入服务限流");
+            }
+
+            @Override
+            public float[] embed(Document document) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        batching = new MicroBatchingEmbeddingModel(failing, 8, Duration.ofMillis(1), 100, 1, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> batching.embed("问题")).isInstanceOf(IllegalStateException.class)
+                .hasMessage("嵌入服务限流");
+    }
+
+    @Test
+    void shouldFailCallerWhenBatchDoesNotCompleteInTime() {
+        CountDownLatch release = new CountDownLatch(1);
+        EmbeddingModel stalled = new EmbeddingModel() {
+            @Override
+            public EmbeddingResponse call(EmbeddingRequest request) {
+                await(release);
+                return localModel.call(request);
+            }
+
+            @Override
+            public float[] embed(Document document) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        batching = new MicroBatchingEmbeddingModel(stalled, 8, Duration.ofMillis(1), 100, 1, Duration.ofMillis(50));
+
+        try {
+            assertThatThrownBy(() -> batching.embed("问题")).isInstanceOf(IllegalStateException.class)
+                    .hasMessage("等待嵌入结果超时");
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void shouldSendDirectlyAfterShutdown() {
+        batching = new MicroBatchingEmbeddingModel(recording(localModel), 8, Duration.ofSeconds(5), 100, 1,
+                Duration.ofSeconds(5));
+        batching.destroy();
+
+        assertThat(batching.embed("问题")).containsExactly(localModel.embed("问题"));
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    private EmbeddingModel recording(EmbeddingModel delegate) {
+        return new EmbeddingModel() {
+            @Override
+            public EmbeddingResponse call(EmbeddingRequest request) {
+                batchSizes.add(request.getInstructions().size());
+                return delegate.call(request);
+            }
+
+            @Override
+            public float[] embed(Document document) {
+                return delegate.embed(document);
+            }
+
+            @Override
+            public int dimensions() {
+                return delegate.dimensions();
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
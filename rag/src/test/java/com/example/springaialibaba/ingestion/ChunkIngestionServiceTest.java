@@ -0,0 +1,155 @@
+package com.example.springaialibaba.ingestion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.config.properties.IngestionProperties;
+import com.example.springaialibaba.core.ingestion.ChunkIngestionService;
+import com.example.springaialibaba.core.ingestion.ChunkJsonlReader;
+import com.example.springaialibaba.core.ingestion.ChunkRecord;
+import com.example.springaialibaba.core.ingestion.EmbeddedChunk;
+import com.example.springaialibaba.core.ingestion.IngestionReport;
+import com.example.springaialibaba.core.ingestion.RagChunkCopyWriter;
+import com.example.springaialibaba.core.math.SimHash;
+import com.example.springaialibaba.core.model.DeterministicEmbeddingModel;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ChunkIngestionServiceTest {
+
+    @TempDir
+    Path baseDir;
+
+    private IngestionProperties properties;
+
+    private RagChunkCopyWriter writer;
+
+    private final List<String> writtenChunkIds = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        properties.setBaseDir(baseDir.toString());
+        properties.setCheckpointFile(baseDir.resolve(".checkpoint.json").toString());
+        properties.setEmbedBatchSize(2);
+        properties.setEmbedConcurrency(1);
+        properties.setWriteBatchSize(2);
+        properties.setQueueCapacity(2);
+        writer = mock(RagChunkCopyWriter.class);
+    }
+
+    @Test
+    void shouldParseChunksAndSkipBlankLines() throws IOException {
+        Path file = baseDir.resolve("manual.jsonl");
+        Files.writeString(file, """
+                {"chunk_id":"c1","content":"第一段","metadata":{"page":1}}
+
+                {"document_id":"doc-9","chunk_id":"c2","content":"第二段"}
+                """, StandardCharsets.UTF_8);
+
+        try (ChunkJsonlReader reader = new ChunkJsonlReader(file)) {
+            ChunkRecord first = reader.next();
+            ChunkRecord second = reader.next();
+
+            assertThat(first.documentId()).isEqualTo("manual");
+            assertThat(first.metadata()).containsEntry("page", 1)
+                    .containsEntry(SimHash.METADATA_KEY, SimHash.toHex(SimHash.of("第一段")));
+            assertThat(second.documentId()).isEqualTo("doc-9");
+            assertThat(reader.lineNumber()).isEqualTo(3);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void shouldRejectLinesWithoutChunkId() throws IOException {
+        Path file = baseDir.resolve("broken.jsonl");
+        Files.writeString(file, "{\"content\":\"缺少 ID\"}\n", StandardCharsets.UTF_8);
+
+        try (ChunkJsonlReader reader = new ChunkJsonlReader(file)) {
+            assertThatThrownBy(reader::next).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("broken.jsonl:1");
+        }
+    }
+
+    @Test
+    void shouldEmbedAndWriteEveryChunkAcrossConcurrentWorkers() throws IOException {
+        properties.setEmbedConcurrency(4);
+        properties.setWriteBatchSize(5);
+        writeChunks("a.jsonl", 0, 23);
+        writeChunks("nested/b.jsonl", 100, 17);
+        when(writer.write(anyList())).thenAnswer(invocation -> record(invocation.getArgument(0)));
+
+        IngestionReport report = newService().ingest(baseDir, false);
+
+        assertThat(report.files()).isEqualTo(2);
+        assertThat(report.chunksRead()).isEqualTo(40);
+        assertThat(report.chunksWritten()).isEqualTo(40);
+        assertThat(writtenChunkIds).hasSize(40).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldResumeFromLastCommittedLineAfterWriteFailure() throws IOException {
+        writeChunks("a.jsonl", 0, 10);
+        AtomicInteger calls = new AtomicInteger();
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            if (calls.incrementAndGet() == 3) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            return record(invocation.getArgument(0));
+        });
+        ChunkIngestionService service = newService();
+
+        assertThatThrownBy(() -> service.ingest(baseDir, true)).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("数据库不可用");
+        assertThat(writtenChunkIds).containsExactly("chunk-0", "chunk-1", "chunk-2", "chunk-3");
+
+        writtenChunkIds.clear();
+        IngestionReport resumed = service.ingest(baseDir, true);
+
+        assertThat(resumed.linesSkipped()).isEqualTo(4);
+        assertThat(resumed.chunksWritten()).isEqualTo(6);
+        assertThat(writtenChunkIds).containsExactly("chunk-4", "chunk-5", "chunk-6", "chunk-7", "chunk-8",
+                "chunk-9");
+    }
+
+    @Test
+    void shouldRejectPathsOutsideBaseDir() {
+        assertThatThrownBy(() -> newService().submit("../outside", true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ChunkIngestionService newService() {
+        return new ChunkIngestionService(new DeterministicEmbeddingModel(64, 1, 3, 64), writer, properties);
+    }
+
+    private int record(List<EmbeddedChunk> rows) {
+        rows.forEach(row -> {
+            assertThat(row.embedding()).hasSize(64);
+            writtenChunkIds.add(row.chunk().chunkId());
+        });
+        return rows.size();
+    }
+
+    private void writeChunks(String relativePath, int offset, int count) throws IOException {
+        Path file = baseDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        String lines = IntStream.range(offset, offset + count)
+                .mapToObj(i -> "{\"chunk_id\":\"chunk-" + i + "\",\"content\":\"充电桩安装说明 第 " + i + " 段\"}")
+                .collect(Collectors.joining("\n", "", "\n"));
+        Files.writeString(file, lines, StandardCharsets.UTF_8);
+    }
+}
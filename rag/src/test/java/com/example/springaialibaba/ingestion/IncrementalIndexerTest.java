@@ -0,0 +1,185 @@
+package com.example.springaialibaba.ingestion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.config.properties.IngestionProperties;
+import com.example.springaialibaba.core.ingestion.ChunkDiff;
+import com.example.springaialibaba.core.ingestion.ChunkRecord;
+import com.example.springaialibaba.core.ingestion.ContentHash;
+import com.example.springaialibaba.core.ingestion.CorpusChangedEvent;
+import com.example.springaialibaba.core.ingestion.EmbeddedChunk;
+import com.example.springaialibaba.core.ingestion.IncrementalIndexer;
+import com.example.springaialibaba.core.ingestion.RagChunkCopyWriter;
+import com.example.springaialibaba.core.ingestion.ReindexReport;
+import com.example.springaialibaba.core.math.SimHash;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+class IncrementalIndexerTest {
+
+    @TempDir
+    Path baseDir;
+
+    private EmbeddingModel embeddingModel;
+
+    private RagChunkCopyWriter writer;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private IncrementalIndexer indexer;
+
+    private final List<String> embeddedTexts = new ArrayList<>();
+
+    private final List<String> writtenChunkIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        embeddingModel = mock(EmbeddingModel.class);
+        writer = mock(RagChunkCopyWriter.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            embeddedTexts.addAll(texts);
+            return texts.stream().map(text -> new float[] {1f, 0f}).toList();
+        });
+        when(writer.write(anyList())).thenAnswer(invocation -> {
+            List<EmbeddedChunk> rows = invocation.getArgument(0);
+            rows.forEach(row -> writtenChunkIds.add(row.chunk().chunkId()));
+            return rows.size();
+        });
+        IngestionProperties properties = new IngestionProperties();
+        properties.setBaseDir(baseDir.toString());
+        properties.setEmbedBatchSize(1);
+        indexer = new IncrementalIndexer(embeddingModel, writer, jdbcTemplate, properties, eventPublisher);
+    }
+
+    @Test
+    void shouldClassifyChunksByContentHashAndMetadata() {
+        Map<String, ChunkDiff.StoredChunk> stored = Map.of(
+                "c1", stored("c1", "doc", "保持不变", Map.of("page", 1)),
+                "c2", stored("c2", "doc", "旧内容", Map.of()),
+                "c3", stored("c3", "doc", "只改页码", Map.of("page", 3L)),
+                "c9", stored("c9", "doc", "已删除", Map.of()));
+        List<ChunkRecord> incoming = List.of(
+                chunk("c1", "保持不变", Map.of("page", 1L)),
+                chunk("c2", "新内容", Map.of()),
+                chunk("c3", "只改页码", Map.of("page", 4)),
+                chunk("c4", "新增分块", Map.of()));
+
+        ChunkDiff diff = ChunkDiff.compute(incoming, stored);
+
+        assertThat(diff.added()).extracting(ChunkRecord::chunkId).containsExactly("c4");
+        assertThat(diff.changed()).extracting(ChunkRecord::chunkId).containsExactly("c2");
+        assertThat(diff.metadataChanged()).extracting(ChunkRecord::chunkId).containsExactly("c3");
+        assertThat(diff.orphaned()).containsExactly("c9");
+        assertThat(diff.unchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIgnoreSimHashWhenComparingMetadata() {
+        Map<String, ChunkDiff.StoredChunk> stored = Map.of(
+                "c1", stored("c1", "doc", "入库早于指纹", Map.of("page", 1)),
+                "c2", stored("c2", "doc", "指纹已写入", Map.of(SimHash.METADATA_KEY, "00000000000000ff")));
+        List<ChunkRecord> incoming = List.of(
+                chunk("c1", "入库早于指纹", Map.of("page", 1, SimHash.METADATA_KEY, "0123456789abcdef")),
+                chunk("c2", "指纹已写入", Map.of(SimHash.METADATA_KEY, "0123456789abcdef")));
+
+        ChunkDiff diff = ChunkDiff.compute(incoming, stored);
+
+        assertThat(diff.metadataChanged()).isEmpty();
+        assertThat(diff.unchanged()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldEmbedOnlyChangedChunksAndPublishChangeSet() throws Exception {
+        Files.writeString(baseDir.resolve("doc.jsonl"), """
+                {"chunk_id":"c1","content":"保持不变"}
+                {"chunk_id":"c2","content":"新内容"}
+                {"chunk_id":"c4","content":"新增分块"}
+                """, StandardCharsets.UTF_8);
+        stubStoredChunks(stored("c1", "doc", "保持不变", Map.of()), stored("c2", "doc", "旧内容", Map.of()),
+                stored("c9", "doc", "已删除", Map.of()));
+
+        ReindexReport report = indexer.reindex("doc.jsonl");
+
+        assertThat(report.added()).isEqualTo(1);
+        assertThat(report.changed()).isEqualTo(1);
+        assertThat(report.unchanged()).isEqualTo(1);
+        assertThat(report.deleted()).isEqualTo(1);
+        assertThat(embeddedTexts).containsExactly("新增分块", "新内容");
+        assertThat(writtenChunkIds).containsExactly("c4", "c2");
+        verify(jdbcTemplate).update(eq("DELETE FROM rag_chunks WHERE chunk_id = ANY(?)"),
+                any(PreparedStatementSetter.class));
+
+        ArgumentCaptor<CorpusChangedEvent> event = ArgumentCaptor.forClass(CorpusChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().documentIds()).containsExactly("doc");
+        assertThat(event.getValue().upsertedChunkIds()).containsExactlyInAnyOrder("c2", "c4");
+        assertThat(event.getValue().deletedChunkIds()).containsExactly("c9");
+    }
+
+    @Test
+    void shouldSkipEmbeddingAndEventsWhenNothingChanged() throws IOException {
+        Files.writeString(baseDir.resolve("doc.jsonl"), "{\"chunk_id\":\"c1\",\"content\":\"保持不变\"}\n",
+                StandardCharsets.UTF_8);
+        stubStoredChunks(stored("c1", "doc", "保持不变", Map.of()));
+
+        ReindexReport report = indexer.reindex(null);
+
+        assertThat(report.unchanged()).isEqualTo(1);
+        verify(embeddingModel, never()).embed(anyList());
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private void stubStoredChunks(ChunkDiff.StoredChunk... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (ChunkDiff.StoredChunk row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(1)).thenReturn(row.chunkId());
+                when(rs.getString(2)).thenReturn(row.documentId());
+                when(rs.getString(3)).thenReturn(row.contentHash());
+                when(rs.getString(4)).thenReturn("{}");
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+    }
+
+    private static ChunkDiff.StoredChunk stored(String chunkId, String documentId, String content,
+            Map<String, Object> metadata) {
+        return new ChunkDiff.StoredChunk(chunkId, documentId, ContentHash.of(content), metadata);
+    }
+
+    private static ChunkRecord chunk(String chunkId, String content, Map<String, Object> metadata) {
+        return new ChunkRecord("doc", chunkId, content, metadata);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.springaialibaba.math;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import com.example.springaialibaba.core.math.VectorMath;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class VectorMathTest {
+
+    /**
+     * 覆盖小于、等于、跨越向量宽度的长度，确保主循环与尾部处理一致。
+     */
+    private static final int[] LENGTHS = {0, 1, 3, 7, 8, 15, 16, 17, 31, 33, 63, 65, 1536, 4099};
+
+    private final Random random = new Random(11);
+
+    @Test
+    void shouldMatchDoublePrecisionReference() {
+        for (int length : LENGTHS) {
+            float[] left = randomVector(length);
+            float[] right = randomVector(length);
+            double dot = 0;
+            double l2 = 0;
+            double leftNorm = 0;
+            double rightNorm = 0;
+            for (int i = 0; i < length; i++) {
+                dot += left[i] * right[i];
+                l2 += (left[i] - right[i]) * (left[i] - right[i]);
+                leftNorm += left[i] * left[i];
+                rightNorm += right[i] * right[i];
+            }
+            double cosine = length == 0 ? 0 : dot / Math.sqrt(leftNorm * rightNorm);
+
+            assertThat((double) VectorMath.dot(left, right)).as("dot length=%d", length).isCloseTo(dot, within(1e-2));
+            assertThat((double) VectorMath.l2Squared(left, right)).as("l2 length=%d", length).isCloseTo(l2, within(1e-1));
+            assertThat((double) VectorMath.cosine(left, right)).as("cosine length=%d", length)
+                    .isCloseTo(cosine, within(1e-4));
+        }
+    }
+
+    @Test
+    void shouldNormaliseAndKeepZeroVectorUnchanged() {
+        float[] vector = randomVector(1536);
+        float[] unit = VectorMath.normalize(vector);
+
+        assertThat(VectorMath.norm(unit)).isCloseTo(1.0f, within(1e-4f));
+        assertThat(VectorMath.cosine(unit, vector)).isCloseTo(1.0f, within(1e-4f));
+
+        float[] zero = new float[16];
+        assertThat(VectorMath.normalizeInPlace(zero)).isZero();
+        assertThat(zero).containsOnly(0.0f);
+        assertThat(VectorMath.cosine(zero, randomVector(16))).isZero();
+    }
+
+    @Test
+    void shouldSelectTopKRowsInDescendingOrder() {
+        int dimensions = 64;
+        int rows = 500;
+        float[] matrix = randomVector(dimensions * rows);
+        float[] query = randomVector(dimensions);
+        float[] scores = new float[rows];
+        VectorMath.dotBatch(query, matrix, rows, scores);
+
+        VectorMath.TopK topK = VectorMath.topK(query, matrix, rows, 10);
+
+        int[] expected = IntStream.range(0, rows)
+                .boxed()
+                .sorted(Comparator.comparingDouble(row -> -scores[row]))
+                .limit(10)
+                .mapToInt(Integer::intValue)
+                .toArray();
+        assertThat(topK.indices()).containsExactly(expected);
+        for (int i = 0; i < topK.size(); i++) {
+            assertThat(topK.scores()[i]).isEqualTo(scores[topK.indices()[i]]);
+        }
+        assertThat(VectorMath.topK(query, matrix, 3, 10).size()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRejectMismatchedDimensions() {
+        assertThatThrownBy(() -> VectorMath.dot(new float[3], new float[4]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private float[] randomVector(int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.springaialibaba.preprocessor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.springaialibaba.core.preprocessor.QueryNormalizer;
+import org.junit.jupiter.api.Test;
+
+class QueryNormalizerTest {
+
+    @Test
+    void shouldNormalizeAliasesLikeQueries() {
+        QueryNormalizer normalizer = QueryNormalizer.compile(Map.of("  Model   Y@ ", "model-y"));
+
+        assertThat(normalizer.size()).isEqualTo(1);
+        assertThat(normalizer.normalize("MODEL\tY 多少钱")).isEqualTo("model-y 多少钱");
+    }
+
+    @Test
+    void shouldPreferLeftmostLongestAlias() {
+        Map<String, String> dictionary = new LinkedHashMap<>();
+        dictionary.put("model y", "model-y");
+        dictionary.put("model y pro", "model-y-pro");
+        dictionary.put("特斯拉", "tesla");
+        dictionary.put("斯拉", "x");
+        QueryNormalizer normalizer = QueryNormalizer.compile(dictionary);
+
+        assertThat(normalizer.normalize("特斯拉 Model Y Pro 和 model y")).isEqualTo("tesla model-y-pro 和 model-y");
+    }
+
+    @Test
+    void shouldNotRewriteReplacementsAgain() {
+        Map<String, String> dictionary = new LinkedHashMap<>();
+        dictionary.put("a", "b");
+        dictionary.put("b", "c");
+        QueryNormalizer normalizer = QueryNormalizer.compile(dictionary);
+
+        assertThat(normalizer.normalize("a b")).isEqualTo("b c");
+    }
+
+    @Test
+    void shouldOnlyMatchAsciiAliasesOnWordBoundaries() {
+        QueryNormalizer normalizer = QueryNormalizer.compile(Map.of("ev", "电动车", "he", "HE"));
+
+        assertThat(normalizer.normalize("EV 与 every")).isEqualTo("电动车 与 every");
+        assertThat(normalizer.normalize("she he")).isEqualTo("she HE");
+    }
+
+    @Test
+    void shouldKeepSupplementaryHanCharactersAndDropEmoji() {
+        QueryNormalizer normalizer = QueryNormalizer.compile(Map.of("𠀀", "x"));
+
+        assertThat(normalizer.normalize("🙂 𠀀 🙂")).isEqualTo("x");
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.springaialibaba.preprocessor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
 import com.example.springaialibaba.core.preprocessor.QueryPreprocessor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
 
 class QueryPreprocessorTest {
 
@@ -48,4 +56,39 @@ class QueryPreprocessorTest {
 
         assertThat(processed).isEqualTo("tell me about the model-y features");
     }
+
+    @Test
+    void shouldLoadDictionaryFromConfiguredLocation() {
+        QueryPreprocessor preprocessor = new QueryPreprocessor(new DefaultResourceLoader(),
+                "classpath:dictionaries/query-terms.txt");
+
+        assertThat(preprocessor.dictionarySize()).isPositive();
+        assertThat(preprocessor.process("Tell me about the MODEL Y features"))
+                .isEqualTo("tell me about the model-y features");
+    }
+
+    @Test
+    void shouldReloadDictionaryWhenFileChanges(@TempDir Path tempDir) throws Exception {
+        Path dictionary = tempDir.resolve("terms.txt");
+        Files.writeString(dictionary, "# 注释\nmodel y=model-y\n无效行\n", StandardCharsets.UTF_8);
+        QueryPreprocessor preprocessor = new QueryPreprocessor(new DefaultResourceLoader(),
+                dictionary.toUri().toString());
+        assertThat(preprocessor.dictionarySize()).isEqualTo(1);
+
+        Files.writeString(dictionary, "model y=model-y\n毛豆y=model-y\n", StandardCharsets.UTF_8);
+        FileTime modified = Files.getLastModifiedTime(dictionary);
+        Files.setLastModifiedTime(dictionary, FileTime.fromMillis(modified.toMillis() + 5000));
+        preprocessor.reloadIfChanged();
+
+        assertThat(preprocessor.dictionarySize()).isEqualTo(2);
+        assertThat(preprocessor.process("毛豆Y 续航")).isEqualTo("model-y 续航");
+    }
+
+    @Test
+    void shouldFailFastWhenDictionaryIsMissing(@TempDir Path tempDir) {
+        String location = tempDir.resolve("missing.txt").toUri().toString();
+
+        assertThatThrownBy(() -> new QueryPreprocessor(new DefaultResourceLoader(), location))
+                .isInstanceOf(IllegalStateException.class);
+    }
 }
@@ -2,12 +2,17 @@ package com.example.springaialibaba.prompt;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.List;
 
 import com.example.springaialibaba.config.properties.PromptProperties;
 import com.example.springaialibaba.core.prompt.DynamicPromptBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.document.Document;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -84,4 +89,39 @@ class DynamicPromptBuilderTest {
         assertThat(prompt.getContents()).contains("上下");
         assertThat(prompt.getContents()).contains("默认角色");
     }
+
+    @Test
+    void testToneResolvedByChannel() {
+        PromptProperties toneProperties = new PromptProperties();
+        toneProperties.setTemplate("[{channel}] {tone} {unknown}");
+        toneProperties.getTones().put("SMS", "简短");
+        DynamicPromptBuilder toneBuilder = new DynamicPromptBuilder(toneProperties, resourceLoader);
+
+        assertThat(toneBuilder.build("q", List.of(), "p", "SMS").getContents()).isEqualTo("[SMS] 简短 {unknown}");
+        assertThat(toneBuilder.build("q", List.of(), "p", "生活闲聊").getContents())
+                .isEqualTo("[生活闲聊] 轻松活泼，可以使用适量的表情符号和口语化的语气助词 {unknown}");
+        assertThat(toneBuilder.build("q", List.of(), "p", "Web").getContents())
+                .startsWith("[Web] 保持礼貌但不过度热情");
+    }
+
+    @Test
+    void testTemplatesRegisteredByPersonaAndChannel(@TempDir Path templatesDir) throws Exception {
+        Path channelTemplate = templatesDir.resolve("sms.txt");
+        Files.writeString(channelTemplate, "channel: SMS\n---\nSMS:{question}", StandardCharsets.UTF_8);
+        Files.writeString(templatesDir.resolve("expert-sms.txt"),
+                "persona: Expert\nchannel: SMS\n---\nEXPERT:{question}", StandardCharsets.UTF_8);
+        properties.setTemplatesLocation(templatesDir.toUri() + "*.txt");
+        DynamicPromptBuilder registryBuilder = new DynamicPromptBuilder(properties, resourceLoader);
+
+        assertThat(registryBuilder.build("q", List.of(), "Expert", "SMS").getContents()).isEqualTo("EXPERT:q");
+        assertThat(registryBuilder.build("q", List.of(), "Guru", "SMS").getContents()).isEqualTo("SMS:q");
+        assertThat(registryBuilder.build("q", List.of(), "Guru", "Web").getContents()).startsWith("Persona: Guru");
+
+        Files.writeString(channelTemplate, "channel: SMS\n---\nSMS v2:{question}", StandardCharsets.UTF_8);
+        FileTime modified = Files.getLastModifiedTime(channelTemplate);
+        Files.setLastModifiedTime(channelTemplate, FileTime.fromMillis(modified.toMillis() + 5000));
+        registryBuilder.reloadIfChanged();
+
+        assertThat(registryBuilder.build("q", List.of(), "Guru", "SMS").getContents()).isEqualTo("SMS v2:q");
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.springaialibaba.rag.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springaialibaba.core.rag.context.ContextPacker;
+import com.example.springaialibaba.core.rag.context.TokenEstimator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class ContextPackerTest {
+
+    private final TokenEstimator estimator = new TokenEstimator(1.0d, 0.25d);
+
+    @Test
+    void shouldEstimateHanAndAsciiSeparately() {
+        assertThat(estimator.estimate("充电桩")).isEqualTo(3);
+        assertThat(estimator.estimate("abcd efgh")).isEqualTo(2);
+        assertThat(estimator.estimate(null)).isZero();
+    }
+
+    @Test
+    void shouldKeepOnlyConfiguredMetadata() {
+        ContextPacker packer = new ContextPacker(estimator, 1000, 1, List.of("title"));
+        Document document = Document.builder()
+                .text("内容")
+                .metadata(Map.of("title", "手册", "distance", 0.12d))
+                .build();
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(document));
+
+        assertThat(packed.text()).isEqualTo("[1] title: 手册\n内容");
+        assertThat(packed.documents()).isEqualTo(1);
+        assertThat(packed.truncated()).isFalse();
+    }
+
+    @Test
+    void shouldTrimTailDocumentAtSentenceBoundaryWithinBudget() {
+        ContextPacker packer = new ContextPacker(estimator, 12, 2, List.of());
+        List<Document> documents = List.of(
+                new Document("第一篇内容"),
+                new Document("第二句。第三句。第四句很长很长。"),
+                new Document("第三篇"));
+
+        ContextPacker.PackedContext packed = packer.pack(documents);
+
+        assertThat(packed.text()).isEqualTo("[1] 第一篇内容\n\n[2] 第二句。");
+        assertThat(packed.documents()).isEqualTo(2);
+        assertThat(packed.tokens()).isLessThanOrEqualTo(12);
+        assertThat(packed.truncated()).isTrue();
+    }
+
+    @Test
+    void shouldHardCutSingleOversizedDocumentWithoutSentenceBoundary() {
+        ContextPacker packer = new ContextPacker(estimator, 10, 2, List.of());
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(new Document("一二三四五六七八九十一二三四五六")));
+
+        assertThat(packed.text()).isEqualTo("[1] 一二三四五六七八九");
+        assertThat(packed.documents()).isEqualTo(1);
+        assertThat(packed.tokens()).isLessThanOrEqualTo(10);
+        assertThat(packed.truncated()).isTrue();
+    }
+
+    @Test
+    void shouldDropTailDocumentWhenRemainingBudgetIsTooSmall() {
+        ContextPacker packer = new ContextPacker(estimator, 8, 4, List.of());
+
+        ContextPacker.PackedContext packed = packer.pack(List.of(new Document("第一篇内容"), new Document("第二篇。")));
+
+        assertThat(packed.text()).isEqualTo("[1] 第一篇内容");
+        assertThat(packed.documents()).isEqualTo(1);
+        assertThat(packed.truncated()).isTrue();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springaialibaba.rag.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.springaialibaba.config.properties.ScopeProperties;
+import com.example.springaialibaba.core.rag.metrics.RagPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.ai.rag.retrieval.search.DocumentRetriever;
+
+class RagPipelineMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final RagPipelineMetrics metrics = new RagPipelineMetrics(registry, new ScopeProperties());
+
+    private final Query query = Query.builder()
+            .text("充电桩")
+            .context(Map.of("persona", "客服人员", "channel", "售后服务"))
+            .build();
+
+    @Test
+    void shouldTimeStageAndRecordCandidateCountWithPersonaAndChannelTags() {
+        DocumentRetriever retriever = metrics.retriever(q -> List.of(new Document("a"), new Document("b")));
+
+        retriever.retrieve(query);
+
+        assertThat(registry.get(RagPipelineMetrics.STAGE_TIMER)
+                .tags("stage", "retrieve", "outcome", "success", "persona", "客服人员", "channel", "售后服务")
+                .timer()
+                .count()).isEqualTo(1);
+        assertThat(registry.get(RagPipelineMetrics.DOCUMENTS_SUMMARY)
+                .tags("stage", "retrieve", "persona", "客服人员")
+                .summary()
+                .totalAmount()).isEqualTo(2.0d);
+    }
+
+    @Test
+    void shouldTagFailedStageAsError() {
+        DocumentRetriever retriever = metrics.retriever(q -> {
+            throw new IllegalStateException("pgvector 不可用");
+        });
+
+        assertThatThrownBy(() -> retriever.retrieve(query)).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registry.get(RagPipelineMetrics.STAGE_TIMER)
+                .tags("stage", "retrieve", "outcome", "error")
+                .timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagValuesOutsideWhitelistAsOther() {
+        Query unlisted = Query.builder()
+                .text("充电桩")
+                .context(Map.of("persona", "任意角色-42", "channel", "app"))
+                .build();
+
+        metrics.recordRerankFallback(unlisted, "timeout");
+
+        assertThat(registry.get(RagPipelineMetrics.RERANK_FALLBACK_COUNTER)
+                .tags("reason", "timeout", "persona", "other", "channel", "other")
+                .counter()
+                .count()).isEqualTo(1.0d);
+    }
+
+    @Test
+    void shouldFallBackToUnknownTagsWhenContextMissing() {
+        metrics.recordRerankFallback(new Query("充电桩"), "timeout");
+
+        assertThat(registry.get(RagPipelineMetrics.RERANK_FALLBACK_COUNTER)
+                .tags("reason", "timeout", "persona", "unknown", "channel", "unknown")
+                .counter()
+                .count()).isEqualTo(1.0d);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.springaialibaba.rag.modules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springaialibaba.core.rag.modules.CustomDocumentJoiner;
+import com.example.springaialibaba.core.rag.modules.HybridDocumentRetriever;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+
+class CustomDocumentJoinerTest {
+
+    private final CustomDocumentJoiner joiner = new CustomDocumentJoiner(60);
+
+    @Test
+    void shouldFuseDenseAndSparseListsWithReciprocalRank() {
+        List<Document> batch = List.of(
+                tagged("a", HybridDocumentRetriever.DENSE_SOURCE, 1),
+                tagged("b", HybridDocumentRetriever.DENSE_SOURCE, 2),
+                tagged("c", HybridDocumentRetriever.SPARSE_SOURCE, 1),
+                tagged("b", HybridDocumentRetriever.SPARSE_SOURCE, 2));
+
+        List<Document> joined = joiner.join(Map.of(Query.builder().text("q").build(), List.of(batch)));
+
+        assertThat(joined).extracting(Document::getId).containsExactly("b", "a", "c");
+        assertThat((Double) joined.get(0).getMetadata().get(CustomDocumentJoiner.FUSION_SCORE_METADATA_KEY))
+                .isEqualTo(1.0 / 62 + 1.0 / 62);
+    }
+
+    @Test
+    void shouldFallBackToBatchPositionWhenRankMetadataMissing() {
+        Map<Query, List<List<Document>>> input = new LinkedHashMap<>();
+        input.put(Query.builder().text("q1").build(), List.of(List.of(doc("x"), doc("y"))));
+        input.put(Query.builder().text("q2").build(), List.of(List.of(doc("y"), doc("z"))));
+
+        List<Document> joined = joiner.join(input);
+
+        assertThat(joined).extracting(Document::getId).containsExactly("y", "x", "z");
+    }
+
+    private Document doc(String id) {
+        return Document.builder().id(id).text("text-" + id).build();
+    }
+
+    private Document tagged(String id, String source, int rank) {
+        return Document.builder()
+                .id(id)
+                .text("text-" + id)
+                .metadata(Map.of(HybridDocumentRetriever.SOURCE_METADATA_KEY, source,
+                        HybridDocumentRetriever.RANK_METADATA_KEY, rank))
+                .build();
+    }
+}
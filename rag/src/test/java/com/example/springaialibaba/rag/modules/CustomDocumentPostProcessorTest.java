@@ -11,6 +11,7 @@ import com.example.springaialibaba.core.rag.modules.CustomDocumentPostProcessor;
 import com.example.springaialibaba.model.entity.RerankedDocument;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -40,11 +41,11 @@ class CustomDocumentPostProcessorTest {
                 Document.builder().id("0").text("doc-0").metadata(Map.of("score", 0.1)).build(),
                 Document.builder().id("1").text("doc-1").metadata(Map.of("score", 0.2)).build(),
                 Document.builder().id("2").text("doc-2").metadata(Map.of("score", 0.3)).build());
-        when(rerankClient.rerank(eq("how to install"), anyList()))
-                .thenReturn(List.of(
+        when(rerankClient.rerankAsync(eq("how to install"), anyList()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(
                         new RerankedDocument(2, "doc-2", 0.95),
                         new RerankedDocument(0, "doc-0", 0.88),
-                        new RerankedDocument(1, "doc-1", 0.76)));
+                        new RerankedDocument(1, "doc-1", 0.76))));
 
         List<Document> result = postProcessor.process(query, documents);
 
@@ -56,7 +57,7 @@ class CustomDocumentPostProcessorTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<String>> contentCaptor = ArgumentCaptor.forClass(List.class);
-        verify(rerankClient).rerank(eq("how to install"), contentCaptor.capture());
+        verify(rerankClient).rerankAsync(eq("how to install"), contentCaptor.capture());
         assertThat(contentCaptor.getValue()).containsExactly("doc-0", "doc-1", "doc-2");
     }
 
@@ -67,7 +68,8 @@ class CustomDocumentPostProcessorTest {
                 Document.builder().id("0").text("doc-0").build(),
                 Document.builder().id("1").text("doc-1").build(),
                 Document.builder().id("2").text("doc-2").build());
-        when(rerankClient.rerank(eq("fallback"), anyList())).thenThrow(new RuntimeException("rerank failed"));
+        when(rerankClient.rerankAsync(eq("fallback"), anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("rerank failed")));
 
         List<Document> result = postProcessor.process(query, documents);
 
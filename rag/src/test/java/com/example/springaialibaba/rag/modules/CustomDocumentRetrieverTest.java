@@ -2,10 +2,14 @@ package com.example.springaialibaba.rag.modules;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.springaialibaba.core.rag.modules.CustomDocumentRetriever;
+import com.example.springaialibaba.core.vectorstore.QueryVectorSearch;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
@@ -82,4 +86,34 @@ class CustomDocumentRetrieverTest {
         SearchRequest request = requestCaptor.getValue();
         assertThat(request.getSimilarityThreshold()).isEqualTo(0.7);
     }
+
+    @Test
+    void shouldSearchByPrecomputedVectorWhenAvailable() {
+        QueryVectorSearch vectorSearch = mock(QueryVectorSearch.class);
+        CustomDocumentRetriever vectorRetriever = new CustomDocumentRetriever(vectorStore, vectorSearch, 20, 0.7);
+        float[] queryVector = {0.6f, 0.8f};
+        Query query = Query.builder()
+                .text("charge ev")
+                .context(Map.of("topK", 3, CustomDocumentRetriever.QUERY_EMBEDDING, queryVector))
+                .build();
+        when(vectorSearch.similaritySearch(queryVector, 3, 0.7, null)).thenReturn(List.of(new Document("doc")));
+
+        List<Document> result = vectorRetriever.retrieve(query);
+
+        assertThat(result).hasSize(1);
+        verify(vectorSearch).similaritySearch(any(float[].class), any(Integer.class), any(Double.class), isNull());
+        verify(vectorStore, never()).similaritySearch(any(SearchRequest.class));
+    }
+
+    @Test
+    void shouldSearchByTextWhenVectorMissing() {
+        QueryVectorSearch vectorSearch = mock(QueryVectorSearch.class);
+        CustomDocumentRetriever vectorRetriever = new CustomDocumentRetriever(vectorStore, vectorSearch, 20, 0.7);
+        when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(new Document("doc")));
+
+        List<Document> result = vectorRetriever.retrieve(Query.builder().text("question").build());
+
+        assertThat(result).hasSize(1);
+        verify(vectorSearch, never()).similaritySearch(any(), any(Integer.class), any(Double.class), any());
+    }
 }
@@ -0,0 +1,78 @@
+package com.example.springaialibaba.rag.modules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.core.rag.modules.CustomDocumentRetriever;
+import com.example.springaialibaba.core.rag.modules.CustomQueryExpander;
+import com.example.springaialibaba.core.rag.modules.DeadlineDocumentRetriever;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.rag.Query;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+class CustomQueryExpanderTest {
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+
+    private final AsyncTaskExecutor directExecutor = new TaskExecutorAdapter(Runnable::run);
+
+    @Test
+    void shouldEmbedAllSubQueriesInOneBatch() {
+        float[] original = {1f, 0f};
+        float[] enriched = {0f, 1f};
+        when(embeddingModel.embed(List.of("充电桩", "请详细说明：充电桩"))).thenReturn(List.of(original, enriched));
+
+        List<Query> expanded = new CustomQueryExpander(embeddingModel, directExecutor, 1500).expand(new Query("充电桩"));
+
+        assertThat(expanded).hasSize(2);
+        assertThat(expanded.get(0).context())
+                .containsEntry(CustomDocumentRetriever.QUERY_EMBEDDING, original)
+                .containsKey(DeadlineDocumentRetriever.FAN_OUT_STARTED_AT);
+        assertThat(expanded.get(1).context()).containsEntry(CustomDocumentRetriever.QUERY_EMBEDDING, enriched);
+        verify(embeddingModel, times(1)).embed(anyList());
+    }
+
+    @Test
+    void shouldExpandWithoutVectorsWhenEmbeddingFails() {
+        when(embeddingModel.embed(anyList())).thenThrow(new IllegalStateException("服务不可用"));
+
+        List<Query> expanded = new CustomQueryExpander(embeddingModel, directExecutor, 1500).expand(new Query("充电桩"));
+
+        assertThat(expanded).hasSize(2)
+                .allSatisfy(query -> assertThat(query.context())
+                        .doesNotContainKey(CustomDocumentRetriever.QUERY_EMBEDDING)
+                        .containsKey(DeadlineDocumentRetriever.FAN_OUT_STARTED_AT));
+    }
+
+    @Test
+    void shouldExpandWithoutVectorsWhenEmbeddingMissesDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(new float[] {1f}, new float[] {1f});
+        });
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            List<Query> expanded = new CustomQueryExpander(embeddingModel, new TaskExecutorAdapter(worker), 50)
+                    .expand(new Query("充电桩"));
+
+            assertThat(expanded).hasSize(2)
+                    .allSatisfy(query -> assertThat(query.context())
+                            .doesNotContainKey(CustomDocumentRetriever.QUERY_EMBEDDING));
+        }
+        finally {
+            release.countDown();
+            worker.shutdownNow();
+        }
+    }
+}
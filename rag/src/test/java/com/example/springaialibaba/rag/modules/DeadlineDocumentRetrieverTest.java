@@ -0,0 +1,93 @@
+package com.example.springaialibaba.rag.modules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springaialibaba.core.rag.modules.DeadlineDocumentRetriever;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+class DeadlineDocumentRetrieverTest {
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(0);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void shouldReturnDelegateResultsWithinDeadline() {
+        List<Document> documents = List.of(new Document("doc"));
+        DeadlineDocumentRetriever retriever = new DeadlineDocumentRetriever(query -> documents, executor, 500);
+
+        List<Document> result = retriever.retrieve(Query.builder().text("question").build());
+
+        assertThat(result).containsExactlyElementsOf(documents);
+    }
+
+    @Test
+    void shouldDropSubQueryThatExceedsDeadline() {
+        DeadlineDocumentRetriever retriever = new DeadlineDocumentRetriever(query -> {
+            try {
+                Thread.sleep(2_000);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(new Document("late"));
+        }, executor, 100);
+
+        long startedAt = System.nanoTime();
+        List<Document> result = retriever.retrieve(Query.builder().text("slow").build());
+
+        assertThat(result).isEmpty();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt)).isLessThan(1_000);
+    }
+
+    @Test
+    void shouldSkipDelegateWhenSharedBudgetAlreadySpent() {
+        AtomicInteger calls = new AtomicInteger();
+        DeadlineDocumentRetriever retriever = new DeadlineDocumentRetriever(query -> {
+            calls.incrementAndGet();
+            return List.of(new Document("doc"));
+        }, executor, 100);
+        long startedLongAgo = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        Query query = Query.builder()
+                .text("question")
+                .context(Map.of(DeadlineDocumentRetriever.FAN_OUT_STARTED_AT, startedLongAgo))
+                .build();
+
+        List<Document> result = retriever.retrieve(query);
+
+        assertThat(result).isEmpty();
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void shouldReturnEmptyWhenDelegateFails() {
+        DeadlineDocumentRetriever retriever = new DeadlineDocumentRetriever(query -> {
+            throw new IllegalStateException("vector store down");
+        }, executor, 500);
+
+        List<Document> result = retriever.retrieve(Query.builder().text("question").build());
+
+        assertThat(result).isEmpty();
+    }
+}
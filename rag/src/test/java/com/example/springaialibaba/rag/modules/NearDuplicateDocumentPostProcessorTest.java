@@ -0,0 +1,74 @@
+package com.example.springaialibaba.rag.modules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springaialibaba.core.math.SimHash;
+import com.example.springaialibaba.core.rag.modules.CustomDocumentJoiner;
+import com.example.springaialibaba.core.rag.modules.NearDuplicateDocumentPostProcessor;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.rag.Query;
+
+class NearDuplicateDocumentPostProcessorTest {
+
+    private static final String FAQ = "充电桩离线时，请先检查供电是否正常，再确认网络连接。如果指示灯为红色，请重启设备并等待三分钟。"
+            + "仍无法恢复请联系售后服务热线，工程师会在二十四小时内上门处理。";
+
+    private final NearDuplicateDocumentPostProcessor processor = new NearDuplicateDocumentPostProcessor();
+
+    private final Query query = Query.builder().text("充电桩离线").build();
+
+    @Test
+    void shouldCollapseNearDuplicatesKeepingBestScoringRepresentative() {
+        List<Document> documents = List.of(
+                scored("a", FAQ, 0.02d),
+                scored("b", "车辆无法解锁时，请检查手机蓝牙是否开启，并确认数字钥匙已激活。若问题依旧，请使用实体卡片解锁。", 0.018d),
+                scored("c", "您好！" + FAQ, 0.03d));
+
+        List<Document> processed = processor.process(query, documents);
+
+        assertThat(processed).extracting(Document::getId).containsExactly("c", "b");
+    }
+
+    @Test
+    void shouldPreferFingerprintStoredAtIngestion() {
+        Document first = Document.builder().id("x").text("完全不同的第一段内容")
+                .metadata(Map.of(SimHash.METADATA_KEY, SimHash.toHex(42L)))
+                .build();
+        Document second = Document.builder().id("y").text("另一段毫不相关的文字")
+                .metadata(Map.of(SimHash.METADATA_KEY, SimHash.toHex(43L)))
+                .build();
+
+        assertThat(processor.process(query, List.of(first, second))).extracting(Document::getId).containsExactly("x");
+    }
+
+    @Test
+    void shouldCompareLaterDocumentsAgainstReplacedRepresentative() {
+        NearDuplicateDocumentPostProcessor strict = new NearDuplicateDocumentPostProcessor(3);
+        List<Document> documents = List.of(
+                fingerprinted("a", 0b0000L, 0.01d),
+                fingerprinted("b", 0b0111L, 0.02d),
+                fingerprinted("c", 0b1111L, 0.015d));
+
+        assertThat(strict.process(query, documents)).extracting(Document::getId).containsExactly("b");
+    }
+
+    @Test
+    void shouldKeepDistinctDocumentsInOrder() {
+        List<Document> documents = List.of(new Document("d1", FAQ, Map.of()),
+                new Document("d2", "Model Y 的续航里程取决于驾驶习惯与气温。", Map.of()));
+
+        assertThat(processor.process(query, documents)).extracting(Document::getId).containsExactly("d1", "d2");
+    }
+
+    private static Document fingerprinted(String id, long fingerprint, double fusionScore) {
+        return new Document(id, "内容 " + id, Map.of(SimHash.METADATA_KEY, SimHash.toHex(fingerprint),
+                CustomDocumentJoiner.FUSION_SCORE_METADATA_KEY, fusionScore));
+    }
+
+    private static Document scored(String id, String text, double fusionScore) {
+        return new Document(id, text, Map.of(CustomDocumentJoiner.FUSION_SCORE_METADATA_KEY, fusionScore));
+    }
+}
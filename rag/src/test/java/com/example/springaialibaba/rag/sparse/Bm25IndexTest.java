@@ -0,0 +1,50 @@
+package com.example.springaialibaba.rag.sparse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springaialibaba.core.rag.sparse.Bm25Index;
+import com.example.springaialibaba.core.rag.sparse.Bm25Tokenizer;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class Bm25IndexTest {
+
+    private Bm25Index index;
+
+    @BeforeEach
+    void setUp() {
+        index = Bm25Index.builder()
+                .add(Document.builder().id("c1").text("Model-Y 的家用充电桩安装说明").metadata(Map.of("title", "充电")).build())
+                .add(Document.builder().id("c2").text("Model 3 座椅加热功能介绍").build())
+                .add(Document.builder().id("c3").text("退货流程与售后服务政策").build())
+                .build();
+    }
+
+    @Test
+    void shouldTokenizeChineseAsBigramsAndKeepCompoundWords() {
+        assertThat(Bm25Tokenizer.tokenize("Model-Y 充电桩"))
+                .containsExactly("model-y", "model", "y", "充电", "电桩");
+        assertThat(Bm25Tokenizer.tokenize("版本 3.5")).containsExactly("版本", "3.5", "3", "5");
+    }
+
+    @Test
+    void shouldRankExactProductModelMatchFirst() {
+        List<Document> results = index.search("model-y 充电", 2);
+
+        assertThat(results).isNotEmpty();
+        assertThat(results.get(0).getId()).isEqualTo("c1");
+        assertThat(results.get(0).getMetadata()).containsEntry("title", "充电")
+                .containsKey(Bm25Index.SCORE_METADATA_KEY);
+        assertThat(results.get(0).getScore()).isPositive();
+    }
+
+    @Test
+    void shouldLimitResultsToTopKAndIgnoreUnknownTerms() {
+        assertThat(index.search("model", 1)).hasSize(1);
+        assertThat(index.search("不存在的词汇", 5)).isEmpty();
+        assertThat(Bm25Index.empty().search("model", 5)).isEmpty();
+    }
+}
@@ -2,6 +2,13 @@ package com.example.springaialibaba.rerank.siliconflow;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
@@ -9,7 +16,14 @@ import static org.springframework.test.web.client.match.MockRestRequestMatchers.
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.example.springaialibaba.config.properties.SiliconFlowRerankProperties;
 import com.example.springaialibaba.core.client.RerankClient;
@@ -22,9 +36,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
+import com.example.springaialibaba.model.dto.SiliconFlowRerankResponse;
 import com.example.springaialibaba.model.entity.RerankedDocument;
 
 /**
@@ -115,4 +131,94 @@ class RerankClientTest {
             .extracting("statusCode")
             .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    @Test
+    void testRepeatedRerankServedFromCache() {
+        server.expect(once(), requestTo(API_URL))
+            .andRespond(withSuccess("{\"results\":[{\"index\":1,\"relevance_score\":0.8}]}",
+                MediaType.APPLICATION_JSON));
+
+        List<RerankedDocument> first = client.rerank("apple", List.of("doc0", "doc1"));
+        List<RerankedDocument> second = client.rerank("apple", List.of("doc0", "doc1"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.get(0).getContent()).isEqualTo("doc1");
+    }
+
+    @Test
+    void testFailedRerankIsNotCached() {
+        server.expect(times(2), requestTo(API_URL))
+            .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+        assertThatThrownBy(() -> client.rerank("apple", List.of("doc0")))
+            .isInstanceOf(SiliconFlowRerankException.class);
+        assertThatThrownBy(() -> client.rerank("apple", List.of("doc0")))
+            .isInstanceOf(SiliconFlowRerankException.class);
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsShareOneCall() throws Exception {
+        RestTemplate blockingTemplate = mock(RestTemplate.class);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        SiliconFlowRerankResponse.Result result = new SiliconFlowRerankResponse.Result();
+        result.setIndex(0);
+        result.setRelevanceScore(0.9);
+        SiliconFlowRerankResponse body = new SiliconFlowRerankResponse();
+        body.setResults(List.of(result));
+        when(blockingTemplate.postForEntity(anyString(), any(), eq(SiliconFlowRerankResponse.class)))
+            .thenAnswer(invocation -> {
+                calls.incrementAndGet();
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok(body);
+            });
+        RerankClient coalescingClient = new RerankClient(blockingTemplate, properties);
+
+        CompletableFuture<List<RerankedDocument>> first =
+            CompletableFuture.supplyAsync(() -> coalescingClient.rerank("apple", List.of("doc0")));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<List<RerankedDocument>> second =
+            CompletableFuture.supplyAsync(() -> coalescingClient.rerank("apple", List.of("doc0")));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).hasSize(1);
+        assertThat(second.get(5, TimeUnit.SECONDS)).hasSize(1);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testRerankAsyncCompletesWithResults() throws Exception {
+        server.expect(once(), requestTo(API_URL))
+            .andRespond(withSuccess("{\"results\":[{\"index\":0,\"relevance_score\":0.7}]}",
+                MediaType.APPLICATION_JSON));
+
+        List<RerankedDocument> results = client.rerankAsync("banana", List.of("doc0")).get(5, TimeUnit.SECONDS);
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getRelevanceScore()).isEqualTo(0.7);
+    }
+
+    @Test
+    void testRerankAsyncTimesOutAfterTotalTimeout() {
+        RestTemplate slowTemplate = mock(RestTemplate.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(slowTemplate.postForEntity(anyString(), any(), eq(SiliconFlowRerankResponse.class)))
+            .thenAnswer(invocation -> {
+                release.await(5, TimeUnit.SECONDS);
+                return ResponseEntity.ok(new SiliconFlowRerankResponse());
+            });
+        properties.getHttp().setTotalTimeout(Duration.ofMillis(100));
+        RerankClient slowClient = new RerankClient(slowTemplate, properties);
+
+        try {
+            assertThatThrownBy(() -> slowClient.rerankAsync("apple", List.of("doc0")).get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        }
+        finally {
+            release.countDown();
+        }
+    }
 }
@@ -7,6 +7,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.example.springaialibaba.core.rag.RetrievalService;
 import org.junit.jupiter.api.BeforeEach;
@@ -50,10 +51,10 @@ class RetrievalServiceTest {
     void shouldReorderDocumentsBasedOnRerankResults() {
         List<Document> documents = List.of(new Document("doc-0"), new Document("doc-1"), new Document("doc-2"));
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(documents);
-        when(rerankClient.rerank(eq(QUERY), any()))
-                .thenReturn(List.of(new RerankedDocument(2, "doc-2", 0.9),
+        when(rerankClient.rerankAsync(eq(QUERY), any()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(new RerankedDocument(2, "doc-2", 0.9),
                         new RerankedDocument(0, "doc-0", 0.5),
-                        new RerankedDocument(1, "doc-1", 0.1)));
+                        new RerankedDocument(1, "doc-1", 0.1))));
 
         List<Document> reranked = retrievalService.retrieveAndRerank(QUERY, 2);
 
@@ -63,7 +64,7 @@ class RetrievalServiceTest {
 
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<String>> documentsCaptor = ArgumentCaptor.forClass(List.class);
-        verify(rerankClient).rerank(eq(QUERY), documentsCaptor.capture());
+        verify(rerankClient).rerankAsync(eq(QUERY), documentsCaptor.capture());
         assertThat(documentsCaptor.getValue()).containsExactly("doc-0", "doc-1", "doc-2");
     }
 
@@ -74,7 +75,8 @@ class RetrievalServiceTest {
     void shouldFallbackToVectorResultsWhenRerankFails() {
         List<Document> documents = List.of(new Document("doc-0"), new Document("doc-1"), new Document("doc-2"));
         when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(documents);
-        when(rerankClient.rerank(eq(QUERY), any())).thenThrow(new RuntimeException("Rerank failed"));
+        when(rerankClient.rerankAsync(eq(QUERY), any()))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Rerank failed")));
 
         List<Document> fallback = retrievalService.retrieveAndRerank(QUERY, 2);
 
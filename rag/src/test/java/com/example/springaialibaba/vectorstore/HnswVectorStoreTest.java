@@ -0,0 +1,113 @@
+package com.example.springaialibaba.vectorstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.core.vectorstore.HnswVectorStore;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+class HnswVectorStoreTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void shouldMatchExactSearchOnRandomVectors() {
+        Random random = new Random(7);
+        HnswVectorStore store = new HnswVectorStore(null, DIMENSIONS);
+        List<float[]> vectors = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            float[] vector = randomVector(random);
+            vectors.add(vector);
+            store.upsert("doc-" + i, "text-" + i, Map.of("bucket", i % 4), vector);
+        }
+
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            List<String> expected = exactTopK(vectors, query, 10);
+            List<Document> results = store.similaritySearch(query, 10, -1.0, null);
+            found += (int) results.stream().map(Document::getId).filter(expected::contains).count();
+        }
+
+        assertThat(found / (double) (queries * 10)).isGreaterThan(0.9);
+    }
+
+    @Test
+    void shouldApplyFilterThresholdAndDeletes() {
+        HnswVectorStore store = new HnswVectorStore(null, 2);
+        store.upsert("a", "alpha", Map.of("channel", "web", "page", 1), new float[] {1f, 0f});
+        store.upsert("b", "beta", Map.of("channel", "app", "page", 2), new float[] {0.9f, 0.1f});
+        store.upsert("c", "gamma", Map.of("channel", "app", "page", 3), new float[] {0f, 1f});
+
+        List<Document> filtered = store.similaritySearch(new float[] {1f, 0f}, 5, -1.0,
+                new FilterExpressionBuilder().eq("channel", "app").build());
+        assertThat(filtered).extracting(Document::getId).containsExactly("b", "c");
+
+        List<Document> thresholded = store.similaritySearch(new float[] {1f, 0f}, 5, 0.5, null);
+        assertThat(thresholded).extracting(Document::getId).containsExactly("a", "b");
+        assertThat(thresholded.get(0).getScore()).isCloseTo(1.0, within(1e-6));
+        assertThat(thresholded.get(0).getMetadata()).containsKey(HnswVectorStore.DISTANCE_METADATA_KEY);
+
+        store.delete(List.of("a"));
+        store.delete(new FilterExpressionBuilder().gte("page", 3).build());
+        assertThat(store.similaritySearch(new float[] {1f, 0f}, 5, -1.0, null))
+                .extracting(Document::getId).containsExactly("b");
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEmbedDocumentsAndQueriesThroughEmbeddingModel() {
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(List.of("充电桩安装", "退货流程")))
+                .thenReturn(List.of(new float[] {1f, 0f}, new float[] {0f, 1f}));
+        when(embeddingModel.embed("怎么安装充电桩")).thenReturn(new float[] {0.8f, 0.2f});
+        HnswVectorStore store = new HnswVectorStore(embeddingModel, 2);
+
+        store.add(List.of(new Document("d1", "充电桩安装", Map.of()), new Document("d2", "退货流程", Map.of())));
+        List<Document> results = store.similaritySearch(SearchRequest.builder().query("怎么安装充电桩").topK(1).build());
+
+        assertThat(results).extracting(Document::getId).containsExactly("d1");
+    }
+
+    private float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private List<String> exactTopK(List<float[]> vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.size())
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> cosine(vectors.get(i), query)).reversed())
+                .limit(k)
+                .map(i -> "doc-" + i)
+                .toList();
+    }
+
+    private double cosine(float[] left, float[] right) {
+        double dot = 0;
+        double leftNorm = 0;
+        double rightNorm = 0;
+        for (int i = 0; i < left.length; i++) {
+            dot += left[i] * right[i];
+            leftNorm += left[i] * left[i];
+            rightNorm += right[i] * right[i];
+        }
+        return dot / Math.sqrt(leftNorm * rightNorm);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.springaialibaba.vectorstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.springaialibaba.core.vectorstore.QuantizedPgVectorStore;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class QuantizedPgVectorStoreTest {
+
+    private final VectorStore delegate = mock(VectorStore.class);
+
+    private final EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final List<String> executedSql = new ArrayList<>();
+
+    private final List<Object[]> executedArgs = new ArrayList<>();
+
+    @Test
+    void shouldShortlistOnBinaryIndexAndRescoreWithFullPrecision() throws Exception {
+        stubQuery(0.1d);
+        when(embeddingModel.embed("充电桩安装")).thenReturn(new float[] {1f, 0f, 0f});
+        QuantizedPgVectorStore store = new QuantizedPgVectorStore(delegate, embeddingModel, jdbcTemplate,
+                "rag_chunks", 3, QuantizedPgVectorStore.Mode.BINARY, 8);
+
+        List<Document> results = store.similaritySearch(SearchRequest.builder()
+                .query("充电桩安装")
+                .topK(5)
+                .similarityThreshold(0.3)
+                .build());
+
+        assertThat(results).singleElement().satisfies(document -> {
+            assertThat(document.getId()).isEqualTo("chunk-1");
+            assertThat(document.getScore()).isCloseTo(0.9d, within(1e-9));
+            assertThat(document.getMetadata()).containsEntry("channel", "app").containsEntry("distance", 0.1d);
+        });
+        String sql = executedSql.get(0);
+        assertThat(sql).contains("binary_quantize(embedding)::bit(3) <~> binary_quantize(?::vector)")
+                .contains("embedding <=> ?::vector AS distance")
+                .doesNotContain("WHERE metadata");
+        Object[] args = executedArgs.get(0);
+        // 参数依次为：重排向量、召回向量、候选数、最大距离、topK
+        assertThat(args[2]).isEqualTo(40);
+        assertThat((Double) args[3]).isCloseTo(0.7d, within(1e-9));
+        assertThat(args[4]).isEqualTo(5);
+    }
+
+    @Test
+    void shouldUseHalfvecIndexAndTranslateFilter() throws Exception {
+        stubQuery(0.2d);
+        QuantizedPgVectorStore store = new QuantizedPgVectorStore(delegate, embeddingModel, jdbcTemplate,
+                "rag_chunks", 3, QuantizedPgVectorStore.Mode.HALFVEC, 2);
+
+        store.similaritySearch(new float[] {0f, 1f, 0f}, 4, 0.0d,
+                new FilterExpressionBuilder().eq("channel", "app").build());
+
+        assertThat(executedSql.get(0))
+                .contains("embedding::halfvec(3) <=> ?::halfvec(3)")
+                .contains("WHERE metadata::jsonb @@ '$.channel == \"app\"'::jsonpath");
+        assertThat(executedArgs.get(0)[2]).isEqualTo(8);
+    }
+
+    @Test
+    void shouldDelegateWritesToUnderlyingStore() {
+        QuantizedPgVectorStore store = new QuantizedPgVectorStore(delegate, embeddingModel, jdbcTemplate,
+                "rag_chunks", 3, QuantizedPgVectorStore.Mode.BINARY, 8);
+        List<Document> documents = List.of(new Document("d1", "充电桩安装", Map.of()));
+
+        store.add(documents);
+        store.delete(List.of("d1"));
+
+        verify(delegate).add(documents);
+        verify(delegate).delete(List.of("d1"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubQuery(double distance) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString(1)).thenReturn("chunk-1");
+        when(resultSet.getString(2)).thenReturn("使用官方充电桩");
+        when(resultSet.getString(3)).thenReturn("{\"channel\":\"app\"}");
+        when(resultSet.getDouble(4)).thenReturn(distance);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    executedSql.add(invocation.getArgument(0));
+                    Object[] arguments = invocation.getArguments();
+                    Object[] parameters = new Object[arguments.length - 2];
+                    System.arraycopy(arguments, 2, parameters, 0, parameters.length);
+                    executedArgs.add(parameters);
+                    RowMapper<Document> mapper = invocation.getArgument(1);
+                    return List.of(mapper.mapRow(resultSet, 0));
+                });
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.springaialibaba.vectorstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.springaialibaba.core.vectorstore.QuantizedPgVectorStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * 在 {@code rag_chunks} 的真实向量上对比量化两阶段检索的召回率与延迟。
+ *
+ * <p>会在测试库上创建 halfvec / bit 表达式索引，默认不执行；通过
+ * {@code mvn test -Dtest=QuantizedVectorSearchBenchmarkTest -Drag.benchmark=true} 运行，结果输出到日志。</p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "rag.benchmark", matches = "true")
+class QuantizedVectorSearchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(QuantizedVectorSearchBenchmarkTest.class);
+
+    private static final int TOP_K = 10;
+
+    private static final int QUERIES = 100;
+
+    private static final int[] OVERSAMPLES = {1, 2, 4, 8, 16};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private VectorStore vectorStore;
+
+    @Autowired
+    private EmbeddingModel embeddingModel;
+
+    @Value("${spring.ai.vectorstore.pgvector.dimensions:1536}")
+    private int dimensions;
+
+    @Test
+    void reportRecallAndLatencyPerQuantizationMode() {
+        List<String> ids = new ArrayList<>();
+        List<float[]> vectors = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, embedding::text FROM rag_chunks WHERE id IS NOT NULL AND embedding IS NOT NULL",
+                rs -> {
+                    ids.add(rs.getString(1));
+                    vectors.add(parseVector(rs.getString(2)));
+                });
+        assertThat(vectors).as("rag_chunks 中需要有已向量化的分片").hasSizeGreaterThan(TOP_K);
+
+        // 查询取两条随机分片向量的中点，避免查询向量与某条记录完全重合
+        Random random = new Random(42);
+        List<float[]> queries = new ArrayList<>();
+        List<Set<String>> expected = new ArrayList<>();
+        for (int q = 0; q < QUERIES; q++) {
+            float[] left = vectors.get(random.nextInt(vectors.size()));
+            float[] right = vectors.get(random.nextInt(vectors.size()));
+            float[] query = new float[dimensions];
+            for (int i = 0; i < dimensions; i++) {
+                query[i] = (left[i] + right[i]) / 2;
+            }
+            queries.add(query);
+            expected.add(exactTopK(ids, vectors, query));
+        }
+
+        log.info("量化检索基准：文档数={}，查询数={}，topK={}", vectors.size(), QUERIES, TOP_K);
+        log.info(String.format("%-8s %8s %10s %10s %10s %12s", "mode", "oversamp", "recall@10", "avg(ms)",
+                "p95(ms)", "bytes/vec"));
+        for (QuantizedPgVectorStore.Mode mode : QuantizedPgVectorStore.Mode.values()) {
+            QuantizedPgVectorStore store = new QuantizedPgVectorStore(vectorStore, embeddingModel, jdbcTemplate,
+                    "rag_chunks", dimensions, mode, 1);
+            store.createIndexIfNecessary();
+            int bytesPerVector = mode == QuantizedPgVectorStore.Mode.HALFVEC ? dimensions * 2 : dimensions / 8;
+            for (int oversample : OVERSAMPLES) {
+                long[] latencies = new long[QUERIES];
+                int hits = 0;
+                for (int q = 0; q < QUERIES; q++) {
+                    long startedAt = System.nanoTime();
+                    List<Document> results = store.similaritySearch(queries.get(q), TOP_K, -1.0d, null, oversample);
+                    latencies[q] = System.nanoTime() - startedAt;
+                    for (Document document : results) {
+                        if (expected.get(q).contains(document.getId())) {
+                            hits++;
+                        }
+                    }
+                }
+                Arrays.sort(latencies);
+                log.info(String.format("%-8s %8d %10.3f %10.2f %10.2f %12d", mode, oversample,
+                        (double) hits / (QUERIES * TOP_K), Arrays.stream(latencies).average().orElse(0) / 1e6,
+                        latencies[(int) (QUERIES * 0.95) - 1] / 1e6, bytesPerVector));
+            }
+        }
+        log.info("全精度向量 bytes/vec={}", dimensions * 4);
+    }
+
+    private Set<String> exactTopK(List<String> ids, List<float[]> vectors, float[] query) {
+        return IntStream.range(0, vectors.size())
+                .boxed()
+                .sorted(Comparator.comparingDouble(i -> -cosine(vectors.get(i), query)))
+                .limit(TOP_K)
+                .map(ids::get)
+                .collect(HashSet::new, Set::add, Set::addAll);
+    }
+
+    private static double cosine(float[] left, float[] right) {
+        double dot = 0;
+        double leftNorm = 0;
+        double rightNorm = 0;
+        for (int i = 0; i < left.length; i++) {
+            dot += left[i] * right[i];
+            leftNorm += left[i] * left[i];
+            rightNorm += right[i] * right[i];
+        }
+        return dot / Math.sqrt(leftNorm * rightNorm);
+    }
+
+    private static float[] parseVector(String text) {
+        String[] parts = text.substring(1, text.length() - 1).split(",");
+        float[] vector = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            vector[i] = Float.parseFloat(parts[i]);
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.springai.config;
+
+import java.time.Duration;
+
+import org.springframework.ai.openai.OpenAiEmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * 在自动配置的 OpenAI 兼容嵌入模型前增加跨请求微批合并。
+ *
+ * <p>声明为 {@link Primary}，pgvector {@code VectorStore} 及其他按类型注入 {@code EmbeddingModel} 的组件都会使用它。
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.embedding.batching.enabled", havingValue = "true", matchIfMissing = true)
+public class EmbeddingBatchingConfig {
+
+    @Bean
+    @Primary
+    public MicroBatchingEmbeddingModel microBatchingEmbeddingModel(
+            OpenAiEmbeddingModel openAiEmbeddingModel,
+            @Value("${app.embedding.batching.max-batch-size:32}") int maxBatchSize,
+            @Value("${app.embedding.batching.max-linger:5ms}") Duration maxLinger,
+            @Value("${app.embedding.batching.queue-capacity:1024}") int queueCapacity,
+            @Value("${app.embedding.batching.max-concurrent-batches:4}") int maxConcurrentBatches,
+            @Value("${app.embedding.batching.call-timeout:30s}") Duration callTimeout) {
+        return new MicroBatchingEmbeddingModel(openAiEmbeddingModel, maxBatchSize, maxLinger, queueCapacity,
+                maxConcurrentBatches, callTimeout);
+    }
+}
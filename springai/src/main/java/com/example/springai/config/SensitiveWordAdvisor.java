@@ -2,35 +2,47 @@ package com.example.springai.config;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
 import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 
 /**
  * 敏感词过滤 Advisor
+ * <p>
+ * 敏感词编译为 {@link SensitiveWordMatcher} 自动机，单次扫描即可检测全部词条；
+ * 流式调用逐分片增量扫描，命中后立即以拒绝文本结束流。
+ * </p>
  */
 @Slf4j
 public class SensitiveWordAdvisor implements BaseAdvisor {
     private static final String SENSITIVE_REPLY = "我暂时无法回答这个问题";
-    private static final Set<String> DEFAULT_SENSITIVE_WORDS = Set.of(
-            "暴力", "色情", "赌博", "毒品", "恐怖", "政治敏感", "hack", "破解"
-    );
 
-    private final Set<String> sensitiveWords;
+    private final Supplier<SensitiveWordMatcher> matcher;
 
     public SensitiveWordAdvisor() {
-        this(DEFAULT_SENSITIVE_WORDS);
+        this(SensitiveWordDictionary.DEFAULT_SENSITIVE_WORDS);
     }
 
     public SensitiveWordAdvisor(Set<String> sensitiveWords) {
-        this.sensitiveWords = sensitiveWords;
+        SensitiveWordMatcher compiled = SensitiveWordMatcher.compile(sensitiveWords);
+        this.matcher = () -> compiled;
+    }
+
+    /**
+     * 使用共享词典，词典热加载后新的请求自动使用新词表。
+     */
+    public SensitiveWordAdvisor(SensitiveWordDictionary dictionary) {
+        this.matcher = dictionary::current;
     }
 
     @Override
@@ -58,18 +70,32 @@ public class SensitiveWordAdvisor implements BaseAdvisor {
         return response;
     }
 
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        SensitiveWordMatcher current = matcher.get();
+        boolean blocked = request.prompt().getInstructions().stream()
+                .anyMatch(msg -> containsSensitiveWord(current, msg.getText()));
+        if (blocked) {
+            return Flux.just(SensitiveWordStreamFilter.refusal(request.context(), SENSITIVE_REPLY));
+        }
+        return SensitiveWordStreamFilter.filter(chain.nextStream(request), current, SENSITIVE_REPLY);
+    }
+
     @Override
     public int getOrder() {
         return 0;
     }
 
     private boolean containsSensitiveWord(String text) {
-        log.info("开始检测敏感词: {}", text);
-        if (text == null || text.isBlank()) {
-            return false;
+        return containsSensitiveWord(matcher.get(), text);
+    }
+
+    private static boolean containsSensitiveWord(SensitiveWordMatcher matcher, String text) {
+        boolean hit = matcher.containsAny(text);
+        if (hit) {
+            log.debug("命中敏感词，文本长度={}", text.length());
         }
-        String lower = text.toLowerCase();
-        return sensitiveWords.stream().anyMatch(word -> lower.contains(word.toLowerCase()));
+        return hit;
     }
 
     /**
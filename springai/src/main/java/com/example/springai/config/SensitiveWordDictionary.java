@@ -0,0 +1,102 @@
+package com.example.springai.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 共享的敏感词词典，编译为 {@link SensitiveWordMatcher} 供各敏感词 Advisor 使用。
+ *
+ * <p>词典文件由 {@code app.sensitive-words.location} 指定，每行一个词，{@code #} 开头为注释；
+ * 未配置时使用内置的默认词表。文件修改时间变化后按 {@code app.sensitive-words.refresh-interval}
+ * 重新编译并原子替换，读取失败时继续使用旧词典。</p>
+ */
+@Slf4j
+@Component
+public class SensitiveWordDictionary {
+
+    /** 默认内置敏感词集合 */
+    static final Set<String> DEFAULT_SENSITIVE_WORDS = Set.of(
+            "暴力", "色情", "赌博", "毒品", "恐怖", "政治敏感", "hack", "破解"
+    );
+
+    private final Resource resource;
+
+    private volatile SensitiveWordMatcher matcher;
+
+    private volatile long lastModified;
+
+    public SensitiveWordDictionary(ResourceLoader resourceLoader,
+                                   @Value("${app.sensitive-words.location:}") String location) {
+        if (!StringUtils.hasText(location)) {
+            this.resource = null;
+            this.matcher = SensitiveWordMatcher.compile(DEFAULT_SENSITIVE_WORDS);
+            return;
+        }
+        this.resource = resourceLoader.getResource(location.trim());
+        if (!resource.exists()) {
+            throw new IllegalStateException("敏感词词典不存在: " + location);
+        }
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new IllegalStateException("读取敏感词词典失败: " + location, e);
+        }
+    }
+
+    /**
+     * 当前生效的匹配器。
+     */
+    public SensitiveWordMatcher current() {
+        return matcher;
+    }
+
+    /**
+     * 词典文件修改时间变化时重新加载。
+     */
+    @Scheduled(fixedDelayString = "${app.sensitive-words.refresh-interval:1m}",
+            initialDelayString = "${app.sensitive-words.refresh-interval:1m}")
+    public void reloadIfChanged() {
+        if (resource == null) {
+            return;
+        }
+        try {
+            if (resource.lastModified() != lastModified) {
+                reload();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("重新加载敏感词词典失败，继续使用旧词典: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void reload() throws IOException {
+        long modified = resource.lastModified();
+        Set<String> words = new LinkedHashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String word = line.replace("\uFEFF", "").trim();
+                if (!word.isEmpty() && !word.startsWith("#")) {
+                    words.add(word);
+                }
+            }
+        }
+        SensitiveWordMatcher compiled = SensitiveWordMatcher.compile(words);
+        matcher = compiled;
+        lastModified = modified;
+        log.info("敏感词词典加载完成，词数={}", compiled.size());
+    }
+}
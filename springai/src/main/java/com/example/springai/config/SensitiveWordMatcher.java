@@ -0,0 +1,246 @@
+package com.example.springai.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的敏感词匹配器（Aho-Corasick 自动机，忽略大小写）。
+ *
+ * <p>所有敏感词在构造时编译为一棵带失败指针的字典树，转移表按字符排序压缩存放。
+ * 检测一段文本只需从头到尾走一遍自动机，耗时与文本长度成正比，与敏感词数量无关。</p>
+ *
+ * <p>实例不可变、线程安全。流式输出使用 {@link #newScanner()} 得到有状态的 {@link Scanner}，
+ * 自动机状态跨分片保留，敏感词被拆在两个分片之间也能识别。</p>
+ */
+public final class SensitiveWordMatcher {
+
+    private final char[] edgeChars;
+
+    private final int[] edgeTargets;
+
+    /**
+     * 节点 i 的出边位于 {@code edgeChars[edgeOffsets[i] .. edgeOffsets[i + 1])}，按字符升序排列。
+     */
+    private final int[] edgeOffsets;
+
+    private final int[] fail;
+
+    /**
+     * 节点自身或其失败链上是否有敏感词结尾。
+     */
+    private final boolean[] accepting;
+
+    /**
+     * 节点深度，即当前已匹配的敏感词前缀长度。
+     */
+    private final int[] depth;
+
+    private final int size;
+
+    private SensitiveWordMatcher(Collection<String> words) {
+        Map<Long, Integer> edges = new HashMap<>();
+        List<List<Long>> children = new ArrayList<>();
+        List<Boolean> terminals = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        children.add(new ArrayList<>(2));
+        terminals.add(false);
+        depths.add(0);
+        int count = 0;
+        for (String word : words) {
+            if (word == null || word.isBlank()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < word.length(); i++) {
+                char c = Character.toLowerCase(word.charAt(i));
+                long key = ((long) node << 16) | c;
+                Integer next = edges.get(key);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new ArrayList<>(2));
+                    terminals.add(false);
+                    depths.add(depths.get(node) + 1);
+                    edges.put(key, next);
+                    children.get(node).add(((long) c << 32) | next);
+                }
+                node = next;
+            }
+            if (!terminals.get(node)) {
+                terminals.set(node, true);
+                count++;
+            }
+        }
+        this.size = count;
+
+        int nodes = children.size();
+        edgeOffsets = new int[nodes + 1];
+        edgeChars = new char[nodes - 1];
+        edgeTargets = new int[nodes - 1];
+        accepting = new boolean[nodes];
+        depth = new int[nodes];
+        int position = 0;
+        for (int node = 0; node < nodes; node++) {
+            edgeOffsets[node] = position;
+            accepting[node] = terminals.get(node);
+            depth[node] = depths.get(node);
+            long[] sorted = children.get(node).stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            for (long edge : sorted) {
+                edgeChars[position] = (char) (edge >>> 32);
+                edgeTargets[position++] = (int) edge;
+            }
+        }
+        edgeOffsets[nodes] = position;
+
+        fail = new int[nodes];
+        int[] queue = new int[nodes];
+        int head = 0;
+        int tail = 0;
+        for (int e = edgeOffsets[0]; e < edgeOffsets[1]; e++) {
+            queue[tail++] = edgeTargets[e];
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = edgeOffsets[node]; e < edgeOffsets[node + 1]; e++) {
+                int child = edgeTargets[e];
+                int f = fail[node];
+                int target = child(f, edgeChars[e]);
+                while (target < 0 && f != 0) {
+                    f = fail[f];
+                    target = child(f, edgeChars[e]);
+                }
+                fail[child] = target >= 0 ? target : 0;
+                accepting[child] |= accepting[fail[child]];
+                queue[tail++] = child;
+            }
+        }
+    }
+
+    /**
+     * 编译敏感词集合，空白词被忽略。
+     */
+    public static SensitiveWordMatcher compile(Collection<String> words) {
+        return new SensitiveWordMatcher(words != null ? words : List.of());
+    }
+
+    /**
+     * 敏感词数量（去重后）。
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 文本中是否出现任一敏感词。
+     */
+    public boolean containsAny(String text) {
+        if (text == null || text.isEmpty() || size == 0) {
+            return false;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, Character.toLowerCase(text.charAt(i)));
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 创建用于一次流式响应的增量扫描器。
+     */
+    public Scanner newScanner() {
+        return new Scanner();
+    }
+
+    private int step(int state, char c) {
+        int next = child(state, c);
+        while (next < 0 && state != 0) {
+            state = fail[state];
+            next = child(state, c);
+        }
+        return next >= 0 ? next : 0;
+    }
+
+    private int child(int node, char c) {
+        int low = edgeOffsets[node];
+        int high = edgeOffsets[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            }
+            else if (midChar > c) {
+                high = mid - 1;
+            }
+            else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 流式输出的增量扫描器，非线程安全，每个响应流使用一个实例。
+     *
+     * <p>末尾可能是某个敏感词前缀的字符会暂时扣留，等后续分片确认不构成敏感词后再放行，
+     * 因此敏感词的前半截不会先于命中判断被发送给客户端。</p>
+     */
+    public final class Scanner {
+
+        private final StringBuilder pending = new StringBuilder();
+
+        private int state;
+
+        private boolean matched;
+
+        private Scanner() {
+        }
+
+        /**
+         * 扫描一个分片。
+         *
+         * @return 可以安全放行的文本（可能为空字符串）；分片内有敏感词完成匹配时返回 {@code null}
+         */
+        public String accept(String chunk) {
+            if (matched) {
+                return null;
+            }
+            if (chunk == null || chunk.isEmpty()) {
+                return "";
+            }
+            for (int i = 0; i < chunk.length(); i++) {
+                state = step(state, Character.toLowerCase(chunk.charAt(i)));
+                if (accepting[state]) {
+                    matched = true;
+                    pending.setLength(0);
+                    return null;
+                }
+            }
+            pending.append(chunk);
+            int held = Math.min(depth[state], pending.length());
+            String released = pending.substring(0, pending.length() - held);
+            pending.delete(0, pending.length() - held);
+            return released;
+        }
+
+        /**
+         * 流结束时放行扣留的文本；已命中敏感词时返回空字符串。
+         */
+        public String flush() {
+            String rest = matched ? "" : pending.toString();
+            pending.setLength(0);
+            return rest;
+        }
+
+        public boolean isMatched() {
+            return matched;
+        }
+    }
+}
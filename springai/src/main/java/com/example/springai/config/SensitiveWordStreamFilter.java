@@ -0,0 +1,91 @@
+package com.example.springai.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * 敏感词 Advisor 共用的流式过滤逻辑。
+ *
+ * <p>每个响应流使用一个 {@link SensitiveWordMatcher.Scanner} 逐分片扫描：可能是敏感词前缀的尾部字符暂时扣留，
+ * 一旦有敏感词完成匹配，立即发出拒绝文本并结束流，同时取消上游的模型调用。
+ * 没有文本的分片（工具调用、结束元数据等）原样透传。</p>
+ */
+final class SensitiveWordStreamFilter {
+
+    private SensitiveWordStreamFilter() {
+    }
+
+    static Flux<ChatClientResponse> filter(Flux<ChatClientResponse> upstream, SensitiveWordMatcher matcher,
+                                           String reply) {
+        return Flux.defer(() -> {
+            SensitiveWordMatcher.Scanner scanner = matcher.newScanner();
+            AtomicReference<ChatClientResponse> lastTextResponse = new AtomicReference<>();
+            return upstream
+                    .<ChatClientResponse>handle((response, sink) -> {
+                        String text = textOf(response);
+                        if (text == null || text.isEmpty()) {
+                            sink.next(response);
+                            return;
+                        }
+                        lastTextResponse.set(response);
+                        String released = scanner.accept(text);
+                        if (released == null) {
+                            // 结束下游并取消上游，模型不再继续生成
+                            sink.next(withText(response, reply));
+                            sink.complete();
+                            return;
+                        }
+                        if (!released.isEmpty()) {
+                            sink.next(withText(response, released));
+                        }
+                    })
+                    .concatWith(Flux.defer(() -> {
+                        String rest = scanner.flush();
+                        ChatClientResponse last = lastTextResponse.get();
+                        return rest.isEmpty() || last == null ? Flux.empty() : Flux.just(withText(last, rest));
+                    }));
+        });
+    }
+
+    /**
+     * 不调用模型、直接返回拒绝文本的单个响应。
+     */
+    static ChatClientResponse refusal(Map<String, Object> context, String reply) {
+        ChatResponse chatResponse = ChatResponse.builder()
+                .generations(List.of(new Generation(new AssistantMessage(reply))))
+                .build();
+        return ChatClientResponse.builder()
+                .chatResponse(chatResponse)
+                .context(context)
+                .build();
+    }
+
+    private static String textOf(ChatClientResponse response) {
+        ChatResponse chatResponse = response.chatResponse();
+        if (chatResponse == null || chatResponse.getResult() == null || chatResponse.getResult().getOutput() == null) {
+            return null;
+        }
+        return chatResponse.getResult().getOutput().getText();
+    }
+
+    private static ChatClientResponse withText(ChatClientResponse original, String text) {
+        Generation generation = original.chatResponse().getResult();
+        Generation replaced = new Generation(new AssistantMessage(text), generation.getMetadata());
+        ChatResponse chatResponse = ChatResponse.builder()
+                .from(original.chatResponse())
+                .generations(List.of(replaced))
+                .build();
+        return ChatClientResponse.builder()
+                .chatResponse(chatResponse)
+                .context(original.context())
+                .build();
+    }
+}
@@ -2,16 +2,19 @@ package com.example.springai.config;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.springframework.ai.chat.client.ChatClientRequest;
 import org.springframework.ai.chat.client.ChatClientResponse;
 import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
 import org.springframework.ai.chat.client.advisor.api.BaseChatMemoryAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.model.Generation;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 
 /**
  * 敏感词过滤 Advisor。
@@ -22,7 +25,9 @@ import lombok.extern.slf4j.Slf4j;
  *   <li>{@link #before}：若用户输入包含敏感词，抛出 {@link SensitiveWordException}
  *       短路后续 Advisor 链，不再调用模型。</li>
  *   <li>{@link #after}：若模型输出包含敏感词，将回复内容替换为拒绝文本后返回。</li>
+ *   <li>{@link #adviseStream}：流式输出逐分片增量扫描，命中后以拒绝文本结束流并取消模型调用。</li>
  * </ul>
+ * <p>敏感词编译为 {@link SensitiveWordMatcher} 自动机，与 {@link SensitiveWordAdvisor} 共用匹配逻辑。
  */
 @Slf4j
 public class ToolAwareChatMemoryAdvisor implements BaseChatMemoryAdvisor {
@@ -30,23 +35,24 @@ public class ToolAwareChatMemoryAdvisor implements BaseChatMemoryAdvisor {
     /** 敏感词命中后的统一回复文本 */
     private static final String SENSITIVE_REPLY = "我暂时无法回答这个问题";
 
-    /** 默认内置敏感词集合（可通过构造函数自定义） */
-    private static final Set<String> DEFAULT_SENSITIVE_WORDS = Set.of(
-            "暴力", "色情", "赌博", "毒品", "恐怖", "政治敏感", "hack", "破解"
-    );
-
-    private final Set<String> sensitiveWords;
+    private final Supplier<SensitiveWordMatcher> matcher;
 
     // ─────────────────────────────── 构造函数 ───────────────────────────────
 
     /** 使用默认敏感词列表。 */
     public ToolAwareChatMemoryAdvisor() {
-        this(DEFAULT_SENSITIVE_WORDS);
+        this(SensitiveWordDictionary.DEFAULT_SENSITIVE_WORDS);
     }
 
     /** 使用自定义敏感词列表。 */
     public ToolAwareChatMemoryAdvisor(Set<String> sensitiveWords) {
-        this.sensitiveWords = sensitiveWords;
+        SensitiveWordMatcher compiled = SensitiveWordMatcher.compile(sensitiveWords);
+        this.matcher = () -> compiled;
+    }
+
+    /** 使用共享的热加载词典。 */
+    public ToolAwareChatMemoryAdvisor(SensitiveWordDictionary dictionary) {
+        this.matcher = dictionary::current;
     }
 
     // ──────────────────── BaseChatMemoryAdvisor / BaseAdvisor ───────────────
@@ -84,6 +90,21 @@ public class ToolAwareChatMemoryAdvisor implements BaseChatMemoryAdvisor {
         return response;
     }
 
+    /**
+     * 流式调用：先检测用户输入，再对模型输出逐分片增量扫描。
+     * <p>输入命中时不调用模型，直接返回拒绝文本；输出命中时以拒绝文本结束流。
+     */
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        SensitiveWordMatcher current = matcher.get();
+        boolean blocked = request.prompt().getInstructions().stream()
+                .anyMatch(msg -> containsSensitiveWord(current, msg.getText()));
+        if (blocked) {
+            return Flux.just(SensitiveWordStreamFilter.refusal(request.context(), SENSITIVE_REPLY));
+        }
+        return SensitiveWordStreamFilter.filter(chain.nextStream(request), current, SENSITIVE_REPLY);
+    }
+
     @Override
     public int getOrder() {
         return 0;
@@ -95,12 +116,15 @@ public class ToolAwareChatMemoryAdvisor implements BaseChatMemoryAdvisor {
      * 判断文本是否包含敏感词（忽略大小写）。
      */
     private boolean containsSensitiveWord(String text) {
-        log.info("开始检测敏感词: {}", text);
-        if (text == null || text.isBlank()) {
-            return false;
+        return containsSensitiveWord(matcher.get(), text);
+    }
+
+    private static boolean containsSensitiveWord(SensitiveWordMatcher matcher, String text) {
+        boolean hit = matcher.containsAny(text);
+        if (hit) {
+            log.debug("命中敏感词，文本长度={}", text.length());
         }
-        String lower = text.toLowerCase();
-        return sensitiveWords.stream().anyMatch(word -> lower.contains(word.toLowerCase()));
+        return hit;
     }
 
     /**
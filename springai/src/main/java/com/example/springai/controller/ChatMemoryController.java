@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 
 import com.example.springai.config.SensitiveWordAdvisor;
+import com.example.springai.config.SensitiveWordDictionary;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
 import org.springframework.ai.chat.client.advisor.SimpleLoggerAdvisor;
@@ -35,15 +36,19 @@ public class ChatMemoryController {
     private ChatClient customAdvisorChatClient;
 
     @Autowired
-    public ChatMemoryController(OpenAiChatModel chatModel, ChatMemory jdbcChatMemory) {
+    public ChatMemoryController(OpenAiChatModel chatModel, ChatMemory jdbcChatMemory,
+                                SensitiveWordDictionary sensitiveWordDictionary) {
         ChatMemory chatMemory = MessageWindowChatMemory.builder()
             .chatMemoryRepository(new InMemoryChatMemoryRepository())
             .build();
         this.chatModel = chatModel;
+        // 流式接口同样经过共享词典的敏感词过滤，输出分片逐段扫描，命中即结束流
         this.chatClient = ChatClient.builder(chatModel).defaultAdvisors(
-                        List.of(new SimpleLoggerAdvisor(), MessageChatMemoryAdvisor.builder(chatMemory).build())).build();
+                        List.of(new SensitiveWordAdvisor(sensitiveWordDictionary), new SimpleLoggerAdvisor(),
+                                MessageChatMemoryAdvisor.builder(chatMemory).build())).build();
         this.longTermChatClient = ChatClient.builder(chatModel)
-                .defaultAdvisors(MessageChatMemoryAdvisor.builder(jdbcChatMemory).build(), new SimpleLoggerAdvisor())
+                .defaultAdvisors(new SensitiveWordAdvisor(sensitiveWordDictionary),
+                        MessageChatMemoryAdvisor.builder(jdbcChatMemory).build(), new SimpleLoggerAdvisor())
                 .build();
         // SensitiveWordAdvisor（order=0）排在最外层，先拦截敏感词
         this.customAdvisorChatClient = ChatClient.builder(chatModel)
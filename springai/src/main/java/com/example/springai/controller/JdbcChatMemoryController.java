@@ -1,5 +1,7 @@
 package com.example.springai.controller;
 
+import com.example.springai.config.SensitiveWordAdvisor;
+import com.example.springai.config.SensitiveWordDictionary;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
@@ -27,6 +29,9 @@ public class JdbcChatMemoryController implements InitializingBean {
     @Autowired
     private ChatMemory jdbcChatMemory;
 
+    @Autowired
+    private SensitiveWordDictionary sensitiveWordDictionary;
+
     @GetMapping("/chat")
     public Flux<String> callDb(String message, String chatId, HttpServletResponse httpServletResponse) {
         httpServletResponse.setCharacterEncoding("UTF-8");
@@ -41,7 +46,8 @@ public class JdbcChatMemoryController implements InitializingBean {
     @Override
     public void afterPropertiesSet() throws Exception {
         this.chatClient = ChatClient.builder(chatModel)
-                .defaultAdvisors(MessageChatMemoryAdvisor.builder(jdbcChatMemory).build(), new SimpleLoggerAdvisor())
+                .defaultAdvisors(new SensitiveWordAdvisor(sensitiveWordDictionary),
+                        MessageChatMemoryAdvisor.builder(jdbcChatMemory).build(), new SimpleLoggerAdvisor())
                 .build();
     }
 }
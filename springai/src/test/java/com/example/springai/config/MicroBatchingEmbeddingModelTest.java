@@ -0,0 +1,152 @@
+package com.example.springai.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+class MicroBatchingEmbeddingModelTest {
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(16);
+
+    private MicroBatchingEmbeddingModel batching;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (batching != null) {
+            batching.destroy();
+        }
+    }
+
+    @Test
+    void shouldMergeConcurrentCallsAndReturnEachCallerItsOwnVector() {
+        batching = new MicroBatchingEmbeddingModel(fake(false), 8, Duration.ofMillis(50), 100, 2, Duration.ofSeconds(5));
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<float[]>> results = IntStream.range(0, 16)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return batching.embed("问题 " + i);
+                }, callers))
+                .toList();
+
+        start.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).join()).containsExactly(vectorOf("问题 " + i));
+        }
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(16);
+        assertThat(batchSizes).allMatch(size -> size <= 8);
+        assertThat(batchSizes.size()).isLessThan(16);
+    }
+
+    @Test
+    void shouldMapResultsByEmbeddingIndexRatherThanPosition() {
+        batching = new MicroBatchingEmbeddingModel(fake(true), 8, Duration.ofMillis(50), 100, 1, Duration.ofSeconds(5));
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<float[]>> results = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return batching.embed("问题 " + i);
+                }, callers))
+                .toList();
+
+        start.countDown();
+
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).join()).containsExactly(vectorOf("问题 " + i));
+        }
+    }
+
+    @Test
+    void shouldPropagateDelegateFailureToEveryCallerInTheBatch() {
+        EmbeddingModel failing = new EmbeddingModel() {
+            @Override
+            public EmbeddingResponse call(EmbeddingRequest request) {
+                throw new IllegalStateException("嵌入服务限流");
+            }
+
+            @Override
+            public float[] embed(Document document) {
+                throw new UnsupportedOperationException();
+            }
+        };
+        batching = new MicroBatchingEmbeddingModel(failing, 8, Duration.ofMillis(1), 100, 1, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> batching.embed("问题")).isInstanceOf(IllegalStateException.class)
+                .hasMessage("嵌入服务限流");
+    }
+
+    @Test
+    void shouldSendDirectlyAfterShutdown() {
+        batching = new MicroBatchingEmbeddingModel(fake(false), 8, Duration.ofSeconds(5), 100, 1,
+                Duration.ofSeconds(5));
+        batching.destroy();
+
+        assertThat(batching.embed("问题")).containsExactly(vectorOf("问题"));
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    /**
+     * 为每条文本返回由其内容决定的向量；{@code reversed} 为 true 时按相反顺序返回结果，仅靠 index 标明对应的输入。
+     */
+    private EmbeddingModel fake(boolean reversed) {
+        return new EmbeddingModel() {
+            @Override
+            public EmbeddingResponse call(EmbeddingRequest request) {
+                List<String> texts = request.getInstructions();
+                batchSizes.add(texts.size());
+                List<Embedding> results = new ArrayList<>();
+                for (int i = 0; i < texts.size(); i++) {
+                    results.add(new Embedding(vectorOf(texts.get(i)), i));
+                }
+                if (reversed) {
+                    Collections.reverse(results);
+                }
+                return new EmbeddingResponse(results);
+            }
+
+            @Override
+            public float[] embed(Document document) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int dimensions() {
+                return 2;
+            }
+        };
+    }
+
+    private static float[] vectorOf(String text) {
+        return new float[] {text.hashCode(), text.length()};
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}